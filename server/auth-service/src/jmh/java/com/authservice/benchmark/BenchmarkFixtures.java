@@ -0,0 +1,85 @@
+package com.authservice.benchmark;
+
+import com.authservice.config.ApplicationConfig;
+import com.authservice.model.AuthProvider;
+import com.authservice.model.Role;
+import com.authservice.model.User;
+import com.authservice.repository.UserRepository;
+import com.authservice.security.JwtService;
+import com.authservice.service.AuthenticationService;
+import com.authservice.service.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+/**
+ * Wires the login path without Spring or Mongo: the user repository answers from memory,
+ * everything else (BCrypt provider, JWT signing, metrics) is the production code.
+ */
+final class BenchmarkFixtures {
+
+    static final String EMAIL = "benchmark@gethome.local";
+    static final String PASSWORD = "correct horse battery staple";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "benchmark-secret-that-is-at-least-256-bits-long");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        return jwtService;
+    }
+
+    static User user(String passwordHash) {
+        return User.builder()
+            .id("65f1c0ffee0000000000beef")
+            .name("Benchmark User")
+            .email(EMAIL)
+            .password(passwordHash)
+            .role(Role.USER)
+            .provider(AuthProvider.LOCAL)
+            .emailVerified(true)
+            .build();
+    }
+
+    /** The production {@link ApplicationConfig} at the given BCrypt strength. */
+    static ApplicationConfig applicationConfig(UserRepository userRepository, int bcryptStrength) {
+        ApplicationConfig config = new ApplicationConfig(userRepository);
+        ReflectionTestUtils.setField(config, "bcryptStrength", bcryptStrength);
+        return config;
+    }
+
+    /**
+     * {@link AuthenticationService} for one stored user whose password was hashed at
+     * {@code bcryptStrength}. The authentication manager is the {@link ProviderManager}
+     * Spring Security builds around the configured provider.
+     */
+    static AuthenticationService authenticationService(int bcryptStrength) {
+        User user = user(null);
+        UserRepository userRepository = userRepository(user);
+        ApplicationConfig config = applicationConfig(userRepository, bcryptStrength);
+        user.setPassword(config.passwordEncoder().encode(PASSWORD));
+
+        JwtService jwtService = jwtService();
+        AuthenticationService service = new AuthenticationService(userRepository, config.passwordEncoder(), jwtService,
+            new ProviderManager(config.authenticationProvider()), new EmailService(null, null, jwtService),
+            new SimpleMeterRegistry());
+        service.initializeMetrics();
+        return service;
+    }
+
+    private static UserRepository userRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+            new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "findByEmail" -> Optional.of(user).filter(u -> u.getEmail().equals(args[0]));
+                case "existsByEmail" -> user.getEmail().equals(args[0]);
+                case "count" -> 1L;
+                case "countByEmailVerifiedFalse" -> 0L;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,48 @@
+package com.authservice.benchmark;
+
+import com.authservice.dto.AuthenticationRequest;
+import com.authservice.dto.AuthenticationResponse;
+import com.authservice.service.AuthenticationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A successful {@link AuthenticationService#authenticate} on one thread: user lookup,
+ * BCrypt check, token issue and metrics. The score is logins per second on one core,
+ * which {@code gradlew loginCapacity} turns into cores needed for a target login rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class LoginBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private AuthenticationService authenticationService;
+    private AuthenticationRequest request;
+
+    @Setup
+    public void setUp() {
+        authenticationService = BenchmarkFixtures.authenticationService(strength);
+        request = AuthenticationRequest.builder()
+            .email(BenchmarkFixtures.EMAIL)
+            .password(BenchmarkFixtures.PASSWORD)
+            .build();
+    }
+
+    @Benchmark
+    public AuthenticationResponse authenticate() throws Exception {
+        return authenticationService.authenticate(request);
+    }
+}
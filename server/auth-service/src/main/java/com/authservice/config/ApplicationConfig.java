@@ -2,6 +2,7 @@ package com.authservice.config;
 
 import com.authservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,6 +20,11 @@ public class ApplicationConfig {
 
     private final UserRepository userRepository;
 
+    // Work factor for new hashes; each step doubles the cost of a login. Stored hashes keep
+    // the cost they were created with, so changing this does not lock anyone out.
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> userRepository.findByEmail(username)
@@ -40,6 +46,6 @@ public class ApplicationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 } 
\ No newline at end of file
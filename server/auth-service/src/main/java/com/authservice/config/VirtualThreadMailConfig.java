@@ -0,0 +1,100 @@
+package com.authservice.config;
+
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * With virtual threads enabled, SMTP sends are handed to a small pool of platform
+ * threads. Jakarta Mail holds a monitor for the whole SMTP exchange
+ * (SMTPTransport.sendMessage is synchronized), which on Java 21 pins the carrier
+ * thread for as long as the mail server takes to answer; a burst of sends could
+ * pin every carrier. The calling virtual thread parks on the result instead.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadMailConfig {
+
+    @Bean
+    static BeanPostProcessor platformThreadMailSender(@Value("${auth.mail.max-concurrent-sends:8}") int maxConcurrentSends) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JavaMailSender mailSender && !(bean instanceof PlatformThreadMailSender)) {
+                    log.info("Sending mail on {} platform threads (virtual threads enabled)", maxConcurrentSends);
+                    return new PlatformThreadMailSender(mailSender, maxConcurrentSends);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static final class PlatformThreadMailSender implements JavaMailSender {
+
+        private final JavaMailSender delegate;
+        private final ExecutorService senders;
+
+        PlatformThreadMailSender(JavaMailSender delegate, int threads) {
+            this.delegate = delegate;
+            AtomicInteger threadCount = new AtomicInteger();
+            this.senders = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "smtp-send-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            return delegate.createMimeMessage();
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+            return delegate.createMimeMessage(contentStream);
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) throws MailException {
+            onPlatformThread(() -> delegate.send(mimeMessages));
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) throws MailException {
+            onPlatformThread(() -> delegate.send(simpleMessages));
+        }
+
+        private void onPlatformThread(Runnable send) {
+            Future<?> result = senders.submit(send);
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new MailSendException("Mail send failed", e.getCause());
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new MailSendException("Interrupted while sending mail", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.gethome.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes of one endpoint. Latency is measured from the moment a request was due, not
+ * from when it was actually sent, so a stalled service shows up in the percentiles
+ * instead of silently lowering the request rate (coordinated omission).
+ */
+public final class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final String endpoint;
+    private final Recorder latencies = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    /** A response arrived, whatever its status. */
+    public void recordResponse(int status, long latencyNanos) {
+        latencies.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /** No response: connection refused, reset or timed out. */
+    public void recordFailure(long latencyNanos) {
+        latencies.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        failures.increment();
+    }
+
+    /** Not sent because the driver already had too many requests outstanding. */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public Summary summarize(double measuredSeconds) {
+        Histogram histogram = latencies.getIntervalHistogram();
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        long ok = statuses.entrySet().stream()
+            .filter(entry -> entry.getKey() >= 200 && entry.getKey() < 300)
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+        long responses = statuses.values().stream().mapToLong(Long::longValue).sum();
+
+        return new Summary(endpoint,
+            responses + failures.sum() + dropped.sum(),
+            ok,
+            responses - ok,
+            failures.sum(),
+            dropped.sum(),
+            ok / measuredSeconds,
+            millis(histogram.getMean()),
+            millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(90)),
+            millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue()),
+            statuses);
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    /**
+     * Totals and latency of one endpoint over the measured window. {@code throughput} counts
+     * 2xx responses per second; {@code errors} are non-2xx responses and {@code failures}
+     * requests without any response. Latencies are in milliseconds.
+     */
+    public record Summary(String endpoint,
+                          long requests,
+                          long ok,
+                          long errors,
+                          long failures,
+                          long dropped,
+                          double throughput,
+                          double meanMs,
+                          double p50Ms,
+                          double p90Ms,
+                          double p99Ms,
+                          double p999Ms,
+                          double maxMs,
+                          Map<Integer, Long> statusCounts) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.gethome.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Builds the HTTP requests the driver sends, with bodies shaped like the ones the React
+ * client sends. Locations are spread over a disc around the configured centre so danger
+ * zone queries do not all hit the same few documents.
+ */
+public class GetHomeClient {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+    private static final String[] DANGER_LEVELS = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+    private static final String[] TAGS = {"poor_lighting", "harassment", "theft", "construction", "crowd"};
+
+    private final LoadTestConfig config;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public GetHomeClient(LoadTestConfig config, HttpClient http) {
+        this.config = config;
+        this.http = http;
+    }
+
+    public HttpRequest request(Operation operation, VirtualUser user, RandomGenerator random) {
+        return switch (operation) {
+            case LOGIN -> post(config.authUrl(), "/api/v1/auth/login", null,
+                Map.of("email", user.email(), "password", user.password()));
+            case PLAN_ROUTE -> planRequest(user, random);
+            case NEARBY_ZONES -> {
+                double[] point = randomPoint(random);
+                yield builder(config.routingUrl(), "/api/danger-zones/nearby?latitude=" + point[0]
+                        + "&longitude=" + point[1] + "&radius=1000", user.token())
+                    .GET()
+                    .build();
+            }
+            case REPORT_ZONE -> {
+                double[] point = randomPoint(random);
+                yield post(config.routingUrl(), "/api/danger-zones/report", user.token(), Map.of(
+                    "name", "Load test zone",
+                    "description", "Reported by the load test driver",
+                    "dangerLevel", DANGER_LEVELS[random.nextInt(DANGER_LEVELS.length)],
+                    "location", location(point),
+                    "tags", List.of(TAGS[random.nextInt(TAGS.length)])));
+            }
+            case EMERGENCY -> {
+                double[] point = randomPoint(random);
+                yield post(config.routingUrl(), "/api/emergency/trigger", user.token(), Map.of(
+                    "latitude", point[0],
+                    "longitude", point[1],
+                    "location", "Load test location",
+                    "reason", "Load test emergency"));
+            }
+        };
+    }
+
+    private HttpRequest planRequest(VirtualUser user, RandomGenerator random) {
+        double[] start = randomPoint(random);
+        // Walking trips of 0.5 to 3 km
+        double distance = 500 + random.nextDouble() * 2500;
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        double[] end = offset(start, distance * Math.cos(bearing), distance * Math.sin(bearing));
+        return post(config.routingUrl(), config.planPath(), user.token(), Map.of(
+            "startLocation", location(start),
+            "endLocation", location(end),
+            "safetyPreference", 0.5 + random.nextDouble() / 2));
+    }
+
+    // ---- Setup calls, sent synchronously before the run starts ----
+
+    /** Registers the user, or logs in if the account already exists from an earlier run. */
+    public VirtualUser signIn(String email, String password, String name) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post(config.authUrl(), "/api/v1/auth/register", null,
+            Map.of("name", name, "email", email, "password", password)));
+        if (response.statusCode() / 100 != 2) {
+            response = send(post(config.authUrl(), "/api/v1/auth/login", null,
+                Map.of("email", email, "password", password)));
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Could not sign in " + email + ": HTTP " + response.statusCode() + " " + response.body());
+        }
+        String token = objectMapper.readTree(response.body()).path("token").asText();
+        return new VirtualUser(email, password, subject(token), token);
+    }
+
+    /** Creates the usermanagement profile; 4xx is fine when it exists from an earlier run. */
+    public void createProfile(VirtualUser user, int index) throws IOException, InterruptedException {
+        send(post(config.usersUrl(), "/api/users", user.token(), Map.of(
+            "id", user.userId(),
+            "email", user.email(),
+            "alias", "loadtest-" + index,
+            "phoneNr", String.format("+1555%07d", index),
+            "preferredContactMethod", index % 2 == 0 ? "SMS" : "EMAIL")));
+    }
+
+    /** Makes {@code contact} an accepted emergency contact of {@code requester}. */
+    public void addEmergencyContact(VirtualUser requester, VirtualUser contact) throws IOException, InterruptedException {
+        HttpResponse<String> added = send(post(config.usersUrl(),
+            "/api/users/" + requester.userId() + "/emergency-contacts/" + contact.userId(), requester.token(), null));
+        if (added.statusCode() / 100 != 2) {
+            return; // Already linked by an earlier run
+        }
+        String requestId = objectMapper.readTree(added.body()).path("id").asText();
+        send(builder(config.usersUrl(), "/api/users/" + contact.userId() + "/emergency-contacts/" + requestId
+                + "?accept=true", contact.token())
+            .PUT(HttpRequest.BodyPublishers.noBody())
+            .build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest post(URI base, String path, String token, Object body) {
+        return builder(base, path, token)
+            .header("Content-Type", "application/json")
+            .POST(body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(json(body)))
+            .build();
+    }
+
+    private HttpRequest.Builder builder(URI base, String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path))
+            .timeout(config.requestTimeout())
+            .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private byte[] json(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize request body", e);
+        }
+    }
+
+    private double[] randomPoint(RandomGenerator random) {
+        // Uniform over the disc, not clustered at the centre
+        double radius = config.areaRadiusMeters() * Math.sqrt(random.nextDouble());
+        double angle = random.nextDouble() * 2 * Math.PI;
+        return offset(new double[]{config.centerLatitude(), config.centerLongitude()},
+            radius * Math.cos(angle), radius * Math.sin(angle));
+    }
+
+    static double[] offset(double[] latLng, double northMeters, double eastMeters) {
+        double latitude = latLng[0] + northMeters / METERS_PER_DEGREE;
+        double longitude = latLng[1] + eastMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latLng[0])));
+        return new double[]{latitude, longitude};
+    }
+
+    private static Map<String, Double> location(double[] latLng) {
+        return Map.of("latitude", latLng[0], "longitude", latLng[1]);
+    }
+
+    private String subject(String token) throws IOException {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            throw new IOException("Auth service returned a malformed token");
+        }
+        JsonNode claims = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+        return claims.path("sub").asText();
+    }
+
+    public record VirtualUser(String email, String password, String userId, String token) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.gethome.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model driver: requests are started at a fixed arrival rate no matter how fast the
+ * services answer, the way independent users behave. A closed loop of N workers would
+ * slow down together with the system under test and hide its queueing.
+ *
+ * Requests that are due while {@code max-in-flight} are still outstanding are counted as
+ * dropped rather than queued, which keeps the driver itself from becoming the bottleneck.
+ */
+public class LoadDriver {
+
+    private final LoadTestConfig config;
+    private final HttpClient http;
+    private final GetHomeClient client;
+    private final List<GetHomeClient.VirtualUser> users;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Semaphore inFlight;
+
+    public LoadDriver(LoadTestConfig config, HttpClient http, GetHomeClient client,
+                      List<GetHomeClient.VirtualUser> users) {
+        this.config = config;
+        this.http = http;
+        this.client = client;
+        this.users = users;
+        this.inFlight = new Semaphore(config.maxInFlight());
+        for (Operation operation : Operation.values()) {
+            String endpoint = operation == Operation.PLAN_ROUTE ? "POST " + config.planPath() : operation.endpoint();
+            stats.put(operation, new EndpointStats(endpoint));
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        ResourceSampler sampler = new ResourceSampler(config.sampleUrls(), http, config.sampleInterval());
+        sampler.start(config.warmup());
+        long intervalNanos = Math.round(1_000_000_000 / config.ratePerSecond());
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        long nextProgress = start + 10_000_000_000L;
+
+        for (long sent = 0; ; sent++) {
+            long due = start + sent * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (due >= nextProgress) {
+                System.out.printf("%4ds: %d requests started, %d in flight%n",
+                    (due - start) / 1_000_000_000, sent, config.maxInFlight() - inFlight.availablePermits());
+                nextProgress += 10_000_000_000L;
+            }
+
+            Operation operation = config.mix().pick(random);
+            GetHomeClient.VirtualUser user = users.get(random.nextInt(users.size()));
+            fire(operation, client.request(operation, user, random), due, due >= measureFrom);
+        }
+
+        // Let outstanding requests finish or time out before summarizing
+        inFlight.acquire(config.maxInFlight());
+        inFlight.release(config.maxInFlight());
+        List<ResourceSampler.ServiceResources> resources = sampler.stop();
+
+        double measuredSeconds = config.duration().toNanos() / 1e9;
+        return new LoadReport(Instant.now().toString(), config.label(), config.ratePerSecond(), measuredSeconds,
+            config.mix().toString(), config.planPath(),
+            stats.values().stream().map(s -> s.summarize(measuredSeconds)).toList(), resources);
+    }
+
+    /** Warmup requests load the services like any other but are left out of the report. */
+    private void fire(Operation operation, HttpRequest request, long due, boolean measured) {
+        EndpointStats endpoint = stats.get(operation);
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                endpoint.recordDropped();
+            }
+            return;
+        }
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                long latency = System.nanoTime() - due;
+                if (measured && error != null) {
+                    endpoint.recordFailure(latency);
+                } else if (measured) {
+                    endpoint.recordResponse(response.statusCode(), latency);
+                }
+                inFlight.release();
+            });
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.gethome.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Result of a run: the settings it ran with, one {@link EndpointStats.Summary} per
+ * endpoint and the memory each service used meanwhile. Printed as a table and written as
+ * JSON so runs can be compared later with {@link LoadReportComparison}.
+ */
+public record LoadReport(String finishedAt,
+                         String label,
+                         double targetRatePerSecond,
+                         double measuredSeconds,
+                         String mix,
+                         String planPath,
+                         List<EndpointStats.Summary> endpoints,
+                         List<ResourceSampler.ServiceResources> services) {
+
+    private static final String ROW = "%-36s %9s %9s %7s %7s %7s %9s %9s %9s %9s %9s %9s%n";
+    private static final String SERVICE_ROW = "%-36s %7s %11s %11s %11s %11s %11s%n";
+
+    public static LoadReport read(Path path) throws IOException {
+        return new ObjectMapper().readValue(path.toFile(), LoadReport.class);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n%sTarget %.1f req/s over %.0fs, mix %s%n%n",
+            label == null || label.isEmpty() ? "" : "[" + label + "] ", targetRatePerSecond, measuredSeconds, mix);
+        out.printf(ROW, "endpoint", "requests", "ok/s", "errors", "failed", "dropped",
+            "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointStats.Summary summary : endpoints) {
+            out.printf(ROW, summary.endpoint(), summary.requests(), format(summary.throughput()),
+                summary.errors(), summary.failures(), summary.dropped(),
+                format(summary.meanMs()), format(summary.p50Ms()), format(summary.p90Ms()),
+                format(summary.p99Ms()), format(summary.p999Ms()), format(summary.maxMs()));
+        }
+        for (EndpointStats.Summary summary : endpoints) {
+            if (summary.errors() > 0) {
+                out.printf("%s status codes: %s%n", summary.endpoint(), summary.statusCounts());
+            }
+        }
+        if (services != null && !services.isEmpty()) {
+            out.printf("%n" + SERVICE_ROW, "service", "samples", "heap MB", "max heap MB", "RSS MB", "max RSS MB", "max threads");
+            for (ResourceSampler.ServiceResources service : services) {
+                out.printf(SERVICE_ROW, service.service(), service.samples(), format(service.meanHeapMb()),
+                    format(service.maxHeapMb()), format(service.meanRssMb()), format(service.maxRssMb()),
+                    format(service.maxLiveThreads()));
+            }
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper()
+            .writerWithDefaultPrettyPrinter()
+            .writeValue(path.toFile(), this);
+    }
+
+    static String format(Double value) {
+        return value == null ? "-" : String.format("%.1f", value);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.gethome.loadtest;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Side by side view of two reports, typically the same run on platform and on virtual
+ * threads:
+ *
+ * <pre>
+ * gradle run --args="--compare=build/platform.json,build/virtual.json"
+ * </pre>
+ *
+ * Shows per endpoint 2xx throughput and p99 latency, and per service peak heap, RSS and
+ * platform threads, each with the relative change from the first report to the second.
+ */
+public final class LoadReportComparison {
+
+    private static final String ROW = "%-36s %11s %11s %8s %11s %11s %8s%n";
+
+    private LoadReportComparison() {
+    }
+
+    public static void print(LoadReport baseline, LoadReport candidate, PrintStream out) {
+        out.printf("%nBaseline %s, candidate %s%n%n", name(baseline, "first"), name(candidate, "second"));
+        if (baseline.targetRatePerSecond() != candidate.targetRatePerSecond() || !baseline.mix().equals(candidate.mix())) {
+            out.printf("Warning: rate or mix differ (%.1f req/s %s vs %.1f req/s %s)%n%n",
+                baseline.targetRatePerSecond(), baseline.mix(), candidate.targetRatePerSecond(), candidate.mix());
+        }
+
+        out.printf(ROW, "endpoint", "ok/s", "ok/s", "change", "p99 ms", "p99 ms", "change");
+        Map<String, EndpointStats.Summary> before = byName(baseline.endpoints(), EndpointStats.Summary::endpoint);
+        for (EndpointStats.Summary after : candidate.endpoints()) {
+            EndpointStats.Summary was = before.get(after.endpoint());
+            if (was != null) {
+                out.printf(ROW, after.endpoint(),
+                    LoadReport.format(was.throughput()), LoadReport.format(after.throughput()), change(was.throughput(), after.throughput()),
+                    LoadReport.format(was.p99Ms()), LoadReport.format(after.p99Ms()), change(was.p99Ms(), after.p99Ms()));
+            }
+        }
+
+        out.printf("%n" + ROW, "service", "max heap MB", "max heap MB", "change", "max RSS MB", "max RSS MB", "change");
+        Map<String, ResourceSampler.ServiceResources> sampled = byName(
+            baseline.services() == null ? List.of() : baseline.services(), ResourceSampler.ServiceResources::service);
+        for (ResourceSampler.ServiceResources after : candidate.services() == null ? List.<ResourceSampler.ServiceResources>of() : candidate.services()) {
+            ResourceSampler.ServiceResources was = sampled.get(after.service());
+            if (was != null) {
+                out.printf(ROW, after.service(),
+                    LoadReport.format(was.maxHeapMb()), LoadReport.format(after.maxHeapMb()), change(was.maxHeapMb(), after.maxHeapMb()),
+                    LoadReport.format(was.maxRssMb()), LoadReport.format(after.maxRssMb()), change(was.maxRssMb(), after.maxRssMb()));
+                out.printf("%-36s %11s %11s%n", "  max threads",
+                    LoadReport.format(was.maxLiveThreads()), LoadReport.format(after.maxLiveThreads()));
+            }
+        }
+    }
+
+    static String change(Double before, Double after) {
+        if (before == null || after == null || before == 0) {
+            return "-";
+        }
+        return String.format("%+.0f%%", (after - before) / before * 100);
+    }
+
+    private static String name(LoadReport report, String fallback) {
+        return report.label() == null || report.label().isEmpty() ? fallback : report.label();
+    }
+
+    private static <T> Map<String, T> byName(List<T> items, Function<T, String> name) {
+        return items.stream().collect(Collectors.toMap(name, Function.identity(), (a, b) -> a));
+    }
+}
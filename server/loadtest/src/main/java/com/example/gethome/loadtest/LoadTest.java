@@ -0,0 +1,70 @@
+package com.example.gethome.loadtest;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a load test against the GetHome services:
+ *
+ * <pre>
+ * gradle run --args="--rate=50 --duration-seconds=120 --mix=plan=50,nearby=50"
+ * </pre>
+ *
+ * First signs in {@code --users} virtual users, creates their profiles and pairs them up
+ * as each other's emergency contacts, so emergency triggers fan out to real SMS and mail
+ * sends. Then drives the configured operation mix and prints per-endpoint throughput and
+ * latency percentiles, and the heap, RSS and threads each service used meanwhile; the same
+ * numbers are written as JSON to {@code --report}. {@code --compare=a.json,b.json} prints
+ * two such reports side by side instead of running.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].startsWith("--compare=")) {
+            String[] reports = args[0].substring("--compare=".length()).split(",");
+            if (reports.length != 2) {
+                throw new IllegalArgumentException("Expected --compare=<baseline.json>,<candidate.json>");
+            }
+            LoadReportComparison.print(LoadReport.read(Path.of(reports[0])), LoadReport.read(Path.of(reports[1])), System.out);
+            return;
+        }
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        GetHomeClient client = new GetHomeClient(config, http);
+
+        List<GetHomeClient.VirtualUser> users = setUpUsers(config, client);
+        System.out.printf("Driving %.1f req/s for %ds after %ds warmup, mix %s%n",
+            config.ratePerSecond(), config.duration().toSeconds(), config.warmup().toSeconds(), config.mix());
+
+        LoadReport report = new LoadDriver(config, http, client, users).run();
+        report.print(System.out);
+        report.write(config.reportPath());
+        System.out.println("\nReport written to " + config.reportPath().toAbsolutePath());
+    }
+
+    private static List<GetHomeClient.VirtualUser> setUpUsers(LoadTestConfig config, GetHomeClient client)
+            throws Exception {
+        System.out.printf("Signing in %d users%n", config.users());
+        List<GetHomeClient.VirtualUser> users = new ArrayList<>(config.users());
+        for (int i = 0; i < config.users(); i++) {
+            GetHomeClient.VirtualUser user = client.signIn(
+                config.userPrefix() + "-" + i + "@loadtest.gethome.local", "loadtest-password", "Load Test " + i);
+            client.createProfile(user, i);
+            users.add(user);
+        }
+        for (int i = 0; i + 1 < users.size(); i += 2) {
+            client.addEmergencyContact(users.get(i), users.get(i + 1));
+            client.addEmergencyContact(users.get(i + 1), users.get(i));
+        }
+        return users;
+    }
+}
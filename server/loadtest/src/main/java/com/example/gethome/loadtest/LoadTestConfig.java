@@ -0,0 +1,100 @@
+package com.example.gethome.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code --key=value} arguments. Every key has a
+ * default that targets the services as published by docker-compose on localhost.
+ */
+public record LoadTestConfig(URI authUrl,
+                             URI routingUrl,
+                             URI usersUrl,
+                             double ratePerSecond,
+                             Duration warmup,
+                             Duration duration,
+                             int users,
+                             String userPrefix,
+                             int maxInFlight,
+                             Duration requestTimeout,
+                             OperationMix mix,
+                             String planPath,
+                             double centerLatitude,
+                             double centerLongitude,
+                             double areaRadiusMeters,
+                             long seed,
+                             Path reportPath,
+                             String label,
+                             Map<String, URI> sampleUrls,
+                             Duration sampleInterval) {
+
+    static final String DEFAULT_MIX = "login=5,plan=25,nearby=45,report=15,emergency=10";
+    static final String DEFAULT_SAMPLE_URLS =
+        "auth=http://localhost:8081,message=http://localhost:8082,routing=http://localhost:8083,users=http://localhost:8084";
+
+    public static LoadTestConfig fromArgs(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+            URI.create(take(values, "auth-url", "http://localhost:8081")),
+            URI.create(take(values, "routing-url", "http://localhost:8083")),
+            URI.create(take(values, "users-url", "http://localhost:8084")),
+            Double.parseDouble(take(values, "rate", "20")),
+            Duration.ofSeconds(Long.parseLong(take(values, "warmup-seconds", "10"))),
+            Duration.ofSeconds(Long.parseLong(take(values, "duration-seconds", "60"))),
+            Integer.parseInt(take(values, "users", "20")),
+            take(values, "user-prefix", "loadtest"),
+            Integer.parseInt(take(values, "max-in-flight", "500")),
+            Duration.ofMillis(Long.parseLong(take(values, "timeout-ms", "10000"))),
+            OperationMix.parse(take(values, "mix", DEFAULT_MIX)),
+            take(values, "plan-path", "/api/routes/plan"),
+            Double.parseDouble(take(values, "center-lat", "48.1374")),
+            Double.parseDouble(take(values, "center-lng", "11.5755")),
+            Double.parseDouble(take(values, "area-radius-m", "3000")),
+            Long.parseLong(take(values, "seed", "42")),
+            Path.of(take(values, "report", "build/loadtest-report.json")),
+            take(values, "label", ""),
+            parseServices(take(values, "sample-urls", DEFAULT_SAMPLE_URLS)),
+            Duration.ofMillis(Long.parseLong(take(values, "sample-interval-ms", "2000"))));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (config.ratePerSecond <= 0 || config.users < 2 || config.maxInFlight < 1) {
+            throw new IllegalArgumentException("rate must be positive, users at least 2 and max-in-flight at least 1");
+        }
+        return config;
+    }
+
+    /** {@code name=url,...}; empty turns sampling off. */
+    static Map<String, URI> parseServices(String spec) {
+        Map<String, URI> services = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int split = entry.indexOf('=');
+            if (split < 1) {
+                throw new IllegalArgumentException("Expected name=url in --sample-urls but got: " + entry);
+            }
+            services.put(entry.substring(0, split).trim(), URI.create(entry.substring(split + 1).trim()));
+        }
+        return services;
+    }
+
+    private static String take(Map<String, String> values, String key, String defaultValue) {
+        String value = values.remove(key);
+        return value != null ? value : defaultValue;
+    }
+}
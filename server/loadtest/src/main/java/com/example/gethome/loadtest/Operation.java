@@ -0,0 +1,39 @@
+package com.example.gethome.loadtest;
+
+/**
+ * The user actions a run is made of. The key is what {@code --mix} refers to, the
+ * endpoint is what the report shows.
+ */
+public enum Operation {
+
+    LOGIN("login", "POST /api/v1/auth/login"),
+    PLAN_ROUTE("plan", "POST /api/routes/plan"),
+    NEARBY_ZONES("nearby", "GET /api/danger-zones/nearby"),
+    REPORT_ZONE("report", "POST /api/danger-zones/report"),
+    EMERGENCY("emergency", "POST /api/emergency/trigger");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "'");
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.gethome.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Relative weights of the operations, e.g. {@code login=5,plan=25,nearby=45}. Operations
+ * that are not listed are never picked.
+ */
+public final class OperationMix {
+
+    private final Operation[] operations;
+    private final double[] cumulative;
+
+    private OperationMix(Map<Operation, Double> weights) {
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new double[operations.length];
+        double total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    public static OperationMix parse(String spec) {
+        Map<Operation, Double> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got: " + entry);
+            }
+            double weight = Double.parseDouble(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0]);
+            }
+            if (weight > 0) {
+                weights.merge(Operation.fromKey(parts[0].trim()), weight, Double::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix '" + spec + "' has no positive weight");
+        }
+        return new OperationMix(weights);
+    }
+
+    public Operation pick(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int slot = index >= 0 ? index + 1 : -index - 1;
+        return operations[Math.min(slot, operations.length - 1)];
+    }
+
+    public double share(Operation operation) {
+        for (int i = 0; i < operations.length; i++) {
+            if (operations[i] == operation) {
+                return cumulative[i] - (i == 0 ? 0 : cumulative[i - 1]);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Operation operation : operations) {
+            if (!text.isEmpty()) {
+                text.append(',');
+            }
+            text.append(operation.key()).append('=').append(Math.round(share(operation) * 100)).append('%');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.gethome.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls each service's actuator metrics while a run is measured: heap in use, resident
+ * set size and live platform threads. Those are what a virtual thread run should save,
+ * so platform and virtual thread runs can be compared on memory as well as throughput.
+ * A metric a service does not publish is left empty in its summary.
+ */
+public class ResourceSampler {
+
+    static final String HEAP = "jvm.memory.used?tag=area:heap";
+    static final String RSS = "gethome_process_resident_memory_bytes";
+    static final String THREADS = "jvm.threads.live";
+
+    private static final double MB = 1024 * 1024;
+
+    private final HttpClient http;
+    private final Duration interval;
+    private final Map<String, Target> targets = new LinkedHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ScheduledExecutorService scheduler;
+
+    public ResourceSampler(Map<String, URI> services, HttpClient http, Duration interval) {
+        this.http = http;
+        this.interval = interval;
+        services.forEach((name, url) -> targets.put(name, new Target(name, url)));
+    }
+
+    /** Samples every interval, starting after {@code delay} (the warmup). */
+    public void start(Duration delay) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sample, delay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public List<ServiceResources> stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        return targets.values().stream().map(Target::summarize).toList();
+    }
+
+    void sample() {
+        for (Target target : targets.values()) {
+            read(target.url, HEAP).ifPresent(target.heap::add);
+            read(target.url, RSS).ifPresent(target.rss::add);
+            read(target.url, THREADS).ifPresent(target.threads::add);
+        }
+    }
+
+    private OptionalDouble read(URI base, String metric) {
+        try {
+            HttpResponse<String> response = http.send(
+                HttpRequest.newBuilder(base.resolve("/actuator/metrics/" + metric)).timeout(Duration.ofSeconds(2)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return OptionalDouble.empty();
+            }
+            JsonNode value = objectMapper.readTree(response.body()).path("measurements").path(0).path("value");
+            return value.isNumber() ? OptionalDouble.of(value.asDouble()) : OptionalDouble.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OptionalDouble.empty();
+        } catch (Exception e) {
+            return OptionalDouble.empty(); // Service down or restarting; the sample is missing
+        }
+    }
+
+    /** Memory in MB; null where the service did not publish the metric. */
+    public record ServiceResources(String service,
+                                   String url,
+                                   int samples,
+                                   Double meanHeapMb,
+                                   Double maxHeapMb,
+                                   Double meanRssMb,
+                                   Double maxRssMb,
+                                   Double maxLiveThreads) {
+    }
+
+    private static final class Target {
+        private final String name;
+        private final URI url;
+        private final Series heap = new Series();
+        private final Series rss = new Series();
+        private final Series threads = new Series();
+
+        Target(String name, URI url) {
+            this.name = name;
+            this.url = url;
+        }
+
+        ServiceResources summarize() {
+            return new ServiceResources(name, url.toString(), heap.count,
+                heap.mean(MB), heap.max(MB), rss.mean(MB), rss.max(MB), threads.max(1));
+        }
+    }
+
+    private static final class Series {
+        private int count;
+        private double sum;
+        private double max;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        Double mean(double scale) {
+            return count == 0 ? null : sum / count / scale;
+        }
+
+        Double max(double scale) {
+            return count == 0 ? null : max / scale;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.gethome.loadtest.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the HTTP stand-ins: a JDK HTTP server with a thread per request, so simulated
+ * latency never limits how many requests a stub accepts concurrently.
+ */
+abstract class HttpStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final StubBehavior behavior;
+
+    HttpStub(String host, int port, String context, StubBehavior behavior) throws IOException {
+        this.behavior = behavior;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 1024);
+        server.createContext(context, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public long requestCount() {
+        return requestCount.get();
+    }
+
+    public long errorCount() {
+        return errorCount.get();
+    }
+
+    /** Status and JSON body for a request that did not fail. */
+    abstract Response respond(HttpExchange exchange) throws IOException;
+
+    /** JSON body of a simulated failure. */
+    abstract String errorBody(int status);
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            Response response = respond(exchange);
+            behavior.delay();
+            if (behavior.fails()) {
+                errorCount.incrementAndGet();
+                response = new Response(503, errorBody(503));
+            }
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    record Response(int status, String body) {
+    }
+}
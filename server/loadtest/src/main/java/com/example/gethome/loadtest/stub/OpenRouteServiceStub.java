@@ -0,0 +1,107 @@
+package com.example.gethome.loadtest.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Stand-in for the OpenRouteService foot-walking directions API. Answers with a straight
+ * line through the requested coordinates, in the same shape as ORS, so routing-service
+ * does all of its own work (zone queries, polygon building, scoring) on the result.
+ * Point routing-service at it with {@code OPENROUTE_API_URL}.
+ */
+public class OpenRouteServiceStub extends HttpStub {
+
+    private static final double WALKING_SPEED = 1.3; // meters per second
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public OpenRouteServiceStub(String host, int port, StubBehavior behavior) throws IOException {
+        super(host, port, "/directions/foot-walking", behavior);
+    }
+
+    @Override
+    Response respond(HttpExchange exchange) throws IOException {
+        JsonNode coordinates = objectMapper.readTree(exchange.getRequestBody()).path("coordinates");
+        if (!coordinates.isArray() || coordinates.size() < 2) {
+            return new Response(400, errorBody(400));
+        }
+
+        double[] lats = new double[coordinates.size()];
+        double[] lngs = new double[coordinates.size()];
+        double distance = 0;
+        for (int i = 0; i < coordinates.size(); i++) {
+            lngs[i] = coordinates.get(i).get(0).asDouble();
+            lats[i] = coordinates.get(i).get(1).asDouble();
+            if (i > 0) {
+                distance += haversine(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+            }
+        }
+        double duration = distance / WALKING_SPEED;
+
+        ObjectNode route = objectMapper.createObjectNode();
+        route.putObject("summary").put("distance", distance).put("duration", duration);
+        ObjectNode step = route.putArray("segments").addObject()
+            .put("distance", distance)
+            .put("duration", duration)
+            .putArray("steps").addObject()
+            .put("distance", distance)
+            .put("duration", duration)
+            .put("instruction", "Walk straight to your destination")
+            .put("name", "-");
+        step.putArray("way_points").add(0).add(lats.length - 1);
+        route.put("geometry", encodePolyline(lats, lngs));
+        route.putArray("way_points").add(0).add(lats.length - 1);
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode routes = response.putArray("routes");
+        routes.add(route);
+        response.putObject("metadata")
+            .put("attribution", "GetHome load test stub")
+            .put("service", "routing")
+            .put("timestamp", System.currentTimeMillis());
+        return new Response(200, objectMapper.writeValueAsString(response));
+    }
+
+    @Override
+    String errorBody(int status) {
+        return "{\"error\":{\"code\":" + status + ",\"message\":\"stub failure\"}}";
+    }
+
+    /** Encoded polyline with precision 5, as ORS returns it. */
+    static String encodePolyline(double[] lats, double[] lngs) {
+        StringBuilder encoded = new StringBuilder(lats.length * 8);
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < lats.length; i++) {
+            long lat = Math.round(lats[i] * 1e5);
+            long lng = Math.round(lngs[i] * 1e5);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lng - previousLng, encoded);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            encoded.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        encoded.append((char) (shifted + 63));
+    }
+
+    private static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 6_371_000 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.gethome.loadtest.stub;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process SMTP server that accepts and discards every message. Speaks just enough of
+ * the protocol for JavaMail: EHLO, AUTH PLAIN/LOGIN with any credentials, MAIL, RCPT,
+ * DATA, RSET, NOOP and QUIT. It does not offer STARTTLS, so senders must have
+ * {@code mail.smtp.starttls.required} switched off. The configured latency is applied
+ * once per accepted message, after the DATA terminator.
+ */
+public class SmtpSink implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong messageCount = new AtomicLong();
+    private final StubBehavior behavior;
+
+    public SmtpSink(String host, int port, StubBehavior behavior) throws IOException {
+        this.behavior = behavior;
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getByName(host));
+        Thread acceptor = new Thread(this::acceptLoop, "smtp-sink-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long messageCount() {
+        return messageCount.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("SMTP sink failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            reply(out, "220 gethome-loadtest ESMTP sink");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-gethome-loadtest\r\n250-AUTH PLAIN LOGIN\r\n250-8BITMIME\r\n250 SIZE 52428800");
+                    case "HELO" -> reply(out, "250 gethome-loadtest");
+                    case "AUTH" -> authenticate(line, in, out);
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> receiveMessage(in, out);
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            System.err.println("SMTP sink connection failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void authenticate(String line, BufferedReader in, Writer out) throws IOException {
+        String[] parts = line.split(" ");
+        String mechanism = parts.length > 1 ? parts[1].toUpperCase(Locale.ROOT) : "";
+        if (mechanism.equals("PLAIN") && parts.length < 3) {
+            reply(out, "334 ");
+            in.readLine();
+        } else if (mechanism.equals("LOGIN")) {
+            if (parts.length < 3) {
+                reply(out, "334 VXNlcm5hbWU6");
+                in.readLine();
+            }
+            reply(out, "334 UGFzc3dvcmQ6");
+            in.readLine();
+        } else if (!mechanism.equals("PLAIN")) {
+            reply(out, "504 Unrecognized authentication type");
+            return;
+        }
+        reply(out, "235 Authentication successful");
+    }
+
+    private void receiveMessage(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            // Discard the message
+        }
+        behavior.delay();
+        if (behavior.fails()) {
+            reply(out, "451 Requested action aborted: stub failure");
+            return;
+        }
+        messageCount.incrementAndGet();
+        reply(out, "250 OK queued");
+    }
+
+    private static void reply(Writer out, String reply) throws IOException {
+        out.write(reply);
+        out.write("\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.gethome.loadtest.stub;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How a stub answers: a base latency plus uniform jitter, and the share of requests that
+ * fail with a server error instead.
+ */
+public record StubBehavior(long latencyMs, long jitterMs, double errorRate) {
+
+    public static final StubBehavior IMMEDIATE = new StubBehavior(0, 0, 0);
+
+    public StubBehavior {
+        if (latencyMs < 0 || jitterMs < 0 || errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Latency and jitter must not be negative, error rate must be within [0, 1]");
+        }
+    }
+
+    /** Sleeps for this request's latency. */
+    void delay() throws InterruptedException {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    boolean fails() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+}
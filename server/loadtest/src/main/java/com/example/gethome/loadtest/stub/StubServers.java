@@ -0,0 +1,68 @@
+package com.example.gethome.loadtest.stub;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts all stand-ins in one process and keeps them running until interrupted:
+ *
+ * <pre>
+ * gradle runStubs --args="--ors-latency-ms=300 --ors-jitter-ms=200 --twilio-error-rate=0.01"
+ * </pre>
+ *
+ * Each stub takes {@code --<name>-port}, {@code --<name>-latency-ms}, {@code --<name>-jitter-ms}
+ * and {@code --<name>-error-rate}, with names {@code ors}, {@code twilio} and {@code smtp}.
+ * {@code --host} defaults to 0.0.0.0 so services running in containers can reach them.
+ */
+public final class StubServers {
+
+    private StubServers() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        String host = options.getOrDefault("host", "0.0.0.0");
+
+        OpenRouteServiceStub ors = new OpenRouteServiceStub(host, port(options, "ors", 18080), behavior(options, "ors", 250));
+        TwilioStub twilio = new TwilioStub(host, port(options, "twilio", 18081), behavior(options, "twilio", 150));
+        SmtpSink smtp = new SmtpSink(host, port(options, "smtp", 2525), behavior(options, "smtp", 50));
+
+        System.out.println("OpenRouteService stub on " + ors.baseUrl());
+        System.out.println("Twilio stub on " + twilio.baseUrl());
+        System.out.println("SMTP sink on port " + smtp.port());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            ors.close();
+            twilio.close();
+            try {
+                smtp.close();
+            } catch (Exception ignored) {
+                // Shutting down anyway
+            }
+        }));
+        while (true) {
+            TimeUnit.SECONDS.sleep(10);
+            System.out.printf("ors %d requests (%d failed), twilio %d requests (%d failed), smtp %d messages%n",
+                ors.requestCount(), ors.errorCount(), twilio.requestCount(), twilio.errorCount(), smtp.messageCount());
+        }
+    }
+
+    private static int port(Map<String, String> options, String name, int defaultPort) {
+        return Integer.parseInt(options.getOrDefault(name + "-port", String.valueOf(defaultPort)));
+    }
+
+    private static StubBehavior behavior(Map<String, String> options, String name, long defaultLatencyMs) {
+        return new StubBehavior(
+            Long.parseLong(options.getOrDefault(name + "-latency-ms", String.valueOf(defaultLatencyMs))),
+            Long.parseLong(options.getOrDefault(name + "-jitter-ms", "0")),
+            Double.parseDouble(options.getOrDefault(name + "-error-rate", "0")));
+    }
+}
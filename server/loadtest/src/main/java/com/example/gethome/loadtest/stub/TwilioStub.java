@@ -0,0 +1,64 @@
+package com.example.gethome.loadtest.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stand-in for the Twilio Messages API. Accepts any credentials and answers every send
+ * with a queued message resource. Point message-service at it with {@code TWILIO_API_URL}.
+ */
+public class TwilioStub extends HttpStub {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public TwilioStub(String host, int port, StubBehavior behavior) throws IOException {
+        super(host, port, "/2010-04-01/Accounts/", behavior);
+    }
+
+    @Override
+    Response respond(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!"POST".equals(exchange.getRequestMethod()) || !path.endsWith("/Messages.json")) {
+            return new Response(404, errorBody(404));
+        }
+        String accountSid = path.split("/")[3];
+        Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+
+        ObjectNode message = objectMapper.createObjectNode()
+            .put("sid", "SM" + UUID.randomUUID().toString().replace("-", ""))
+            .put("account_sid", accountSid)
+            .put("to", form.get("To"))
+            .put("from", form.get("From"))
+            .put("body", form.get("Body"))
+            .put("status", "queued")
+            .put("num_segments", "1")
+            .put("direction", "outbound-api")
+            .put("api_version", "2010-04-01");
+        return new Response(201, objectMapper.writeValueAsString(message));
+    }
+
+    @Override
+    String errorBody(int status) {
+        return "{\"code\":" + status + ",\"message\":\"stub failure\",\"status\":" + status + "}";
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int split = pair.indexOf('=');
+            if (split > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, split), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+}
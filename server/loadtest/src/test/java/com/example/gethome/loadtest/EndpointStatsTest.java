@@ -0,0 +1,51 @@
+package com.example.gethome.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointStatsTest {
+
+    @Test
+    void summarizesPercentilesAndOutcomes() {
+        EndpointStats stats = new EndpointStats("GET /api/danger-zones/nearby");
+        for (int millis = 1; millis <= 100; millis++) {
+            stats.recordResponse(millis == 100 ? 503 : 200, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        stats.recordFailure(TimeUnit.SECONDS.toNanos(10));
+        stats.recordDropped();
+
+        EndpointStats.Summary summary = stats.summarize(10);
+
+        assertEquals(102, summary.requests());
+        assertEquals(99, summary.ok());
+        assertEquals(1, summary.errors());
+        assertEquals(1, summary.failures());
+        assertEquals(1, summary.dropped());
+        assertEquals(9.9, summary.throughput(), 1e-9);
+        assertEquals(51, summary.p50Ms(), 0.1);
+        assertEquals(91, summary.p90Ms(), 0.1);
+        assertEquals(10_000, summary.maxMs(), 10);
+        assertEquals(1L, summary.statusCounts().get(503));
+    }
+
+    @Test
+    void operationMixFollowsWeights() {
+        OperationMix mix = OperationMix.parse("plan=3,nearby=1,report=0");
+        SplittableRandom random = new SplittableRandom(7);
+        int plans = 0;
+        for (int i = 0; i < 10_000; i++) {
+            Operation operation = mix.pick(random);
+            assertTrue(operation == Operation.PLAN_ROUTE || operation == Operation.NEARBY_ZONES);
+            if (operation == Operation.PLAN_ROUTE) {
+                plans++;
+            }
+        }
+        assertEquals(7500, plans, 200);
+        assertEquals(0, mix.share(Operation.REPORT_ZONE));
+    }
+}
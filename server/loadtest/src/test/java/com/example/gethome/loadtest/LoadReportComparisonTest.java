@@ -0,0 +1,51 @@
+package com.example.gethome.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadReportComparisonTest {
+
+    @Test
+    void reportsReadBackAndCompareThroughputAndMemory(@TempDir Path dir) throws Exception {
+        report("platform", 40.0, 800.0, 900.0, 210.0).write(dir.resolve("platform.json"));
+        report("virtual", 50.0, 600.0, 450.0, 30.0).write(dir.resolve("virtual.json"));
+
+        LoadReport platform = LoadReport.read(dir.resolve("platform.json"));
+        LoadReport virtual = LoadReport.read(dir.resolve("virtual.json"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoadReportComparison.print(platform, virtual, new PrintStream(out, true, StandardCharsets.UTF_8));
+        String table = out.toString(StandardCharsets.UTF_8);
+
+        assertEquals("virtual", virtual.label());
+        assertEquals(450.0, virtual.services().get(0).maxRssMb());
+        assertTrue(table.contains("Baseline platform, candidate virtual"), table);
+        assertTrue(table.matches("(?s).*POST /api/routes/plan\\s+40\\.0\\s+50\\.0\\s+\\+25%\\s+800\\.0\\s+600\\.0\\s+-25%.*"), table);
+        assertTrue(table.matches("(?s).*routing\\s+.*\\s+900\\.0\\s+450\\.0\\s+-50%.*"), table);
+    }
+
+    @Test
+    void changeIsEmptyWithoutBothValues() {
+        assertEquals("-", LoadReportComparison.change(null, 1.0));
+        assertEquals("-", LoadReportComparison.change(0.0, 1.0));
+        assertEquals("+10%", LoadReportComparison.change(10.0, 11.0));
+    }
+
+    private static LoadReport report(String label, double throughput, double p99, double maxRss, double threads) {
+        EndpointStats.Summary plan = new EndpointStats.Summary("POST /api/routes/plan", 1000, 1000, 0, 0, 0,
+            throughput, 300, 280, 400, p99, p99, p99, Map.of(200, 1000L));
+        ResourceSampler.ServiceResources routing = new ResourceSampler.ServiceResources("routing", "http://localhost:8083",
+            30, 250.0, 400.0, maxRss - 50, maxRss, threads);
+        return new LoadReport("2026-10-19T00:00:00Z", label, 50, 60, LoadTestConfig.DEFAULT_MIX, "/api/routes/plan",
+            List.of(plan), List.of(routing));
+    }
+}
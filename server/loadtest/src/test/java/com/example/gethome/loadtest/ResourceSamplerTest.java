@@ -0,0 +1,70 @@
+package com.example.gethome.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResourceSamplerTest {
+
+    @Test
+    void summarizesHeapRssAndThreadsPerService() throws Exception {
+        AtomicInteger heapReads = new AtomicInteger();
+        HttpServer actuator = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        actuator.createContext("/actuator/metrics/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            Double value = switch (path.substring("/actuator/metrics/".length())) {
+                case "jvm.memory.used" -> heapReads.incrementAndGet() == 1 ? 100 * 1024 * 1024.0 : 300 * 1024 * 1024.0;
+                case "jvm.threads.live" -> 220.0;
+                default -> null; // No RSS gauge, like usermanagement-service
+            };
+            byte[] body = value == null ? new byte[0]
+                : ("{\"measurements\":[{\"statistic\":\"VALUE\",\"value\":" + value + "}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(value == null ? 404 : 200, value == null ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        actuator.start();
+        try {
+            URI url = URI.create("http://localhost:" + actuator.getAddress().getPort());
+            ResourceSampler sampler = new ResourceSampler(Map.of("users", url, "down", URI.create("http://localhost:1")),
+                HttpClient.newHttpClient(), Duration.ofSeconds(1));
+
+            sampler.sample();
+            sampler.sample();
+            List<ResourceSampler.ServiceResources> resources = sampler.stop();
+
+            ResourceSampler.ServiceResources users = resources.stream().filter(r -> r.service().equals("users")).findFirst().orElseThrow();
+            assertEquals(2, users.samples());
+            assertEquals(200.0, users.meanHeapMb(), 1e-9);
+            assertEquals(300.0, users.maxHeapMb(), 1e-9);
+            assertEquals(220.0, users.maxLiveThreads(), 1e-9);
+            assertNull(users.maxRssMb());
+            ResourceSampler.ServiceResources down = resources.stream().filter(r -> r.service().equals("down")).findFirst().orElseThrow();
+            assertEquals(0, down.samples());
+            assertNull(down.maxHeapMb());
+        } finally {
+            actuator.stop(0);
+        }
+    }
+
+    @Test
+    void sampleUrlsParseAndCanBeTurnedOff() {
+        assertEquals(Map.of("routing", URI.create("http://localhost:8083")),
+            LoadTestConfig.parseServices("routing=http://localhost:8083"));
+        assertEquals(Map.of(), LoadTestConfig.fromArgs("--sample-urls=").sampleUrls());
+        assertEquals(4, LoadTestConfig.fromArgs().sampleUrls().size());
+    }
+}
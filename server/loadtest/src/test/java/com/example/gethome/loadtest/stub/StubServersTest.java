@@ -0,0 +1,92 @@
+package com.example.gethome.loadtest.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StubServersTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void openRouteServiceStubAnswersWithStraightLine() throws Exception {
+        try (OpenRouteServiceStub stub = new OpenRouteServiceStub("localhost", 0, new StubBehavior(20, 0, 0))) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/directions/foot-walking"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"coordinates\":[[11.5755,48.1374],[11.5855,48.1374]]}"))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+            assertTrue(System.nanoTime() - start >= 20_000_000L);
+            assertEquals(200, response.statusCode());
+            JsonNode route = objectMapper.readTree(response.body()).path("routes").get(0);
+            assertEquals(742, route.path("summary").path("distance").asDouble(), 5);
+            assertEquals(OpenRouteServiceStub.encodePolyline(new double[]{48.1374, 48.1374}, new double[]{11.5755, 11.5855}),
+                route.path("geometry").asText());
+            assertEquals(1, stub.requestCount());
+        }
+    }
+
+    @Test
+    void twilioStubFailsAtConfiguredRate() throws Exception {
+        try (TwilioStub stub = new TwilioStub("localhost", 0, new StubBehavior(0, 0, 1))) {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                    URI.create(stub.baseUrl() + "/2010-04-01/Accounts/AC123/Messages.json"))
+                    .POST(HttpRequest.BodyPublishers.ofString("To=%2B15550001&From=%2B15550002&Body=hi"))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(503, response.statusCode());
+            assertEquals(1, stub.errorCount());
+        }
+    }
+
+    @Test
+    void smtpSinkAcceptsAuthenticatedMessage() throws Exception {
+        try (SmtpSink sink = new SmtpSink("localhost", 0, StubBehavior.IMMEDIATE);
+             Socket socket = new Socket("localhost", sink.port());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            assertTrue(in.readLine().startsWith("220"));
+            send(out, "EHLO test");
+            String line;
+            do {
+                line = in.readLine();
+            } while (line.startsWith("250-"));
+            send(out, "AUTH PLAIN AHVzZXIAc2VjcmV0");
+            assertTrue(in.readLine().startsWith("235"));
+            send(out, "MAIL FROM:<noreply@gethome.local>");
+            assertTrue(in.readLine().startsWith("250"));
+            send(out, "RCPT TO:<contact@gethome.local>");
+            assertTrue(in.readLine().startsWith("250"));
+            send(out, "DATA");
+            assertTrue(in.readLine().startsWith("354"));
+            send(out, "Subject: Emergency\r\n\r\nHelp\r\n.");
+            assertTrue(in.readLine().startsWith("250"));
+            send(out, "QUIT");
+            assertTrue(in.readLine().startsWith("221"));
+
+            assertEquals(1, sink.messageCount());
+        }
+    }
+
+    private static void send(Writer out, String line) throws Exception {
+        out.write(line + "\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.gethome.message.service;
+
+import com.example.gethome.message.client.UserManagementClient;
+import com.example.gethome.message.model.EmergencyNotification;
+import com.example.gethome.message.model.MessageTemplate;
+import com.example.gethome.message.repository.EmergencyNotificationRepository;
+import com.example.gethome.message.repository.MessageTemplateRepository;
+import com.twilio.Twilio;
+import com.twilio.http.HttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+import com.twilio.http.TwilioRestClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wires the emergency pipeline without Spring, Mongo or the network: repositories are
+ * in memory, mail is encoded but not sent, Twilio answers from a canned response and the
+ * WebSocket placeholder returns at once. Everything else is the production code.
+ */
+final class BenchmarkFixtures {
+
+    static final String USER_ID = "benchmark-user";
+
+    private BenchmarkFixtures() {
+    }
+
+    static EmailService emailService(CountingMailSender mailSender) {
+        EmailService emailService = new EmailService(mailSender);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "alerts@gethome.local");
+        ReflectionTestUtils.setField(emailService, "emergencySubject", "EMERGENCY ALERT - GetHome User Needs Help");
+        return emailService;
+    }
+
+    static SmsService smsService() {
+        Twilio.setRestClient(new TwilioRestClient.Builder("ACbenchmark", "benchmark")
+            .httpClient(new CannedTwilioHttpClient())
+            .build());
+        SmsService smsService = new SmsService();
+        ReflectionTestUtils.setField(smsService, "fromPhoneNumber", "+15550000000");
+        return smsService;
+    }
+
+    static EmergencyNotificationService emergencyNotificationService(EmailService emailService, SmsService smsService,
+                                                                     UserManagementClient userManagementClient) {
+        EmergencyNotificationService service = new EmergencyNotificationService(
+            emergencyNotificationRepository(), emailService, smsService, new SilentWebSocketNotificationService(),
+            userManagementClient, new SimpleMeterRegistry());
+        service.initializeMetrics();
+        return service;
+    }
+
+    static MessageTemplateService messageTemplateService() {
+        MessageTemplateService service = new MessageTemplateService(messageTemplateRepository());
+        service.initializeDefaultTemplates();
+        return service;
+    }
+
+    /** {@code count} contacts, cycling through email-only, SMS-only and both. */
+    static List<UserManagementClient.EmergencyContact> contacts(int count) {
+        String[] methods = {"EMAIL", "SMS", "BOTH"};
+        List<UserManagementClient.EmergencyContact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(new UserManagementClient.EmergencyContact("contact-" + i, "Contact " + i,
+                " contact" + i + "@example.com ", String.format("+1555%07d", i), methods[i % methods.length]));
+        }
+        return contacts;
+    }
+
+    static UserManagementClient userManagementClient(List<UserManagementClient.EmergencyContact> contacts) {
+        return new UserManagementClient() {
+            @Override
+            public UserProfileResponse getUserProfile(String userId) {
+                return new UserProfileResponse(userId, "user@example.com", "user", "+15559999999", null);
+            }
+
+            @Override
+            public List<EmergencyContact> getEmergencyContacts(String userId) {
+                return contacts;
+            }
+        };
+    }
+
+    static EmergencyNotification notification() {
+        return EmergencyNotification.builder()
+            .id("65f1c0ffee0000000000beef")
+            .userId(USER_ID)
+            .emergencyType("MANUAL")
+            .reason("Followed by someone for several blocks, please call me")
+            .latitude(48.137154)
+            .longitude(11.576124)
+            .location("Marienplatz 1, 80331 München")
+            .triggeredAt(LocalDateTime.of(2024, 3, 14, 23, 41, 7))
+            .status(EmergencyNotification.NotificationStatus.PENDING)
+            .build();
+    }
+
+    static Map<String, Object> templateVariables() {
+        return Map.of(
+            "contactName", "Contact 0",
+            "userName", "Alex",
+            "emergencyType", "MANUAL",
+            "reason", "Followed by someone for several blocks",
+            "triggeredAt", "2024-03-14 23:41:07",
+            "latitude", 48.137154,
+            "longitude", 11.576124,
+            "location", "Marienplatz 1, 80331 München",
+            "message", "Please call me");
+    }
+
+    /** Keeps the last few notifications per user, enough for the duplicate check. */
+    private static EmergencyNotificationRepository emergencyNotificationRepository() {
+        Map<String, Deque<EmergencyNotification>> byUser = new ConcurrentHashMap<>();
+        return repository(EmergencyNotificationRepository.class, (method, args) -> switch (method) {
+            case "save" -> {
+                EmergencyNotification notification = (EmergencyNotification) args[0];
+                if (notification.getId() == null) {
+                    notification.setId(UUID.randomUUID().toString());
+                }
+                Deque<EmergencyNotification> recent = byUser.computeIfAbsent(notification.getUserId(), u -> new ArrayDeque<>());
+                synchronized (recent) {
+                    recent.addFirst(notification);
+                    if (recent.size() > 8) {
+                        recent.removeLast();
+                    }
+                }
+                yield notification;
+            }
+            case "findByUserIdAndTriggeredAtAfter" -> {
+                Deque<EmergencyNotification> recent = byUser.getOrDefault((String) args[0], new ArrayDeque<>());
+                synchronized (recent) {
+                    yield recent.stream()
+                        .filter(n -> n.getTriggeredAt().isAfter((LocalDateTime) args[1]))
+                        .toList();
+                }
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static MessageTemplateRepository messageTemplateRepository() {
+        Map<String, MessageTemplate> byName = new ConcurrentHashMap<>();
+        return repository(MessageTemplateRepository.class, (method, args) -> switch (method) {
+            case "save" -> {
+                MessageTemplate template = (MessageTemplate) args[0];
+                byName.put(template.getName(), template);
+                yield template;
+            }
+            case "findByIsActive" -> byName.values().stream().filter(t -> t.isActive() == (boolean) args[0]).toList();
+            case "findByNameAndIsActive" -> Optional.ofNullable(byName.get((String) args[0]))
+                .filter(t -> t.isActive() == (boolean) args[1]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, RepositoryMethod body) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> body.invoke(method.getName(), args));
+    }
+
+    @FunctionalInterface
+    private interface RepositoryMethod {
+        Object invoke(String method, Object[] args);
+    }
+
+    /** Encodes every message like a real send would, then discards it. */
+    static final class CountingMailSender extends JavaMailSenderImpl {
+
+        private final AtomicLong sent = new AtomicLong();
+
+        long sent() {
+            return sent.get();
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    message.saveChanges();
+                    message.writeTo(OutputStream.nullOutputStream());
+                } catch (MessagingException | IOException e) {
+                    throw new MailSendException("Could not encode message", e);
+                }
+                sent.incrementAndGet();
+            }
+        }
+    }
+
+    /** The placeholder WebSocket send sleeps to simulate network delay; that is not code to measure. */
+    private static final class SilentWebSocketNotificationService extends WebSocketNotificationService {
+
+        @Override
+        public void sendEmergencyNotification(String contact, EmergencyNotification notification) {
+        }
+    }
+
+    private static final class CannedTwilioHttpClient extends HttpClient {
+
+        private static final String MESSAGE = """
+            {"sid":"SM00000000000000000000000000000000","account_sid":"ACbenchmark","status":"queued",\
+            "to":"+15550000001","from":"+15550000000","num_segments":"1","direction":"outbound-api"}""";
+
+        @Override
+        public Response makeRequest(Request request) {
+            return new Response(MESSAGE, 201);
+        }
+    }
+}
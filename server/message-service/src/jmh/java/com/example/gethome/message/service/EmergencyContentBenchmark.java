@@ -0,0 +1,69 @@
+package com.example.gethome.message.service;
+
+import com.example.gethome.message.client.UserManagementClient;
+import com.example.gethome.message.model.EmergencyNotification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message rendering done once per recipient of an emergency: the HTML emails, the SMS
+ * texts and the stored HTML template. Run with the gc profiler so allocation per message
+ * ({@code gc.alloc.rate.norm}) is reported next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmergencyContentBenchmark {
+
+    private EmailService emailService;
+    private SmsService smsService;
+    private MessageTemplateService messageTemplateService;
+    private EmergencyNotification notification;
+    private UserManagementClient.EmergencyContact contact;
+    private Map<String, Object> templateVariables;
+
+    @Setup
+    public void setUp() {
+        emailService = BenchmarkFixtures.emailService(new BenchmarkFixtures.CountingMailSender());
+        smsService = BenchmarkFixtures.smsService();
+        messageTemplateService = BenchmarkFixtures.messageTemplateService();
+        notification = BenchmarkFixtures.notification();
+        contact = BenchmarkFixtures.contacts(1).get(0);
+        templateVariables = BenchmarkFixtures.templateVariables();
+    }
+
+    @Benchmark
+    public String emailContent() {
+        return emailService.createEmergencyEmailContent(notification, contact);
+    }
+
+    /** The variant the emergency pipeline sends. */
+    @Benchmark
+    public String emailContentForContact() {
+        return emailService.createEmergencyEmailContentForContact(notification);
+    }
+
+    @Benchmark
+    public String smsContent() {
+        return smsService.createEmergencySmsContent(notification, contact);
+    }
+
+    /** The variant the emergency pipeline sends. */
+    @Benchmark
+    public String smsContentForContact() {
+        return smsService.createEmergencySmsContentForContact(notification);
+    }
+
+    @Benchmark
+    public String htmlTemplate() {
+        return messageTemplateService.processHtmlTemplate("emergency-alert", templateVariables);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.gethome.message.service;
+
+import com.example.gethome.message.dto.EmergencyNotificationRequest;
+import com.example.gethome.message.dto.EmergencyNotificationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmergencyNotificationService#createEmergencyNotification} end to end for a user
+ * with {@code contacts} emergency contacts, minus the network: every email is built and
+ * MIME-encoded, every SMS goes through the Twilio client against a canned response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmergencyPipelineBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int contacts;
+
+    private EmergencyNotificationService service;
+    private BenchmarkFixtures.CountingMailSender mailSender;
+    private EmergencyNotificationRequest request;
+
+    @Setup
+    public void setUp() {
+        mailSender = new BenchmarkFixtures.CountingMailSender();
+        service = BenchmarkFixtures.emergencyNotificationService(
+            BenchmarkFixtures.emailService(mailSender),
+            BenchmarkFixtures.smsService(),
+            BenchmarkFixtures.userManagementClient(BenchmarkFixtures.contacts(contacts)));
+        request = EmergencyNotificationRequest.builder()
+            .userId(BenchmarkFixtures.USER_ID)
+            .message("Followed by someone for several blocks, please call me")
+            .latitude(48.137154)
+            .longitude(11.576124)
+            .location("Marienplatz 1, 80331 München")
+            .emergencyType("MANUAL")
+            .build();
+    }
+
+    @TearDown
+    public void checkDispatched() {
+        if (mailSender.sent() == 0) {
+            throw new IllegalStateException("No email was dispatched, the benchmark measured a failure path");
+        }
+    }
+
+    @Benchmark
+    public EmergencyNotificationResponse createEmergencyNotification() throws Exception {
+        return service.createEmergencyNotification(request);
+    }
+
+    @Benchmark
+    public EmergencyNotificationService.EmergencyContactsData contactPartitioning() {
+        return service.getEmergencyContactsData(BenchmarkFixtures.USER_ID);
+    }
+}
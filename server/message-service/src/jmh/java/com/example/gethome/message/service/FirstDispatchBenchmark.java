@@ -0,0 +1,49 @@
+package com.example.gethome.message.service;
+
+import com.example.gethome.message.dto.EmergencyNotificationRequest;
+import com.example.gethome.message.dto.EmergencyNotificationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first dispatch: with one email-only contact, the emergency call ends right after
+ * that email is handed to the mail sender, so its latency distribution is the in-process
+ * cost before the first person is alerted. Sampled, so the budget can hold p99 as well as
+ * the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FirstDispatchBenchmark {
+
+    private EmergencyNotificationService service;
+    private EmergencyNotificationRequest request;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkFixtures.emergencyNotificationService(
+            BenchmarkFixtures.emailService(new BenchmarkFixtures.CountingMailSender()),
+            BenchmarkFixtures.smsService(),
+            BenchmarkFixtures.userManagementClient(BenchmarkFixtures.contacts(1)));
+        request = EmergencyNotificationRequest.builder()
+            .userId(BenchmarkFixtures.USER_ID)
+            .message("Followed by someone for several blocks, please call me")
+            .latitude(48.137154)
+            .longitude(11.576124)
+            .location("Marienplatz 1, 80331 München")
+            .emergencyType("MANUAL")
+            .build();
+    }
+
+    @Benchmark
+    public EmergencyNotificationResponse timeToFirstDispatch() throws Exception {
+        return service.createEmergencyNotification(request);
+    }
+}
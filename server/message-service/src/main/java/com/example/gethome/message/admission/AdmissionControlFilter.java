@@ -0,0 +1,80 @@
+package com.example.gethome.message.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Keeps emergency notifications ahead of ordinary sends. {@code /api/emergency/**} has
+ * reserved capacity and priority. {@code /api/messages/**} (custom, welcome and test
+ * mails and SMS, log queries) is shed with 429 when its lane is full or an emergency is
+ * waiting. Anything else passes through.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String EMERGENCY = "emergency";
+    public static final String MESSAGES = "messages";
+
+    private final AdmissionController admissionController;
+    private final boolean enabled;
+
+    public AdmissionControlFilter(AdmissionController admissionController,
+                                  @Value("${message.admission.enabled:true}") boolean enabled) {
+        this.admissionController = admissionController;
+        this.enabled = enabled;
+    }
+
+    static String trafficClass(String path) {
+        if (path.startsWith("/api/emergency/")) {
+            return EMERGENCY;
+        }
+        return path.startsWith("/api/messages/") ? MESSAGES : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || trafficClass(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String trafficClass = trafficClass(request.getServletPath());
+        AdmissionController.Permit permit = admit(trafficClass);
+        if (permit == null) {
+            log.debug("Shed {} request {} {}", trafficClass, request.getMethod(), request.getServletPath());
+            response.setStatus(admissionController.isPriorityLane(trafficClass)
+                ? HttpStatus.SERVICE_UNAVAILABLE.value() : HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try (permit) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private AdmissionController.Permit admit(String trafficClass) {
+        try {
+            return admissionController.admit(trafficClass);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.gethome.message.client;
+
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends Twilio API requests to another base URL, keeping path, parameters and credentials.
+ * The Twilio SDK has the api.twilio.com host built in; this lets the load test (or any
+ * other environment) point SMS sending at a local stand-in via {@code twilio.api.url}.
+ */
+public class RedirectingTwilioHttpClient extends NetworkHttpClient {
+
+    private final URI baseUrl;
+
+    public RedirectingTwilioHttpClient(String baseUrl) {
+        this.baseUrl = URI.create(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl);
+    }
+
+    @Override
+    public Response makeRequest(Request request) {
+        URI original = URI.create(request.getUrl());
+        Request redirected = new Request(request.getMethod(), baseUrl + original.getRawPath());
+        if (request.requiresAuthentication()) {
+            redirected.setAuth(request.getUsername(), request.getPassword());
+        }
+        redirected.setContentType(request.getContentType());
+        redirected.setUserAgentExtensions(request.getUserAgentExtensions());
+        copy(request.getQueryParams(), redirected::addQueryParam);
+        copy(request.getPostParams(), redirected::addPostParam);
+        copy(request.getHeaderParams(), redirected::addHeaderParam);
+        return super.makeRequest(redirected);
+    }
+
+    private static void copy(Map<String, List<String>> params, ParamSink sink) {
+        params.forEach((name, values) -> values.forEach(value -> sink.add(name, value)));
+    }
+
+    @FunctionalInterface
+    private interface ParamSink {
+        void add(String name, String value);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.gethome.message.config;
+
+import com.example.gethome.message.admission.AdmissionControlFilter;
+import com.example.gethome.message.admission.AdmissionController;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@Slf4j
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionController admissionController(
+            MeterRegistry meterRegistry,
+            @Value("${message.admission.emergency.max-concurrent:20}") int emergencyMaxConcurrent,
+            @Value("${message.admission.emergency.max-queue:20}") int emergencyMaxQueue,
+            @Value("${message.admission.emergency.max-wait-ms:5000}") long emergencyMaxWaitMs,
+            @Value("${message.admission.messages.max-concurrent:100}") int messagesMaxConcurrent,
+            @Value("${message.admission.messages.max-queue:10}") int messagesMaxQueue,
+            @Value("${message.admission.messages.max-wait-ms:100}") long messagesMaxWaitMs,
+            @Value("${server.tomcat.threads.max:200}") int containerThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        List<AdmissionController.Lane> lanes = List.of(
+            new AdmissionController.Lane(AdmissionControlFilter.EMERGENCY, emergencyMaxConcurrent, emergencyMaxQueue, emergencyMaxWaitMs),
+            new AdmissionController.Lane(AdmissionControlFilter.MESSAGES, messagesMaxConcurrent, messagesMaxQueue, messagesMaxWaitMs));
+
+        // A waiting request still holds its Tomcat thread
+        int threadsHeld = lanes.stream().mapToInt(lane -> lane.maxConcurrent() + lane.maxQueue()).sum();
+        if (!virtualThreads && threadsHeld > containerThreads) {
+            log.warn("Admission lanes can hold {} requests but Tomcat has {} threads; emergency capacity is not guaranteed",
+                threadsHeld, containerThreads);
+        }
+        return new AdmissionController(lanes, "message", meterRegistry);
+    }
+}
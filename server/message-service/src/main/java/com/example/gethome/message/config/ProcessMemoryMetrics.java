@@ -0,0 +1,45 @@
+package com.example.gethome.message.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Resident set size of the service process, read from /proc/self/status. Heap
+ * metrics leave out thread stacks and other native memory, which is where runs
+ * on platform and on virtual threads differ most. Not registered without /proc.
+ */
+@Component
+public class ProcessMemoryMetrics implements MeterBinder {
+
+    private static final Path STATUS = Path.of("/proc/self/status");
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!Files.isReadable(STATUS)) {
+            return;
+        }
+        Gauge.builder("gethome_process_resident_memory_bytes", ProcessMemoryMetrics::residentBytes)
+                .description("Resident set size of the service process")
+                .baseUnit("bytes")
+                .tag("service", "message")
+                .register(registry);
+    }
+
+    static double residentBytes() {
+        try (Stream<String> lines = Files.lines(STATUS)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .findFirst()
+                    .map(line -> Double.parseDouble(line.replaceAll("[^0-9]", "")) * 1024)
+                    .orElse(Double.NaN);
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+}
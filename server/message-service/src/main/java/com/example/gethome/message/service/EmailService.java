@@ -11,6 +11,8 @@ import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.UUID;
@@ -20,6 +22,8 @@ import java.util.UUID;
 @Slf4j
 public class EmailService {
 
+    private static final DateTimeFormatter EMERGENCY_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final JavaMailSender mailSender;
 
     @Value("${spring.mail.username}")
@@ -56,8 +60,8 @@ public class EmailService {
         }
     }
 
-    private String createEmergencyEmailContent(EmergencyNotification notification, UserManagementClient.EmergencyContact contact) {
-        String triggeredAt = notification.getTriggeredAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    String createEmergencyEmailContent(EmergencyNotification notification, UserManagementClient.EmergencyContact contact) {
+        String triggeredAt = notification.getTriggeredAt().format(EMERGENCY_TIME_FORMAT);
         String message = notification.getMetadata() != null ? (String) notification.getMetadata().get("message") : "Emergency situation detected";
         String googleMapsLink = notification.getMetadata() != null ? (String) notification.getMetadata().get("googleMapsLink") : "#";
         
@@ -244,18 +248,37 @@ public class EmailService {
      * Send emergency email to a contact (overloaded method for EmergencyNotificationService)
      */
     public String sendEmergencyEmail(EmergencyNotification notification, String contactEmail) {
+        return sendEmergencyEmail(prepareEmergencyEmail(notification), contactEmail);
+    }
+
+    /**
+     * Renders the emergency email for a notification once. Every contact gets the same
+     * body, so {@link #sendEmergencyEmail(EmergencyEmail, String)} only addresses it.
+     */
+    public EmergencyEmail prepareEmergencyEmail(EmergencyNotification notification) {
+        try {
+            // Same MIME structure as the other mails: mixed > related > text/html, UTF-8
+            MimeMessage template = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(template, true, "UTF-8");
+            helper.setText(createEmergencyEmailContentForContact(notification), true);
+            return new EmergencyEmail((MimeMultipart) template.getContent());
+        } catch (MessagingException | IOException e) {
+            log.error("Failed to render emergency email for notification: {}", notification.getId(), e);
+            throw new RuntimeException("Email rendering failed", e);
+        }
+    }
+
+    public String sendEmergencyEmail(EmergencyEmail email, String contactEmail) {
         try {
             log.info("Sending emergency email to contact: {}", contactEmail);
             
             MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
             
             helper.setFrom(fromEmail);
             helper.setTo(contactEmail);
             helper.setSubject(emergencySubject);
-            
-            String htmlContent = createEmergencyEmailContentForContact(notification, contactEmail);
-            helper.setText(htmlContent, true);
+            message.setContent(email.content());
             
             mailSender.send(message);
             
@@ -270,8 +293,8 @@ public class EmailService {
         }
     }
 
-    private String createEmergencyEmailContentForContact(EmergencyNotification notification, String contactEmail) {
-        String triggeredAt = notification.getTriggeredAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    String createEmergencyEmailContentForContact(EmergencyNotification notification) {
+        String triggeredAt = notification.getTriggeredAt().format(EMERGENCY_TIME_FORMAT);
         String googleMapsLink = String.format("https://www.google.com/maps?q=%.6f,%.6f", 
                 notification.getLatitude(), notification.getLongitude());
         
@@ -361,4 +384,23 @@ public class EmailService {
             notification.getId() != null ? notification.getId() : "N/A"
         );
     }
-} 
\ No newline at end of file
+
+    /**
+     * An emergency email rendered for one notification. The multipart body is shared by
+     * every message addressed from it; its transfer encoding is worked out on the first
+     * send and reused after that. Messages sharing it must be sent one at a time, as the
+     * notification loop does.
+     */
+    public static final class EmergencyEmail {
+
+        private final MimeMultipart content;
+
+        EmergencyEmail(MimeMultipart content) {
+            this.content = content;
+        }
+
+        MimeMultipart content() {
+            return content;
+        }
+    }
+}
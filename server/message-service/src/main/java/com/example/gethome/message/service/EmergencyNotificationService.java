@@ -29,7 +29,7 @@ import java.util.ArrayList;
 public class EmergencyNotificationService {
     
     // Record to hold separated contact data
-    private record EmergencyContactsData(List<String> emailContacts, List<String> phoneContacts) {}
+    record EmergencyContactsData(List<String> emailContacts, List<String> phoneContacts) {}
 
     private final EmergencyNotificationRepository emergencyNotificationRepository;
     private final EmailService emailService;
@@ -284,18 +284,25 @@ public class EmergencyNotificationService {
         }
     }
 
-    private int sendNotificationsToEmergencyContacts(EmergencyNotification notification) {
+    int sendNotificationsToEmergencyContacts(EmergencyNotification notification) {
         int contactsNotified = 0;
         
         try {
             // Get emergency contacts with proper separation by type
             EmergencyContactsData contactsData = getEmergencyContactsData(notification.getUserId());
             
+            // Contacts all get the same text, so render it once rather than per recipient.
+            // Each channel renders on its own: a broken email must not stop the SMS
+            EmailService.EmergencyEmail emergencyEmail = contactsData.emailContacts().isEmpty()
+                    ? null : renderEmergencyEmail(notification, contactsData.emailContacts().size());
+            String smsContent = contactsData.phoneContacts().isEmpty()
+                    ? null : renderEmergencySms(notification, contactsData.phoneContacts().size());
+            
             // Send email notifications to email contacts
-            for (String emailContact : contactsData.emailContacts()) {
+            for (String emailContact : emergencyEmail == null ? List.<String>of() : contactsData.emailContacts()) {
                 try {
                     emailDeliveryTime.recordCallable(() -> {
-                        emailService.sendEmergencyEmail(notification, emailContact);
+                        emailService.sendEmergencyEmail(emergencyEmail, emailContact);
                         emailNotificationsTotal.increment();
                         return null;
                     });
@@ -314,10 +321,10 @@ public class EmergencyNotificationService {
             }
             
             // Send SMS notifications to phone contacts
-            for (String phoneContact : contactsData.phoneContacts()) {
+            for (String phoneContact : smsContent == null ? List.<String>of() : contactsData.phoneContacts()) {
                 try {
                     smsDeliveryTime.recordCallable(() -> {
-                        smsService.sendEmergencySMS(phoneContact, notification);
+                        smsService.sendEmergencySMS(phoneContact, smsContent);
                         smsNotificationsTotal.increment();
                         return null;
                     });
@@ -338,6 +345,26 @@ public class EmergencyNotificationService {
         return contactsNotified;
     }
 
+    private EmailService.EmergencyEmail renderEmergencyEmail(EmergencyNotification notification, int recipients) {
+        try {
+            return emailService.prepareEmergencyEmail(notification);
+        } catch (Exception e) {
+            notificationDeliveryFailures.increment(recipients);
+            log.error("Failed to render emergency email for notification: {}", notification.getId(), e);
+            return null;
+        }
+    }
+
+    private String renderEmergencySms(EmergencyNotification notification, int recipients) {
+        try {
+            return smsService.createEmergencySmsContentForContact(notification);
+        } catch (Exception e) {
+            notificationDeliveryFailures.increment(recipients);
+            log.error("Failed to render emergency SMS for notification: {}", notification.getId(), e);
+            return null;
+        }
+    }
+
     private void escalateToAuthorities(EmergencyNotification notification) throws Exception {
         notificationProcessingTime.recordCallable(() -> {
             log.info("Escalating critical emergency to authorities: {}", notification.getId());
@@ -355,7 +382,7 @@ public class EmergencyNotificationService {
         return recentAlerts.size() > 1; // More than 1 alert in 5 minutes might be duplicate
     }
 
-    private EmergencyContactsData getEmergencyContactsData(String userId) {
+    EmergencyContactsData getEmergencyContactsData(String userId) {
         List<String> emailContacts = new ArrayList<>();
         List<String> phoneContacts = new ArrayList<>();
         
@@ -1,10 +1,13 @@
 package com.example.gethome.message.service;
 
+import com.example.gethome.message.client.RedirectingTwilioHttpClient;
 import com.example.gethome.message.client.UserManagementClient;
 import com.example.gethome.message.model.EmergencyNotification;
 import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +21,8 @@ import java.util.Map;
 @Slf4j
 public class SmsService {
 
+    private static final DateTimeFormatter EMERGENCY_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd, HH:mm");
+
     @Value("${twilio.account.sid}")
     private String accountSid;
 
@@ -27,13 +32,31 @@ public class SmsService {
     @Value("${twilio.phone.number}")
     private String fromPhoneNumber;
 
+    // Empty sends to Twilio itself; set to a stand-in's base URL for load tests
+    @Value("${twilio.api.url:}")
+    private String apiUrl;
+
+    // Once: Twilio.init is a static synchronized call that also drops the cached REST client,
+    // so initializing per message serialized senders and reconnected to Twilio every time
+    @PostConstruct
+    public void initializeTwilio() {
+        if (accountSid == null || accountSid.isBlank() || authToken == null || authToken.isBlank()) {
+            log.warn("Twilio credentials are not configured, SMS sending will fail");
+            return;
+        }
+        Twilio.init(accountSid, authToken);
+        if (apiUrl != null && !apiUrl.isBlank()) {
+            Twilio.setRestClient(new TwilioRestClient.Builder(accountSid, authToken)
+                .httpClient(new RedirectingTwilioHttpClient(apiUrl))
+                .build());
+            log.warn("Sending SMS through {} instead of Twilio", apiUrl);
+        }
+    }
+
     public String sendEmergencySms(EmergencyNotification notification, UserManagementClient.EmergencyContact contact) {
         try {
             log.info("Sending emergency SMS to: {}", contact.phone());
             
-            // Initialize Twilio
-            Twilio.init(accountSid, authToken);
-            
             // Create SMS content
             String smsContent = createEmergencySmsContent(notification, contact);
             
@@ -54,7 +77,7 @@ public class SmsService {
         }
     }
 
-    private String createEmergencySmsContent(EmergencyNotification notification, UserManagementClient.EmergencyContact contact) {
+    String createEmergencySmsContent(EmergencyNotification notification, UserManagementClient.EmergencyContact contact) {
         String googleMapsLink = notification.getMetadata() != null ? 
             (String) notification.getMetadata().get("googleMapsLink") : 
             String.format("https://www.google.com/maps?q=%.6f,%.6f", notification.getLatitude(), notification.getLongitude());
@@ -65,7 +88,7 @@ public class SmsService {
         content.append("A GetHome user needs immediate help!\n\n");
         content.append("📍 Location: ").append(notification.getLocation()).append("\n");
         content.append("🗺️ Live Map: ").append(googleMapsLink).append("\n");
-        content.append("⏰ Time: ").append(notification.getTriggeredAt().format(DateTimeFormatter.ofPattern("MMM dd, HH:mm"))).append("\n");
+        content.append("⏰ Time: ").append(notification.getTriggeredAt().format(EMERGENCY_TIME_FORMAT)).append("\n");
         content.append("📝 Reason: ").append(notification.getReason()).append("\n\n");
         content.append("⚠️ Please respond immediately or call emergency services if needed!");
         
@@ -76,9 +99,6 @@ public class SmsService {
         try {
             log.info("Sending custom SMS to: {}", toPhoneNumber);
             
-            // Initialize Twilio
-            Twilio.init(accountSid, authToken);
-            
             // Send SMS
             Message twilioMessage = Message.creator(
                 new PhoneNumber(toPhoneNumber),
@@ -117,15 +137,17 @@ public class SmsService {
      * Send emergency SMS to a contact (overloaded method for EmergencyNotificationService)
      */
     public String sendEmergencySMS(String contact, EmergencyNotification notification) {
+        return sendEmergencySMS(contact, createEmergencySmsContentForContact(notification));
+    }
+
+    /**
+     * Sends emergency SMS text built once per notification with
+     * {@link #createEmergencySmsContentForContact}; it is the same for every contact.
+     */
+    public String sendEmergencySMS(String contact, String smsContent) {
         try {
             log.info("Sending emergency SMS to contact: {}", contact);
             
-            // Initialize Twilio
-            Twilio.init(accountSid, authToken);
-            
-            // Create SMS content for contact
-            String smsContent = createEmergencySmsContentForContact(contact, notification);
-            
             // Send SMS
             Message message = Message.creator(
                 new PhoneNumber(contact),
@@ -143,7 +165,7 @@ public class SmsService {
         }
     }
 
-    private String createEmergencySmsContentForContact(String contact, EmergencyNotification notification) {
+    String createEmergencySmsContentForContact(EmergencyNotification notification) {
         String googleMapsLink = String.format("https://www.google.com/maps?q=%.6f,%.6f", 
                 notification.getLatitude(), notification.getLongitude());
             
@@ -0,0 +1,132 @@
+package com.example.gethome.message.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionController admission;
+    private AdmissionControlFilter filter;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admission = new AdmissionController(List.of(
+            new AdmissionController.Lane(AdmissionControlFilter.EMERGENCY, 1, 1, 2_000),
+            new AdmissionController.Lane(AdmissionControlFilter.MESSAGES, 1, 0, 20)), "message", meterRegistry);
+        filter = new AdmissionControlFilter(admission, true);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void classifiesEmergencyAndMessageRoutesIntoTheirLanes() {
+        assertEquals(AdmissionControlFilter.EMERGENCY, AdmissionControlFilter.trafficClass("/api/emergency/trigger"));
+        assertEquals(AdmissionControlFilter.EMERGENCY, AdmissionControlFilter.trafficClass("/api/emergency/notifications/user-1"));
+        assertEquals(AdmissionControlFilter.MESSAGES, AdmissionControlFilter.trafficClass("/api/messages/custom"));
+        assertEquals(AdmissionControlFilter.MESSAGES, AdmissionControlFilter.trafficClass("/api/messages/logs/user-1"));
+        assertNull(AdmissionControlFilter.trafficClass("/api/templates/emergency"));
+        assertNull(AdmissionControlFilter.trafficClass("/api/emergency"));
+        assertNull(AdmissionControlFilter.trafficClass("/api/v1/message/health"));
+        assertNull(AdmissionControlFilter.trafficClass("/actuator/health"));
+    }
+
+    @Test
+    void messagesAreShedWith429WhenTheirLaneIsFull() throws Exception {
+        AdmissionController.Permit held = admission.admit(AdmissionControlFilter.MESSAGES);
+
+        MockHttpServletResponse shed = send("/api/messages/custom");
+        assertEquals(429, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+
+        held.close();
+        MockHttpServletResponse admitted = send("/api/messages/custom");
+        assertEquals(200, admitted.getStatus());
+        assertEquals(0, admission.inFlight(AdmissionControlFilter.MESSAGES), "the permit is released after the request");
+    }
+
+    @Test
+    void emergenciesBorrowIdleMessagePermitsAndAreShedWith503WhenPermitsAndQueueAreTaken() throws Exception {
+        AdmissionController.Permit own = admission.admit(AdmissionControlFilter.EMERGENCY);
+        assertEquals(200, send("/api/emergency/trigger").getStatus(), "an idle message permit is lent to an emergency");
+
+        AdmissionController.Permit messages = admission.admit(AdmissionControlFilter.MESSAGES);
+        executor.submit(() -> admission.admit(AdmissionControlFilter.EMERGENCY)); // Fills the one-slot queue
+        awaitWaitingEmergency();
+
+        MockHttpServletResponse shed = send("/api/emergency/trigger");
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        own.close();
+        messages.close();
+    }
+
+    @Test
+    void messagesAreShedWhileAnEmergencyWaits() throws Exception {
+        AdmissionController.Permit own = admission.admit(AdmissionControlFilter.EMERGENCY);
+        AdmissionController.Permit messages = admission.admit(AdmissionControlFilter.MESSAGES);
+        CompletableFuture<AdmissionController.Permit> waitingEmergency = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admission.admit(AdmissionControlFilter.EMERGENCY);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        awaitWaitingEmergency();
+
+        assertEquals(429, send("/api/messages/custom").getStatus());
+        messages.close();
+        assertNotNull(waitingEmergency.get(5, TimeUnit.SECONDS), "the waiting emergency takes the freed message permit");
+        assertEquals(1.0, meterRegistry.get("gethome_admission_shed_total")
+            .tag("traffic_class", AdmissionControlFilter.MESSAGES).tag("reason", "priority").counter().count());
+        own.close();
+    }
+
+    @Test
+    void otherRoutesAndDisabledAdmissionPassThrough() throws Exception {
+        admission.admit(AdmissionControlFilter.MESSAGES);
+
+        assertEquals(200, send("/api/templates/emergency").getStatus());
+        filter = new AdmissionControlFilter(admission, false);
+        assertEquals(200, send("/api/messages/custom").getStatus());
+    }
+
+    private void awaitWaitingEmergency() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.waiting(AdmissionControlFilter.EMERGENCY) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, admission.waiting(AdmissionControlFilter.EMERGENCY));
+    }
+
+    private MockHttpServletResponse send(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
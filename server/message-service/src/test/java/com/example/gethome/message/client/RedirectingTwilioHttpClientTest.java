@@ -0,0 +1,60 @@
+package com.example.gethome.message.client;
+
+import com.sun.net.httpserver.HttpServer;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedirectingTwilioHttpClientTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> path = new AtomicReference<>();
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+    private final AtomicReference<String> body = new AtomicReference<>();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            path.set(exchange.getRequestURI().getPath());
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] response = "{\"sid\":\"SM123\",\"account_sid\":\"AC123\",\"status\":\"queued\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(201, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void sendsMessagesToConfiguredBaseUrl() {
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "secret")
+            .httpClient(new RedirectingTwilioHttpClient("http://localhost:" + server.getAddress().getPort() + "/"))
+            .build();
+
+        Message message = Message.creator(new PhoneNumber("+15550001"), new PhoneNumber("+15550002"), "Help")
+            .create(client);
+
+        assertEquals("SM123", message.getSid());
+        assertEquals("/2010-04-01/Accounts/AC123/Messages.json", path.get());
+        assertTrue(authorization.get().startsWith("Basic "));
+        assertTrue(body.get().contains("Body=Help"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gethome.message.config;
+
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadMailConfigTest {
+
+    @Test
+    void postProcessor_WrapsMailSendersOnly() {
+        var postProcessor = VirtualThreadMailConfig.platformThreadMailSender(2);
+        JavaMailSender mailSender = new JavaMailSenderImpl();
+
+        Object wrapped = postProcessor.postProcessAfterInitialization(mailSender, "mailSender");
+
+        assertInstanceOf(VirtualThreadMailConfig.PlatformThreadMailSender.class, wrapped);
+        assertSame(wrapped, postProcessor.postProcessAfterInitialization(wrapped, "mailSender"));
+        Object other = new Object();
+        assertSame(other, postProcessor.postProcessAfterInitialization(other, "other"));
+    }
+
+    @Test
+    void send_RunsOnAPlatformSenderThread() {
+        AtomicReference<Thread> sentOn = new AtomicReference<>();
+        var sender = new VirtualThreadMailConfig.PlatformThreadMailSender(new StubMailSender() {
+            @Override
+            public void send(SimpleMailMessage... simpleMessages) {
+                sentOn.set(Thread.currentThread());
+            }
+        }, 1);
+
+        sender.send(new SimpleMailMessage());
+
+        assertTrue(sentOn.get().getName().startsWith("smtp-send-"));
+        assertNotSame(Thread.currentThread(), sentOn.get());
+    }
+
+    @Test
+    void send_RethrowsTheSendersMailExceptionUnwrapped() {
+        MailAuthenticationException failure = new MailAuthenticationException("bad credentials");
+        var sender = new VirtualThreadMailConfig.PlatformThreadMailSender(new StubMailSender() {
+            @Override
+            public void send(SimpleMailMessage... simpleMessages) {
+                throw failure;
+            }
+        }, 1);
+
+        MailAuthenticationException thrown = assertThrows(MailAuthenticationException.class,
+            () -> sender.send(new SimpleMailMessage()));
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void send_WrapsErrorsInAMailSendException() {
+        StackOverflowError failure = new StackOverflowError();
+        var sender = new VirtualThreadMailConfig.PlatformThreadMailSender(new StubMailSender() {
+            @Override
+            public void send(SimpleMailMessage... simpleMessages) {
+                throw failure;
+            }
+        }, 1);
+
+        MailSendException thrown = assertThrows(MailSendException.class, () -> sender.send(new SimpleMailMessage()));
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    void send_InterruptedCallerCancelsTheSendAndKeepsItsInterruptFlag() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicBoolean senderInterrupted = new AtomicBoolean();
+        var sender = new VirtualThreadMailConfig.PlatformThreadMailSender(new StubMailSender() {
+            @Override
+            public void send(SimpleMailMessage... simpleMessages) {
+                sending.countDown();
+                try {
+                    Thread.sleep(30_000); // A mail server that never answers
+                } catch (InterruptedException e) {
+                    senderInterrupted.set(true);
+                } finally {
+                    stopped.countDown();
+                }
+            }
+        }, 1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean callerStillInterrupted = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                sender.send(new SimpleMailMessage());
+            } catch (Throwable e) {
+                thrown.set(e);
+                callerStillInterrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+
+        caller.start();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5_000);
+
+        assertInstanceOf(MailSendException.class, thrown.get());
+        assertInstanceOf(InterruptedException.class, thrown.get().getCause());
+        assertTrue(callerStillInterrupted.get());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(senderInterrupted.get(), "The SMTP exchange on the platform thread is interrupted too");
+    }
+
+    private static class StubMailSender extends JavaMailSenderImpl {
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.gethome.message.service;
+
+import com.example.gethome.message.model.EmergencyNotification;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailServiceTest {
+
+    private final List<MimeMessage> sent = new ArrayList<>();
+    private final List<String> wire = new ArrayList<>();
+    private EmailService emailService;
+    private EmergencyNotification notification;
+
+    @BeforeEach
+    void setUp() {
+        emailService = new EmailService(new JavaMailSenderImpl() {
+            @Override
+            protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+                for (MimeMessage message : mimeMessages) {
+                    try {
+                        message.saveChanges();
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        message.writeTo(out);
+                        wire.add(out.toString(StandardCharsets.US_ASCII));
+                    } catch (MessagingException | IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    sent.add(message);
+                }
+            }
+        });
+        ReflectionTestUtils.setField(emailService, "fromEmail", "alerts@gethome.local");
+        ReflectionTestUtils.setField(emailService, "emergencySubject", "EMERGENCY ALERT");
+
+        notification = EmergencyNotification.builder()
+            .id("notification-1")
+            .userId("test-user")
+            .emergencyType("MANUAL")
+            .reason("Followed home")
+            .latitude(48.137154)
+            .longitude(11.576124)
+            .location("Marienplatz 1, München")
+            .triggeredAt(LocalDateTime.of(2024, 3, 14, 23, 41, 7))
+            .build();
+    }
+
+    @Test
+    void preparedEmergencyEmailIsAddressedToEachContactWithTheSameBody() throws Exception {
+        EmailService.EmergencyEmail email = emailService.prepareEmergencyEmail(notification);
+
+        emailService.sendEmergencyEmail(email, "first@example.com");
+        emailService.sendEmergencyEmail(email, "second@example.com");
+
+        assertEquals(2, sent.size());
+        assertEquals("first@example.com", sent.get(0).getAllRecipients()[0].toString());
+        assertEquals("second@example.com", sent.get(1).getAllRecipients()[0].toString());
+        assertEquals("EMERGENCY ALERT", sent.get(1).getSubject());
+
+        String first = body(sent.get(0));
+        assertEquals(first, body(sent.get(1)));
+        assertTrue(first.contains("Marienplatz 1, München"));
+        assertTrue(first.contains("2024-03-14 23:41:07"));
+        // The shared body is encoded into each message, not just the first
+        assertTrue(wire.get(1).contains("To: second@example.com"));
+        assertTrue(wire.get(1).contains("Marienplatz 1, M=C3=BCnchen"));
+    }
+
+    @Test
+    void sendingFromNotificationRendersTheSameEmail() throws Exception {
+        emailService.sendEmergencyEmail(emailService.prepareEmergencyEmail(notification), "first@example.com");
+        emailService.sendEmergencyEmail(notification, "second@example.com");
+
+        assertEquals(body(sent.get(0)), body(sent.get(1)));
+    }
+
+    /** The HTML part, found through the mixed and related multiparts. */
+    private static String body(Part part) throws MessagingException, IOException {
+        Object content = part.getContent();
+        return content instanceof Multipart multipart ? body(multipart.getBodyPart(0)) : (String) content;
+    }
+}
@@ -7,6 +7,7 @@ import com.example.gethome.message.model.MessageLog;
 import com.example.gethome.message.repository.EmergencyNotificationRepository;
 import com.example.gethome.message.repository.MessageLogRepository;
 import com.example.gethome.message.client.UserManagementClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -195,4 +196,22 @@ class EmergencyNotificationServiceTest {
         assertEquals("notification-1", savedNotification.getId());
         assertEquals("log-1", savedLog.getId());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void smsIsSentWhenTheEmailCannotBeRendered() {
+        EmergencyNotificationService service = new EmergencyNotificationService(emergencyNotificationRepository,
+            emailService, smsService, mock(WebSocketNotificationService.class), userManagementClient,
+            new SimpleMeterRegistry());
+        service.initializeMetrics();
+        when(userManagementClient.getEmergencyContacts("test-user")).thenReturn(List.of(
+            new UserManagementClient.EmergencyContact("contact-1", "Alex", "alex@example.com", "+15550100", "BOTH")));
+        when(emailService.prepareEmergencyEmail(mockNotification)).thenThrow(new IllegalStateException("No mail session"));
+        when(smsService.createEmergencySmsContentForContact(mockNotification)).thenReturn("Emergency alert");
+
+        int notified = service.sendNotificationsToEmergencyContacts(mockNotification);
+
+        assertEquals(1, notified);
+        verify(smsService).sendEmergencySMS("+15550100", "Emergency alert");
+        verify(emailService, never()).sendEmergencyEmail(any(EmailService.EmergencyEmail.class), anyString());
+    }
+}
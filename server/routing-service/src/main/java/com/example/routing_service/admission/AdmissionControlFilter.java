@@ -0,0 +1,88 @@
+package com.example.routing_service.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts every API request into a traffic class before it reaches security or a controller.
+ * Emergency triggers get reserved capacity and priority. Route planning, which waits on
+ * ORS, is shed with 429 as soon as its lane is full. Actuator and error paths are never
+ * held back.
+ *
+ * <p>A permit covers the time a request holds a Tomcat thread. Reactive plans give their
+ * thread back as soon as they go async and are limited by their own bulkhead.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String EMERGENCY = "emergency";
+    public static final String ROUTE_PLANNING = "route_planning";
+    public static final String STANDARD = "standard";
+
+    private final AdmissionController admissionController;
+    private final boolean enabled;
+
+    public AdmissionControlFilter(AdmissionController admissionController,
+                                  @Value("${routing.admission.enabled:true}") boolean enabled) {
+        this.admissionController = admissionController;
+        this.enabled = enabled;
+    }
+
+    static String trafficClass(String path) {
+        if (path.startsWith("/api/emergency/")) {
+            return EMERGENCY;
+        }
+        if (path.startsWith("/api/routes/plan")) {
+            return ROUTE_PLANNING;
+        }
+        return path.startsWith("/api/") ? STANDARD : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || trafficClass(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String trafficClass = trafficClass(request.getServletPath());
+        AdmissionController.Permit permit = admit(trafficClass);
+        if (permit == null) {
+            log.debug("Shed {} request {} {}", trafficClass, request.getMethod(), request.getServletPath());
+            // Running out of reserved emergency capacity is our failure, not the caller's rate
+            response.setStatus(admissionController.isPriorityLane(trafficClass)
+                ? HttpStatus.SERVICE_UNAVAILABLE.value() : HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try (permit) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private AdmissionController.Permit admit(String trafficClass) {
+        try {
+            return admissionController.admit(trafficClass);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.routing_service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests per traffic class, each with its own bounded permits and wait queue, so
+ * one class saturating cannot take capacity from another.
+ *
+ * <p>Lanes are given highest priority first. The first lane's permits are reserved for it.
+ * While it has a request waiting, lower lanes admit nothing new, and it may take any idle
+ * permit from a lower lane. Lower lanes are meant to be shed quickly: short waits and
+ * short queues.
+ */
+public class AdmissionController {
+
+    // The priority lane re-checks lower lanes for idle permits at this interval while waiting
+    private static final long BORROW_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * @param maxConcurrent requests admitted at once
+     * @param maxQueue      requests allowed to wait for a permit; more are shed at once
+     * @param maxWaitMs     longest a request waits before it is shed
+     */
+    public record Lane(String name, int maxConcurrent, int maxQueue, long maxWaitMs) {
+    }
+
+    /** Held while an admitted request runs; closing it frees the permit. */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final Map<String, LaneState> lanes = new LinkedHashMap<>();
+    private final LaneState priorityLane;
+
+    public AdmissionController(List<Lane> lanesByPriority, String service, MeterRegistry meterRegistry) {
+        if (lanesByPriority.isEmpty()) {
+            throw new IllegalArgumentException("At least one traffic lane is required");
+        }
+        for (Lane lane : lanesByPriority) {
+            lanes.put(lane.name(), new LaneState(lane, service, meterRegistry));
+        }
+        this.priorityLane = lanes.get(lanesByPriority.get(0).name());
+    }
+
+    /**
+     * Waits for a permit in the given lane.
+     *
+     * @return the permit, or null when the request should be shed
+     */
+    public Permit admit(String laneName) throws InterruptedException {
+        LaneState lane = lanes.get(laneName);
+        if (lane == null) {
+            throw new IllegalArgumentException("Unknown traffic lane: " + laneName);
+        }
+        if (lane != priorityLane && priorityLane.waiting.get() > 0) {
+            lane.shedForPriority.increment();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        Semaphore source = tryAcquireNow(lane);
+        if (source == null) {
+            if (lane.waiting.incrementAndGet() > lane.lane.maxQueue()) {
+                lane.waiting.decrementAndGet();
+                lane.shedQueueFull.increment();
+                return null;
+            }
+            try {
+                source = awaitPermit(lane, start + TimeUnit.MILLISECONDS.toNanos(lane.lane.maxWaitMs()));
+            } finally {
+                lane.waiting.decrementAndGet();
+            }
+            if (source == null) {
+                lane.shedTimeout.increment();
+                return null;
+            }
+        }
+        lane.waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        lane.inFlight.incrementAndGet();
+
+        Semaphore held = source;
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                lane.inFlight.decrementAndGet();
+                held.release();
+            }
+        };
+    }
+
+    public boolean isPriorityLane(String laneName) {
+        return priorityLane.lane.name().equals(laneName);
+    }
+
+    int inFlight(String laneName) {
+        return lanes.get(laneName).inFlight.get();
+    }
+
+    int waiting(String laneName) {
+        return lanes.get(laneName).waiting.get();
+    }
+
+    private Semaphore tryAcquireNow(LaneState lane) {
+        if (lane.permits.tryAcquire()) {
+            return lane.permits;
+        }
+        return lane == priorityLane ? borrow() : null;
+    }
+
+    private Semaphore awaitPermit(LaneState lane, long deadline) throws InterruptedException {
+        if (lane != priorityLane) {
+            long remaining = deadline - System.nanoTime();
+            return remaining > 0 && lane.permits.tryAcquire(remaining, TimeUnit.NANOSECONDS) ? lane.permits : null;
+        }
+        // Whichever frees first: one of our own permits or an idle one in a lower lane
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            if (lane.permits.tryAcquire(Math.min(remaining, BORROW_POLL_NANOS), TimeUnit.NANOSECONDS)) {
+                return lane.permits;
+            }
+            Semaphore borrowed = borrow();
+            if (borrowed != null) {
+                return borrowed;
+            }
+        }
+        return null;
+    }
+
+    private Semaphore borrow() {
+        for (LaneState other : lanes.values()) {
+            if (other != priorityLane && other.permits.tryAcquire()) {
+                return other.permits;
+            }
+        }
+        return null;
+    }
+
+    private static final class LaneState {
+
+        final Lane lane;
+        final Semaphore permits;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+        final Timer waitTime;
+        final Counter shedQueueFull;
+        final Counter shedTimeout;
+        final Counter shedForPriority;
+
+        LaneState(Lane lane, String service, MeterRegistry meterRegistry) {
+            this.lane = lane;
+            this.permits = new Semaphore(lane.maxConcurrent());
+            Gauge.builder("gethome_admission_in_flight", inFlight, AtomicInteger::get)
+                .description("Requests admitted and running, per traffic class")
+                .tag("service", service)
+                .tag("traffic_class", lane.name())
+                .register(meterRegistry);
+            Gauge.builder("gethome_admission_queue_depth", waiting, AtomicInteger::get)
+                .description("Requests waiting for admission, per traffic class")
+                .tag("service", service)
+                .tag("traffic_class", lane.name())
+                .register(meterRegistry);
+            this.waitTime = Timer.builder("gethome_admission_wait_duration_seconds")
+                .description("Time admitted requests waited for a permit, per traffic class")
+                .tag("service", service)
+                .tag("traffic_class", lane.name())
+                .publishPercentiles(0.5, 0.99)
+                .distributionStatisticExpiry(Duration.ofMinutes(2))
+                .register(meterRegistry);
+            this.shedQueueFull = shedCounter(service, lane.name(), "queue_full", meterRegistry);
+            this.shedTimeout = shedCounter(service, lane.name(), "timeout", meterRegistry);
+            this.shedForPriority = shedCounter(service, lane.name(), "priority", meterRegistry);
+        }
+
+        private static Counter shedCounter(String service, String laneName, String reason, MeterRegistry meterRegistry) {
+            return Counter.builder("gethome_admission_shed_total")
+                .description("Requests rejected by admission control, per traffic class and reason")
+                .tag("service", service)
+                .tag("traffic_class", laneName)
+                .tag("reason", reason)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.routing_service.client;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -12,6 +13,10 @@ public interface OpenRouteServiceClient {
     @PostMapping("/directions/foot-walking")
     OpenRouteResponse getWalkingRoute(@RequestBody OpenRouteRequest request);
     
+    // Same call with timeouts for this call only, so it cannot outlive the caller's deadline
+    @PostMapping("/directions/foot-walking")
+    OpenRouteResponse getWalkingRoute(@RequestBody OpenRouteRequest request, Request.Options options);
+    
     // DTOs for OpenRouteService API
     record OpenRouteRequest(double[][] coordinates, 
                            String preference, 
@@ -20,9 +25,13 @@ public interface OpenRouteServiceClient {
                            String geometry_simplify,
                            boolean continue_straight,
                            @JsonInclude(JsonInclude.Include.NON_NULL)
-                           Options options) {}
+                           Options options,
+                           @JsonInclude(JsonInclude.Include.NON_NULL)
+                           AlternativeRoutes alternative_routes) {}
 
     record Options(AvoidPolygons avoid_polygons) {}
+    // Only honoured by ORS for requests with exactly two coordinates
+    record AlternativeRoutes(int target_count, double weight_factor, double share_factor) {}
     record AvoidPolygons(String type, Object coordinates) {}
     
     record OpenRouteResponse(OpenRouteRoute[] routes, 
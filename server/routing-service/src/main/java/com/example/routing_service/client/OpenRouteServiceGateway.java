@@ -0,0 +1,479 @@
+package com.example.routing_service.client;
+
+import com.example.routing_service.util.GeoMath;
+import com.example.routing_service.util.PolylineCodec;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resilient access to OpenRouteService: bulkhead, circuit breaker and hedged requests
+ * around {@link OpenRouteServiceClient}, with a degraded fallback (last known route for
+ * the same trip, otherwise a straight line) when ORS is unavailable.
+ *
+ * {@link #getWalkingRouteReactive} is the non-blocking path over
+ * {@link ReactiveOpenRouteServiceClient}. It shares the circuit breaker and the last
+ * known routes, has a bulkhead of its own that rejects instead of waiting, and does not hedge.
+ *
+ * Every call, hedges included, takes a token from {@link OrsQuotaGovernor} once the circuit
+ * breaker and bulkhead have let it through, so calls that never reach ORS cost no quota.
+ * Without a token the fallback route is served, as during an outage.
+ */
+@Component
+@Slf4j
+public class OpenRouteServiceGateway {
+
+    private static final double WALKING_SPEED = 1.3; // meters per second
+
+    static final String CACHED_ROUTE_WARNING =
+        "Live routing is unavailable. This is a previously calculated route and may not reflect the latest danger zones.";
+    static final String STRAIGHT_LINE_WARNING =
+        "Live routing is unavailable. This is a straight-line estimate without danger zone avoidance; stay on busy, well-lit streets.";
+
+    private final OpenRouteServiceClient openRouteServiceClient;
+    private final ReactiveOpenRouteServiceClient reactiveClient;
+    private final OrsQuotaGovernor quotaGovernor;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Bulkhead emergencyBulkhead;
+    private final Bulkhead reactiveBulkhead;
+    private final Bulkhead reactiveEmergencyBulkhead;
+    private final ThreadPoolExecutor callExecutor;
+    private final Semaphore hedgePermits;
+    private final boolean hedgingEnabled;
+    private final long minHedgeDelayMs;
+    private final long callTimeoutMs;
+    private final long connectTimeoutMs;
+    private final Map<String, OpenRouteServiceClient.OpenRouteResponse> lastKnownRoutes;
+
+    private final Timer callLatency;
+    private final Counter hedgedCalls;
+    private final Counter cachedFallbacks;
+    private final Counter straightLineFallbacks;
+
+    public OpenRouteServiceGateway(OpenRouteServiceClient openRouteServiceClient,
+                                   ReactiveOpenRouteServiceClient reactiveClient,
+                                   OrsQuotaGovernor quotaGovernor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${routing.ors.call-timeout-ms:8000}") long callTimeoutMs,
+                                   @Value("${spring.cloud.openfeign.client.config.openrouteservice.connect-timeout:2000}") long connectTimeoutMs,
+                                   @Value("${routing.ors.max-concurrent-calls:40}") int maxConcurrentCalls,
+                                   @Value("${routing.ors.emergency-concurrent-calls:8}") int emergencyConcurrentCalls,
+                                   @Value("${routing.ors.hedge.enabled:true}") boolean hedgingEnabled,
+                                   @Value("${routing.ors.hedge.min-delay-ms:800}") long minHedgeDelayMs,
+                                   @Value("${routing.ors.hedge.max-in-flight:10}") int maxHedgesInFlight,
+                                   @Value("${routing.ors.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                   @Value("${routing.ors.circuit-breaker.open-state-ms:30000}") long openStateMs,
+                                   @Value("${routing.ors.fallback-cache-size:500}") int fallbackCacheSize) {
+        this.openRouteServiceClient = openRouteServiceClient;
+        this.reactiveClient = reactiveClient;
+        this.quotaGovernor = quotaGovernor;
+        this.callTimeoutMs = callTimeoutMs;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.hedgingEnabled = hedgingEnabled;
+        this.minHedgeDelayMs = minHedgeDelayMs;
+        this.hedgePermits = new Semaphore(maxHedgesInFlight);
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(20)
+            .minimumNumberOfCalls(10)
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallDurationThreshold(Duration.ofMillis(callTimeoutMs / 2))
+            .slowCallRateThreshold(80)
+            .waitDurationInOpenState(Duration.ofMillis(openStateMs))
+            .permittedNumberOfCallsInHalfOpenState(3)
+            .recordException(OpenRouteServiceGateway::isOutage)
+            .ignoreExceptions(BulkheadFullException.class, OrsQuotaExhaustedException.class)
+            .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker("openrouteservice");
+
+        // Caps the request threads that can be parked on ORS, leaving the rest of the pool
+        // (emergency triggers, danger zone reports) responsive while ORS is slow
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ofMillis(50))
+            .build());
+        this.bulkhead = bulkheads.bulkhead("openrouteservice");
+        // Emergency routes have permits of their own, so they never queue behind route planning
+        this.emergencyBulkhead = bulkheads.bulkhead("openrouteservice-emergency", BulkheadConfig.custom()
+            .maxConcurrentCalls(emergencyConcurrentCalls)
+            .maxWaitDuration(Duration.ofMillis(50))
+            .build());
+        // Waiting for a permit would block an event loop thread
+        BulkheadConfig rejectWhenFull = BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build();
+        this.reactiveBulkhead = bulkheads.bulkhead("openrouteservice-reactive", rejectWhenFull);
+        this.reactiveEmergencyBulkhead = bulkheads.bulkhead("openrouteservice-reactive-emergency",
+            BulkheadConfig.from(rejectWhenFull).maxConcurrentCalls(emergencyConcurrentCalls).build());
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+
+        int poolSize = maxConcurrentCalls + emergencyConcurrentCalls + maxHedgesInFlight;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.callExecutor = new ThreadPoolExecutor(
+            poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(poolSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ors-call-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.callExecutor.allowCoreThreadTimeOut(true);
+
+        this.lastKnownRoutes = Collections.synchronizedMap(
+            new LinkedHashMap<>(fallbackCacheSize, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, OpenRouteServiceClient.OpenRouteResponse> eldest) {
+                    return size() > fallbackCacheSize;
+                }
+            });
+
+        this.callLatency = Timer.builder("gethome_openroute_call_duration_seconds")
+            .description("Latency of individual OpenRouteService calls, used to derive the hedge delay")
+            .tag("service", "routing")
+            .publishPercentiles(0.95)
+            .distributionStatisticExpiry(Duration.ofMinutes(2))
+            .register(meterRegistry);
+        this.hedgedCalls = Counter.builder("gethome_openroute_hedged_calls_total")
+            .description("OpenRouteService calls that started a hedged second request")
+            .tag("service", "routing")
+            .register(meterRegistry);
+        this.cachedFallbacks = Counter.builder("gethome_openroute_fallbacks_total")
+            .description("Routes served without a live OpenRouteService response")
+            .tag("service", "routing")
+            .tag("fallback", "cached")
+            .register(meterRegistry);
+        this.straightLineFallbacks = Counter.builder("gethome_openroute_fallbacks_total")
+            .description("Routes served without a live OpenRouteService response")
+            .tag("service", "routing")
+            .tag("fallback", "straight_line")
+            .register(meterRegistry);
+    }
+
+    public record OpenRouteResult(OpenRouteServiceClient.OpenRouteResponse response, String warning) {
+        public boolean degraded() {
+            return warning != null;
+        }
+    }
+
+    public OpenRouteResult getWalkingRoute(OpenRouteServiceClient.OpenRouteRequest request) {
+        return getWalkingRoute(request, false);
+    }
+
+    /**
+     * @param emergency draws on the quota reserved for emergency routes and waits longer for it,
+     *                  and on bulkhead permits that standard routes cannot take
+     */
+    public OpenRouteResult getWalkingRoute(OpenRouteServiceClient.OpenRouteRequest request, boolean emergency) {
+        String tripKey = tripKey(request);
+        // Permissions before the quota token: an open circuit or a full bulkhead must neither
+        // spend a token nor keep an emergency waiting for one
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return fallback(request, tripKey, CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        Bulkhead callBulkhead = emergency ? emergencyBulkhead : bulkhead;
+        if (!callBulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            return fallback(request, tripKey, BulkheadFullException.createBulkheadFullException(callBulkhead));
+        }
+        try {
+            return callWithQuota(request, tripKey, emergency);
+        } finally {
+            callBulkhead.onComplete();
+        }
+    }
+
+    private OpenRouteResult callWithQuota(OpenRouteServiceClient.OpenRouteRequest request, String tripKey,
+                                          boolean emergency) {
+        try {
+            if (!quotaGovernor.acquire(emergency)) {
+                circuitBreaker.releasePermission();
+                return fallback(request, tripKey, new OrsQuotaExhaustedException());
+            }
+        } catch (InterruptedException e) {
+            circuitBreaker.releasePermission();
+            Thread.currentThread().interrupt();
+            return fallback(request, tripKey, e);
+        }
+        long start = System.nanoTime();
+        try {
+            OpenRouteServiceClient.OpenRouteResponse response = callHedged(request);
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            lastKnownRoutes.put(tripKey, response);
+            return new OpenRouteResult(response, null);
+        } catch (Exception e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            return handleFailure(request, tripKey, e);
+        }
+    }
+
+    private OpenRouteResult handleFailure(OpenRouteServiceClient.OpenRouteRequest request, String tripKey, Exception error) {
+        if (error instanceof FeignException e) {
+            if (e instanceof FeignException.TooManyRequests) {
+                quotaGovernor.onRateLimited();
+            }
+            if (!isOutage(e)) {
+                throw e; // ORS answered, e.g. no walking route between the points
+            }
+        }
+        return fallback(request, tripKey, error);
+    }
+
+    public Mono<OpenRouteResult> getWalkingRouteReactive(OpenRouteServiceClient.OpenRouteRequest request) {
+        return getWalkingRouteReactive(request, false);
+    }
+
+    /**
+     * Non-blocking {@link #getWalkingRoute}. Once the reactive bulkhead is full, calls fail
+     * fast into the degraded fallback instead of queueing on ORS. Nor does it wait for quota:
+     * without a token available now, emergency or not, the fallback is served.
+     */
+    public Mono<OpenRouteResult> getWalkingRouteReactive(OpenRouteServiceClient.OpenRouteRequest request,
+                                                         boolean emergency) {
+        String tripKey = tripKey(request);
+        Mono<OpenRouteServiceClient.OpenRouteResponse> call = Mono.defer(() -> {
+                long start = System.nanoTime();
+                return reactiveClient.getWalkingRoute(request)
+                    .doOnSuccess(response -> callLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            })
+            .timeout(Duration.ofMillis(callTimeoutMs));
+        // Subscribed inside the bulkhead and circuit breaker, so a rejected call takes no token.
+        // A token is usually local, but leasing more is a blocking MongoDB call
+        Mono<OpenRouteServiceClient.OpenRouteResponse> quotedCall = !quotaGovernor.isEnabled() ? call
+            : Mono.fromCallable(() -> quotaGovernor.tryAcquire(emergency))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(granted -> granted ? call : Mono.error(new OrsQuotaExhaustedException()));
+        return quotedCall
+            .doOnError(WebClientResponseException.TooManyRequests.class, e -> quotaGovernor.onRateLimited())
+            .transformDeferred(BulkheadOperator.of(emergency ? reactiveEmergencyBulkhead : reactiveBulkhead))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+            .map(response -> {
+                lastKnownRoutes.put(tripKey, response);
+                return new OpenRouteResult(response, null);
+            })
+            .onErrorResume(OpenRouteServiceGateway::isOutage,
+                error -> Mono.fromSupplier(() -> fallback(request, tripKey, error)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callExecutor.shutdownNow();
+    }
+
+    private OpenRouteServiceClient.OpenRouteResponse callHedged(OpenRouteServiceClient.OpenRouteRequest request) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs);
+        CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> primary = submit(request, deadline);
+
+        CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> winner = primary;
+        if (hedgingEnabled) {
+            try {
+                return primary.get(hedgeDelayMs(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException slow) {
+                winner = hedge(request, primary, deadline);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            return winner.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            winner.cancel(true);
+            primary.cancel(true);
+        }
+    }
+
+    private CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> hedge(
+            OpenRouteServiceClient.OpenRouteRequest request,
+            CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> primary,
+            long deadline) {
+        if (!hedgePermits.tryAcquire()) {
+            return primary; // Hedge budget exhausted: keep waiting on the primary only
+        }
+        // A hedge is a second ORS call and costs quota; never worth waiting or dipping into the reserve for
+        if (!quotaGovernor.tryAcquire(false)) {
+            hedgePermits.release();
+            return primary;
+        }
+        CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> secondary;
+        try {
+            secondary = submit(request, deadline);
+        } catch (RejectedExecutionException e) {
+            hedgePermits.release();
+            return primary;
+        }
+        secondary.whenComplete((response, error) -> hedgePermits.release());
+        hedgedCalls.increment();
+
+        // First successful response wins; fail only when both attempts failed
+        CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> attempt : List.of(primary, secondary)) {
+            attempt.whenComplete((response, error) -> {
+                if (error == null) {
+                    first.complete(response);
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        first.whenComplete((response, error) -> {
+            primary.cancel(true);
+            secondary.cancel(true);
+        });
+        return first;
+    }
+
+    /**
+     * Runs the call on {@link #callExecutor}. Cancelling the returned future interrupts the
+     * call's thread, which {@code CompletableFuture.cancel} alone would not. The blocking
+     * HTTP read does not react to interrupts, so the call also gets a read timeout ending
+     * at the caller's deadline: a hedge loser or a timed-out call frees its thread then.
+     */
+    private CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> submit(OpenRouteServiceClient.OpenRouteRequest request,
+                                                                               long deadline) {
+        CompletableFuture<OpenRouteServiceClient.OpenRouteResponse> result = new CompletableFuture<>();
+        Future<?> task = callExecutor.submit(() -> {
+            try {
+                result.complete(callLatency.record(
+                    () -> openRouteServiceClient.getWalkingRoute(request, callOptions(deadline))));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private Request.Options callOptions(long deadline) {
+        long remainingMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        return new Request.Options(Math.min(connectTimeoutMs, remainingMs), TimeUnit.MILLISECONDS,
+            remainingMs, TimeUnit.MILLISECONDS, true);
+    }
+
+    private long hedgeDelayMs() {
+        for (ValueAtPercentile percentile : callLatency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return Math.max(minHedgeDelayMs, (long) percentile.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return minHedgeDelayMs;
+    }
+
+    private OpenRouteResult fallback(OpenRouteServiceClient.OpenRouteRequest request, String tripKey, Throwable cause) {
+        if (cause instanceof CallNotPermittedException) {
+            log.warn("OpenRouteService circuit is open, serving degraded route");
+        } else if (cause instanceof OrsQuotaExhaustedException) {
+            log.warn("OpenRouteService quota exhausted, serving degraded route");
+        } else {
+            log.warn("OpenRouteService unavailable ({}), serving degraded route", cause.toString());
+        }
+
+        OpenRouteServiceClient.OpenRouteResponse cached = lastKnownRoutes.get(tripKey);
+        if (cached != null) {
+            cachedFallbacks.increment();
+            return new OpenRouteResult(cached, CACHED_ROUTE_WARNING);
+        }
+        straightLineFallbacks.increment();
+        return new OpenRouteResult(straightLineRoute(request.coordinates()), STRAIGHT_LINE_WARNING);
+    }
+
+    static OpenRouteServiceClient.OpenRouteResponse straightLineRoute(double[][] lngLatCoordinates) {
+        List<double[]> latLngs = new ArrayList<>(lngLatCoordinates.length);
+        double distance = 0;
+        for (int i = 0; i < lngLatCoordinates.length; i++) {
+            latLngs.add(new double[]{lngLatCoordinates[i][1], lngLatCoordinates[i][0]});
+            if (i > 0) {
+                distance += GeoMath.distanceMeters(lngLatCoordinates[i - 1][1], lngLatCoordinates[i - 1][0],
+                    lngLatCoordinates[i][1], lngLatCoordinates[i][0]);
+            }
+        }
+        double duration = distance / WALKING_SPEED;
+
+        OpenRouteServiceClient.OpenRouteStep step = new OpenRouteServiceClient.OpenRouteStep(
+            distance, duration, "Head towards your destination", null, new int[]{0, lngLatCoordinates.length - 1});
+        OpenRouteServiceClient.OpenRouteSegment segment = new OpenRouteServiceClient.OpenRouteSegment(
+            distance, duration, new OpenRouteServiceClient.OpenRouteStep[]{step});
+        OpenRouteServiceClient.OpenRouteRoute route = new OpenRouteServiceClient.OpenRouteRoute(
+            new OpenRouteServiceClient.OpenRouteSummary(distance, duration),
+            new OpenRouteServiceClient.OpenRouteSegment[]{segment},
+            PolylineCodec.encode(latLngs),
+            new int[]{0, lngLatCoordinates.length - 1});
+        return new OpenRouteServiceClient.OpenRouteResponse(new OpenRouteServiceClient.OpenRouteRoute[]{route}, null);
+    }
+
+    private static String tripKey(OpenRouteServiceClient.OpenRouteRequest request) {
+        // ~11m grid: requests for the same trip share a last known route
+        StringBuilder key = new StringBuilder(request.preference()).append(':');
+        for (double[] coordinate : request.coordinates()) {
+            key.append(Math.round(coordinate[0] * 1E4)).append(',')
+               .append(Math.round(coordinate[1] * 1E4)).append(';');
+        }
+        return key.toString();
+    }
+
+    private static boolean isOutage(Throwable error) {
+        if (error instanceof FeignException.TooManyRequests || error instanceof WebClientResponseException.TooManyRequests) {
+            return true;
+        }
+        // Other 4xx responses mean ORS is up and rejected this particular request
+        if (error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            return false;
+        }
+        return !(error instanceof FeignException.FeignClientException);
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof Exception exception ? exception : e;
+    }
+}
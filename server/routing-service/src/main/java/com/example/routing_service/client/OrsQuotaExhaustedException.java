@@ -0,0 +1,9 @@
+package com.example.routing_service.client;
+
+/** No OpenRouteService quota was available for a call; the caller serves a fallback route. */
+public class OrsQuotaExhaustedException extends RuntimeException {
+
+    public OrsQuotaExhaustedException() {
+        super("OpenRouteService quota exhausted");
+    }
+}
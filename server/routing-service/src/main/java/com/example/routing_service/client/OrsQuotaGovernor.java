@@ -0,0 +1,324 @@
+package com.example.routing_service.client;
+
+import com.example.routing_service.repository.OrsQuotaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps all replicas together within the OpenRouteService key's per-minute and per-day
+ * quota. The windows are counters in MongoDB; each replica leases tokens from them in
+ * batches and hands them out locally, so most calls never leave the process.
+ *
+ * <p>Emergency routes have a reserved share of every window that standard routes cannot
+ * lease. When no token is left, emergency routes wait for the next minute if it starts
+ * within their wait limit; standard routes degrade at once, or wait the same way under
+ * the {@code wait} policy. A caller that gets no token should serve the fallback route.
+ *
+ * <p>If MongoDB cannot be reached the governor fails open: the replica keeps calling ORS
+ * on uncoordinated local tokens rather than refusing routes.
+ */
+@Component
+@Slf4j
+public class OrsQuotaGovernor {
+
+    public enum ExhaustedPolicy { DEGRADE, WAIT }
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Duration DAY = Duration.ofDays(1);
+
+    private final OrsQuotaRepository quotaRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long perMinute;
+    private final long perDay;
+    private final int leaseSize;
+    private final long standardPerMinute;
+    private final long standardPerDay;
+    private final ExhaustedPolicy exhaustedPolicy;
+    private final long maxWaitMs;
+    private final long emergencyMaxWaitMs;
+
+    // Tokens leased for the current minute. The minute window expires with them; any
+    // left over are given back to the day window when the minute ends
+    private final ReentrantLock lock = new ReentrantLock();
+    private long leaseMinute = -1;
+    private int standardTokens;
+    private int priorityTokens;
+    // Tokens charged to the day window this minute and not used yet, including ones
+    // dropped after a 429. Calls use charged tokens first; fail-open grants are not charged
+    private int chargedUnused;
+    private long standardExhaustedMinute = -1;
+    private long priorityExhaustedMinute = -1;
+
+    private final AtomicLong minuteUsed = new AtomicLong();
+    private final AtomicLong dayUsed = new AtomicLong();
+    private final Counter standardConsumed;
+    private final Counter emergencyConsumed;
+    private final Counter standardExhausted;
+    private final Counter emergencyExhausted;
+    private final Counter leasedTokens;
+    private final Counter returnedTokens;
+    private final Counter leaseErrors;
+    private final Counter rateLimited;
+    private final Timer waitTime;
+
+    @Autowired
+    public OrsQuotaGovernor(OrsQuotaRepository quotaRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${routing.ors.quota.enabled:true}") boolean enabled,
+                            @Value("${routing.ors.quota.per-minute:40}") long perMinute,
+                            @Value("${routing.ors.quota.per-day:2000}") long perDay,
+                            @Value("${routing.ors.quota.lease-size:5}") int leaseSize,
+                            @Value("${routing.ors.quota.emergency-reserve:0.2}") double emergencyReserve,
+                            @Value("${routing.ors.quota.exhausted-policy:degrade}") String exhaustedPolicy,
+                            @Value("${routing.ors.quota.max-wait-ms:2000}") long maxWaitMs,
+                            @Value("${routing.ors.quota.emergency-max-wait-ms:5000}") long emergencyMaxWaitMs) {
+        this(quotaRepository, meterRegistry, Clock.systemUTC(), enabled, perMinute, perDay, leaseSize,
+            emergencyReserve, ExhaustedPolicy.valueOf(exhaustedPolicy.trim().toUpperCase()), maxWaitMs, emergencyMaxWaitMs);
+    }
+
+    OrsQuotaGovernor(OrsQuotaRepository quotaRepository, MeterRegistry meterRegistry, Clock clock, boolean enabled,
+                     long perMinute, long perDay, int leaseSize, double emergencyReserve,
+                     ExhaustedPolicy exhaustedPolicy, long maxWaitMs, long emergencyMaxWaitMs) {
+        this.quotaRepository = quotaRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.perMinute = perMinute;
+        this.perDay = perDay;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.standardPerMinute = (long) Math.floor(perMinute * (1 - emergencyReserve));
+        this.standardPerDay = (long) Math.floor(perDay * (1 - emergencyReserve));
+        this.exhaustedPolicy = exhaustedPolicy;
+        this.maxWaitMs = maxWaitMs;
+        this.emergencyMaxWaitMs = emergencyMaxWaitMs;
+
+        windowGauges("minute", minuteUsed, perMinute, meterRegistry);
+        windowGauges("day", dayUsed, perDay, meterRegistry);
+        this.standardConsumed = priorityCounter("gethome_ors_quota_consumed_total",
+            "OpenRouteService calls made on a quota token", "standard", meterRegistry);
+        this.emergencyConsumed = priorityCounter("gethome_ors_quota_consumed_total",
+            "OpenRouteService calls made on a quota token", "emergency", meterRegistry);
+        this.standardExhausted = priorityCounter("gethome_ors_quota_exhausted_total",
+            "Routes that got no quota token and were served a fallback route", "standard", meterRegistry);
+        this.emergencyExhausted = priorityCounter("gethome_ors_quota_exhausted_total",
+            "Routes that got no quota token and were served a fallback route", "emergency", meterRegistry);
+        this.leasedTokens = Counter.builder("gethome_ors_quota_leased_tokens_total")
+            .description("Quota tokens this replica leased from the shared windows")
+            .tag("service", "routing")
+            .register(meterRegistry);
+        this.returnedTokens = Counter.builder("gethome_ors_quota_returned_tokens_total")
+            .description("Leased quota tokens left unused at the end of a minute and given back to the day window")
+            .tag("service", "routing")
+            .register(meterRegistry);
+        this.leaseErrors = Counter.builder("gethome_ors_quota_lease_errors_total")
+            .description("Leases that failed on MongoDB and were granted locally instead")
+            .tag("service", "routing")
+            .register(meterRegistry);
+        this.rateLimited = Counter.builder("gethome_ors_quota_rate_limited_total")
+            .description("429 responses from OpenRouteService despite the governor")
+            .tag("service", "routing")
+            .register(meterRegistry);
+        this.waitTime = Timer.builder("gethome_ors_quota_wait_duration_seconds")
+            .description("Time routes waited for the next quota window")
+            .tag("service", "routing")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token for one ORS call, waiting for the next minute when the policy allows.
+     *
+     * @return false when the call should not be made and a fallback route served instead
+     */
+    public boolean acquire(boolean emergency) throws InterruptedException {
+        if (tryAcquire(emergency)) {
+            return true;
+        }
+        long maxWait = emergency ? emergencyMaxWaitMs : exhaustedPolicy == ExhaustedPolicy.WAIT ? maxWaitMs : 0;
+        long start = System.nanoTime();
+        long deadline = clock.millis() + maxWait;
+        try {
+            // Tokens only come back when a new minute starts, so there is no point polling sooner
+            for (long next = nextMinuteMillis(); next <= deadline; next = nextMinuteMillis()) {
+                TimeUnit.MILLISECONDS.sleep(Math.max(1, next - clock.millis()));
+                if (tryAcquire(emergency)) {
+                    return true;
+                }
+            }
+        } finally {
+            if (maxWait > 0) {
+                waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        (emergency ? emergencyExhausted : standardExhausted).increment();
+        return false;
+    }
+
+    /** Takes a token only if one is available now. */
+    public boolean tryAcquire(boolean emergency) {
+        if (!enabled) {
+            return true;
+        }
+        lock.lock();
+        try {
+            long minute = currentMinute();
+            if (minute != leaseMinute) {
+                returnUnused();
+                leaseMinute = minute;
+                standardTokens = 0;
+                priorityTokens = 0;
+            }
+            if (standardTokens == 0 && (!emergency || priorityTokens == 0)) {
+                lease(minute, emergency);
+            }
+            if (standardTokens > 0) {
+                standardTokens--;
+            } else if (emergency && priorityTokens > 0) {
+                priorityTokens--;
+            } else {
+                return false;
+            }
+            if (chargedUnused > 0) {
+                chargedUnused--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        (emergency ? emergencyConsumed : standardConsumed).increment();
+        return true;
+    }
+
+    /**
+     * ORS answered 429: the quota is tighter than configured or another client shares the
+     * key. Standard routes stop calling until the next minute; emergencies still try.
+     */
+    public void onRateLimited() {
+        if (!enabled) {
+            return;
+        }
+        rateLimited.increment();
+        lock.lock();
+        try {
+            standardTokens = 0;
+            standardExhaustedMinute = currentMinute();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held. Refusals are remembered until the minute ends, so an
+    // exhausted window costs one MongoDB round trip per replica, not one per call
+    private void lease(long minute, boolean emergency) {
+        try {
+            if (minute != standardExhaustedMinute) {
+                int granted = reserve(minute, leaseSize, standardPerMinute, standardPerDay);
+                if (granted == 0 && leaseSize > 1) {
+                    // Near the end of a window a full batch may not fit where a single token does
+                    granted = reserve(minute, 1, standardPerMinute, standardPerDay);
+                }
+                if (granted > 0) {
+                    standardTokens += granted;
+                    return;
+                }
+                standardExhaustedMinute = minute;
+            }
+            if (emergency && minute != priorityExhaustedMinute) {
+                // The reserve is small and shared by all replicas, so it is leased one token at a time
+                if (reserve(minute, 1, perMinute, perDay) > 0) {
+                    priorityTokens++;
+                    return;
+                }
+                priorityExhaustedMinute = minute;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not lease OpenRouteService quota, continuing without coordination: {}", e.getMessage());
+            leaseErrors.increment();
+            standardTokens += leaseSize;
+        }
+    }
+
+    // Called with the lock held when a new minute starts
+    private void returnUnused() {
+        int unusedCharged = chargedUnused;
+        chargedUnused = 0;
+        if (unusedCharged <= 0) {
+            return;
+        }
+        long day = leaseMinute / DAY.toMinutes();
+        try {
+            quotaRepository.release("day:" + day, unusedCharged);
+            returnedTokens.increment(unusedCharged);
+        } catch (DataAccessException e) {
+            log.warn("Could not return {} unused OpenRouteService day tokens: {}", unusedCharged, e.getMessage());
+        }
+    }
+
+    private int reserve(long minute, int tokens, long minuteCeiling, long dayCeiling) {
+        Instant minuteStart = Instant.ofEpochSecond(minute * 60);
+        String minuteWindow = "minute:" + minute;
+        OptionalLong minuteTotal = quotaRepository.reserve(minuteWindow, tokens, minuteCeiling,
+            minuteStart.plus(MINUTE.multipliedBy(2)));
+        if (minuteTotal.isEmpty()) {
+            return 0;
+        }
+        long day = minute / DAY.toMinutes();
+        OptionalLong dayTotal = quotaRepository.reserve("day:" + day, tokens, dayCeiling,
+            Instant.ofEpochSecond(day * DAY.toSeconds()).plus(DAY.multipliedBy(2)));
+        if (dayTotal.isEmpty()) {
+            quotaRepository.release(minuteWindow, tokens);
+            return 0;
+        }
+        minuteUsed.set(minuteTotal.getAsLong());
+        dayUsed.set(dayTotal.getAsLong());
+        leasedTokens.increment(tokens);
+        chargedUnused += tokens;
+        return tokens;
+    }
+
+    private long currentMinute() {
+        return clock.millis() / MINUTE.toMillis();
+    }
+
+    private long nextMinuteMillis() {
+        return (currentMinute() + 1) * MINUTE.toMillis();
+    }
+
+    private static void windowGauges(String window, AtomicLong used, long limit, MeterRegistry meterRegistry) {
+        Gauge.builder("gethome_ors_quota_window_used", used, AtomicLong::get)
+            .description("OpenRouteService calls taken from the current quota window by all replicas, as last seen")
+            .tag("service", "routing")
+            .tag("window", window)
+            .register(meterRegistry);
+        Gauge.builder("gethome_ors_quota_window_limit", () -> limit)
+            .description("OpenRouteService quota per window")
+            .tag("service", "routing")
+            .tag("window", window)
+            .register(meterRegistry);
+    }
+
+    private static Counter priorityCounter(String name, String description, String priority, MeterRegistry meterRegistry) {
+        return Counter.builder(name)
+            .description(description)
+            .tag("service", "routing")
+            .tag("priority", priority)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.routing_service.client;
+
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.PostExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link OpenRouteServiceClient} on WebClient, sharing its
+ * request and response types. Calls go through {@link OpenRouteServiceGateway#getWalkingRouteReactive}.
+ */
+public interface ReactiveOpenRouteServiceClient {
+
+    @PostExchange("/directions/foot-walking")
+    Mono<OpenRouteServiceClient.OpenRouteResponse> getWalkingRoute(@RequestBody OpenRouteServiceClient.OpenRouteRequest request);
+}
@@ -0,0 +1,46 @@
+package com.example.routing_service.config;
+
+import com.example.routing_service.admission.AdmissionControlFilter;
+import com.example.routing_service.admission.AdmissionController;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@Slf4j
+public class AdmissionControlConfig {
+
+    // Highest priority first; see AdmissionControlFilter for which paths land in which lane
+    @Bean
+    public AdmissionController admissionController(
+            MeterRegistry meterRegistry,
+            @Value("${routing.admission.emergency.max-concurrent:20}") int emergencyMaxConcurrent,
+            @Value("${routing.admission.emergency.max-queue:20}") int emergencyMaxQueue,
+            @Value("${routing.admission.emergency.max-wait-ms:5000}") long emergencyMaxWaitMs,
+            @Value("${routing.admission.route-planning.max-concurrent:80}") int planningMaxConcurrent,
+            @Value("${routing.admission.route-planning.max-queue:10}") int planningMaxQueue,
+            @Value("${routing.admission.route-planning.max-wait-ms:50}") long planningMaxWaitMs,
+            @Value("${routing.admission.standard.max-concurrent:50}") int standardMaxConcurrent,
+            @Value("${routing.admission.standard.max-queue:10}") int standardMaxQueue,
+            @Value("${routing.admission.standard.max-wait-ms:200}") long standardMaxWaitMs,
+            @Value("${server.tomcat.threads.max:200}") int containerThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        List<AdmissionController.Lane> lanes = List.of(
+            new AdmissionController.Lane(AdmissionControlFilter.EMERGENCY, emergencyMaxConcurrent, emergencyMaxQueue, emergencyMaxWaitMs),
+            new AdmissionController.Lane(AdmissionControlFilter.ROUTE_PLANNING, planningMaxConcurrent, planningMaxQueue, planningMaxWaitMs),
+            new AdmissionController.Lane(AdmissionControlFilter.STANDARD, standardMaxConcurrent, standardMaxQueue, standardMaxWaitMs));
+
+        // Waiting requests hold a Tomcat thread too. If the lanes can hold more than the pool,
+        // a full pool queues emergencies in Tomcat where admission control never sees them
+        int threadsHeld = lanes.stream().mapToInt(lane -> lane.maxConcurrent() + lane.maxQueue()).sum();
+        if (!virtualThreads && threadsHeld > containerThreads) {
+            log.warn("Admission lanes can hold {} requests but Tomcat has {} threads; emergency capacity is not guaranteed",
+                threadsHeld, containerThreads);
+        }
+        return new AdmissionController(lanes, "routing", meterRegistry);
+    }
+}
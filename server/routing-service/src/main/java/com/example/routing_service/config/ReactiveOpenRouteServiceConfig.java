@@ -0,0 +1,43 @@
+package com.example.routing_service.config;
+
+import com.example.routing_service.client.ReactiveOpenRouteServiceClient;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+@Configuration
+public class ReactiveOpenRouteServiceConfig {
+
+    // Same endpoint, key and timeouts as the Feign client
+    @Bean
+    public ReactiveOpenRouteServiceClient reactiveOpenRouteServiceClient(
+            WebClient.Builder webClientBuilder,
+            @Value("${routing.api.url}") String baseUrl,
+            @Value("${routing.api.key}") String apiKey,
+            @Value("${spring.cloud.openfeign.client.config.openrouteservice.connect-timeout:2000}") int connectTimeoutMs,
+            @Value("${spring.cloud.openfeign.client.config.openrouteservice.read-timeout:6000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        WebClient webClient = webClientBuilder
+            .baseUrl(baseUrl)
+            .defaultHeader("Authorization", apiKey)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+        return create(webClient);
+    }
+
+    public static ReactiveOpenRouteServiceClient create(WebClient webClient) {
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient))
+            .build()
+            .createClient(ReactiveOpenRouteServiceClient.class);
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.routing_service.controller;
 
+import com.example.routing_service.dto.DangerZoneImportResponse;
+import com.example.routing_service.dto.DangerZoneRecord;
 import com.example.routing_service.dto.DangerZoneRequest;
+import com.example.routing_service.dto.DangerZoneViewportResponse;
 import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.service.DangerZoneBulkService;
+import com.example.routing_service.service.DangerZoneClusterService;
 import com.example.routing_service.service.DangerZoneService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,7 +27,12 @@ import java.util.List;
 @Slf4j
 public class DangerZoneController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_ZOOM = 22;
+
     private final DangerZoneService dangerZoneService;
+    private final DangerZoneBulkService dangerZoneBulkService;
+    private final DangerZoneClusterService dangerZoneClusterService;
 
     @PostMapping("/report")
     public ResponseEntity<DangerZone> reportDangerZone(@Valid @RequestBody DangerZoneRequest request,
@@ -30,6 +44,26 @@ public class DangerZoneController {
         return ResponseEntity.ok(dangerZone);
     }
 
+    /** Bulk import of NDJSON {@link DangerZoneRecord} lines, each merged as one report by the caller. */
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<DangerZoneImportResponse> importDangerZones(InputStream body,
+                                                                      Authentication authentication) throws IOException {
+        String userId = authentication.getName();
+        log.info("Danger zone import from user: {}", userId);
+        
+        DangerZoneImportResponse response = dangerZoneBulkService.importZones(body, userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportDangerZones(
+            @RequestParam(defaultValue = "false") boolean includeExpired) {
+        log.info("Exporting danger zones (include expired: {})", includeExpired);
+        
+        StreamingResponseBody body = out -> dangerZoneBulkService.exportZones(out, includeExpired);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @GetMapping("/nearby")
     public ResponseEntity<List<DangerZone>> getNearbyDangerZones(
             @RequestParam double latitude,
@@ -41,19 +75,40 @@ public class DangerZoneController {
         return ResponseEntity.ok(dangerZones);
     }
 
+    /** Clusters below the cluster zoom, slim zone markers above it. */
+    @GetMapping("/viewport")
+    public ResponseEntity<DangerZoneViewportResponse> getViewport(
+            @RequestParam double minLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double maxLongitude,
+            @RequestParam int zoom) {
+        log.debug("Getting danger zone viewport ({}, {}) - ({}, {}) at zoom {}",
+                minLatitude, minLongitude, maxLatitude, maxLongitude, zoom);
+        
+        DangerZoneViewportResponse viewport = dangerZoneClusterService.viewport(
+            minLatitude, minLongitude, maxLatitude, maxLongitude, Math.max(0, Math.min(zoom, MAX_ZOOM)));
+        return ResponseEntity.ok(viewport);
+    }
+
     @GetMapping("/level/{level}")
-    public ResponseEntity<List<DangerZone>> getDangerZonesByLevel(@PathVariable DangerZone.DangerLevel level) {
-        log.info("Getting danger zones with level: {}", level);
+    public ResponseEntity<List<DangerZone>> getDangerZonesByLevel(@PathVariable DangerZone.DangerLevel level,
+                                                                  @RequestParam(defaultValue = "0") int page,
+                                                                  @RequestParam(defaultValue = "50") int size) {
+        log.info("Getting danger zones with level: {} (page {}, size {})", level, page, size);
         
-        List<DangerZone> dangerZones = dangerZoneService.getDangerZonesByLevel(level);
+        List<DangerZone> dangerZones = dangerZoneService.getDangerZonesByLevel(level, page, size);
         return ResponseEntity.ok(dangerZones);
     }
 
     @GetMapping("/tag/{tag}")
-    public ResponseEntity<List<DangerZone>> getDangerZonesByTag(@PathVariable String tag) {
-        log.info("Getting danger zones with tag: {}", tag);
+    public ResponseEntity<List<DangerZone>> getDangerZonesByTag(@PathVariable String tag,
+                                                                @RequestParam(defaultValue = "false") boolean prefix,
+                                                                @RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "50") int size) {
+        log.info("Getting danger zones with tag: {} (prefix {}, page {}, size {})", tag, prefix, page, size);
         
-        List<DangerZone> dangerZones = dangerZoneService.getDangerZonesByTag(tag);
+        List<DangerZone> dangerZones = dangerZoneService.getDangerZonesByTag(tag, prefix, page, size);
         return ResponseEntity.ok(dangerZones);
     }
 
@@ -102,4 +157,10 @@ public class DangerZoneController {
         dangerZoneService.cleanupExpiredZones();
         return ResponseEntity.ok().build();
     }
-} 
\ No newline at end of file
+
+    // Reported outlines are checked beyond what bean validation can express
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> rejectInvalidShape(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -1,16 +1,22 @@
 package com.example.routing_service.controller;
 
+import com.example.routing_service.dto.RouteAlternativesResponse;
+import com.example.routing_service.dto.RouteGeometryResponse;
 import com.example.routing_service.dto.RouteRequest;
 import com.example.routing_service.dto.RouteResponse;
+import com.example.routing_service.dto.RouteSummaryResponse;
+import com.example.routing_service.service.ReactiveRoutingService;
 import com.example.routing_service.service.RoutingService;
 import com.example.routing_service.security.JwtService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -20,7 +26,11 @@ import java.util.List;
 @Slf4j
 public class RoutingController {
 
+    private static final int MAX_ZOOM = 22;
+    private static final double MAX_TOLERANCE_METERS = 1000;
+
     private final RoutingService routingService;
+    private final ReactiveRoutingService reactiveRoutingService;
     private final JwtService jwtService;
 
     @PostMapping("/plan")
@@ -28,12 +38,6 @@ public class RoutingController {
         String userId = jwtService.extractUserId(authHeader.substring(7));
         try {
             RouteResponse response = routingService.planSafeRoute(request, userId);
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                log.info("RouteResponse JSON: {}", mapper.writeValueAsString(response));
-            } catch (Exception e) {
-                log.error("Failed to serialize RouteResponse", e);
-            }
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.error("Failed to plan safe route for user: {}", userId, e);
@@ -41,15 +45,71 @@ public class RoutingController {
         }
     }
 
+    // Same as /plan, but the request thread is released while Mongo and ORS are working
+    @PostMapping("/plan/reactive")
+    public Mono<ResponseEntity<RouteResponse>> planSafeRouteReactive(@RequestBody RouteRequest request,
+                                                                     @RequestHeader("Authorization") String authHeader) {
+        String userId = jwtService.extractUserId(authHeader.substring(7));
+        return reactiveRoutingService.planSafeRoute(request, userId)
+            .map(ResponseEntity::ok)
+            .onErrorResume(BulkheadFullException.class, e -> {
+                log.warn("Rejected reactive route plan for user: {}, too many plans in flight", userId);
+                return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+            })
+            .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().build()));
+    }
+
+    @PostMapping("/plan/alternatives")
+    public ResponseEntity<RouteAlternativesResponse> planRouteAlternatives(@RequestBody RouteRequest request,
+                                                                           @RequestHeader("Authorization") String authHeader) {
+        String userId = jwtService.extractUserId(authHeader.substring(7));
+        try {
+            return ResponseEntity.ok(routingService.planRouteAlternatives(request, userId));
+        } catch (Exception e) {
+            log.error("Failed to plan route alternatives for user: {}", userId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<RouteResponse>> getUserRoutes(Authentication authentication) {
+    public ResponseEntity<List<RouteResponse>> getUserRoutes(Authentication authentication,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "20") int size) {
         String userId = authentication.getName();
-        log.info("Getting routes for user: {}", userId);
+        log.info("Getting routes for user: {} (page {}, size {})", userId, page, size);
         
-        List<RouteResponse> routes = routingService.getUserRoutes(userId);
+        List<RouteResponse> routes = routingService.getUserRoutes(userId, page, size);
         return ResponseEntity.ok(routes);
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<List<RouteSummaryResponse>> getUserRouteSummaries(Authentication authentication,
+                                                                            @RequestParam(defaultValue = "0") int page,
+                                                                            @RequestParam(defaultValue = "20") int size) {
+        String userId = authentication.getName();
+        log.info("Getting route summaries for user: {} (page {}, size {})", userId, page, size);
+        
+        List<RouteSummaryResponse> summaries = routingService.getUserRouteSummaries(userId, page, size);
+        return ResponseEntity.ok(summaries);
+    }
+
+    // tolerance (meters) or zoom (map zoom level) return a simplified polyline for drawing
+    @GetMapping("/{routeId}/geometry")
+    public ResponseEntity<RouteGeometryResponse> getRouteGeometry(@PathVariable String routeId,
+                                                                  @RequestParam(required = false) Double tolerance,
+                                                                  @RequestParam(required = false) Integer zoom,
+                                                                  Authentication authentication) {
+        if ((tolerance != null && !(tolerance >= 0 && tolerance <= MAX_TOLERANCE_METERS))
+                || (zoom != null && (zoom < 0 || zoom > MAX_ZOOM))) {
+            return ResponseEntity.badRequest().build();
+        }
+        String userId = authentication.getName();
+        log.info("Getting geometry of route {} for user: {}", routeId, userId);
+        
+        RouteGeometryResponse geometry = routingService.getRouteGeometry(routeId, userId, tolerance, zoom);
+        return ResponseEntity.ok(geometry);
+    }
+
     @GetMapping("/{routeId}")
     public ResponseEntity<RouteResponse> getRoute(@PathVariable String routeId,
                                                  Authentication authentication) {
@@ -0,0 +1,30 @@
+package com.example.routing_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DangerZoneImportResponse {
+    private long linesRead;
+    private long zonesCreated;
+    private long zonesMerged;
+    private long duplicatesInBatch; // Lines folded into an earlier line of the same import
+    private long failed;
+    private List<LineError> errors; // First errors only; see failed for the total
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.routing_service.dto;
+
+import com.example.routing_service.model.DangerZone;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of a danger zone NDJSON import or export. Exported lines can be
+ * imported again. On import every line counts as one report by the importer made
+ * now: {@code reportCount} and {@code reportedAt} are ignored and {@code expiresAt}
+ * can only shorten the usual report lifetime.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DangerZoneRecord {
+    @NotBlank(message = "Name is required")
+    private String name;
+    
+    private String description;
+    
+    @NotNull(message = "Danger level is required")
+    private DangerZone.DangerLevel dangerLevel;
+    
+    @Valid
+    @NotNull(message = "Location is required")
+    private DangerZoneRequest.Location location;
+    
+    @DecimalMin(value = "5.0", message = "Radius must be between 5 and 1000 meters")
+    @DecimalMax(value = "1000.0", message = "Radius must be between 5 and 1000 meters")
+    private Double radiusMeters;
+    
+    @Valid
+    @Size(min = 3, max = 100, message = "Area must have between 3 and 100 points")
+    private List<DangerZoneRequest.Location> area;
+    
+    private List<String> tags;
+    
+    @Min(value = 1, message = "Report count must be at least 1")
+    private Integer reportCount;
+    
+    private LocalDateTime reportedAt;
+    private LocalDateTime expiresAt;
+}
@@ -9,6 +9,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Size;
+import jakarta.validation.Valid;
 import java.util.List;
 import com.example.routing_service.model.DangerZone;
 
@@ -28,6 +30,16 @@ public class DangerZoneRequest {
     @NotNull(message = "Location is required")
     private Location location;
     
+    // Circle around location; defaults to 50m
+    @DecimalMin(value = "5.0", message = "Radius must be between 5 and 1000 meters")
+    @DecimalMax(value = "1000.0", message = "Radius must be between 5 and 1000 meters")
+    private Double radiusMeters;
+    
+    // Outline instead of a circle; the zone is then located at its centroid
+    @Valid
+    @Size(min = 3, max = 100, message = "Area must have between 3 and 100 points")
+    private List<Location> area;
+    
     private List<String> tags;
     
     @Data
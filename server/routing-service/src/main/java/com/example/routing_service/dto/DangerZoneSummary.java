@@ -0,0 +1,24 @@
+package com.example.routing_service.dto;
+
+import com.example.routing_service.model.DangerZone;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Map marker view of a danger zone, without descriptions and reporter lists. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DangerZoneSummary {
+    private String id;
+    private String name;
+    private DangerZone.DangerLevel dangerLevel;
+    private double latitude;
+    private double longitude;
+    private int reportCount;
+    private List<String> tags;
+}
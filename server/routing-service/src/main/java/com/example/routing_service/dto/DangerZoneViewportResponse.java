@@ -0,0 +1,32 @@
+package com.example.routing_service.dto;
+
+import com.example.routing_service.model.DangerZone;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DangerZoneViewportResponse {
+    private int zoom;
+    private boolean clustered; // clusters is set below the cluster zoom, zones at or above it
+    private List<Cluster> clusters;
+    private List<DangerZoneSummary> zones;
+    private boolean truncated; // More zones in the viewport than the response limit
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cluster {
+        private double latitude; // Centroid of the clustered zones
+        private double longitude;
+        private int count;
+        private DangerZone.DangerLevel maxLevel;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.routing_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteAlternativesResponse {
+    private List<RouteResponse> routes; // Pareto set, ordered from fastest to safest
+    private String recommendedRouteId;
+    private int candidatesEvaluated;
+    private boolean complete; // false if the deadline cut off some candidates
+}
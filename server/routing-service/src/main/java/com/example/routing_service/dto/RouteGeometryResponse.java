@@ -0,0 +1,19 @@
+package com.example.routing_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteGeometryResponse {
+    private String routeId;
+    private String encodedPolyline; // Encoded polyline, latitude/longitude pairs
+    private int precision; // Decimal places encoded, 5 for OpenRouteService polylines
+    private int pointCount;
+    private int originalPointCount; // Points of the full-resolution route, before simplification
+    private double toleranceMeters; // Largest deviation from the full route; 0 when not simplified
+}
@@ -31,6 +31,9 @@ public class RouteRequest {
     private String routeName;
     private String userId;
     
+    // Routing engine: "ors" or "local"; null uses routing.engine.default
+    private String engine;
+    
     @Data
     @Builder
     @NoArgsConstructor
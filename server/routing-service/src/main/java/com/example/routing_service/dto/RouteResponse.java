@@ -28,6 +28,7 @@ public class RouteResponse {
     
     private List<RouteSegment> segments;
     private List<String> avoidedDangerZones;
+    private List<String> warnings; // Set when the route was served by a degraded fallback
     private String status;
     
     @Data
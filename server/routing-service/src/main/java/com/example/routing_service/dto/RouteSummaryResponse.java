@@ -0,0 +1,23 @@
+package com.example.routing_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteSummaryResponse {
+    private String routeId;
+    private String routeName;
+    private LocalDateTime createdAt;
+    
+    private double totalDistance; // in meters
+    private int estimatedDuration; // in seconds
+    private double safetyScore; // 0.0 to 1.0
+    private String status;
+}
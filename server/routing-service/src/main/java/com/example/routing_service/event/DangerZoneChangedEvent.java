@@ -0,0 +1,18 @@
+package com.example.routing_service.event;
+
+import com.example.routing_service.model.DangerZone;
+
+/**
+ * Published after a danger zone was created, merged, updated or deleted on this
+ * instance. {@code zone} is the stored state, or the last state for removals.
+ */
+public record DangerZoneChangedEvent(DangerZone zone, boolean removed) {
+
+    public static DangerZoneChangedEvent updated(DangerZone zone) {
+        return new DangerZoneChangedEvent(zone, false);
+    }
+
+    public static DangerZoneChangedEvent removed(DangerZone zone) {
+        return new DangerZoneChangedEvent(zone, true);
+    }
+}
@@ -13,19 +13,11 @@ public class OpenRouteServiceConfig implements RequestInterceptor {
 
     @Override
     public void apply(RequestTemplate template) {
-        log.info("=== OpenRoute Request Debug ===");
-        log.info("URL: {}", template.url());
-        log.info("Method: {}", template.method());
-        log.info("API Key value: {}", openRouteServiceApiKey != null ? "***" + openRouteServiceApiKey.substring(Math.max(0, openRouteServiceApiKey.length() - 10)) : "NULL");
-        log.info("API Key length: {}", openRouteServiceApiKey != null ? openRouteServiceApiKey.length() : 0);
-        log.info("Request body: {}", template.body() != null ? new String(template.body()) : "NULL");
+        if (openRouteServiceApiKey == null || openRouteServiceApiKey.isBlank()) {
+            log.warn("OpenRouteService API key is not configured");
+        }
+        log.debug("OpenRouteService request: {} {}", template.method(), template.url());
         
         template.header("Authorization", openRouteServiceApiKey);
-        
-        log.info("All headers after adding Authorization:");
-        template.headers().forEach((key, values) -> {
-            log.info("Header '{}': {}", key, values);
-        });
-        log.info("=== End Request Debug ===");
     }
-} 
\ No newline at end of file
+}
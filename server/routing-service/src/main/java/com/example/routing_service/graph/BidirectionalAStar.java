@@ -0,0 +1,192 @@
+package com.example.routing_service.graph;
+
+import com.example.routing_service.util.GeoMath;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional A* over a {@link PedestrianGraph} with per-request edge penalties.
+ *
+ * Both searches use the average potential p(v) = (h(v, t) - h(v, s)) / 2, which
+ * keeps reduced costs consistent in both directions, so the search can stop as
+ * soon as the two queue minima add up to the best meeting cost found so far.
+ * The heuristic is the straight-line distance, which stays admissible because
+ * penalties only ever make edges more expensive.
+ *
+ * Search state is graph-sized, so it is pooled rather than allocated per query;
+ * the pool size bounds both memory and the number of concurrent searches.
+ */
+public final class BidirectionalAStar {
+
+    /** Keeps the heuristic below the haversine edge lengths despite the cheaper approximation. */
+    private static final double HEURISTIC_SCALE = 0.99;
+
+    private final PedestrianGraph graph;
+    private final SearchSlots<SearchSpace> slots;
+
+    public BidirectionalAStar(PedestrianGraph graph, int maxConcurrentSearches, long acquireTimeoutMs) {
+        this.graph = graph;
+        this.slots = new SearchSlots<>(maxConcurrentSearches, acquireTimeoutMs, () -> new SearchSpace(graph.nodeCount()));
+    }
+
+    /**
+     * Cheapest path from {@code source} to {@code target}, or null if they are not
+     * connected. Penalties must be symmetric: an edge and its reverse carry the
+     * same multiplier.
+     */
+    public GraphPath route(int source, int target, EdgePenalties penalties) {
+        return slots.run(space -> space.search(source, target, penalties));
+    }
+
+    private final class SearchSpace {
+        private final int[] reachedForward;
+        private final int[] reachedBackward;
+        private final int[] settledForward;
+        private final int[] settledBackward;
+        private final float[] distForward;
+        private final float[] distBackward;
+        private final int[] parentForward;
+        private final int[] parentBackward;
+        private final int[] potentialStamp;
+        private final float[] potential;
+        private final NodeHeap heapForward = new NodeHeap(1024);
+        private final NodeHeap heapBackward = new NodeHeap(1024);
+        private int stamp;
+
+        private double sourceLat;
+        private double sourceLng;
+        private double targetLat;
+        private double targetLng;
+
+        SearchSpace(int nodeCount) {
+            reachedForward = new int[nodeCount];
+            reachedBackward = new int[nodeCount];
+            settledForward = new int[nodeCount];
+            settledBackward = new int[nodeCount];
+            distForward = new float[nodeCount];
+            distBackward = new float[nodeCount];
+            parentForward = new int[nodeCount];
+            parentBackward = new int[nodeCount];
+            potentialStamp = new int[nodeCount];
+            potential = new float[nodeCount];
+        }
+
+        GraphPath search(int source, int target, EdgePenalties penalties) {
+            if (source == target) {
+                return new GraphPath(new int[]{source}, 0, 0, 0);
+            }
+            nextStamp();
+            sourceLat = graph.latitude(source);
+            sourceLng = graph.longitude(source);
+            targetLat = graph.latitude(target);
+            targetLng = graph.longitude(target);
+            heapForward.clear();
+            heapBackward.clear();
+
+            reach(reachedForward, distForward, parentForward, source, 0f, -1);
+            heapForward.push(source, potential(source));
+            reach(reachedBackward, distBackward, parentBackward, target, 0f, -1);
+            heapBackward.push(target, -potential(target));
+
+            float best = Float.POSITIVE_INFINITY;
+            int meeting = -1;
+            int settled = 0;
+            while (!heapForward.isEmpty() && !heapBackward.isEmpty()) {
+                if (heapForward.peekKey() + heapBackward.peekKey() >= best) {
+                    break;
+                }
+                boolean forward = heapForward.peekKey() <= heapBackward.peekKey();
+                NodeHeap heap = forward ? heapForward : heapBackward;
+                int[] settledSet = forward ? settledForward : settledBackward;
+                int[] reached = forward ? reachedForward : reachedBackward;
+                float[] dist = forward ? distForward : distBackward;
+                int[] parent = forward ? parentForward : parentBackward;
+                int[] otherReached = forward ? reachedBackward : reachedForward;
+                float[] otherDist = forward ? distBackward : distForward;
+                float sign = forward ? 1f : -1f;
+
+                int u = heap.pop();
+                if (settledSet[u] == stamp) {
+                    continue;
+                }
+                settledSet[u] = stamp;
+                settled++;
+
+                float du = dist[u];
+                for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                    int v = graph.edgeTarget(e);
+                    if (settledSet[v] == stamp) {
+                        continue;
+                    }
+                    float dv = du + graph.edgeLength(e) * penalties.multiplier(e);
+                    if (reached[v] != stamp || dv < dist[v]) {
+                        reach(reached, dist, parent, v, dv, u);
+                        heap.push(v, dv + sign * potential(v));
+                        if (otherReached[v] == stamp && dv + otherDist[v] < best) {
+                            best = dv + otherDist[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+
+            if (meeting < 0) {
+                return null;
+            }
+            return buildPath(meeting, best, settled);
+        }
+
+        private GraphPath buildPath(int meeting, float cost, int settled) {
+            int forwardHops = 0;
+            for (int n = meeting; parentForward[n] >= 0; n = parentForward[n]) {
+                forwardHops++;
+            }
+            int backwardHops = 0;
+            for (int n = meeting; parentBackward[n] >= 0; n = parentBackward[n]) {
+                backwardHops++;
+            }
+
+            int[] nodes = new int[forwardHops + backwardHops + 1];
+            int index = forwardHops;
+            for (int n = meeting; index >= 0; n = parentForward[n]) {
+                nodes[index--] = n;
+            }
+            index = forwardHops;
+            for (int n = meeting; parentBackward[n] >= 0; ) {
+                n = parentBackward[n];
+                nodes[++index] = n;
+            }
+
+            return new GraphPath(nodes, GraphPath.length(graph, nodes), cost, settled);
+        }
+
+        private void reach(int[] reached, float[] dist, int[] parent, int node, float distance, int from) {
+            reached[node] = stamp;
+            dist[node] = distance;
+            parent[node] = from;
+        }
+
+        private float potential(int node) {
+            if (potentialStamp[node] != stamp) {
+                double lat = graph.latitude(node);
+                double lng = graph.longitude(node);
+                double toTarget = GeoMath.fastDistanceMeters(lat, lng, targetLat, targetLng);
+                double toSource = GeoMath.fastDistanceMeters(lat, lng, sourceLat, sourceLng);
+                potential[node] = (float) (HEURISTIC_SCALE * (toTarget - toSource) / 2);
+                potentialStamp[node] = stamp;
+            }
+            return potential[node];
+        }
+
+        private void nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(reachedForward, 0);
+                Arrays.fill(reachedBackward, 0);
+                Arrays.fill(settledForward, 0);
+                Arrays.fill(settledBackward, 0);
+                Arrays.fill(potentialStamp, 0);
+                stamp = 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.routing_service.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Bidirectional upward search on a {@link ContractionHierarchy}. Both searches
+ * only follow arcs to higher-ranked nodes and meet at the top of the shortest
+ * path; each direction stops once its queue minimum reaches the best meeting cost.
+ * The resulting arcs are unpacked back into street nodes.
+ */
+public final class ChQuery {
+
+    private final ContractionHierarchy hierarchy;
+    private final SearchSlots<SearchSpace> slots;
+
+    public ChQuery(ContractionHierarchy hierarchy, int maxConcurrentSearches, long acquireTimeoutMs) {
+        this.hierarchy = hierarchy;
+        int nodeCount = hierarchy.graph().nodeCount();
+        this.slots = new SearchSlots<>(maxConcurrentSearches, acquireTimeoutMs, () -> new SearchSpace(nodeCount));
+    }
+
+    /** Cheapest path under the base metric plus {@code overlay}, or null if not connected. */
+    public GraphPath route(int source, int target, MetricOverlay overlay) {
+        return slots.run(space -> space.search(source, target, overlay));
+    }
+
+    private final class SearchSpace {
+        private final int[] reachedForward;
+        private final int[] reachedBackward;
+        private final int[] settledForward;
+        private final int[] settledBackward;
+        private final float[] distForward;
+        private final float[] distBackward;
+        private final int[] parentForward;
+        private final int[] parentBackward;
+        private final int[] parentArcForward;
+        private final int[] parentArcBackward;
+        private final NodeHeap heapForward = new NodeHeap(256);
+        private final NodeHeap heapBackward = new NodeHeap(256);
+        private int stamp;
+
+        SearchSpace(int nodeCount) {
+            reachedForward = new int[nodeCount];
+            reachedBackward = new int[nodeCount];
+            settledForward = new int[nodeCount];
+            settledBackward = new int[nodeCount];
+            distForward = new float[nodeCount];
+            distBackward = new float[nodeCount];
+            parentForward = new int[nodeCount];
+            parentBackward = new int[nodeCount];
+            parentArcForward = new int[nodeCount];
+            parentArcBackward = new int[nodeCount];
+        }
+
+        GraphPath search(int source, int target, MetricOverlay overlay) {
+            if (source == target) {
+                return new GraphPath(new int[]{source}, 0, 0, 0);
+            }
+            nextStamp();
+            heapForward.clear();
+            heapBackward.clear();
+            reach(reachedForward, distForward, parentForward, parentArcForward, source, 0f, -1, -1);
+            heapForward.push(source, 0f);
+            reach(reachedBackward, distBackward, parentBackward, parentArcBackward, target, 0f, -1, -1);
+            heapBackward.push(target, 0f);
+
+            float best = Float.POSITIVE_INFINITY;
+            int meeting = -1;
+            int settled = 0;
+            while (true) {
+                boolean forwardOpen = !heapForward.isEmpty() && heapForward.peekKey() < best;
+                boolean backwardOpen = !heapBackward.isEmpty() && heapBackward.peekKey() < best;
+                if (!forwardOpen && !backwardOpen) {
+                    break;
+                }
+                boolean forward = forwardOpen && (!backwardOpen || heapForward.peekKey() <= heapBackward.peekKey());
+                NodeHeap heap = forward ? heapForward : heapBackward;
+                int[] settledSet = forward ? settledForward : settledBackward;
+                int[] reached = forward ? reachedForward : reachedBackward;
+                float[] dist = forward ? distForward : distBackward;
+                int[] parent = forward ? parentForward : parentBackward;
+                int[] parentArc = forward ? parentArcForward : parentArcBackward;
+                int[] otherReached = forward ? reachedBackward : reachedForward;
+                float[] otherDist = forward ? distBackward : distForward;
+
+                int u = heap.pop();
+                if (settledSet[u] == stamp) {
+                    continue;
+                }
+                settledSet[u] = stamp;
+                settled++;
+
+                float du = dist[u];
+                for (int arc = hierarchy.firstUp(u), end = hierarchy.endUp(u); arc < end; arc++) {
+                    float dv = du + hierarchy.weight(arc, overlay);
+                    if (dv == Float.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    int v = hierarchy.upTarget(arc);
+                    if (reached[v] != stamp || dv < dist[v]) {
+                        reach(reached, dist, parent, parentArc, v, dv, u, arc);
+                        heap.push(v, dv);
+                        if (otherReached[v] == stamp && dv + otherDist[v] < best) {
+                            best = dv + otherDist[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+
+            if (meeting < 0) {
+                return null;
+            }
+            return buildPath(source, meeting, best, settled, overlay);
+        }
+
+        private GraphPath buildPath(int source, int meeting, float cost, int settled, MetricOverlay overlay) {
+            // Upward chain source -> meeting, collected backwards and then unpacked in order
+            int hops = 0;
+            for (int n = meeting; parentForward[n] >= 0; n = parentForward[n]) {
+                hops++;
+            }
+            int[] chain = new int[hops + 1];
+            for (int n = meeting, i = hops; i >= 0; n = parentForward[n], i--) {
+                chain[i] = n;
+            }
+
+            IntStream.Builder nodes = IntStream.builder();
+            nodes.add(source);
+            for (int i = 1; i < chain.length; i++) {
+                hierarchy.unpack(chain[i - 1], chain[i], parentArcForward[chain[i]], overlay, nodes);
+            }
+            // Downward from the meeting node to the target along the backward tree
+            for (int n = meeting; parentBackward[n] >= 0; n = parentBackward[n]) {
+                hierarchy.unpack(n, parentBackward[n], parentArcBackward[n], overlay, nodes);
+            }
+
+            int[] path = nodes.build().toArray();
+            return new GraphPath(path, GraphPath.length(hierarchy.graph(), path), cost, settled);
+        }
+
+        private void reach(int[] reached, float[] dist, int[] parent, int[] parentArc,
+                           int node, float distance, int from, int arc) {
+            reached[node] = stamp;
+            dist[node] = distance;
+            parent[node] = from;
+            parentArc[node] = arc;
+        }
+
+        private void nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(reachedForward, 0);
+                Arrays.fill(reachedBackward, 0);
+                Arrays.fill(settledForward, 0);
+                Arrays.fill(settledBackward, 0);
+                stamp = 1;
+            }
+        }
+    }
+}
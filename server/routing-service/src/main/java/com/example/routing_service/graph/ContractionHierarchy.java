@@ -0,0 +1,240 @@
+package com.example.routing_service.graph;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Customizable contraction hierarchy over a {@link PedestrianGraph}.
+ *
+ * The node order and the upward arcs only depend on the street topology: when a
+ * node is contracted, all of its remaining neighbours are connected to each other,
+ * without witness searches. Any metric can therefore be applied afterwards by
+ * customization, which relaxes every lower triangle {x, p, q} of an arc (p, q).
+ * The base metric (plain lengths) is customized once at build time; per-request
+ * danger penalties are applied as a sparse {@link MetricOverlay} that only
+ * re-customizes the arcs the penalties can reach.
+ *
+ * Arcs are stored once, at their lower-ranked endpoint ("tail"), sorted by head
+ * node id. Each node also lists its downward arcs sorted by tail node id so
+ * lower triangles can be found with a merge.
+ */
+public final class ContractionHierarchy {
+
+    private final PedestrianGraph graph;
+    private final IntBuffer rank;
+    private final IntBuffer firstUp;
+    private final IntBuffer upTarget;
+    private final IntBuffer arcTail;
+    private final IntBuffer firstDown;
+    private final IntBuffer downSource;
+    private final IntBuffer downArc;
+    private final IntBuffer edgeArc;
+    private final FloatBuffer baseWeight;
+    private final IntBuffer baseVia;
+
+    ContractionHierarchy(PedestrianGraph graph, IntBuffer rank, IntBuffer firstUp, IntBuffer upTarget,
+                         IntBuffer arcTail, IntBuffer firstDown, IntBuffer downSource, IntBuffer downArc,
+                         IntBuffer edgeArc, FloatBuffer baseWeight, IntBuffer baseVia) {
+        this.graph = graph;
+        this.rank = rank;
+        this.firstUp = firstUp;
+        this.upTarget = upTarget;
+        this.arcTail = arcTail;
+        this.firstDown = firstDown;
+        this.downSource = downSource;
+        this.downArc = downArc;
+        this.edgeArc = edgeArc;
+        this.baseWeight = baseWeight;
+        this.baseVia = baseVia;
+    }
+
+    public PedestrianGraph graph() {
+        return graph;
+    }
+
+    public int arcCount() {
+        return upTarget.capacity();
+    }
+
+    int rank(int node) {
+        return rank.get(node);
+    }
+
+    int firstUp(int node) {
+        return firstUp.get(node);
+    }
+
+    int endUp(int node) {
+        return firstUp.get(node + 1);
+    }
+
+    int upTarget(int arc) {
+        return upTarget.get(arc);
+    }
+
+    /** Arc connecting two adjacent nodes of the hierarchy, or -1. */
+    int arcBetween(int a, int b) {
+        int tail = rank.get(a) < rank.get(b) ? a : b;
+        int head = tail == a ? b : a;
+        int low = firstUp.get(tail);
+        int high = firstUp.get(tail + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int target = upTarget.get(mid);
+            if (target < head) {
+                low = mid + 1;
+            } else if (target > head) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    float weight(int arc, MetricOverlay overlay) {
+        int slot = overlay.slot(arc);
+        return slot >= 0 ? overlay.weightAt(slot) : baseWeight.get(arc);
+    }
+
+    private int via(int arc, MetricOverlay overlay) {
+        int slot = overlay.slot(arc);
+        return slot >= 0 ? overlay.viaAt(slot) : baseVia.get(arc);
+    }
+
+    /**
+     * Re-customizes the arcs affected by {@code penalties}. Arcs are processed in
+     * rank order of their tail, so every lower triangle is final before it is used;
+     * a changed arc (x, a) can only change arcs (a, b) with b another upward
+     * neighbour of x.
+     */
+    public MetricOverlay customize(EdgePenalties penalties) {
+        if (penalties.size() == 0) {
+            return MetricOverlay.EMPTY;
+        }
+        MetricOverlay overlay = new MetricOverlay(penalties.size() * 4);
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        Set<Integer> queued = new HashSet<>();
+        for (int i = 0; i < penalties.size(); i++) {
+            enqueue(edgeArc.get(penalties.edgeAt(i)), queue, queued);
+        }
+
+        while (!queue.isEmpty()) {
+            int arc = (int) (queue.poll() & 0xFFFFFFFFL);
+            queued.remove(arc);
+            int tail = arcTail.get(arc);
+            int head = upTarget.get(arc);
+
+            float weight = inputWeight(tail, head, penalties);
+            int via = -1;
+            int i = firstDown.get(tail);
+            int iEnd = firstDown.get(tail + 1);
+            int j = firstDown.get(head);
+            int jEnd = firstDown.get(head + 1);
+            while (i < iEnd && j < jEnd) {
+                int x = downSource.get(i);
+                int y = downSource.get(j);
+                if (x < y) {
+                    i++;
+                } else if (x > y) {
+                    j++;
+                } else {
+                    float candidate = weight(downArc.get(i), overlay) + weight(downArc.get(j), overlay);
+                    if (candidate < weight) {
+                        weight = candidate;
+                        via = x;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+
+            float previous = weight(arc, overlay);
+            if (weight != previous || via != via(arc, overlay)) {
+                overlay.put(arc, weight, via);
+            }
+            if (weight != previous) {
+                for (int up = firstUp.get(tail), end = firstUp.get(tail + 1); up < end; up++) {
+                    int other = upTarget.get(up);
+                    if (other != head) {
+                        enqueue(arcBetween(head, other), queue, queued);
+                    }
+                }
+            }
+        }
+        return overlay;
+    }
+
+    private void enqueue(int arc, PriorityQueue<Long> queue, Set<Integer> queued) {
+        if (queued.add(arc)) {
+            queue.add(((long) rank.get(arcTail.get(arc)) << 32) | arc);
+        }
+    }
+
+    /** Cheapest original street between two nodes under the penalties, or infinity. */
+    private float inputWeight(int tail, int head, EdgePenalties penalties) {
+        float weight = Float.POSITIVE_INFINITY;
+        for (int e = graph.firstEdge(tail), end = graph.endEdge(tail); e < end; e++) {
+            if (graph.edgeTarget(e) == head) {
+                weight = Math.min(weight, graph.edgeLength(e) * penalties.multiplier(e));
+            }
+        }
+        return weight;
+    }
+
+    /** Appends the street nodes after {@code from} up to and including {@code to}. */
+    void unpack(int from, int to, int arc, MetricOverlay overlay, IntStream.Builder out) {
+        int via = via(arc, overlay);
+        if (via < 0) {
+            out.add(to);
+            return;
+        }
+        unpack(from, via, arcBetween(via, from), overlay, out);
+        unpack(via, to, arcBetween(via, to), overlay, out);
+    }
+
+    // Raw sections, for RoutingGraphFile
+    IntBuffer ranks() {
+        return rank.duplicate();
+    }
+
+    IntBuffer firstUps() {
+        return firstUp.duplicate();
+    }
+
+    IntBuffer upTargets() {
+        return upTarget.duplicate();
+    }
+
+    IntBuffer arcTails() {
+        return arcTail.duplicate();
+    }
+
+    IntBuffer firstDowns() {
+        return firstDown.duplicate();
+    }
+
+    IntBuffer downSources() {
+        return downSource.duplicate();
+    }
+
+    IntBuffer downArcs() {
+        return downArc.duplicate();
+    }
+
+    IntBuffer edgeArcs() {
+        return edgeArc.duplicate();
+    }
+
+    FloatBuffer baseWeights() {
+        return baseWeight.duplicate();
+    }
+
+    IntBuffer baseVias() {
+        return baseVia.duplicate();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.routing_service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Offline construction of a {@link ContractionHierarchy}.
+ *
+ * Nodes are contracted in minimum-degree order on the elimination graph, a
+ * metric-independent fill-reducing order: dead ends and chain nodes go first and
+ * the well-connected junctions end up at the top. Contracting a node turns its
+ * remaining neighbours into a clique, and those neighbours become its upward arcs.
+ */
+@Slf4j
+public final class ContractionHierarchyBuilder {
+
+    private ContractionHierarchyBuilder() {
+    }
+
+    public static ContractionHierarchy build(PedestrianGraph graph) {
+        long start = System.currentTimeMillis();
+        int nodeCount = graph.nodeCount();
+
+        int[][] neighbours = new int[nodeCount][];
+        NodeHeap heap = new NodeHeap(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            neighbours[node] = neighboursOf(graph, node);
+            heap.push(node, neighbours[node].length);
+        }
+
+        int[] rank = new int[nodeCount];
+        int[] order = new int[nodeCount];
+        int[][] up = new int[nodeCount][];
+        boolean[] contracted = new boolean[nodeCount];
+        int next = 0;
+        while (!heap.isEmpty()) {
+            float degree = heap.peekKey();
+            int node = heap.pop();
+            if (contracted[node]) {
+                continue;
+            }
+            if (degree != neighbours[node].length) {
+                heap.push(node, neighbours[node].length);
+                continue;
+            }
+            contracted[node] = true;
+            rank[node] = next;
+            order[next++] = node;
+            int[] clique = neighbours[node];
+            up[node] = clique;
+            neighbours[node] = null;
+            for (int neighbour : clique) {
+                int before = neighbours[neighbour].length;
+                neighbours[neighbour] = unionWithout(neighbours[neighbour], clique, neighbour, node);
+                if (neighbours[neighbour].length != before) {
+                    heap.push(neighbour, neighbours[neighbour].length);
+                }
+            }
+        }
+
+        // Upward arcs in node id order; each list is already sorted by head
+        int[] firstUp = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            firstUp[node + 1] = firstUp[node] + up[node].length;
+        }
+        int arcCount = firstUp[nodeCount];
+        int[] upTarget = new int[arcCount];
+        int[] arcTail = new int[arcCount];
+        int[] firstDown = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            System.arraycopy(up[node], 0, upTarget, firstUp[node], up[node].length);
+            Arrays.fill(arcTail, firstUp[node], firstUp[node + 1], node);
+            for (int head : up[node]) {
+                firstDown[head + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            firstDown[node + 1] += firstDown[node];
+        }
+
+        // Visiting tails in id order leaves every downward list sorted by tail
+        int[] downSource = new int[arcCount];
+        int[] downArc = new int[arcCount];
+        int[] cursor = Arrays.copyOf(firstDown, nodeCount);
+        for (int arc = 0; arc < arcCount; arc++) {
+            int head = upTarget[arc];
+            downSource[cursor[head]] = arcTail[arc];
+            downArc[cursor[head]++] = arc;
+        }
+
+        ContractionHierarchy partial = new ContractionHierarchy(graph, IntBuffer.wrap(rank),
+            IntBuffer.wrap(firstUp), IntBuffer.wrap(upTarget), IntBuffer.wrap(arcTail),
+            IntBuffer.wrap(firstDown), IntBuffer.wrap(downSource), IntBuffer.wrap(downArc),
+            null, null, null);
+
+        int[] edgeArc = new int[graph.edgeCount()];
+        float[] weight = new float[arcCount];
+        int[] via = new int[arcCount];
+        Arrays.fill(weight, Float.POSITIVE_INFINITY);
+        Arrays.fill(via, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                int arc = partial.arcBetween(node, graph.edgeTarget(e));
+                edgeArc[e] = arc;
+                weight[arc] = Math.min(weight[arc], graph.edgeLength(e));
+            }
+        }
+
+        // Base customization: lower triangles in rank order
+        for (int tail : order) {
+            for (int i = firstUp[tail]; i < firstUp[tail + 1]; i++) {
+                for (int j = i + 1; j < firstUp[tail + 1]; j++) {
+                    float candidate = weight[i] + weight[j];
+                    int arc = partial.arcBetween(upTarget[i], upTarget[j]);
+                    if (candidate < weight[arc]) {
+                        weight[arc] = candidate;
+                        via[arc] = tail;
+                    }
+                }
+            }
+        }
+
+        log.info("Built contraction hierarchy: {} nodes, {} edges, {} arcs ({} shortcuts) in {}ms",
+                nodeCount, graph.edgeCount(), arcCount, arcCount - graph.edgeCount() / 2,
+                System.currentTimeMillis() - start);
+        return new ContractionHierarchy(graph, IntBuffer.wrap(rank), IntBuffer.wrap(firstUp),
+            IntBuffer.wrap(upTarget), IntBuffer.wrap(arcTail), IntBuffer.wrap(firstDown),
+            IntBuffer.wrap(downSource), IntBuffer.wrap(downArc), IntBuffer.wrap(edgeArc),
+            FloatBuffer.wrap(weight), IntBuffer.wrap(via));
+    }
+
+    private static int[] neighboursOf(PedestrianGraph graph, int node) {
+        int[] targets = new int[graph.endEdge(node) - graph.firstEdge(node)];
+        for (int e = graph.firstEdge(node), i = 0; e < graph.endEdge(node); e++) {
+            targets[i++] = graph.edgeTarget(e);
+        }
+        Arrays.sort(targets);
+        int unique = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] != node && (unique == 0 || targets[i] != targets[unique - 1])) {
+                targets[unique++] = targets[i];
+            }
+        }
+        return Arrays.copyOf(targets, unique);
+    }
+
+    /** Sorted union of two sorted id lists, leaving out {@code self} and {@code removed}. */
+    private static int[] unionWithout(int[] current, int[] added, int self, int removed) {
+        int[] merged = new int[current.length + added.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < current.length || j < added.length) {
+            int value;
+            if (j >= added.length || (i < current.length && current[i] <= added[j])) {
+                value = current[i++];
+            } else {
+                value = added[j++];
+            }
+            if (value != self && value != removed && (size == 0 || merged[size - 1] != value)) {
+                merged[size++] = value;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+}
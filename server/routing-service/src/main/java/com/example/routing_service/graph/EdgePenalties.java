@@ -0,0 +1,51 @@
+package com.example.routing_service.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Sparse per-request cost multipliers. Only edges near a danger zone carry a
+ * penalty, so they are kept as a sorted edge list rather than a graph-sized array.
+ */
+public final class EdgePenalties {
+
+    public static final EdgePenalties NONE = new EdgePenalties(new int[0], new float[0]);
+
+    private final int[] edges;
+    private final float[] multipliers;
+
+    private EdgePenalties(int[] edges, float[] multipliers) {
+        this.edges = edges;
+        this.multipliers = multipliers;
+    }
+
+    /** Builds penalties from edge id to cost multiplier (values below 1 are ignored). */
+    public static EdgePenalties of(Map<Integer, Float> multiplierByEdge) {
+        if (multiplierByEdge.isEmpty()) {
+            return NONE;
+        }
+        int[] edges = multiplierByEdge.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        float[] multipliers = new float[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            multipliers[i] = Math.max(1f, multiplierByEdge.get(edges[i]));
+        }
+        return new EdgePenalties(edges, multipliers);
+    }
+
+    public float multiplier(int edge) {
+        if (edges.length == 0) {
+            return 1f;
+        }
+        int index = Arrays.binarySearch(edges, edge);
+        return index >= 0 ? multipliers[index] : 1f;
+    }
+
+    /** Edge id of the {@code i}-th penalized edge, in ascending edge order. */
+    public int edgeAt(int i) {
+        return edges[i];
+    }
+
+    public int size() {
+        return edges.length;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.routing_service.graph;
+
+/**
+ * A route through a {@link PedestrianGraph}.
+ *
+ * @param nodes         node ids from source to target
+ * @param lengthMeters  physical length of the path
+ * @param cost          penalized cost the search minimized
+ * @param settledNodes  nodes settled by the search, for diagnostics
+ */
+public record GraphPath(int[] nodes, double lengthMeters, double cost, int settledNodes) {
+
+    static double length(PedestrianGraph graph, int[] nodes) {
+        double length = 0;
+        for (int i = 1; i < nodes.length; i++) {
+            length += graph.edgeLength(graph.findEdge(nodes[i - 1], nodes[i]));
+        }
+        return length;
+    }
+}
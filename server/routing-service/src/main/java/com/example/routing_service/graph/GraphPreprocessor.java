@@ -0,0 +1,30 @@
+package com.example.routing_service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Offline step for the local routing engine: OSM extract in, contraction
+ * hierarchy graph file out. Run through the buildRoutingGraph Gradle task.
+ */
+@Slf4j
+public final class GraphPreprocessor {
+
+    private GraphPreprocessor() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args[0].isBlank() || args[1].isBlank()) {
+            System.err.println("Usage: GraphPreprocessor <extract.osm.pbf> <output.ghch>");
+            System.exit(2);
+        }
+        PedestrianGraph graph = OsmGraphLoader.load(new File(args[0]));
+        ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph);
+        Path output = Path.of(args[1]);
+        RoutingGraphFile.write(hierarchy, output);
+        log.info("Wrote routing graph format v{} to {} ({} bytes)",
+                RoutingGraphFile.VERSION, output, output.toFile().length());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.routing_service.graph;
+
+/**
+ * Per-request arc weights that differ from the base metric of a
+ * {@link ContractionHierarchy}. Open addressing over primitive arrays keeps the
+ * lookup on the query hot path allocation-free.
+ */
+public final class MetricOverlay {
+
+    static final MetricOverlay EMPTY = new MetricOverlay(0);
+
+    private int[] keys;     // arc + 1, 0 marks a free slot
+    private float[] weights;
+    private int[] vias;
+    private int size;
+
+    MetricOverlay(int expectedArcs) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedArcs * 2 - 1)) << 1;
+        keys = new int[capacity];
+        weights = new float[capacity];
+        vias = new int[capacity];
+    }
+
+    /** Number of arcs whose weight or unpacking differs from the base metric. */
+    public int size() {
+        return size;
+    }
+
+    int slot(int arc) {
+        if (size == 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(arc) & mask; ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == arc + 1) {
+                return i;
+            }
+            if (key == 0) {
+                return -1;
+            }
+        }
+    }
+
+    float weightAt(int slot) {
+        return weights[slot];
+    }
+
+    int viaAt(int slot) {
+        return vias[slot];
+    }
+
+    void put(int arc, float weight, int via) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int i = mix(arc) & mask;
+        while (keys[i] != 0 && keys[i] != arc + 1) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == 0) {
+            keys[i] = arc + 1;
+            size++;
+        }
+        weights[i] = weight;
+        vias[i] = via;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        float[] oldWeights = weights;
+        int[] oldVias = vias;
+        keys = new int[oldKeys.length * 2];
+        weights = new float[keys.length];
+        vias = new int[keys.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i] - 1, oldWeights[i], oldVias[i]);
+            }
+        }
+    }
+
+    private static int mix(int arc) {
+        int h = arc * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "MetricOverlay[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.routing_service.graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (node, key) pairs on primitive arrays. Decrease-key is done
+ * lazily: a node may be pushed again with a smaller key and stale entries are
+ * skipped by the caller when popped.
+ */
+final class NodeHeap {
+
+    private int[] nodes;
+    private float[] keys;
+    private int size;
+
+    NodeHeap(int initialCapacity) {
+        nodes = new int[Math.max(16, initialCapacity)];
+        keys = new float[nodes.length];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    float peekKey() {
+        return keys[0];
+    }
+
+    int peekNode() {
+        return nodes[0];
+    }
+
+    void push(int node, float key) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+    }
+
+    /** Removes the minimum entry and returns its node. */
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastKey = keys[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[child] >= lastKey) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        keys[i] = lastKey;
+        return top;
+    }
+}
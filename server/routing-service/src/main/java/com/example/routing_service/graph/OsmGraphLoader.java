@@ -0,0 +1,194 @@
+package com.example.routing_service.graph;
+
+import crosby.binary.osmosis.OsmosisReader;
+import lombok.extern.slf4j.Slf4j;
+import org.openstreetmap.osmosis.core.container.v0_6.EntityContainer;
+import org.openstreetmap.osmosis.core.domain.v0_6.Entity;
+import org.openstreetmap.osmosis.core.domain.v0_6.Node;
+import org.openstreetmap.osmosis.core.domain.v0_6.Tag;
+import org.openstreetmap.osmosis.core.domain.v0_6.Way;
+import org.openstreetmap.osmosis.core.domain.v0_6.WayNode;
+import org.openstreetmap.osmosis.core.task.v0_6.Sink;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the walkable street network from an OSM PBF extract.
+ *
+ * The file is read twice: the first pass keeps the node references of walkable
+ * ways, the second pass looks up coordinates for just those nodes. OSM ids are
+ * remapped to dense ints by binary search over the sorted referenced ids, so no
+ * boxed maps are needed even for country-sized extracts.
+ */
+@Slf4j
+public final class OsmGraphLoader {
+
+    private static final Set<String> WALKABLE_HIGHWAYS = Set.of(
+        "footway", "pedestrian", "path", "steps", "living_street", "residential", "service",
+        "unclassified", "tertiary", "tertiary_link", "secondary", "secondary_link",
+        "primary", "primary_link", "track", "cycleway", "bridleway", "corridor", "road");
+
+    private static final Set<String> FOOT_ALLOWED = Set.of("yes", "designated", "permissive");
+    private static final Set<String> ACCESS_DENIED = Set.of("no", "private");
+
+    private OsmGraphLoader() {
+    }
+
+    public static PedestrianGraph load(File pbfFile) {
+        long start = System.currentTimeMillis();
+
+        WayCollector ways = new WayCollector();
+        read(pbfFile, ways);
+        long[] nodeIds = ways.referencedNodeIds();
+
+        CoordinateCollector coordinates = new CoordinateCollector(nodeIds);
+        read(pbfFile, coordinates);
+
+        int[] from = new int[ways.nodeRefCount];
+        int[] to = new int[ways.nodeRefCount];
+        int pieces = 0;
+        for (int w = 0; w < ways.wayCount; w++) {
+            for (int i = ways.wayStart[w] + 1; i < ways.wayStart[w + 1]; i++) {
+                int a = Arrays.binarySearch(nodeIds, ways.nodeRefs[i - 1]);
+                int b = Arrays.binarySearch(nodeIds, ways.nodeRefs[i]);
+                if (a != b && coordinates.found[a] && coordinates.found[b]) {
+                    from[pieces] = a;
+                    to[pieces] = b;
+                    pieces++;
+                }
+            }
+        }
+
+        PedestrianGraph graph = PedestrianGraph.fromUndirectedEdges(
+            coordinates.latitudes, coordinates.longitudes, from, to, pieces);
+        log.info("Loaded pedestrian graph from {}: {} ways, {} nodes, {} edges in {}ms",
+                pbfFile.getName(), ways.wayCount, graph.nodeCount(), graph.edgeCount(),
+                System.currentTimeMillis() - start);
+        return graph;
+    }
+
+    static boolean isWalkable(Map<String, String> tags) {
+        String highway = tags.get("highway");
+        if (highway == null) {
+            return false;
+        }
+        String foot = tags.get("foot");
+        if (foot != null) {
+            if (FOOT_ALLOWED.contains(foot)) {
+                return true;
+            }
+            if (ACCESS_DENIED.contains(foot)) {
+                return false;
+            }
+        }
+        if (ACCESS_DENIED.contains(tags.getOrDefault("access", ""))) {
+            return false;
+        }
+        if ("crossing".equals(tags.get("footway")) || "sidewalk".equals(tags.get("footway"))) {
+            return true;
+        }
+        return WALKABLE_HIGHWAYS.contains(highway);
+    }
+
+    private static void read(File pbfFile, Sink sink) {
+        OsmosisReader reader = new OsmosisReader(pbfFile);
+        reader.setSink(sink);
+        reader.run();
+    }
+
+    private abstract static class EntitySink implements Sink {
+        @Override
+        public void initialize(Map<String, Object> metaData) {
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class WayCollector extends EntitySink {
+        private long[] nodeRefs = new long[1 << 16];
+        private int[] wayStart = new int[1 << 12];
+        private int nodeRefCount;
+        private int wayCount;
+
+        @Override
+        public void process(EntityContainer container) {
+            Entity entity = container.getEntity();
+            if (!(entity instanceof Way way)) {
+                return;
+            }
+            List<WayNode> wayNodes = way.getWayNodes();
+            if (wayNodes.size() < 2 || !isWalkable(tagMap(way))) {
+                return;
+            }
+            if (wayCount + 2 > wayStart.length) {
+                wayStart = Arrays.copyOf(wayStart, wayStart.length * 2);
+            }
+            if (nodeRefCount + wayNodes.size() > nodeRefs.length) {
+                nodeRefs = Arrays.copyOf(nodeRefs, Math.max(nodeRefs.length * 2, nodeRefCount + wayNodes.size()));
+            }
+            wayStart[wayCount] = nodeRefCount;
+            for (WayNode wayNode : wayNodes) {
+                nodeRefs[nodeRefCount++] = wayNode.getNodeId();
+            }
+            wayStart[++wayCount] = nodeRefCount;
+        }
+
+        long[] referencedNodeIds() {
+            long[] ids = Arrays.copyOf(nodeRefs, nodeRefCount);
+            Arrays.sort(ids);
+            int unique = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    ids[unique++] = ids[i];
+                }
+            }
+            return Arrays.copyOf(ids, unique);
+        }
+
+        private static Map<String, String> tagMap(Way way) {
+            Map<String, String> tags = new HashMap<>();
+            for (Tag tag : way.getTags()) {
+                tags.put(tag.getKey(), tag.getValue());
+            }
+            return tags;
+        }
+    }
+
+    private static final class CoordinateCollector extends EntitySink {
+        private final long[] nodeIds;
+        private final float[] latitudes;
+        private final float[] longitudes;
+        private final boolean[] found;
+
+        CoordinateCollector(long[] nodeIds) {
+            this.nodeIds = nodeIds;
+            this.latitudes = new float[nodeIds.length];
+            this.longitudes = new float[nodeIds.length];
+            this.found = new boolean[nodeIds.length];
+        }
+
+        @Override
+        public void process(EntityContainer container) {
+            if (!(container.getEntity() instanceof Node node)) {
+                return;
+            }
+            int index = Arrays.binarySearch(nodeIds, node.getId());
+            if (index >= 0) {
+                latitudes[index] = (float) node.getLatitude();
+                longitudes[index] = (float) node.getLongitude();
+                found[index] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.routing_service.graph;
+
+import com.example.routing_service.util.GeoMath;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable walking network in compressed sparse row form.
+ *
+ * Nodes are dense ints; the outgoing edges of node {@code n} are the slots
+ * {@code firstEdge[n] .. firstEdge[n + 1] - 1}. Every street is stored in both
+ * directions, so the graph can be searched forwards and backwards with the same
+ * adjacency. Edge lengths are in meters.
+ *
+ * The arrays are held as buffers so a graph can live on the heap (built from an
+ * OSM extract) or in a memory-mapped {@link RoutingGraphFile}.
+ */
+public final class PedestrianGraph {
+
+    /** Side of a spatial index cell in degrees (~110m north-south). */
+    static final double CELL_DEGREES = 0.001;
+
+    /** Node ids are packed below the cell key, which caps a graph at 2^27 nodes. */
+    static final int NODE_BITS = 27;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+
+    private final FloatBuffer latitudes;
+    private final FloatBuffer longitudes;
+    private final IntBuffer firstEdge;
+    private final IntBuffer edgeTarget;
+    private final FloatBuffer edgeLength;
+
+    /** Sorted (cell << NODE_BITS | node) keys for nearest-node lookups. */
+    private final LongBuffer cellIndex;
+
+    PedestrianGraph(FloatBuffer latitudes, FloatBuffer longitudes, IntBuffer firstEdge,
+                    IntBuffer edgeTarget, FloatBuffer edgeLength, LongBuffer cellIndex) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeLength = edgeLength;
+        this.cellIndex = cellIndex;
+    }
+
+    /**
+     * Builds a graph from undirected street pieces. {@code from[i]} and {@code to[i]}
+     * are node ids; each piece becomes two directed edges.
+     */
+    public static PedestrianGraph fromUndirectedEdges(float[] latitudes, float[] longitudes,
+                                                      int[] from, int[] to, int pieceCount) {
+        int nodeCount = latitudes.length;
+        int[] firstEdge = new int[nodeCount + 1];
+        for (int i = 0; i < pieceCount; i++) {
+            firstEdge[from[i] + 1]++;
+            firstEdge[to[i] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            firstEdge[n + 1] += firstEdge[n];
+        }
+
+        int[] edgeTarget = new int[pieceCount * 2];
+        float[] edgeLength = new float[pieceCount * 2];
+        int[] cursor = Arrays.copyOf(firstEdge, nodeCount);
+        for (int i = 0; i < pieceCount; i++) {
+            int a = from[i];
+            int b = to[i];
+            float length = (float) GeoMath.distanceMeters(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+            edgeTarget[cursor[a]] = b;
+            edgeLength[cursor[a]++] = length;
+            edgeTarget[cursor[b]] = a;
+            edgeLength[cursor[b]++] = length;
+        }
+        return new PedestrianGraph(FloatBuffer.wrap(latitudes), FloatBuffer.wrap(longitudes),
+            IntBuffer.wrap(firstEdge), IntBuffer.wrap(edgeTarget), FloatBuffer.wrap(edgeLength),
+            LongBuffer.wrap(buildCellIndex(latitudes, longitudes)));
+    }
+
+    public int nodeCount() {
+        return latitudes.capacity();
+    }
+
+    public int edgeCount() {
+        return edgeTarget.capacity();
+    }
+
+    public double latitude(int node) {
+        return latitudes.get(node);
+    }
+
+    public double longitude(int node) {
+        return longitudes.get(node);
+    }
+
+    public int firstEdge(int node) {
+        return firstEdge.get(node);
+    }
+
+    /** Exclusive end of the outgoing edge range of {@code node}. */
+    public int endEdge(int node) {
+        return firstEdge.get(node + 1);
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTarget.get(edge);
+    }
+
+    public float edgeLength(int edge) {
+        return edgeLength.get(edge);
+    }
+
+    /** Returns the edge from {@code from} to {@code to}, or -1 if they are not adjacent. */
+    public int findEdge(int from, int to) {
+        for (int e = firstEdge(from), end = endEdge(from); e < end; e++) {
+            if (edgeTarget.get(e) == to) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Closest node within {@code maxDistanceMeters}, or -1. Only the index cells
+     * that can contain such a node are scanned.
+     */
+    public int nearestNode(double lat, double lng, double maxDistanceMeters) {
+        int best = -1;
+        double bestDistance = maxDistanceMeters;
+        int ring = ringFor(maxDistanceMeters, lat);
+        int row = row(lat);
+        int col = col(lng);
+        for (int r = row - ring; r <= row + ring; r++) {
+            for (int c = col - ring; c <= col + ring; c++) {
+                long cell = cellKey(r, c);
+                for (int i = lowerBound(cell << NODE_BITS); i < cellIndex.capacity() && (cellIndex.get(i) >>> NODE_BITS) == cell; i++) {
+                    int node = (int) (cellIndex.get(i) & NODE_MASK);
+                    double distance = GeoMath.fastDistanceMeters(lat, lng, latitudes.get(node), longitudes.get(node));
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = node;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Visits every node within {@code radiusMeters} of the point. */
+    public void forEachNodeWithin(double lat, double lng, double radiusMeters, NodeVisitor visitor) {
+        int ring = ringFor(radiusMeters, lat);
+        int row = row(lat);
+        int col = col(lng);
+        for (int r = row - ring; r <= row + ring; r++) {
+            for (int c = col - ring; c <= col + ring; c++) {
+                long cell = cellKey(r, c);
+                for (int i = lowerBound(cell << NODE_BITS); i < cellIndex.capacity() && (cellIndex.get(i) >>> NODE_BITS) == cell; i++) {
+                    int node = (int) (cellIndex.get(i) & NODE_MASK);
+                    double distance = GeoMath.fastDistanceMeters(lat, lng, latitudes.get(node), longitudes.get(node));
+                    if (distance <= radiusMeters) {
+                        visitor.visit(node, distance);
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface NodeVisitor {
+        void visit(int node, double distanceMeters);
+    }
+
+    // Raw sections, for RoutingGraphFile
+    FloatBuffer latitudes() {
+        return latitudes.duplicate();
+    }
+
+    FloatBuffer longitudes() {
+        return longitudes.duplicate();
+    }
+
+    IntBuffer firstEdges() {
+        return firstEdge.duplicate();
+    }
+
+    IntBuffer edgeTargets() {
+        return edgeTarget.duplicate();
+    }
+
+    FloatBuffer edgeLengths() {
+        return edgeLength.duplicate();
+    }
+
+    LongBuffer cellIndex() {
+        return cellIndex.duplicate();
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = cellIndex.capacity();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellIndex.get(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int ringFor(double radiusMeters, double lat) {
+        double cellMeters = CELL_DEGREES * GeoMath.METERS_PER_DEGREE_LAT * Math.max(0.1, Math.cos(Math.toRadians(lat)));
+        return Math.max(1, (int) Math.ceil(radiusMeters / cellMeters));
+    }
+
+    private static long[] buildCellIndex(float[] latitudes, float[] longitudes) {
+        if (latitudes.length > NODE_MASK) {
+            throw new IllegalArgumentException("Graph has too many nodes: " + latitudes.length);
+        }
+        long[] index = new long[latitudes.length];
+        for (int n = 0; n < latitudes.length; n++) {
+            index[n] = (cellKey(row(latitudes[n]), col(longitudes[n])) << NODE_BITS) | n;
+        }
+        Arrays.sort(index);
+        return index;
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat + 90) / CELL_DEGREES);
+    }
+
+    private static int col(double lng) {
+        return (int) Math.floor((lng + 180) / CELL_DEGREES);
+    }
+
+    private static long cellKey(int row, int col) {
+        // 180000 rows x 360000 columns needs 36 bits, leaving NODE_BITS for the node id
+        return (long) row * 360_000L + col;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.routing_service.graph;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary file holding a {@link PedestrianGraph} and its
+ * {@link ContractionHierarchy}.
+ *
+ * Layout (little endian): a 64-byte header (magic, format version, node, edge and
+ * arc counts, creation time) followed by the raw arrays in a fixed order, each
+ * padded to 8 bytes. Every array is memory-mapped read-only on load, so startup
+ * does no parsing and replicas on the same host share the page cache.
+ *
+ * Bump {@link #VERSION} whenever the layout or the meaning of a section changes;
+ * files with another version are rejected and must be rebuilt.
+ */
+public final class RoutingGraphFile {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x48434847; // "GHCH" read as little endian
+    private static final int HEADER_BYTES = 64;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private RoutingGraphFile() {
+    }
+
+    /** True if {@code file} starts with the routing graph magic number. */
+    public static boolean isGraphFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ORDER);
+            return channel.read(magic, 0) == 4 && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /** Writes to a temporary file first, so readers never map a half-written graph. */
+    public static void write(ContractionHierarchy hierarchy, Path file) throws IOException {
+        PedestrianGraph graph = hierarchy.graph();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            header.putInt(MAGIC)
+                  .putInt(VERSION)
+                  .putInt(graph.nodeCount())
+                  .putInt(graph.edgeCount())
+                  .putInt(hierarchy.arcCount())
+                  .putInt(0)
+                  .putLong(System.currentTimeMillis());
+            header.clear();
+            writeFully(channel, header);
+
+            Writer writer = new Writer(channel);
+            writer.floats(graph.latitudes());
+            writer.floats(graph.longitudes());
+            writer.ints(graph.firstEdges());
+            writer.ints(graph.edgeTargets());
+            writer.floats(graph.edgeLengths());
+            writer.longs(graph.cellIndex());
+            writer.ints(hierarchy.ranks());
+            writer.ints(hierarchy.firstUps());
+            writer.ints(hierarchy.upTargets());
+            writer.ints(hierarchy.arcTails());
+            writer.ints(hierarchy.firstDowns());
+            writer.ints(hierarchy.downSources());
+            writer.ints(hierarchy.downArcs());
+            writer.ints(hierarchy.edgeArcs());
+            writer.floats(hierarchy.baseWeights());
+            writer.ints(hierarchy.baseVias());
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ContractionHierarchy read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            if (channel.read(header, 0) != HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a routing graph file");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Routing graph " + file + " has format version " + version
+                    + ", expected " + VERSION + "; rebuild it with the buildRoutingGraph task");
+            }
+            int nodes = header.getInt(8);
+            int edges = header.getInt(12);
+            int arcs = header.getInt(16);
+
+            Mapper mapper = new Mapper(channel);
+            FloatBuffer latitudes = mapper.floats(nodes);
+            FloatBuffer longitudes = mapper.floats(nodes);
+            IntBuffer firstEdge = mapper.ints(nodes + 1);
+            IntBuffer edgeTarget = mapper.ints(edges);
+            FloatBuffer edgeLength = mapper.floats(edges);
+            LongBuffer cellIndex = mapper.longs(nodes);
+            PedestrianGraph graph = new PedestrianGraph(latitudes, longitudes, firstEdge, edgeTarget, edgeLength, cellIndex);
+
+            ContractionHierarchy hierarchy = new ContractionHierarchy(graph,
+                mapper.ints(nodes),
+                mapper.ints(nodes + 1),
+                mapper.ints(arcs),
+                mapper.ints(arcs),
+                mapper.ints(nodes + 1),
+                mapper.ints(arcs),
+                mapper.ints(arcs),
+                mapper.ints(edges),
+                mapper.floats(arcs),
+                mapper.ints(arcs));
+            if (mapper.position != channel.size()) {
+                throw new IOException("Routing graph " + file + " is truncated or corrupt");
+            }
+            return hierarchy;
+        }
+    }
+
+    private static long padded(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 20).order(ORDER);
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ints(IntBuffer values) throws IOException {
+            for (int i = 0; i < values.capacity(); i++) {
+                ensure(4).putInt(values.get(i));
+            }
+            pad(values, 4);
+        }
+
+        void floats(FloatBuffer values) throws IOException {
+            for (int i = 0; i < values.capacity(); i++) {
+                ensure(4).putFloat(values.get(i));
+            }
+            pad(values, 4);
+        }
+
+        void longs(LongBuffer values) throws IOException {
+            for (int i = 0; i < values.capacity(); i++) {
+                ensure(8).putLong(values.get(i));
+            }
+            pad(values, 8);
+        }
+
+        private void pad(Buffer values, int elementBytes) throws IOException {
+            long bytes = (long) values.capacity() * elementBytes;
+            for (long i = bytes; i < padded(bytes); i++) {
+                ensure(1).put((byte) 0);
+            }
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (chunk.remaining() < bytes) {
+                flush();
+            }
+            return chunk;
+        }
+
+        void flush() throws IOException {
+            chunk.flip();
+            writeFully(channel, chunk);
+            chunk.clear();
+        }
+    }
+
+    private static final class Mapper {
+        private final FileChannel channel;
+        private long position = HEADER_BYTES;
+
+        Mapper(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        IntBuffer ints(int count) throws IOException {
+            return map(count * 4L).asIntBuffer();
+        }
+
+        FloatBuffer floats(int count) throws IOException {
+            return map(count * 4L).asFloatBuffer();
+        }
+
+        LongBuffer longs(int count) throws IOException {
+            return map(count * 8L).asLongBuffer();
+        }
+
+        // One mapping per section keeps each below the 2GB limit of a single buffer
+        private ByteBuffer map(long bytes) throws IOException {
+            if (position + bytes > channel.size()) {
+                throw new IOException("Routing graph file is truncated");
+            }
+            ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ORDER);
+            position += padded(bytes);
+            return section;
+        }
+    }
+}
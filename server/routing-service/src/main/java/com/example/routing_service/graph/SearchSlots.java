@@ -0,0 +1,46 @@
+package com.example.routing_service.graph;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable graph-sized search state. The permit count caps both
+ * concurrent searches and the number of state objects ever allocated.
+ */
+final class SearchSlots<T> {
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final Supplier<T> factory;
+    private final long acquireTimeoutMs;
+
+    SearchSlots(int maxConcurrentSearches, long acquireTimeoutMs, Supplier<T> factory) {
+        this.permits = new Semaphore(maxConcurrentSearches);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.factory = factory;
+    }
+
+    <R> R run(Function<T, R> search) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("All local route searches are busy");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a route search slot", e);
+        }
+        T state = idle.poll();
+        if (state == null) {
+            state = factory.get();
+        }
+        try {
+            return search.apply(state);
+        } finally {
+            idle.offer(state);
+            permits.release();
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.routing_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,6 +22,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "danger_zones")
+// Equality, sort, range: serve the paged level/tag listings (newest first, active only) from the index
+@CompoundIndex(name = "tags_reportedAt_expiresAt", def = "{ 'tags': 1, 'reportedAt': -1, 'expiresAt': 1 }")
+@CompoundIndex(name = "dangerLevel_reportedAt_expiresAt", def = "{ 'dangerLevel': 1, 'reportedAt': -1, 'expiresAt': 1 }")
 public class DangerZone {
     @Id
     private String id;
@@ -28,14 +35,27 @@ public class DangerZone {
     private String reportedBy;
     private LocalDateTime reportedAt;
     private LocalDateTime expiresAt;
-    private List<String> tags; // e.g., ["park", "alley", "poor_lighting"]
+    private List<String> tags; // Canonical, see DangerZoneTags; e.g., ["park", "alley", "poor_lighting"]
     
     @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
-    private GeoJsonPoint location;
+    private GeoJsonPoint location; // Centroid for zones reported with an area
+    
+    // Extent of the zone; a circle around location unless area is set. Null means the default, see DangerZoneFootprints
+    private Double radiusMeters;
+    private GeoJsonPolygon area;
+    
+    // Shape grown by the influence margin; routes crossing it are scored against the zone
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPolygon footprint;
     
     private int reportCount;
     private List<String> reportedByUsers;
     
+    // Grid cell + normalized name; concurrent reports of the same spot merge on this key
+    @Indexed(unique = true, sparse = true)
+    private String mergeKey;
+    
     public enum DangerLevel {
         LOW, MEDIUM, HIGH, CRITICAL
     }
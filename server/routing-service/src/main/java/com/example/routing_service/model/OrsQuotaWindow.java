@@ -0,0 +1,31 @@
+package com.example.routing_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * OpenRouteService calls taken from one quota window by all replicas together, e.g.
+ * {@code minute:29274583} or {@code day:20330}. Windows are counted up only; MongoDB
+ * drops them once they are past.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ors_quota")
+public class OrsQuotaWindow {
+    @Id
+    private String id;
+
+    private long used;
+
+    @Indexed(name = "expires_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,6 +18,15 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "routes")
+@CompoundIndexes({
+    // Serves the paginated "my routes" listing: equality on userId/status, sorted by createdAt
+    @CompoundIndex(name = "user_status_created_idx", def = "{ 'userId': 1, 'status': 1, 'createdAt': -1 }"),
+    // Serves the expiry sweep, which only touches ACTIVE routes past their expiresAt
+    @CompoundIndex(name = "status_expires_idx", def = "{ 'status': 1, 'expiresAt': 1 }"),
+    // Find the active routes a changed danger zone may affect, for re-scoring
+    @CompoundIndex(name = "status_bounds_idx", def = "{ 'status': 1, 'bounds': '2dsphere' }"),
+    @CompoundIndex(name = "status_avoided_zones_idx", def = "{ 'status': 1, 'avoidedDangerZones': 1 }")
+})
 public class Route {
     @Id
     private String id;
@@ -33,7 +45,10 @@ public class Route {
     private double safetyScore; // 0.0 to 1.0
     
     private List<RouteSegment> segments;
+    private String encodedGeometry; // Full route polyline as returned by OpenRouteService
+    private GeoJsonPolygon bounds; // Bounding box of the segments, matched against danger zone footprints
     private List<String> avoidedDangerZones;
+    private List<String> warnings; // Set when the route was served by a degraded fallback
     
     private RouteStatus status;
     
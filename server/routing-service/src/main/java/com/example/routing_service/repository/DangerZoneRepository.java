@@ -1,15 +1,18 @@
 package com.example.routing_service.repository;
 
 import com.example.routing_service.model.DangerZone;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface DangerZoneRepository extends MongoRepository<DangerZone, String> {
+public interface DangerZoneRepository extends MongoRepository<DangerZone, String>, DangerZoneRepositoryCustom {
     
     @Query("{ 'location': { $near: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'expiresAt': { $gt: ?3 } }")
     List<DangerZone> findNearbyActiveDangerZones(double longitude, double latitude, double radiusMeters, LocalDateTime currentTime);
@@ -17,6 +20,18 @@ public interface DangerZoneRepository extends MongoRepository<DangerZone, String
     @Query("{ 'expiresAt': { $gt: ?0 } }")
     List<DangerZone> findAllActiveDangerZones(LocalDateTime currentTime);
     
+    // Risk raster and map clusters: only what scoring and markers read, without reporter lists
+    @Query(value = "{ 'expiresAt': { $gt: ?0 } }",
+           fields = "{ 'location': 1, 'radiusMeters': 1, 'area': 1, 'dangerLevel': 1, 'reportCount': 1, 'expiresAt': 1 }")
+    List<DangerZone> findAllActiveZoneShapes(LocalDateTime currentTime);
+    
+    // Cursor-backed, for exports; the caller must close the stream
+    @Query("{ 'expiresAt': { $gt: ?0 } }")
+    Stream<DangerZone> streamAllActiveDangerZones(LocalDateTime currentTime);
+    
+    @Query("{}")
+    Stream<DangerZone> streamAllDangerZones();
+    
     @Query(value = "{ 'expiresAt': { $gt: ?0 } }", count = true)
     Long countActiveDangerZones(LocalDateTime currentTime);
     
@@ -24,21 +39,32 @@ public interface DangerZoneRepository extends MongoRepository<DangerZone, String
     List<DangerZone> findByReportedBy(String userId);
     
     @Query("{ 'dangerLevel': ?0, 'expiresAt': { $gt: ?1 } }")
-    List<DangerZone> findByDangerLevelAndActive(String dangerLevel, LocalDateTime currentTime);
+    List<DangerZone> findByDangerLevelAndActive(DangerZone.DangerLevel dangerLevel, LocalDateTime currentTime, Pageable pageable);
+    
+    // Tags are stored canonical (DangerZoneTags), so these are index range scans
+    @Query("{ 'tags': ?0, 'expiresAt': { $gt: ?1 } }")
+    List<DangerZone> findByTagAndActive(String tag, LocalDateTime currentTime, Pageable pageable);
+    
+    // $elemMatch keeps both bounds on the same array element
+    @Query("{ 'tags': { $elemMatch: { $gte: ?0, $lt: ?1 } }, 'expiresAt': { $gt: ?2 } }")
+    List<DangerZone> findByTagRangeAndActive(String fromTag, String toTagExclusive, LocalDateTime currentTime, Pageable pageable);
     
     @Query("{ 'tags': { $in: ?0 }, 'expiresAt': { $gt: ?1 } }")
     List<DangerZone> findByTagsInAndActive(List<String> tags, LocalDateTime currentTime);
     
     // Additional methods for DangerZoneService
-    @Query("{ 'dangerLevel': ?0 }")
-    List<DangerZone> findByDangerLevel(DangerZone.DangerLevel level);
-    
-    @Query("{ 'tags': { $regex: ?0, $options: 'i' } }")
-    List<DangerZone> findByTagsContaining(String tag);
+    // Map markers: only the fields DangerZoneSummary needs
+    @Query(value = "{ 'location': { $geoWithin: { $geometry: { type: 'Polygon', coordinates: [[[?0, ?1], [?2, ?1], [?2, ?3], [?0, ?3], [?0, ?1]]] } } }, 'expiresAt': { $gt: ?4 } }",
+           fields = "{ 'name': 1, 'dangerLevel': 1, 'location': 1, 'reportCount': 1, 'tags': 1 }")
+    List<DangerZone> findSummariesWithinBox(double minLongitude, double minLatitude, double maxLongitude, double maxLatitude,
+                                            LocalDateTime currentTime, Pageable pageable);
     
     @Query("{ 'reportedByUsers': { $in: [?0] } }")
     List<DangerZone> findByReportedByUsersContaining(String userId);
     
     @Query("{ 'expiresAt': { $lt: ?0 } }")
     List<DangerZone> findExpiredDangerZones(LocalDateTime currentTime);
+    
+    @Query("{ 'mergeKey': { $in: ?0 } }")
+    List<DangerZone> findByMergeKeyIn(Collection<String> mergeKeys);
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.DangerZone;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DangerZoneRepositoryCustom {
+
+    /**
+     * Merges a report into the zone holding one of {@code candidateMergeKeys}, or
+     * inserts it under {@code report.getMergeKey()}, in a single atomic
+     * findAndModify. Active zones are preferred over expired ones, then the zone with
+     * the most reports. Expired zones are restarted from the report and take its key.
+     */
+    DangerZone mergeReport(DangerZone report, List<String> candidateMergeKeys, LocalDateTime now);
+
+    /**
+     * Merges each report like {@link #mergeReport}, as one unordered bulk write. The
+     * target zones are chosen by one read of all candidates before the write, so a zone
+     * changed in between may not be the one mergeReport would pick.
+     * Reports must have distinct merge keys; combine duplicates beforehand.
+     */
+    BulkWriteResult bulkMergeReports(List<DangerZone> reports, LocalDateTime now);
+
+    /** Assigns merge keys to zones created before keys existed; returns the number updated. */
+    long assignMissingMergeKeys();
+
+    /** Gives zones stored before footprints existed the default footprint; returns the number updated. */
+    long assignMissingFootprints();
+
+    /**
+     * Active zones whose footprint the route line crosses, in one $geoIntersects query
+     * on the footprint's 2dsphere index.
+     */
+    List<DangerZone> findActiveIntersecting(GeoJsonLineString route, LocalDateTime now);
+
+    /** Rewrites tags of zones stored before tags were canonical; returns the number updated. */
+    long normalizeLegacyTags();
+}
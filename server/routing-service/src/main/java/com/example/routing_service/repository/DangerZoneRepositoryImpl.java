@@ -0,0 +1,239 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.util.DangerZoneFootprints;
+import com.example.routing_service.util.DangerZoneMergeKeys;
+import com.example.routing_service.util.DangerZoneTags;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+@Slf4j
+public class DangerZoneRepositoryImpl implements DangerZoneRepositoryCustom {
+
+    private static final List<String> LEVELS_BY_SEVERITY = Arrays.stream(DangerZone.DangerLevel.values())
+        .map(Enum::name)
+        .toList();
+
+    // mergeReport's sort: active zones (latest expiry) first, then the most reported
+    private static final Comparator<DangerZone> MERGE_ORDER = Comparator
+        .comparing(DangerZone::getExpiresAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+        .thenComparingInt(DangerZone::getReportCount)
+        .reversed();
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public DangerZone mergeReport(DangerZone report, List<String> candidateMergeKeys, LocalDateTime now) {
+        // Expired zones stay until the nightly cleanup; an active neighbour must win over them
+        Query query = Query.query(where("mergeKey").in(candidateMergeKeys))
+            .with(Sort.by(Sort.Direction.DESC, "expiresAt", "reportCount"));
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return mongoTemplate.findAndModify(query, mergeUpdate(report, now), options, DangerZone.class);
+        } catch (DuplicateKeyException e) {
+            // Every candidate had expired and another expired zone holds the report's own key,
+            // which the restarted zone was about to take over: restart that one instead
+            return mongoTemplate.findAndModify(Query.query(where("mergeKey").is(report.getMergeKey())),
+                mergeUpdate(report, now), options, DangerZone.class);
+        }
+    }
+
+    @Override
+    public BulkWriteResult bulkMergeReports(List<DangerZone> reports, LocalDateTime now) {
+        // An update in a bulk write cannot be sorted, so each report's target is picked here,
+        // in mergeReport's order, from one read of every candidate zone in the chunk
+        List<List<String>> candidates = new ArrayList<>(reports.size());
+        Set<String> allCandidates = new HashSet<>();
+        for (DangerZone report : reports) {
+            List<String> keys = DangerZoneMergeKeys.neighbourhood(
+                report.getLocation().getY(), report.getLocation().getX(), report.getName());
+            candidates.add(keys);
+            allCandidates.addAll(keys);
+        }
+        Query existing = Query.query(where("mergeKey").in(allCandidates));
+        existing.fields().include("mergeKey").include("expiresAt").include("reportCount");
+        Map<String, DangerZone> zonesByKey = new HashMap<>();
+        for (DangerZone zone : mongoTemplate.find(existing, DangerZone.class)) {
+            zonesByKey.put(zone.getMergeKey(), zone);
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DangerZone.class);
+        for (int i = 0; i < reports.size(); i++) {
+            DangerZone report = reports.get(i);
+            DangerZone target = candidates.get(i).stream()
+                .map(zonesByKey::get)
+                .filter(Objects::nonNull)
+                .min(MERGE_ORDER)
+                .orElse(null);
+            Query query = target != null
+                ? Query.query(where("_id").is(target.getId()))
+                : Query.query(where("mergeKey").is(report.getMergeKey()));
+            operations.upsert(query, mergeUpdate(report, now));
+        }
+        return operations.execute();
+    }
+
+    /**
+     * Pipeline update equivalent of $inc reportCount, $addToSet reportedByUsers and
+     * $max on the severity rank of dangerLevel. A pipeline is needed because the
+     * level is stored by name and because inserts and expired zones start fresh.
+     * A restarted zone moves to the report's location, so it takes the report's key.
+     */
+    private static AggregationUpdate mergeUpdate(DangerZone report, LocalDateTime now) {
+        Object fresh = "$_fresh";
+        List<String> tags = report.getTags() != null ? report.getTags() : List.of();
+        int severity = report.getDangerLevel().ordinal();
+
+        Document detectFresh = new Document("_fresh",
+            new Document("$lte", Arrays.asList(ifNull("$expiresAt", null), toDate(now))));
+
+        Document merge = new Document()
+            .append("mergeKey", cond(fresh, report.getMergeKey(), "$mergeKey"))
+            .append("name", cond(fresh, report.getName(), "$name"))
+            .append("description", cond(fresh, report.getDescription(), "$description"))
+            .append("reportedBy", cond(fresh, report.getReportedBy(), "$reportedBy"))
+            .append("reportedAt", cond(fresh, toDate(report.getReportedAt()), "$reportedAt"))
+            .append("location", cond(fresh, new Document("type", "Point")
+                .append("coordinates", List.of(report.getLocation().getX(), report.getLocation().getY())), "$location"))
+            .append("radiusMeters", cond(fresh, report.getRadiusMeters(), "$radiusMeters"))
+            .append("area", cond(fresh, polygon(report.getArea()), "$area"))
+            .append("footprint", cond(fresh, polygon(report.getFootprint()), "$footprint"))
+            .append("tags", cond(fresh, tags, new Document("$setUnion", Arrays.asList(ifNull("$tags", List.of()), tags))))
+            .append("reportCount", cond(fresh, report.getReportCount(),
+                new Document("$add", Arrays.asList("$reportCount", report.getReportCount()))))
+            .append("reportedByUsers", cond(fresh, report.getReportedByUsers(),
+                new Document("$setUnion", Arrays.asList(ifNull("$reportedByUsers", List.of()), report.getReportedByUsers()))))
+            .append("dangerLevel", cond(fresh, report.getDangerLevel().name(),
+                cond(new Document("$gt", Arrays.asList(severity,
+                        new Document("$indexOfArray", Arrays.asList(LEVELS_BY_SEVERITY, "$dangerLevel")))),
+                    report.getDangerLevel().name(), "$dangerLevel")))
+            .append("expiresAt", cond(fresh, toDate(report.getExpiresAt()),
+                new Document("$max", Arrays.asList("$expiresAt", toDate(report.getExpiresAt())))));
+
+        return AggregationUpdate.from(List.of(
+            stage("$set", detectFresh),
+            stage("$set", merge),
+            stage("$unset", "_fresh")));
+    }
+
+    @Override
+    public long assignMissingMergeKeys() {
+        Query missing = Query.query(where("mergeKey").exists(false));
+        missing.fields().include("name").include("location");
+        long updated = 0;
+        try (Stream<DangerZone> zones = mongoTemplate.stream(missing, DangerZone.class)) {
+            for (DangerZone zone : (Iterable<DangerZone>) zones::iterator) {
+                if (zone.getLocation() == null) {
+                    continue;
+                }
+                String key = DangerZoneMergeKeys.of(zone.getLocation().getY(), zone.getLocation().getX(), zone.getName());
+                try {
+                    updated += mongoTemplate.updateFirst(Query.query(where("_id").is(zone.getId())),
+                        Update.update("mergeKey", key), DangerZone.class).getModifiedCount();
+                } catch (DuplicateKeyException e) {
+                    // Another zone already owns this key; this one keeps merging nothing until it expires
+                    log.debug("Skipping merge key for duplicate danger zone {}", zone.getId());
+                }
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public long assignMissingFootprints() {
+        Query missing = Query.query(where("footprint").exists(false));
+        missing.fields().include("location").include("radiusMeters").include("area");
+        long updated = 0;
+        try (Stream<DangerZone> zones = mongoTemplate.stream(missing, DangerZone.class)) {
+            for (DangerZone zone : (Iterable<DangerZone>) zones::iterator) {
+                if (zone.getLocation() == null) {
+                    continue;
+                }
+                updated += mongoTemplate.updateFirst(Query.query(where("_id").is(zone.getId())),
+                    Update.update("footprint", DangerZoneFootprints.footprint(zone)), DangerZone.class).getModifiedCount();
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<DangerZone> findActiveIntersecting(GeoJsonLineString route, LocalDateTime now) {
+        return mongoTemplate.find(Query.query(where("footprint").intersects(route).and("expiresAt").gt(now)),
+            DangerZone.class);
+    }
+
+    @Override
+    public long normalizeLegacyTags() {
+        // One-off scan for anything outside the canonical alphabet
+        Query legacy = Query.query(where("tags").regex("[^a-z0-9_]|^_|_$"));
+        legacy.fields().include("tags");
+        long updated = 0;
+        try (Stream<DangerZone> zones = mongoTemplate.stream(legacy, DangerZone.class)) {
+            for (DangerZone zone : (Iterable<DangerZone>) zones::iterator) {
+                if (!DangerZoneTags.isNormalized(zone.getTags())) {
+                    updated += mongoTemplate.updateFirst(Query.query(where("_id").is(zone.getId())),
+                        Update.update("tags", DangerZoneTags.normalize(zone.getTags())), DangerZone.class).getModifiedCount();
+                }
+            }
+        }
+        return updated;
+    }
+
+    private static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+
+    private static Document cond(Object condition, Object then, Object otherwise) {
+        return new Document("$cond", Arrays.asList(condition, then, otherwise));
+    }
+
+    // Pipeline stages take plain documents, so GeoJSON values are spelled out
+    private static Document polygon(GeoJsonPolygon polygon) {
+        if (polygon == null) {
+            return null;
+        }
+        List<List<Double>> ring = polygon.getCoordinates().get(0).getCoordinates().stream()
+            .map(point -> List.of(point.getX(), point.getY()))
+            .toList();
+        return new Document("type", "Polygon").append("coordinates", List.of(ring));
+    }
+
+    private static Document ifNull(Object expression, Object replacement) {
+        return new Document("$ifNull", Arrays.asList(expression, replacement));
+    }
+
+    // Same conversion Spring Data applies to LocalDateTime fields of saved entities
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
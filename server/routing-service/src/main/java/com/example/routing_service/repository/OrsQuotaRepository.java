@@ -0,0 +1,9 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.OrsQuotaWindow;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrsQuotaRepository extends MongoRepository<OrsQuotaWindow, String>, OrsQuotaRepositoryCustom {
+}
@@ -0,0 +1,18 @@
+package com.example.routing_service.repository;
+
+import java.time.Instant;
+import java.util.OptionalLong;
+
+public interface OrsQuotaRepositoryCustom {
+
+    /**
+     * Takes {@code tokens} from the window if that leaves its total at or below
+     * {@code ceiling}, creating the window on first use, in a single atomic upsert.
+     *
+     * @return the window's total after taking the tokens, or empty when they would exceed the ceiling
+     */
+    OptionalLong reserve(String windowId, int tokens, long ceiling, Instant expiresAt);
+
+    /** Returns tokens taken by {@link #reserve} that will not be used. */
+    void release(String windowId, int tokens);
+}
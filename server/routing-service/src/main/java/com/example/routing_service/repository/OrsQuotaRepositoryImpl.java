@@ -0,0 +1,44 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.OrsQuotaWindow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.OptionalLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class OrsQuotaRepositoryImpl implements OrsQuotaRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public OptionalLong reserve(String windowId, int tokens, long ceiling, Instant expiresAt) {
+        if (tokens > ceiling) {
+            return OptionalLong.empty();
+        }
+        // Matches only while there is room. A full window fails the match, so the upsert
+        // tries to insert a second document with the same _id and is rejected
+        Query query = Query.query(where("_id").is(windowId).and("used").lte(ceiling - tokens));
+        Update update = new Update().inc("used", tokens).setOnInsert("expiresAt", expiresAt);
+        try {
+            OrsQuotaWindow window = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), OrsQuotaWindow.class);
+            return window != null ? OptionalLong.of(window.getUsed()) : OptionalLong.empty();
+        } catch (DuplicateKeyException full) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public void release(String windowId, int tokens) {
+        mongoTemplate.updateFirst(Query.query(where("_id").is(windowId)), new Update().inc("used", -tokens),
+            OrsQuotaWindow.class);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.DangerZone;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/** Non-blocking counterpart of the {@link DangerZoneRepository} queries used by reactive route planning. */
+@Repository
+public interface ReactiveDangerZoneRepository extends ReactiveMongoRepository<DangerZone, String> {
+    
+    @Query("{ 'location': { $near: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'expiresAt': { $gt: ?3 } }")
+    Flux<DangerZone> findNearbyActiveDangerZones(double longitude, double latitude, double radiusMeters, LocalDateTime currentTime);
+    
+    @Query(value = "{ 'expiresAt': { $gt: ?0 } }", count = true)
+    Mono<Long> countActiveDangerZones(LocalDateTime currentTime);
+}
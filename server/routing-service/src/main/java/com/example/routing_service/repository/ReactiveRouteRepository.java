@@ -0,0 +1,10 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.Route;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/** Non-blocking route writes for reactive route planning; reads stay on {@link RouteRepository}. */
+@Repository
+public interface ReactiveRouteRepository extends ReactiveMongoRepository<Route, String> {
+}
@@ -1,20 +1,40 @@
 package com.example.routing_service.repository;
 
 import com.example.routing_service.model.Route;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface RouteRepository extends MongoRepository<Route, String> {
+public interface RouteRepository extends MongoRepository<Route, String>, RouteRepositoryCustom {
     
     List<Route> findByUserId(String userId);
     
     List<Route> findByUserIdAndStatus(String userId, Route.RouteStatus status);
     
+    // Listing projection: segments carry the full geometry and are only needed for a single route
+    @Query(value = "{ 'userId': ?0, 'status': ?1 }", fields = "{ 'segments': 0, 'encodedGeometry': 0 }")
+    List<Route> findWithoutSegmentsByUserIdAndStatus(String userId, Route.RouteStatus status, Pageable pageable);
+    
+    @Query(value = "{ 'userId': ?0, 'status': ?1 }",
+           fields = "{ 'routeName': 1, 'createdAt': 1, 'totalDistance': 1, 'estimatedDuration': 1, 'safetyScore': 1, 'status': 1 }")
+    List<Route> findSummariesByUserIdAndStatus(String userId, Route.RouteStatus status, Pageable pageable);
+    
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'userId': 1, 'encodedGeometry': 1 }")
+    Optional<Route> findGeometryById(String routeId);
+    
     List<Route> findByExpiresAtBefore(LocalDateTime expiresAt);
     
     List<Route> findByStatus(Route.RouteStatus status);
-} 
\ No newline at end of file
+    
+    // Single updateMany, no documents are loaded into the service
+    @Query("{ 'status': 'ACTIVE', 'expiresAt': { $lte: ?0 } }")
+    @Update("{ '$set': { 'status': 'EXPIRED' } }")
+    long expireActiveRoutes(LocalDateTime currentTime);
+}
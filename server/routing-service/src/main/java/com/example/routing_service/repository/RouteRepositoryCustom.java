@@ -0,0 +1,20 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.Route;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface RouteRepositoryCustom {
+
+    /**
+     * Active routes whose bounds intersect the footprint, or that were planned around the
+     * zone, loaded with their segments and score only. Either index serves its half of
+     * the query, so the collection is never scanned. The stream must be closed.
+     */
+    Stream<Route> streamActiveAffectedBy(GeoJsonPolygon footprint, String zoneId);
+
+    /** Sets the safety score of each route id, as one unordered bulk write; returns the number modified. */
+    int updateSafetyScores(Map<String, Double> scores);
+}
@@ -0,0 +1,48 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.Route;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class RouteRepositoryImpl implements RouteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Stream<Route> streamActiveAffectedBy(GeoJsonPolygon footprint, String zoneId) {
+        List<Criteria> affected = new ArrayList<>(2);
+        if (footprint != null) {
+            affected.add(where("bounds").intersects(footprint));
+        }
+        // Catches routes near where the zone was before it was moved or reshaped
+        affected.add(where("avoidedDangerZones").is(zoneId));
+        Query query = Query.query(where("status").is(Route.RouteStatus.ACTIVE)
+            .orOperator(affected.toArray(new Criteria[0])));
+        query.fields().include("segments").include("safetyScore");
+        return mongoTemplate.stream(query, Route.class);
+    }
+
+    @Override
+    public int updateSafetyScores(Map<String, Double> scores) {
+        if (scores.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Route.class);
+        scores.forEach((routeId, score) -> operations.updateOne(
+            Query.query(where("_id").is(routeId)), Update.update("safetyScore", score)));
+        return operations.execute().getModifiedCount();
+    }
+}
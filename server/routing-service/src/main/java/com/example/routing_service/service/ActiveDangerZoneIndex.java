@@ -0,0 +1,24 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.model.DangerZone;
+
+import java.util.List;
+
+/**
+ * An in-memory view of the active danger zones, rebuilt by {@link ActiveDangerZoneLoader}
+ * and kept current in between from {@link com.example.routing_service.event.DangerZoneChangedEvent}.
+ */
+public interface ActiveDangerZoneIndex {
+
+    /** Called before the zones are read; changes from here on must be replayed onto the rebuilt index. */
+    void beginRebuild();
+
+    /**
+     * Replaces the index with one built from {@code activeZones}, which only carry
+     * the fields of {@code DangerZoneRepository#findAllActiveZoneShapes}.
+     */
+    void completeRebuild(List<DangerZone> activeZones);
+
+    /** The read failed; the current index stays. */
+    void abandonRebuild();
+}
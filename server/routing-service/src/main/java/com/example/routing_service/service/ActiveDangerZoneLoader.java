@@ -0,0 +1,52 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.DangerZoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically reads the active danger zones once, with a projected query, and
+ * rebuilds every {@link ActiveDangerZoneIndex} (the risk raster and the map
+ * clusters) from that single read. This picks up changes made on other instances
+ * and expiry.
+ */
+@Service
+@Slf4j
+public class ActiveDangerZoneLoader {
+
+    private final DangerZoneRepository dangerZoneRepository;
+    private final List<ActiveDangerZoneIndex> indexes;
+    private final Timer loadTime;
+
+    public ActiveDangerZoneLoader(DangerZoneRepository dangerZoneRepository,
+                                  List<ActiveDangerZoneIndex> indexes,
+                                  MeterRegistry meterRegistry) {
+        this.dangerZoneRepository = dangerZoneRepository;
+        this.indexes = indexes;
+        this.loadTime = Timer.builder("gethome_danger_zone_index_load_duration_seconds")
+                .description("Time taken to read the active danger zones for the in-memory indexes")
+                .tag("service", "routing")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${routing.danger-zones.index.rebuild-interval-ms:60000}")
+    public void reload() {
+        indexes.forEach(ActiveDangerZoneIndex::beginRebuild);
+        List<DangerZone> zones;
+        try {
+            zones = loadTime.record(() -> dangerZoneRepository.findAllActiveZoneShapes(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            indexes.forEach(ActiveDangerZoneIndex::abandonRebuild);
+            throw e;
+        }
+        indexes.forEach(index -> index.completeRebuild(zones));
+        log.debug("Rebuilt {} danger zone indexes from {} active zones", indexes.size(), zones.size());
+    }
+}
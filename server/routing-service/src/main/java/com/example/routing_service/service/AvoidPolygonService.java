@@ -0,0 +1,261 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.client.OpenRouteServiceClient.AvoidPolygons;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.util.DangerZoneFootprints;
+import com.example.routing_service.util.GeoMath;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.operation.buffer.BufferOp;
+import org.locationtech.jts.operation.buffer.BufferParameters;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the ORS avoid_polygons for a set of danger zones. Each zone becomes its
+ * reported outline or a circle of its radius (cached per location), zones that a walking route between the request
+ * coordinates cannot reach are dropped, overlapping circles are unioned and the
+ * result is simplified until it fits the vertex budget. ORS finds no route when a
+ * request coordinate lies inside an avoid polygon, so the coordinates are kept out
+ * of the result throughout.
+ */
+@Service
+@Slf4j
+public class AvoidPolygonService {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+    private static final int MAX_SIMPLIFY_ROUNDS = 12;
+
+    private final int circleSegments;
+    private final int maxVertices;
+    private final double maxDetourFactor;
+    private final double corridorMarginMeters;
+    private final Map<CircleKey, Polygon> circles;
+
+    private final DistributionSummary rawVertices;
+    private final DistributionSummary sentVertices;
+    private final Counter zonesOutsideCorridor;
+    private final Counter zonesContainingCoordinate;
+
+    public AvoidPolygonService(MeterRegistry meterRegistry,
+                               @Value("${routing.avoid.circle-segments:16}") int circleSegments,
+                               @Value("${routing.avoid.max-vertices:400}") int maxVertices,
+                               @Value("${routing.avoid.max-detour-factor:1.6}") double maxDetourFactor,
+                               @Value("${routing.avoid.corridor-margin-meters:300}") double corridorMarginMeters,
+                               @Value("${routing.avoid.circle-cache-size:10000}") int circleCacheSize) {
+        this.circleSegments = circleSegments;
+        this.maxVertices = maxVertices;
+        this.maxDetourFactor = maxDetourFactor;
+        this.corridorMarginMeters = corridorMarginMeters;
+        this.circles = Collections.synchronizedMap(new LinkedHashMap<>(circleCacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CircleKey, Polygon> eldest) {
+                return size() > circleCacheSize;
+            }
+        });
+
+        this.rawVertices = DistributionSummary.builder("gethome_avoid_polygon_vertices")
+                .description("Avoid polygon vertices per ORS request, one circle per zone vs. after union and simplification")
+                .tag("service", "routing")
+                .tag("stage", "raw")
+                .register(meterRegistry);
+        this.sentVertices = DistributionSummary.builder("gethome_avoid_polygon_vertices")
+                .description("Avoid polygon vertices per ORS request, one circle per zone vs. after union and simplification")
+                .tag("service", "routing")
+                .tag("stage", "sent")
+                .register(meterRegistry);
+        this.zonesOutsideCorridor = Counter.builder("gethome_avoid_zones_outside_corridor_total")
+                .description("Danger zones left out of avoid polygons because no plausible route passes them")
+                .tag("service", "routing")
+                .register(meterRegistry);
+        this.zonesContainingCoordinate = Counter.builder("gethome_avoid_zones_containing_waypoint_total")
+                .description("Danger zones left out of avoid polygons because the route starts, ends or stops inside them")
+                .tag("service", "routing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Avoid polygons for a route through the given [lng, lat] coordinates, or null
+     * if none of the zones can affect it.
+     */
+    public AvoidPolygons build(double[][] lngLatCoordinates, List<DangerZone> zones) {
+        List<Point> points = new ArrayList<>(lngLatCoordinates.length);
+        for (double[] lngLat : lngLatCoordinates) {
+            points.add(GEOMETRY.createPoint(new Coordinate(lngLat[0], lngLat[1])));
+        }
+        List<Geometry> relevant = new ArrayList<>();
+        int vertices = 0;
+        for (DangerZone zone : zones) {
+            if (!inCorridor(lngLatCoordinates, zone)) {
+                zonesOutsideCorridor.increment();
+                continue;
+            }
+            Polygon shape = shape(zone);
+            if (coversAny(shape, points)) {
+                zonesContainingCoordinate.increment();
+                continue;
+            }
+            relevant.add(shape);
+            vertices += shape.getNumPoints();
+        }
+        if (relevant.isEmpty()) {
+            return null;
+        }
+        rawVertices.record(vertices);
+
+        Geometry exact = shells(UnaryUnionOp.union(relevant), points);
+        Geometry area = exact;
+        double tolerance = DangerZoneFootprints.DEFAULT_RADIUS_METERS / GeoMath.METERS_PER_DEGREE_LAT / 8;
+        for (int round = 0; round < MAX_SIMPLIFY_ROUNDS && area.getNumPoints() > maxVertices; round++) {
+            area = simplifyOutward(area, tolerance, points);
+            tolerance *= 2;
+        }
+        if (area != exact) {
+            area = unsimplifyAroundPoints(area, exact, points);
+        }
+        if (area.getNumPoints() > maxVertices) {
+            log.debug("Avoid polygons still have {} vertices after simplification", area.getNumPoints());
+        }
+        sentVertices.record(area.getNumPoints());
+
+        log.debug("Avoid polygons: {} of {} zones in corridor, {} polygons, {} vertices",
+                relevant.size(), zones.size(), area.getNumGeometries(), area.getNumPoints());
+        return new AvoidPolygons("MultiPolygon", toCoordinates(area));
+    }
+
+    /**
+     * Zones off an ellipse around each leg are unreachable: a walk from a to b that
+     * passes z is at least |az| + |zb| long.
+     */
+    private boolean inCorridor(double[][] lngLatCoordinates, DangerZone zone) {
+        double lon = zone.getLocation().getX();
+        double lat = zone.getLocation().getY();
+        double diameter = 2 * DangerZoneFootprints.radiusMeters(zone);
+        for (int i = 1; i < lngLatCoordinates.length; i++) {
+            double[] a = lngLatCoordinates[i - 1];
+            double[] b = lngLatCoordinates[i];
+            double direct = GeoMath.fastDistanceMeters(a[1], a[0], b[1], b[0]);
+            double via = GeoMath.fastDistanceMeters(a[1], a[0], lat, lon)
+                    + GeoMath.fastDistanceMeters(lat, lon, b[1], b[0]);
+            if (via <= direct * maxDetourFactor + corridorMarginMeters + diameter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Outlines are per zone and rarely repeat; circles are shared by every route near the zone
+    private Polygon shape(DangerZone zone) {
+        if (zone.getArea() != null) {
+            return DangerZoneFootprints.shape(zone, circleSegments);
+        }
+        double lon = zone.getLocation().getX();
+        double lat = zone.getLocation().getY();
+        double radius = DangerZoneFootprints.radiusMeters(zone);
+        return circles.computeIfAbsent(new CircleKey(lon, lat, radius),
+            key -> DangerZoneFootprints.circle(lon, lat, radius, circleSegments));
+    }
+
+    /**
+     * Simplifying alone can cut into a zone, so the simplified shape is grown by the
+     * same tolerance; mitred corners keep the vertex count of the simplified shape.
+     */
+    private static Geometry simplifyOutward(Geometry area, double tolerance, List<Point> points) {
+        Geometry simplified = TopologyPreservingSimplifier.simplify(area, tolerance);
+        BufferParameters mitre = new BufferParameters(1, BufferParameters.CAP_FLAT, BufferParameters.JOIN_MITRE, 2);
+        return shells(BufferOp.bufferOp(simplified, tolerance, mitre), points);
+    }
+
+    /**
+     * Growing the simplified shape can swallow a request coordinate. Polygons that do
+     * are replaced by the unsimplified ones they cover, at the cost of the vertex budget.
+     */
+    private static Geometry unsimplifyAroundPoints(Geometry simplified, Geometry exact, List<Point> points) {
+        List<Geometry> kept = new ArrayList<>();
+        boolean restored = false;
+        for (int i = 0; i < simplified.getNumGeometries(); i++) {
+            Geometry polygon = simplified.getGeometryN(i);
+            if (!coversAny(polygon, points)) {
+                kept.add(polygon);
+                continue;
+            }
+            restored = true;
+            for (int j = 0; j < exact.getNumGeometries(); j++) {
+                if (polygon.intersects(exact.getGeometryN(j))) {
+                    kept.add(exact.getGeometryN(j));
+                }
+            }
+        }
+        return restored ? shells(UnaryUnionOp.union(kept), points) : simplified;
+    }
+
+    /**
+     * Holes are pockets enclosed by danger zones; a route would have to cross a zone to
+     * use them. Only pockets the route starts, ends or stops in are kept.
+     */
+    private static Geometry shells(Geometry area, List<Point> points) {
+        Polygon[] polygons = new Polygon[area.getNumGeometries()];
+        for (int i = 0; i < polygons.length; i++) {
+            Polygon polygon = (Polygon) area.getGeometryN(i);
+            List<LinearRing> holes = new ArrayList<>();
+            for (int h = 0; h < polygon.getNumInteriorRing(); h++) {
+                LinearRing hole = polygon.getInteriorRingN(h);
+                if (coversAny(GEOMETRY.createPolygon(hole), points)) {
+                    holes.add(hole);
+                }
+            }
+            polygons[i] = GEOMETRY.createPolygon(polygon.getExteriorRing(), holes.toArray(new LinearRing[0]));
+        }
+        return GEOMETRY.createMultiPolygon(polygons);
+    }
+
+    private static boolean coversAny(Geometry geometry, List<Point> points) {
+        for (Point point : points) {
+            if (geometry.covers(point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double[][][][] toCoordinates(Geometry area) {
+        double[][][][] multiPolygon = new double[area.getNumGeometries()][][][];
+        for (int i = 0; i < multiPolygon.length; i++) {
+            Polygon polygon = (Polygon) area.getGeometryN(i);
+            double[][][] rings = new double[1 + polygon.getNumInteriorRing()][][];
+            rings[0] = toCoordinates(polygon.getExteriorRing());
+            for (int h = 0; h < polygon.getNumInteriorRing(); h++) {
+                rings[h + 1] = toCoordinates(polygon.getInteriorRingN(h));
+            }
+            multiPolygon[i] = rings;
+        }
+        return multiPolygon;
+    }
+
+    private static double[][] toCoordinates(LinearRing ring) {
+        Coordinate[] coordinates = ring.getCoordinates();
+        double[][] coords = new double[coordinates.length][];
+        for (int j = 0; j < coordinates.length; j++) {
+            coords[j] = new double[]{coordinates[j].x, coordinates[j].y};
+        }
+        return coords;
+    }
+
+    private record CircleKey(double lon, double lat, double radiusMeters) {}
+}
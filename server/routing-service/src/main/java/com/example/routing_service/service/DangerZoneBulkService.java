@@ -0,0 +1,331 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.dto.DangerZoneImportResponse;
+import com.example.routing_service.dto.DangerZoneRecord;
+import com.example.routing_service.dto.DangerZoneRequest;
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.DangerZoneRepository;
+import com.example.routing_service.util.DangerZoneMergeKeys;
+import com.example.routing_service.util.DangerZoneTags;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streaming NDJSON import and export of danger zones, one {@link DangerZoneRecord}
+ * per line. Imports are parsed line by line, folded together when they describe
+ * the same spot, and merged into MongoDB with one unordered bulk write per chunk,
+ * using the same merge rules as single reports. The zones each chunk created or
+ * merged into are read back and published as {@link DangerZoneChangedEvent}s, so
+ * the risk raster, map clusters and saved routes see imports like single reports.
+ */
+@Service
+@Slf4j
+public class DangerZoneBulkService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final DangerZoneRepository dangerZoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectReader recordReader;
+    private final ObjectWriter recordWriter;
+    private final int chunkSize;
+
+    public DangerZoneBulkService(DangerZoneRepository dangerZoneRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${routing.danger-zones.import.chunk-size:500}") int chunkSize) {
+        this.dangerZoneRepository = dangerZoneRepository;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.recordReader = objectMapper.readerFor(DangerZoneRecord.class);
+        this.recordWriter = objectMapper.writerFor(DangerZoneRecord.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public DangerZoneImportResponse importZones(InputStream ndjson, String userId) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        ImportProgress progress = new ImportProgress();
+        Map<String, PendingReport> chunk = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineNumber = ++progress.linesRead;
+                if (line.isBlank()) {
+                    continue;
+                }
+                DangerZone report;
+                try {
+                    report = toReport(recordReader.readValue(line), userId, now);
+                } catch (JsonProcessingException e) {
+                    progress.fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    progress.fail(lineNumber, e.getMessage());
+                    continue;
+                }
+                addToChunk(chunk, new PendingReport(report, lineNumber), progress);
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, now, progress);
+                }
+            }
+        }
+        flush(chunk, now, progress);
+
+        log.info("Danger zone import by {} finished: {} lines, {} zones created, {} merged, {} failed",
+                userId, progress.linesRead, progress.created, progress.merged, progress.failed);
+        return progress.toResponse();
+    }
+
+    /** Writes zones as NDJSON straight from a MongoDB cursor. */
+    public long exportZones(OutputStream out, boolean includeExpired) throws IOException {
+        long exported = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<DangerZone> zones = includeExpired
+                ? dangerZoneRepository.streamAllDangerZones()
+                : dangerZoneRepository.streamAllActiveDangerZones(LocalDateTime.now())) {
+            Iterator<DangerZone> iterator = zones.iterator();
+            while (iterator.hasNext()) {
+                writer.write(recordWriter.writeValueAsString(toRecord(iterator.next())));
+                writer.write('\n');
+                exported++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} danger zones", exported);
+        return exported;
+    }
+
+    private DangerZone toReport(DangerZoneRecord record, String userId, LocalDateTime now) {
+        Set<ConstraintViolation<DangerZoneRecord>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        }
+        // Each line counts as one fresh report by the importer, so a file cannot
+        // inflate report counts, backdate reports or keep a zone alive longer than a report would
+        LocalDateTime maxExpiry = now.plusDays(DangerZoneService.REPORT_LIFETIME_DAYS);
+        LocalDateTime expiresAt = record.getExpiresAt() != null && record.getExpiresAt().isBefore(maxExpiry)
+            ? record.getExpiresAt() : maxExpiry;
+        if (!expiresAt.isAfter(now)) {
+            throw new IllegalArgumentException("Danger zone has already expired");
+        }
+        DangerZone report = DangerZone.builder()
+            .name(record.getName())
+            .description(record.getDescription())
+            .dangerLevel(record.getDangerLevel())
+            .reportedBy(userId)
+            .reportedAt(now)
+            .expiresAt(expiresAt)
+            .tags(DangerZoneTags.normalize(record.getTags()))
+            .location(new GeoJsonPoint(record.getLocation().getLongitude(), record.getLocation().getLatitude()))
+            .reportCount(1)
+            .reportedByUsers(new ArrayList<>(List.of(userId)))
+            .build();
+        DangerZoneService.applyShape(report, record.getRadiusMeters(), record.getArea());
+        report.setMergeKey(DangerZoneMergeKeys.of(report.getLocation().getY(), report.getLocation().getX(), record.getName()));
+        return report;
+    }
+
+    private static DangerZoneRecord toRecord(DangerZone zone) {
+        return DangerZoneRecord.builder()
+            .name(zone.getName())
+            .description(zone.getDescription())
+            .dangerLevel(zone.getDangerLevel())
+            .location(DangerZoneRequest.Location.builder()
+                .latitude(zone.getLocation().getY())
+                .longitude(zone.getLocation().getX())
+                .build())
+            .radiusMeters(zone.getArea() == null ? zone.getRadiusMeters() : null)
+            .area(zone.getArea() == null ? null : zone.getArea().getCoordinates().get(0).getCoordinates().stream()
+                .map(point -> DangerZoneRequest.Location.builder().latitude(point.getY()).longitude(point.getX()).build())
+                .toList())
+            .tags(zone.getTags())
+            .reportCount(Math.max(1, zone.getReportCount()))
+            .reportedAt(zone.getReportedAt())
+            .expiresAt(zone.getExpiresAt())
+            .build();
+    }
+
+    // Lines for the same or a neighbouring cell are folded together, as sequential reports would be
+    private static void addToChunk(Map<String, PendingReport> chunk, PendingReport pending, ImportProgress progress) {
+        DangerZone report = pending.report();
+        for (String key : DangerZoneMergeKeys.neighbourhood(report.getLocation().getY(), report.getLocation().getX(), report.getName())) {
+            PendingReport earlier = chunk.get(key);
+            if (earlier != null) {
+                combine(earlier.report(), report);
+                progress.duplicatesInBatch++;
+                return;
+            }
+        }
+        chunk.put(report.getMergeKey(), pending);
+    }
+
+    private static void combine(DangerZone into, DangerZone other) {
+        into.setReportCount(into.getReportCount() + other.getReportCount());
+        if (other.getDangerLevel().ordinal() > into.getDangerLevel().ordinal()) {
+            into.setDangerLevel(other.getDangerLevel());
+        }
+        if (other.getExpiresAt().isAfter(into.getExpiresAt())) {
+            into.setExpiresAt(other.getExpiresAt());
+        }
+        Set<String> tags = new LinkedHashSet<>(into.getTags());
+        tags.addAll(other.getTags());
+        into.setTags(new ArrayList<>(tags));
+    }
+
+    private void flush(Map<String, PendingReport> chunk, LocalDateTime now, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<PendingReport> pending = new ArrayList<>(chunk.values());
+        chunk.clear();
+        List<DangerZone> reports = pending.stream().map(PendingReport::report).toList();
+        try {
+            BulkWriteResult result = dangerZoneRepository.bulkMergeReports(reports, now);
+            progress.record(result);
+            publishWritten(reports, result, Set.of());
+        } catch (BulkOperationException e) {
+            progress.record(e.getResult());
+            Set<Integer> notWritten = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                notWritten.add(error.getIndex());
+            }
+            publishWritten(reports, e.getResult(), notWritten);
+            for (BulkWriteError error : e.getErrors()) {
+                PendingReport failed = pending.get(error.getIndex());
+                if (error.getCode() == DUPLICATE_KEY) {
+                    // A concurrent report created the zone first; merge into it instead
+                    retryAsMerge(failed, now, progress);
+                } else {
+                    progress.fail(failed.line(), error.getMessage());
+                }
+            }
+        }
+        log.info("Danger zone import progress: {} lines read, {} zones created, {} merged, {} failed",
+                progress.linesRead, progress.created, progress.merged, progress.failed);
+    }
+
+    private void retryAsMerge(PendingReport pending, LocalDateTime now, ImportProgress progress) {
+        DangerZone report = pending.report();
+        try {
+            DangerZone merged = dangerZoneRepository.mergeReport(report, DangerZoneMergeKeys.neighbourhood(
+                report.getLocation().getY(), report.getLocation().getX(), report.getName()), now);
+            progress.merged++;
+            eventPublisher.publishEvent(DangerZoneChangedEvent.updated(merged));
+        } catch (RuntimeException e) {
+            progress.fail(pending.line(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reads back the zones a bulk write touched: created zones by their upserted id,
+     * merged ones by the merge keys their report could have matched. That may also
+     * pick up an unchanged zone in a neighbouring cell, which listeners handle as a
+     * no-op change.
+     */
+    private void publishWritten(List<DangerZone> reports, BulkWriteResult result, Set<Integer> notWritten) {
+        Set<Integer> upserted = new HashSet<>();
+        List<String> createdIds = new ArrayList<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            upserted.add(upsert.getIndex());
+            createdIds.add(upsert.getId().asObjectId().getValue().toHexString());
+        }
+        Set<String> mergeKeys = new LinkedHashSet<>();
+        for (int i = 0; i < reports.size(); i++) {
+            if (!upserted.contains(i) && !notWritten.contains(i)) {
+                DangerZone report = reports.get(i);
+                mergeKeys.addAll(DangerZoneMergeKeys.neighbourhood(
+                    report.getLocation().getY(), report.getLocation().getX(), report.getName()));
+            }
+        }
+        Map<String, DangerZone> changed = new LinkedHashMap<>();
+        try {
+            if (!createdIds.isEmpty()) {
+                dangerZoneRepository.findAllById(createdIds).forEach(zone -> changed.put(zone.getId(), zone));
+            }
+            if (!mergeKeys.isEmpty()) {
+                dangerZoneRepository.findByMergeKeyIn(mergeKeys).forEach(zone -> changed.put(zone.getId(), zone));
+            }
+        } catch (DataAccessException e) {
+            // The zones are written; the raster and clusters catch up on their next rebuild
+            log.warn("Could not read back {} imported danger zones: {}", reports.size(), e.getMessage());
+        }
+        changed.values().forEach(zone -> eventPublisher.publishEvent(DangerZoneChangedEvent.updated(zone)));
+    }
+
+    private record PendingReport(DangerZone report, long line) {}
+
+    private static final class ImportProgress {
+        private long linesRead;
+        private long created;
+        private long merged;
+        private long duplicatesInBatch;
+        private long failed;
+        private final List<DangerZoneImportResponse.LineError> errors = new ArrayList<>();
+
+        void record(BulkWriteResult result) {
+            created += result.getUpserts().size();
+            merged += result.getMatchedCount();
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new DangerZoneImportResponse.LineError(line, message));
+            }
+        }
+
+        DangerZoneImportResponse toResponse() {
+            return DangerZoneImportResponse.builder()
+                .linesRead(linesRead)
+                .zonesCreated(created)
+                .zonesMerged(merged)
+                .duplicatesInBatch(duplicatesInBatch)
+                .failed(failed)
+                .errors(errors)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.dto.DangerZoneSummary;
+import com.example.routing_service.dto.DangerZoneViewportResponse;
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.DangerZoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Viewport queries for the map. Below the cluster zoom, zones are answered from
+ * an in-memory grid per zoom level (64px web mercator cells) holding count,
+ * centroid and level histogram; at and above it, slim zone projections come
+ * straight from MongoDB.
+ *
+ * The grids follow the same maintenance as the risk raster: incremental updates
+ * from {@link DangerZoneChangedEvent}, plus the periodic rebuild by
+ * {@link ActiveDangerZoneLoader} for changes made on other instances and for expiry.
+ *
+ * Viewports may cross the antimeridian (minLng > maxLng, or either side outside
+ * ±180) and are split there; one 360° or wider covers every longitude.
+ */
+@Service
+@Slf4j
+public class DangerZoneClusterService implements ActiveDangerZoneIndex {
+
+    private static final int CELLS_PER_TILE = 4; // 256px tiles, 64px cells
+    private static final int LEVELS = DangerZone.DangerLevel.values().length;
+    // Box queries stay well inside a hemisphere, which single-ring GeoJSON polygons cannot exceed
+    private static final double MAX_QUERY_WIDTH_DEGREES = 90;
+
+    private final DangerZoneRepository dangerZoneRepository;
+    private final int clusterMaxZoom;
+    private final int maxZones;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot current;
+    private Map<String, DangerZoneChangedEvent> changedDuringRebuild;
+
+    public DangerZoneClusterService(DangerZoneRepository dangerZoneRepository,
+                                    @Value("${routing.danger-zones.viewport.cluster-max-zoom:15}") int clusterMaxZoom,
+                                    @Value("${routing.danger-zones.viewport.max-zones:500}") int maxZones) {
+        this.dangerZoneRepository = dangerZoneRepository;
+        this.clusterMaxZoom = clusterMaxZoom;
+        this.maxZones = maxZones;
+    }
+
+    public DangerZoneViewportResponse viewport(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("minLatitude must not be greater than maxLatitude");
+        }
+        double south = Math.max(-90, minLat);
+        double north = Math.min(90, maxLat);
+        List<double[]> longitudes = longitudeRanges(minLng, maxLng);
+        Snapshot snapshot = current;
+        if (zoom < clusterMaxZoom && snapshot != null) {
+            Map<Long, Cell> grid = snapshot.grids().get(Math.max(zoom, 0));
+            List<DangerZoneViewportResponse.Cluster> clusters = new ArrayList<>();
+            for (double[] range : longitudes) {
+                clustersWithin(grid, south, range[0], north, range[1], zoom, clusters);
+            }
+            return DangerZoneViewportResponse.builder()
+                .zoom(zoom)
+                .clustered(true)
+                .clusters(clusters)
+                .build();
+        }
+        // Also the answer at low zoom until the first rebuild; the limit keeps it bounded
+        List<DangerZone> zones = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (double[] range : longitudes) {
+            for (double west = range[0]; west < range[1] && zones.size() <= maxZones; west += MAX_QUERY_WIDTH_DEGREES) {
+                double east = Math.min(range[1], west + MAX_QUERY_WIDTH_DEGREES);
+                zones.addAll(dangerZoneRepository.findSummariesWithinBox(
+                    west, south, east, north, now, PageRequest.of(0, maxZones + 1 - zones.size())));
+            }
+        }
+        boolean truncated = zones.size() > maxZones;
+        return DangerZoneViewportResponse.builder()
+            .zoom(zoom)
+            .clustered(false)
+            .zones(zones.stream().limit(maxZones).map(DangerZoneClusterService::toSummary).toList())
+            .truncated(truncated)
+            .build();
+    }
+
+    @Override
+    public void beginRebuild() {
+        synchronized (writeLock) {
+            changedDuringRebuild = new LinkedHashMap<>();
+        }
+    }
+
+    @Override
+    public void completeRebuild(List<DangerZone> activeZones) {
+        try {
+            Snapshot rebuilt = Snapshot.empty(clusterMaxZoom);
+            activeZones.forEach(zone -> apply(rebuilt, DangerZoneChangedEvent.updated(zone)));
+            synchronized (writeLock) {
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.values().forEach(event -> apply(rebuilt, event));
+                }
+                current = rebuilt;
+            }
+            log.debug("Rebuilt danger zone cluster grids from {} zones", activeZones.size());
+        } finally {
+            abandonRebuild();
+        }
+    }
+
+    @Override
+    public void abandonRebuild() {
+        synchronized (writeLock) {
+            changedDuringRebuild = null;
+        }
+    }
+
+    @EventListener
+    public void onDangerZoneChanged(DangerZoneChangedEvent event) {
+        synchronized (writeLock) {
+            if (current != null) {
+                apply(current, event);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(event.zone().getId(), event);
+            }
+        }
+    }
+
+    /**
+     * West-to-east longitude ranges within [-180, 180] covering the viewport: one,
+     * or two when it crosses the antimeridian.
+     */
+    static List<double[]> longitudeRanges(double minLng, double maxLng) {
+        if (maxLng - minLng >= 360) {
+            return List.of(new double[] {-180, 180});
+        }
+        double west = wrap(minLng);
+        double east = wrap(maxLng);
+        if (east == -180 && maxLng > minLng) {
+            east = 180; // The right edge sits on the antimeridian
+        }
+        if (west <= east) {
+            return List.of(new double[] {west, east});
+        }
+        return List.of(new double[] {west, 180}, new double[] {-180, east});
+    }
+
+    /** Into [-180, 180). */
+    private static double wrap(double lng) {
+        if (lng >= -180 && lng < 180) {
+            return lng;
+        }
+        return ((lng + 180) % 360 + 360) % 360 - 180;
+    }
+
+    private static void clustersWithin(Map<Long, Cell> grid, double minLat, double minLng, double maxLat, double maxLng,
+                                       int zoom, List<DangerZoneViewportResponse.Cluster> clusters) {
+        int minX = cellX(minLng, zoom);
+        int maxX = cellX(maxLng, zoom);
+        int minY = cellY(maxLat, zoom); // y grows southwards
+        int maxY = cellY(minLat, zoom);
+        long viewportCells = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (viewportCells <= grid.size()) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    Cell cell = grid.get(key(x, y));
+                    if (cell != null) {
+                        clusters.add(cell.toCluster());
+                    }
+                }
+            }
+        } else {
+            grid.forEach((key, cell) -> {
+                int x = (int) key.longValue();
+                int y = (int) (key >>> 32);
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    clusters.add(cell.toCluster());
+                }
+            });
+        }
+    }
+
+    /** Replaces whatever the zone contributed before with its new state. */
+    private static void apply(Snapshot snapshot, DangerZoneChangedEvent event) {
+        DangerZone zone = event.zone();
+        AppliedZone previous = snapshot.applied().remove(zone.getId());
+        if (previous != null) {
+            count(snapshot, previous, -1);
+        }
+        boolean active = zone.getExpiresAt() == null || zone.getExpiresAt().isAfter(LocalDateTime.now());
+        if (!event.removed() && active && zone.getLocation() != null && zone.getDangerLevel() != null) {
+            AppliedZone applied = new AppliedZone(zone.getLocation().getY(), zone.getLocation().getX(), zone.getDangerLevel());
+            count(snapshot, applied, 1);
+            snapshot.applied().put(zone.getId(), applied);
+        }
+    }
+
+    // Cells are replaced, never changed, so viewport reads without the lock see whole values
+    private static void count(Snapshot snapshot, AppliedZone zone, int sign) {
+        for (int zoom = 0; zoom < snapshot.grids().size(); zoom++) {
+            snapshot.grids().get(zoom).compute(key(cellX(zone.longitude(), zoom), cellY(zone.latitude(), zoom)),
+                (key, cell) -> (cell == null ? Cell.EMPTY : cell).plus(zone, sign));
+        }
+    }
+
+    private static int cellX(double lng, int zoom) {
+        double cells = (double) CELLS_PER_TILE * (1L << zoom);
+        return (int) Math.min(cells - 1, Math.max(0, Math.floor((lng + 180) / 360 * cells)));
+    }
+
+    private static int cellY(double lat, int zoom) {
+        double cells = (double) CELLS_PER_TILE * (1L << zoom);
+        double sin = Math.sin(Math.toRadians(Math.max(-85.05, Math.min(85.05, lat))));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return (int) Math.min(cells - 1, Math.max(0, Math.floor(y * cells)));
+    }
+
+    private static long key(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    private static DangerZoneSummary toSummary(DangerZone zone) {
+        return DangerZoneSummary.builder()
+            .id(zone.getId())
+            .name(zone.getName())
+            .dangerLevel(zone.getDangerLevel())
+            .latitude(zone.getLocation().getY())
+            .longitude(zone.getLocation().getX())
+            .reportCount(zone.getReportCount())
+            .tags(zone.getTags())
+            .build();
+    }
+
+    /** What a zone added to the grids, to take back out when it changes. */
+    private record AppliedZone(double latitude, double longitude, DangerZone.DangerLevel level) {}
+
+    /**
+     * Aggregate of the zones in one grid cell; a level histogram so removals keep the
+     * max right. Immutable: {@link #plus} returns a new cell, or null once it is empty.
+     */
+    private record Cell(int count, double latitudeSum, double longitudeSum, int[] levels) {
+        static final Cell EMPTY = new Cell(0, 0, 0, new int[LEVELS]);
+
+        Cell plus(AppliedZone zone, int sign) {
+            if (count + sign <= 0) {
+                return null;
+            }
+            int[] updated = levels.clone();
+            updated[zone.level().ordinal()] += sign;
+            return new Cell(count + sign, latitudeSum + sign * zone.latitude(), longitudeSum + sign * zone.longitude(), updated);
+        }
+
+        DangerZoneViewportResponse.Cluster toCluster() {
+            int max = LEVELS - 1;
+            while (max > 0 && levels[max] == 0) {
+                max--;
+            }
+            return new DangerZoneViewportResponse.Cluster(latitudeSum / count, longitudeSum / count, count,
+                DangerZone.DangerLevel.values()[max]);
+        }
+    }
+
+    private record Snapshot(List<Map<Long, Cell>> grids, Map<String, AppliedZone> applied) {
+        static Snapshot empty(int zoomLevels) {
+            List<Map<Long, Cell>> grids = new ArrayList<>(zoomLevels);
+            for (int zoom = 0; zoom < zoomLevels; zoom++) {
+                grids.add(new ConcurrentHashMap<>());
+            }
+            return new Snapshot(grids, new HashMap<>());
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.routing_service.service;
 
 import com.example.routing_service.dto.DangerZoneRequest;
+import com.example.routing_service.event.DangerZoneChangedEvent;
 import com.example.routing_service.model.DangerZone;
 import com.example.routing_service.repository.DangerZoneRepository;
+import com.example.routing_service.util.DangerZoneFootprints;
+import com.example.routing_service.util.DangerZoneMergeKeys;
+import com.example.routing_service.util.DangerZoneTags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 
 @Service
@@ -17,87 +28,128 @@ import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 @Slf4j
 public class DangerZoneService {
 
-    private final DangerZoneRepository dangerZoneRepository;
+    private static final int MAX_ZONES_PAGE_SIZE = 100;
+    static final int REPORT_LIFETIME_DAYS = 30;
 
+    private final DangerZoneRepository dangerZoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestCoalescer requestCoalescer;
+
+    /**
+     * Merges the report into an active zone with the same normalized name in the
+     * same or a neighbouring ~50m cell, or creates a new zone. The merge is a single
+     * findAndModify on the unique mergeKey index, so concurrent reports of the same
+     * spot can neither create duplicates nor lose a count.
+     */
     public DangerZone reportDangerZone(DangerZoneRequest request, String userId) {
         log.info("User {} reporting danger zone: {}", userId, request.getName());
 
-        // Check if a similar danger zone already exists nearby
-        Optional<DangerZone> existingZone = findNearbyExistingZone(
-            request.getLocation().getLatitude(),
-            request.getLocation().getLongitude(),
-            request.getName()
-        );
-
-        if (existingZone.isPresent()) {
-            // Update existing zone
-            DangerZone existing = existingZone.get();
-            existing.setReportCount(existing.getReportCount() + 1);
-            
-            if (!existing.getReportedByUsers().contains(userId)) {
-                existing.getReportedByUsers().add(userId);
+        LocalDateTime now = LocalDateTime.now();
+        DangerZone report = DangerZone.builder()
+            .name(request.getName())
+            .description(request.getDescription())
+            .dangerLevel(request.getDangerLevel())
+            .reportedBy(userId)
+            .reportedAt(now)
+            .expiresAt(now.plusDays(REPORT_LIFETIME_DAYS))
+            .tags(DangerZoneTags.normalize(request.getTags()))
+            .location(new GeoJsonPoint(request.getLocation().getLongitude(), request.getLocation().getLatitude()))
+            .reportCount(1)
+            .reportedByUsers(new ArrayList<>(List.of(userId)))
+            .build();
+        applyShape(report, request.getRadiusMeters(), request.getArea());
+        double latitude = report.getLocation().getY();
+        double longitude = report.getLocation().getX();
+        report.setMergeKey(DangerZoneMergeKeys.of(latitude, longitude, request.getName()));
+        List<String> candidates = DangerZoneMergeKeys.neighbourhood(latitude, longitude, request.getName());
+
+        DangerZone merged;
+        try {
+            merged = dangerZoneRepository.mergeReport(report, candidates, now);
+        } catch (DuplicateKeyException e) {
+            // Two first reports raced on the upsert; the loser now finds the winner's zone
+            merged = dangerZoneRepository.mergeReport(report, candidates, now);
+        }
+
+        log.info("Danger zone {} now has {} reports", merged.getId(), merged.getReportCount());
+        eventPublisher.publishEvent(DangerZoneChangedEvent.updated(merged));
+        return merged;
+    }
+
+    /** Brings zones stored by older versions up to date: merge keys, canonical tags and footprints. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyZones() {
+        try {
+            long updated = dangerZoneRepository.assignMissingMergeKeys();
+            if (updated > 0) {
+                log.info("Assigned merge keys to {} existing danger zones", updated);
             }
-            
-            // Update danger level if new report has higher level
-            if (request.getDangerLevel().ordinal() > existing.getDangerLevel().ordinal()) {
-                existing.setDangerLevel(request.getDangerLevel());
+            long retagged = dangerZoneRepository.normalizeLegacyTags();
+            if (retagged > 0) {
+                log.info("Normalized tags of {} existing danger zones", retagged);
             }
-            
-            // Extend expiration time
-            existing.setExpiresAt(LocalDateTime.now().plusDays(30));
-            
-            log.info("Updated existing danger zone: {}", existing.getId());
-            return dangerZoneRepository.save(existing);
-        } else {
-            // Create new danger zone
-            DangerZone newZone = DangerZone.builder()
-                .name(request.getName())
-                .description(request.getDescription())
-                .dangerLevel(request.getDangerLevel())
-                .reportedBy(userId)
-                .reportedAt(LocalDateTime.now())
-                .expiresAt(LocalDateTime.now().plusDays(30))
-                .tags(request.getTags())
-                .location(new GeoJsonPoint(
-                    request.getLocation().getLongitude(),
-                    request.getLocation().getLatitude()
-                ))
-                .reportCount(1)
-                .reportedByUsers(List.of(userId))
-                .build();
-
-            log.info("Created new danger zone: {}", newZone.getId());
-            log.info("Saving new danger zone entity: {}", newZone);
-            return dangerZoneRepository.save(newZone);
+            long shaped = dangerZoneRepository.assignMissingFootprints();
+            if (shaped > 0) {
+                log.info("Assigned footprints to {} existing danger zones", shaped);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate existing danger zones: {}", e.getMessage());
         }
     }
 
-    private Optional<DangerZone> findNearbyExistingZone(double latitude, double longitude, String name) {
-        // Look for existing zones within 50 meters with similar name
-        List<DangerZone> nearbyZones = dangerZoneRepository.findNearbyActiveDangerZones(
-            longitude, latitude, 50, LocalDateTime.now()
-        );
-
-        return nearbyZones.stream()
-            .filter(zone -> zone.getName().toLowerCase().contains(name.toLowerCase()) ||
-                           name.toLowerCase().contains(zone.getName().toLowerCase()))
-            .findFirst();
+    /**
+     * Sets the zone's extent from a report: the outline when one was given, which also
+     * moves the zone to its centroid, otherwise a circle of the given or default radius.
+     * Then derives the footprint from it.
+     *
+     * @throws IllegalArgumentException if the outline is not a usable polygon
+     */
+    static void applyShape(DangerZone zone, Double radiusMeters, List<DangerZoneRequest.Location> area) {
+        if (area != null && !area.isEmpty()) {
+            DangerZoneFootprints.Outline outline = DangerZoneFootprints.outline(area.stream()
+                .map(point -> new double[]{point.getLongitude(), point.getLatitude()})
+                .toList());
+            zone.setLocation(new GeoJsonPoint(outline.longitude(), outline.latitude()));
+            zone.setArea(outline.area());
+            zone.setRadiusMeters(outline.radiusMeters());
+        } else {
+            zone.setArea(null);
+            zone.setRadiusMeters(radiusMeters);
+        }
+        zone.setFootprint(DangerZoneFootprints.footprint(zone));
     }
 
     public List<DangerZone> getNearbyDangerZones(double latitude, double longitude, double radius) {
         log.info("Finding danger zones near ({}, {}) within {} meters", latitude, longitude, radius);
         
-        return dangerZoneRepository.findNearbyActiveDangerZones(
+        // Concurrent lookups from the same spot share one geo query
+        List<Object> key = List.of(requestCoalescer.cell(latitude), requestCoalescer.cell(longitude), radius);
+        return requestCoalescer.execute("nearby_zones", key, () -> dangerZoneRepository.findNearbyActiveDangerZones(
             longitude, latitude, radius, LocalDateTime.now()
-        );
+        ));
+    }
+
+    public List<DangerZone> getDangerZonesByLevel(DangerZone.DangerLevel level, int page, int size) {
+        return dangerZoneRepository.findByDangerLevelAndActive(level, LocalDateTime.now(), newestFirst(page, size));
     }
 
-    public List<DangerZone> getDangerZonesByLevel(DangerZone.DangerLevel level) {
-        return dangerZoneRepository.findByDangerLevel(level);
+    /** Active zones with the tag, or with a tag starting with it when {@code prefix} is set. */
+    public List<DangerZone> getDangerZonesByTag(String tag, boolean prefix, int page, int size) {
+        String canonical = DangerZoneTags.normalize(tag);
+        if (canonical.isEmpty()) {
+            return List.of();
+        }
+        return prefix
+            ? dangerZoneRepository.findByTagRangeAndActive(canonical, DangerZoneTags.prefixUpperBound(canonical),
+                LocalDateTime.now(), newestFirst(page, size))
+            : dangerZoneRepository.findByTagAndActive(canonical, LocalDateTime.now(), newestFirst(page, size));
     }
 
-    public List<DangerZone> getDangerZonesByTag(String tag) {
-        return dangerZoneRepository.findByTagsContaining(tag);
+    private PageRequest newestFirst(int page, int size) {
+        return PageRequest.of(
+            Math.max(page, 0),
+            Math.min(Math.max(size, 1), MAX_ZONES_PAGE_SIZE),
+            Sort.by(Sort.Direction.DESC, "reportedAt"));
     }
 
     public List<DangerZone> getUserReportedZones(String userId) {
@@ -111,6 +163,7 @@ public class DangerZoneService {
         
         if (!expiredZones.isEmpty()) {
             dangerZoneRepository.deleteAll(expiredZones);
+            expiredZones.forEach(zone -> eventPublisher.publishEvent(DangerZoneChangedEvent.removed(zone)));
             log.info("Deleted {} expired danger zones", expiredZones.size());
         }
     }
@@ -128,6 +181,7 @@ public class DangerZoneService {
         }
         
         dangerZoneRepository.delete(zone);
+        eventPublisher.publishEvent(DangerZoneChangedEvent.removed(zone));
         log.info("User {} deleted danger zone: {}", userId, zoneId);
     }
 
@@ -141,13 +195,26 @@ public class DangerZoneService {
         zone.setName(request.getName());
         zone.setDescription(request.getDescription());
         zone.setDangerLevel(request.getDangerLevel());
-        zone.setTags(request.getTags());
+        zone.setTags(DangerZoneTags.normalize(request.getTags()));
         zone.setLocation(new GeoJsonPoint(
             request.getLocation().getLongitude(),
             request.getLocation().getLatitude()
         ));
+        applyShape(zone, request.getRadiusMeters(), request.getArea());
+        zone.setMergeKey(DangerZoneMergeKeys.of(
+            zone.getLocation().getY(),
+            zone.getLocation().getX(),
+            request.getName()
+        ));
         
         log.info("User {} updated danger zone: {}", userId, zoneId);
-        return dangerZoneRepository.save(zone);
+        DangerZone saved;
+        try {
+            saved = dangerZoneRepository.save(zone);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("A danger zone with this name is already reported at this location");
+        }
+        eventPublisher.publishEvent(DangerZoneChangedEvent.updated(saved));
+        return saved;
     }
 } 
\ No newline at end of file
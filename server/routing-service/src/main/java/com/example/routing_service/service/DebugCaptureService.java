@@ -0,0 +1,103 @@
+package com.example.routing_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled capture of request/response payloads for troubleshooting.
+ * Only sampled requests pay for serialization; the output goes to the
+ * "debug-capture" logger, which is routed through an async appender.
+ */
+@Service
+@Slf4j(topic = "debug-capture")
+public class DebugCaptureService {
+
+    private static final Capture NO_OP = new Capture(null, null);
+
+    private final ObjectMapper objectMapper;
+    private final double sampleRate;
+    private final int maxPayloadChars;
+    private final Counter capturesEmitted;
+
+    public DebugCaptureService(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${routing.debug-capture.sample-rate:0.0}") double sampleRate,
+                               @Value("${routing.debug-capture.max-payload-chars:4096}") int maxPayloadChars) {
+        this.objectMapper = objectMapper;
+        this.sampleRate = sampleRate;
+        this.maxPayloadChars = maxPayloadChars;
+        this.capturesEmitted = Counter.builder("gethome_debug_captures_total")
+                .description("Number of sampled debug payload captures written")
+                .tag("service", "routing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a capture for one operation. Unsampled operations get a shared no-op
+     * capture, so callers can record unconditionally.
+     */
+    public Capture begin(String operation) {
+        if (sampleRate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return NO_OP;
+        }
+        return new Capture(this, operation);
+    }
+
+    private void emit(String operation, Map<String, Object> payloads) {
+        StringBuilder record = new StringBuilder(256);
+        for (Map.Entry<String, Object> entry : payloads.entrySet()) {
+            record.append(' ').append(entry.getKey()).append('=').append(serialize(entry.getValue()));
+        }
+        log.info("operation={}{}", operation, record);
+        capturesEmitted.increment();
+    }
+
+    String serialize(Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            json = "\"<unserializable: " + e.getClass().getSimpleName() + ">\"";
+        }
+        if (json.length() <= maxPayloadChars) {
+            return json;
+        }
+        return json.substring(0, maxPayloadChars) + "...(truncated " + (json.length() - maxPayloadChars) + " chars)";
+    }
+
+    public static final class Capture {
+        private final DebugCaptureService owner;
+        private final String operation;
+        private final Map<String, Object> payloads;
+
+        private Capture(DebugCaptureService owner, String operation) {
+            this.owner = owner;
+            this.operation = operation;
+            this.payloads = owner != null ? new LinkedHashMap<>() : null;
+        }
+
+        public boolean isSampled() {
+            return owner != null;
+        }
+
+        public void record(String name, Object payload) {
+            if (owner != null) {
+                payloads.put(name, payload);
+            }
+        }
+
+        public void emit() {
+            if (owner != null && !payloads.isEmpty()) {
+                owner.emit(operation, payloads);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.client.OpenRouteServiceClient;
+import com.example.routing_service.graph.BidirectionalAStar;
+import com.example.routing_service.graph.ChQuery;
+import com.example.routing_service.graph.ContractionHierarchy;
+import com.example.routing_service.graph.EdgePenalties;
+import com.example.routing_service.graph.GraphPath;
+import com.example.routing_service.graph.MetricOverlay;
+import com.example.routing_service.graph.OsmGraphLoader;
+import com.example.routing_service.graph.PedestrianGraph;
+import com.example.routing_service.graph.RoutingGraphFile;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.util.PolylineCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process walking router over an OSM extract. Instead of forbidding danger
+ * zones the way ORS avoid_polygons do, edges near a zone get more expensive in
+ * proportion to the zone's risk, so a short pass through a low-risk area can
+ * still win over a long detour.
+ *
+ * The graph comes either from a raw OSM extract (searched with bidirectional A*)
+ * or from a preprocessed {@link RoutingGraphFile}, which is memory-mapped and
+ * searched through its contraction hierarchy; danger penalties then become a
+ * per-request metric overlay.
+ *
+ * Responses use the ORS response shape, so route conversion and safety scoring
+ * are shared with the ORS path.
+ */
+@Service
+@Slf4j
+public class LocalRoutingEngine {
+
+    private static final double WALKING_SPEED = 1.3; // meters per second
+
+    private final SafetyAnalysisService safetyAnalysisService;
+    private final String graphPath;
+    private final double dangerPenalty;
+    private final int maxConcurrentSearches;
+    private final long searchWaitMs;
+    private final double snapDistanceMeters;
+
+    private volatile LoadedGraph loaded;
+
+    public LocalRoutingEngine(SafetyAnalysisService safetyAnalysisService,
+                              @Value("${routing.local.graph-path:}") String graphPath,
+                              @Value("${routing.local.danger-penalty:20}") double dangerPenalty,
+                              @Value("${routing.local.max-concurrent-searches:4}") int maxConcurrentSearches,
+                              @Value("${routing.local.search-wait-ms:500}") long searchWaitMs,
+                              @Value("${routing.local.snap-distance-meters:250}") double snapDistanceMeters) {
+        this.safetyAnalysisService = safetyAnalysisService;
+        this.graphPath = graphPath;
+        this.dangerPenalty = dangerPenalty;
+        this.maxConcurrentSearches = maxConcurrentSearches;
+        this.searchWaitMs = searchWaitMs;
+        this.snapDistanceMeters = snapDistanceMeters;
+    }
+
+    @PostConstruct
+    public void loadGraph() {
+        if (graphPath == null || graphPath.isBlank()) {
+            log.info("Local routing engine disabled (routing.local.graph-path not set)");
+            return;
+        }
+        // Loading an extract takes a while; ORS keeps serving until the graph is ready
+        Thread loader = new Thread(() -> {
+            try {
+                Path path = Path.of(graphPath);
+                if (RoutingGraphFile.isGraphFile(path)) {
+                    useHierarchy(RoutingGraphFile.read(path));
+                    log.info("Mapped routing graph {} (contraction hierarchy)", path);
+                } else {
+                    useGraph(OsmGraphLoader.load(new File(graphPath)));
+                }
+            } catch (Exception e) {
+                log.error("Failed to load pedestrian graph from {}: {}", graphPath, e.getMessage(), e);
+            }
+        }, "pedestrian-graph-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void useGraph(PedestrianGraph graph) {
+        loaded = new LoadedGraph(graph, new BidirectionalAStar(graph, maxConcurrentSearches, searchWaitMs), null, null);
+    }
+
+    void useHierarchy(ContractionHierarchy hierarchy) {
+        loaded = new LoadedGraph(hierarchy.graph(), null, hierarchy,
+            new ChQuery(hierarchy, maxConcurrentSearches, searchWaitMs));
+    }
+
+    public boolean isAvailable() {
+        return loaded != null;
+    }
+
+    /**
+     * Routes through the given [lng, lat] coordinates, one leg per consecutive pair.
+     *
+     * @throws IllegalStateException if the engine is not loaded, a point cannot be
+     *         snapped to the network, or two points are not connected
+     */
+    public OpenRouteServiceClient.OpenRouteResponse route(double[][] lngLatCoordinates, List<DangerZone> dangerZones) {
+        LoadedGraph current = loaded;
+        if (current == null) {
+            throw new IllegalStateException("Local routing engine is not loaded");
+        }
+        PedestrianGraph currentGraph = current.graph();
+
+        int[] snapped = new int[lngLatCoordinates.length];
+        for (int i = 0; i < lngLatCoordinates.length; i++) {
+            snapped[i] = currentGraph.nearestNode(lngLatCoordinates[i][1], lngLatCoordinates[i][0], snapDistanceMeters);
+            if (snapped[i] < 0) {
+                throw new IllegalStateException("No walkable street within " + snapDistanceMeters + "m of coordinate " + i);
+            }
+        }
+
+        EdgePenalties penalties = buildPenalties(currentGraph, dangerZones);
+        MetricOverlay overlay = current.hierarchy() != null ? current.hierarchy().customize(penalties) : null;
+        if (overlay != null) {
+            log.debug("Customized {} hierarchy arcs for {} penalized edges", overlay.size(), penalties.size());
+        }
+
+        int totalPoints = 1;
+        GraphPath[] legs = new GraphPath[snapped.length - 1];
+        for (int i = 0; i < legs.length; i++) {
+            legs[i] = overlay != null
+                ? current.chQuery().route(snapped[i], snapped[i + 1], overlay)
+                : current.aStar().route(snapped[i], snapped[i + 1], penalties);
+            if (legs[i] == null) {
+                throw new IllegalStateException("No local walking route for leg " + i);
+            }
+            totalPoints += legs[i].nodes().length - 1;
+        }
+
+        return toResponse(currentGraph, legs, totalPoints);
+    }
+
+    /**
+     * Cost multiplier per edge: 1 + penalty x summed zone risk. Within one zone an
+     * edge takes the risk of its closer endpoint, and both directions of a street
+     * get the same value so the backward search sees the same costs.
+     */
+    EdgePenalties buildPenalties(PedestrianGraph currentGraph, List<DangerZone> dangerZones) {
+        if (dangerZones.isEmpty() || dangerPenalty <= 0) {
+            return EdgePenalties.NONE;
+        }
+        Map<Integer, Float> riskByEdge = new HashMap<>();
+        Map<Integer, Float> zoneRisk = new HashMap<>();
+        for (DangerZone zone : dangerZones) {
+            zoneRisk.clear();
+            currentGraph.forEachNodeWithin(zone.getLocation().getY(), zone.getLocation().getX(),
+                safetyAnalysisService.influenceRadius(zone), (node, distance) -> {
+                    float risk = (float) safetyAnalysisService.calculateRiskFactor(zone, distance);
+                    if (risk <= 0) {
+                        return;
+                    }
+                    for (int e = currentGraph.firstEdge(node); e < currentGraph.endEdge(node); e++) {
+                        zoneRisk.merge(e, risk, Math::max);
+                        int reverse = currentGraph.findEdge(currentGraph.edgeTarget(e), node);
+                        if (reverse >= 0) {
+                            zoneRisk.merge(reverse, risk, Math::max);
+                        }
+                    }
+                });
+            zoneRisk.forEach((edge, risk) -> riskByEdge.merge(edge, risk, Float::sum));
+        }
+
+        Map<Integer, Float> multipliers = new HashMap<>(riskByEdge.size() * 2);
+        riskByEdge.forEach((edge, risk) -> multipliers.put(edge, (float) (1 + dangerPenalty * risk)));
+        return EdgePenalties.of(multipliers);
+    }
+
+    private OpenRouteServiceClient.OpenRouteResponse toResponse(PedestrianGraph currentGraph,
+                                                               GraphPath[] legs, int totalPoints) {
+        double[] lats = new double[totalPoints];
+        double[] lngs = new double[totalPoints];
+        int[] wayPoints = new int[legs.length + 1];
+        OpenRouteServiceClient.OpenRouteSegment[] segments = new OpenRouteServiceClient.OpenRouteSegment[legs.length];
+
+        int point = 0;
+        double totalDistance = 0;
+        for (int leg = 0; leg < legs.length; leg++) {
+            int[] nodes = legs[leg].nodes();
+            int legStart = point == 0 ? 0 : point - 1;
+            for (int i = leg == 0 ? 0 : 1; i < nodes.length; i++) {
+                lats[point] = currentGraph.latitude(nodes[i]);
+                lngs[point] = currentGraph.longitude(nodes[i]);
+                point++;
+            }
+            wayPoints[leg] = legStart;
+            wayPoints[leg + 1] = point - 1;
+
+            double distance = legs[leg].lengthMeters();
+            double duration = distance / WALKING_SPEED;
+            totalDistance += distance;
+            OpenRouteServiceClient.OpenRouteStep step = new OpenRouteServiceClient.OpenRouteStep(
+                distance, duration, "Follow the route", null, new int[]{legStart, point - 1});
+            segments[leg] = new OpenRouteServiceClient.OpenRouteSegment(
+                distance, duration, new OpenRouteServiceClient.OpenRouteStep[]{step});
+        }
+
+        OpenRouteServiceClient.OpenRouteRoute route = new OpenRouteServiceClient.OpenRouteRoute(
+            new OpenRouteServiceClient.OpenRouteSummary(totalDistance, totalDistance / WALKING_SPEED),
+            segments,
+            PolylineCodec.encode(lats, lngs, point),
+            wayPoints);
+        return new OpenRouteServiceClient.OpenRouteResponse(new OpenRouteServiceClient.OpenRouteRoute[]{route}, null);
+    }
+
+    private record LoadedGraph(PedestrianGraph graph, BidirectionalAStar aStar,
+                               ContractionHierarchy hierarchy, ChQuery chQuery) {}
+}
@@ -0,0 +1,144 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.client.OpenRouteServiceClient;
+import com.example.routing_service.client.OpenRouteServiceGateway;
+import com.example.routing_service.client.OpenRouteServiceGateway.OpenRouteResult;
+import com.example.routing_service.dto.RouteRequest;
+import com.example.routing_service.dto.RouteResponse;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.ReactiveDangerZoneRepository;
+import com.example.routing_service.repository.ReactiveRouteRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link RoutingService#planSafeRoute} without holding a thread while waiting: the two
+ * nearby-zone queries and the active zone count run concurrently on the reactive Mongo
+ * driver, ORS is called through WebClient and the route is saved reactively. Polygon
+ * building and scoring are CPU work and run on the parallel scheduler; the local engine
+ * still blocks and runs on the bounded elastic one.
+ *
+ * At most {@code routing.reactive.max-in-flight} plans run at once. Beyond that requests
+ * are rejected with a {@link io.github.resilience4j.bulkhead.BulkheadFullException}
+ * instead of piling up unbounded work behind a slow ORS or database.
+ */
+@Service
+@Slf4j
+public class ReactiveRoutingService {
+
+    private final RoutingService routingService;
+    private final ReactiveDangerZoneRepository dangerZoneRepository;
+    private final ReactiveRouteRepository routeRepository;
+    private final OpenRouteServiceGateway openRouteServiceGateway;
+    private final DebugCaptureService debugCaptureService;
+    private final Bulkhead inFlight;
+
+    public ReactiveRoutingService(RoutingService routingService,
+                                  ReactiveDangerZoneRepository dangerZoneRepository,
+                                  ReactiveRouteRepository routeRepository,
+                                  OpenRouteServiceGateway openRouteServiceGateway,
+                                  DebugCaptureService debugCaptureService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${routing.reactive.max-in-flight:200}") int maxInFlight) {
+        this.routingService = routingService;
+        this.dangerZoneRepository = dangerZoneRepository;
+        this.routeRepository = routeRepository;
+        this.openRouteServiceGateway = openRouteServiceGateway;
+        this.debugCaptureService = debugCaptureService;
+
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxInFlight)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        this.inFlight = bulkheads.bulkhead("route-plan-reactive");
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    public Mono<RouteResponse> planSafeRoute(RouteRequest request, String userId) {
+        return Mono.defer(() -> plan(request, userId))
+            .transformDeferred(BulkheadOperator.of(inFlight));
+    }
+
+    private Mono<RouteResponse> plan(RouteRequest request, String userId) {
+        long start = System.nanoTime();
+        boolean isEmergencyRoute = routingService.countRouteRequest(request);
+        DebugCaptureService.Capture capture = debugCaptureService.begin("plan-safe-route-reactive");
+        capture.record("routeRequest", request);
+        log.info("Planning safe route (reactive) for user: {} (Emergency: {})", userId, isEmergencyRoute);
+
+        return nearbyDangerZones(request)
+            .publishOn(Schedulers.parallel())
+            .flatMap(zones -> {
+                OpenRouteServiceClient.OpenRouteRequest orsRequest =
+                    routingService.buildOpenRouteRequest(request, zones, "recommended", null);
+                capture.record("orsRequest", orsRequest);
+                // Scoring queries MongoDB for the zones along the route until the risk raster is built
+                return route(request, orsRequest, zones)
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(orsResult -> {
+                        capture.record("orsResponse", orsResult.response());
+                        return routingService.toSafeRoute(orsResult, request, RoutingService.zoneIds(zones), userId);
+                    });
+            })
+            .flatMap(route -> {
+                routingService.recordPlannedRoute(route);
+                return routeRepository.save(route);
+            })
+            .map(route -> {
+                log.info("Safe route generated successfully (reactive) - Distance: {}m, Safety Score: {}",
+                        route.getTotalDistance(), route.getSafetyScore());
+                RouteResponse response = routingService.convertToResponse(route);
+                capture.record("routeResponse", response);
+                return response;
+            })
+            .doOnError(e -> {
+                routingService.recordPlanFailure(capture, e);
+                log.error("Failed to generate safe route (reactive) for user: {}", userId, e);
+            })
+            .doFinally(signal -> {
+                routingService.recordCalculationTime(System.nanoTime() - start);
+                capture.emit();
+            });
+    }
+
+    private Mono<List<DangerZone>> nearbyDangerZones(RouteRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        // Subscribed together, so the three queries are in flight at the same time
+        return Mono.zip(
+                dangerZoneRepository.findNearbyActiveDangerZones(
+                    request.getStartLocation().getLongitude(), request.getStartLocation().getLatitude(),
+                    RoutingService.NEARBY_ZONE_RADIUS_METERS, now).collectList(),
+                dangerZoneRepository.findNearbyActiveDangerZones(
+                    request.getEndLocation().getLongitude(), request.getEndLocation().getLatitude(),
+                    RoutingService.NEARBY_ZONE_RADIUS_METERS, now).collectList(),
+                dangerZoneRepository.countActiveDangerZones(now))
+            .map(results -> {
+                List<DangerZone> zones = RoutingService.combineNearbyZones(results.getT1(), results.getT2());
+                routingService.recordNearbyZones(zones, results.getT3());
+                return zones;
+            });
+    }
+
+    private Mono<OpenRouteResult> route(RouteRequest request, OpenRouteServiceClient.OpenRouteRequest orsRequest,
+                                        List<DangerZone> zones) {
+        if (routingService.useLocalEngine(request)) {
+            return Mono.fromCallable(() -> routingService.routeLocally(orsRequest, zones,
+                    RoutingService.isEmergencyRoute(request)))
+                .subscribeOn(Schedulers.boundedElastic());
+        }
+        return openRouteServiceGateway.getWalkingRouteReactive(orsRequest, RoutingService.isEmergencyRoute(request));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.routing_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for identical requests: while one caller (the leader) computes a result,
+ * callers arriving with the same key wait for it instead of repeating the work. Nothing
+ * is cached; the key is forgotten as soon as the leader finishes, so a result is only
+ * shared between requests that overlapped in time.
+ *
+ * <p>Shared results are handed to every caller as is and must be treated as read-only.
+ */
+@Component
+@Slf4j
+public class RequestCoalescer {
+
+    private record Flight(String operation, Object key) {
+    }
+
+    private final Map<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> leaders = new ConcurrentHashMap<>();
+    private final Map<String, Counter> followers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double cellsPerDegree;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${routing.coalescing.enabled:true}") boolean enabled,
+                            @Value("${routing.coalescing.coordinate-decimals:4}") int coordinateDecimals) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.cellsPerDegree = Math.pow(10, coordinateDecimals);
+        Gauge.builder("gethome_coalescing_in_flight", inFlight, Map::size)
+            .description("Distinct computations currently shared by coalesced requests")
+            .tag("service", "routing")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Coordinate rounded to the configured number of decimals, for building keys.
+     * Four decimals is about 11m, so requests from the same spot share a key.
+     */
+    public long cell(double degrees) {
+        return Math.round(degrees * cellsPerDegree);
+    }
+
+    /**
+     * Runs {@code work}, or waits for an identical call already running and returns its
+     * result. Failures are shared too: every waiting caller gets the leader's exception.
+     *
+     * @param operation names the kind of work, for metrics and to keep key spaces apart
+     * @param key       value-equal for requests that may share a result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        Flight flight = new Flight(operation, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            counter(followers, operation, "follower").increment();
+            log.debug("Joined in-flight {} request", operation);
+            return (T) await(running);
+        }
+
+        counter(leaders, operation, "leader").increment();
+        T result;
+        try {
+            result = work.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(flight, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(flight, mine);
+        mine.complete(result);
+        return result;
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String operation, String role) {
+        return counters.computeIfAbsent(operation, op -> Counter.builder("gethome_coalesced_requests_total")
+            .description("Requests that computed a result (leader) or reused an identical in-flight one (follower)")
+            .tag("service", "routing")
+            .tag("operation", op)
+            .tag("role", role)
+            .register(meterRegistry));
+    }
+}
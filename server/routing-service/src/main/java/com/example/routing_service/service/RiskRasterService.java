@@ -0,0 +1,180 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import com.example.routing_service.util.GeoMath;
+import com.example.routing_service.util.RiskRaster;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Keeps a {@link RiskRaster} of all active danger zones, so route scoring is one
+ * array lookup per sample instead of a distance to every nearby zone.
+ *
+ * Zone changes on this instance are applied incrementally through
+ * {@link DangerZoneChangedEvent}; the periodic rebuild by {@link ActiveDangerZoneLoader}
+ * picks up changes made by other instances, expiry, and float drift from repeated updates.
+ */
+@Service
+@Slf4j
+public class RiskRasterService implements ActiveDangerZoneIndex {
+
+    private static final double SAMPLE_METERS = 5;
+
+    private final SafetyAnalysisService safetyAnalysisService;
+    private final boolean enabled;
+    private final Timer rebuildTime;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot current;
+    // Changes seen while a rebuild reads MongoDB, replayed onto the new raster
+    private Map<String, DangerZoneChangedEvent> changedDuringRebuild;
+
+    public RiskRasterService(SafetyAnalysisService safetyAnalysisService,
+                             MeterRegistry meterRegistry,
+                             @Value("${routing.risk-raster.enabled:true}") boolean enabled) {
+        this.safetyAnalysisService = safetyAnalysisService;
+        this.enabled = enabled;
+        this.rebuildTime = Timer.builder("gethome_risk_raster_rebuild_duration_seconds")
+                .description("Time taken to rebuild the danger zone risk raster from the active zones")
+                .tag("service", "routing")
+                .register(meterRegistry);
+        Gauge.builder("gethome_risk_raster_tiles", this, service -> service.current != null ? service.current.raster().tileCount() : 0)
+                .description("Allocated 64x64 cell tiles of the danger zone risk raster")
+                .tag("service", "routing")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    @Override
+    public void beginRebuild() {
+        if (enabled) {
+            synchronized (writeLock) {
+                changedDuringRebuild = new LinkedHashMap<>();
+            }
+        }
+    }
+
+    @Override
+    public void completeRebuild(List<DangerZone> activeZones) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuildTime.record(() -> {
+                Snapshot rebuilt = new Snapshot(new RiskRaster(), new HashMap<>());
+                activeZones.forEach(zone -> apply(rebuilt, DangerZoneChangedEvent.updated(zone)));
+                synchronized (writeLock) {
+                    if (changedDuringRebuild != null) {
+                        changedDuringRebuild.values().forEach(event -> apply(rebuilt, event));
+                    }
+                    current = rebuilt;
+                }
+                log.debug("Rebuilt risk raster from {} zones ({} tiles)", activeZones.size(), rebuilt.raster().tileCount());
+            });
+        } finally {
+            abandonRebuild();
+        }
+    }
+
+    @Override
+    public void abandonRebuild() {
+        synchronized (writeLock) {
+            changedDuringRebuild = null;
+        }
+    }
+
+    @EventListener
+    public void onDangerZoneChanged(DangerZoneChangedEvent event) {
+        synchronized (writeLock) {
+            if (current != null) {
+                apply(current, event);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(event.zone().getId(), event);
+            }
+        }
+    }
+
+    /**
+     * Same scale as {@link SafetyAnalysisService#calculateSafetyScore}: one minus the
+     * average segment risk. A segment's risk is the highest combined risk of all zones
+     * at any point sampled every few meters along it, rather than the sum of each
+     * zone's risk at its closest vertex. The two agree where zones overlap; a segment
+     * passing two zones far apart scores as risky as its worse zone, not their sum.
+     * Empty until the first rebuild finished.
+     */
+    public OptionalDouble safetyScore(Route route) {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            return OptionalDouble.empty();
+        }
+        if (route.getSegments() == null || route.getSegments().isEmpty()) {
+            return OptionalDouble.of(1.0);
+        }
+        double totalRisk = 0;
+        for (Route.RouteSegment segment : route.getSegments()) {
+            totalRisk += Math.min(1.0, peakRisk(snapshot.raster(), segment.getCoordinates()));
+        }
+        return OptionalDouble.of(Math.max(0.0, 1.0 - totalRisk / route.getSegments().size()));
+    }
+
+    private static double peakRisk(RiskRaster raster, List<Route.Location> coordinates) {
+        if (coordinates == null || coordinates.isEmpty()) {
+            return 0;
+        }
+        Route.Location first = coordinates.get(0);
+        float peak = raster.riskAt(first.getLatitude(), first.getLongitude());
+        for (int i = 1; i < coordinates.size(); i++) {
+            Route.Location a = coordinates.get(i - 1);
+            Route.Location b = coordinates.get(i);
+            double length = GeoMath.fastDistanceMeters(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+            int samples = Math.max(1, (int) Math.ceil(length / SAMPLE_METERS));
+            for (int s = 1; s <= samples; s++) {
+                double t = (double) s / samples;
+                peak = Math.max(peak, raster.riskAt(
+                    a.getLatitude() + t * (b.getLatitude() - a.getLatitude()),
+                    a.getLongitude() + t * (b.getLongitude() - a.getLongitude())));
+            }
+        }
+        return peak;
+    }
+
+    /** Replaces whatever the zone contributed before with its new state. */
+    private void apply(Snapshot snapshot, DangerZoneChangedEvent event) {
+        DangerZone zone = event.zone();
+        DangerZone previous = snapshot.applied().remove(zone.getId());
+        if (previous != null) {
+            paint(snapshot.raster(), previous, -1);
+        }
+        boolean active = zone.getExpiresAt() == null || zone.getExpiresAt().isAfter(LocalDateTime.now());
+        if (!event.removed() && active && zone.getLocation() != null) {
+            paint(snapshot.raster(), zone, 1);
+            snapshot.applied().put(zone.getId(), zone);
+        }
+    }
+
+    private void paint(RiskRaster raster, DangerZone zone, int sign) {
+        raster.apply(zone.getLocation().getY(), zone.getLocation().getX(),
+            safetyAnalysisService.influenceRadius(zone),
+            distance -> safetyAnalysisService.calculateRiskFactor(zone, distance), sign);
+    }
+
+    private record Snapshot(RiskRaster raster, Map<String, DangerZone> applied) {}
+}
@@ -0,0 +1,110 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.util.PolylineCodec;
+import com.example.routing_service.util.PolylineSimplifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simplified route geometry for drawing at a given zoom or tolerance. A route's geometry
+ * never changes once planned, so simplified variants are cached per route and tolerance.
+ * Only the returned geometry is simplified; routes are stored and scored at full resolution.
+ */
+@Service
+public class RouteGeometryService {
+
+    private static final int NO_ZOOM = -1;
+
+    public record Simplified(String encodedPolyline, int pointCount, double toleranceMeters) {
+    }
+
+    // zoom is NO_ZOOM when the tolerance was given directly
+    private record VariantKey(String routeId, int zoom, long toleranceCentimeters) {
+    }
+
+    private final double zoomTolerancePixels;
+    private final Map<VariantKey, Simplified> variants;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final DistributionSummary rawPoints;
+    private final DistributionSummary sentPoints;
+
+    public RouteGeometryService(MeterRegistry meterRegistry,
+                                @Value("${routing.geometry.zoom-tolerance-pixels:1.0}") double zoomTolerancePixels,
+                                @Value("${routing.geometry.cache-size:5000}") int cacheSize) {
+        this.zoomTolerancePixels = zoomTolerancePixels;
+        this.variants = Collections.synchronizedMap(new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<VariantKey, Simplified> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        this.cacheHits = Counter.builder("gethome_route_geometry_cache_total")
+                .description("Simplified route geometry requests served from the cache or computed")
+                .tag("service", "routing")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("gethome_route_geometry_cache_total")
+                .description("Simplified route geometry requests served from the cache or computed")
+                .tag("service", "routing")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.rawPoints = DistributionSummary.builder("gethome_route_geometry_points")
+                .description("Route geometry points before and after simplification")
+                .tag("service", "routing")
+                .tag("stage", "raw")
+                .register(meterRegistry);
+        this.sentPoints = DistributionSummary.builder("gethome_route_geometry_points")
+                .description("Route geometry points before and after simplification")
+                .tag("service", "routing")
+                .tag("stage", "sent")
+                .register(meterRegistry);
+    }
+
+    /** Geometry that stays within {@code toleranceMeters} of the full route. */
+    public Simplified forTolerance(String routeId, String encoded, double toleranceMeters) {
+        // Centimetre steps, so near-identical tolerances share a cache entry
+        return variant(new VariantKey(routeId, NO_ZOOM, Math.round(toleranceMeters * 100)), encoded);
+    }
+
+    /** Geometry with detail down to the configured number of pixels at the map zoom level. */
+    public Simplified forZoom(String routeId, String encoded, int zoom) {
+        return variant(new VariantKey(routeId, zoom, 0), encoded);
+    }
+
+    // Computed outside the map's lock; two requests racing for a new variant both compute it
+    private Simplified variant(VariantKey key, String encoded) {
+        Simplified cached = variants.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+        Simplified simplified = simplify(key, encoded);
+        variants.put(key, simplified);
+        return simplified;
+    }
+
+    private Simplified simplify(VariantKey key, String encoded) {
+        int capacity = PolylineCodec.countPoints(encoded);
+        double[] lats = new double[capacity];
+        double[] lngs = new double[capacity];
+        int count = PolylineCodec.decode(encoded, lats, lngs);
+        double toleranceMeters = key.zoom() == NO_ZOOM || count == 0
+            ? key.toleranceCentimeters() / 100.0
+            : zoomTolerancePixels * PolylineSimplifier.metersPerPixel(key.zoom(), lats[0]);
+        int kept = PolylineSimplifier.simplify(lats, lngs, count, toleranceMeters);
+        rawPoints.record(count);
+        sentPoints.record(kept);
+        return new Simplified(PolylineCodec.encode(lats, lngs, kept), kept, toleranceMeters);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import com.example.routing_service.repository.RouteRepository;
+import com.example.routing_service.util.DangerZoneFootprints;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the safety score of saved ACTIVE routes current when danger zones change, so
+ * users do not have to re-plan to see a new zone.
+ *
+ * Changed zones are collected from {@link DangerZoneChangedEvent} and handled in
+ * batches: a zone changed many times in one interval is handled once, and a route
+ * affected by several zones is scored once. Only the routes whose bounds meet a
+ * changed zone's footprint, or that were planned around it, are loaded. They are
+ * scored like new routes and the scores that moved are written in bulk.
+ *
+ * Like the risk raster, this sees changes made on this instance; each instance
+ * re-scores the routes affected by the changes it made.
+ */
+@Service
+@Slf4j
+public class RouteRescoringService {
+
+    // Scores are shown rounded; smaller differences are not worth a write
+    private static final double SCORE_EPSILON = 1e-4;
+
+    private final RouteRepository routeRepository;
+    private final RoutingService routingService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<String, DangerZone> pending = new ConcurrentHashMap<>();
+
+    private final Timer rescoreTime;
+    private final Counter routesChanged;
+    private final Counter routesUnchanged;
+
+    public RouteRescoringService(RouteRepository routeRepository,
+                                 RoutingService routingService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${routing.rescoring.enabled:true}") boolean enabled,
+                                 @Value("${routing.rescoring.batch-size:500}") int batchSize) {
+        this.routeRepository = routeRepository;
+        this.routingService = routingService;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.rescoreTime = Timer.builder("gethome_route_rescoring_duration_seconds")
+                .description("Time taken to re-score the routes affected by a batch of danger zone changes")
+                .tag("service", "routing")
+                .register(meterRegistry);
+        this.routesChanged = routesCounter("changed", meterRegistry);
+        this.routesUnchanged = routesCounter("unchanged", meterRegistry);
+        Gauge.builder("gethome_route_rescoring_pending_zones", pending, Map::size)
+                .description("Changed danger zones waiting for their routes to be re-scored")
+                .tag("service", "routing")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onDangerZoneChanged(DangerZoneChangedEvent event) {
+        if (enabled && event.zone().getId() != null) {
+            // The latest state wins; removals keep the last footprint, which is what to search
+            pending.put(event.zone().getId(), event.zone());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${routing.rescoring.interval-ms:5000}")
+    public void rescorePending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, DangerZone> batch = new LinkedHashMap<>();
+        for (String zoneId : pending.keySet()) {
+            DangerZone zone = pending.remove(zoneId);
+            if (zone != null) {
+                batch.put(zoneId, zone);
+            }
+        }
+        try {
+            rescoreTime.record(() -> rescore(batch));
+        } catch (DataAccessException e) {
+            log.warn("Could not re-score routes for {} changed danger zones, retrying: {}", batch.size(), e.getMessage());
+            // Changes that arrived meanwhile are newer and stay
+            batch.forEach(pending::putIfAbsent);
+        }
+    }
+
+    private void rescore(Map<String, DangerZone> zones) {
+        Set<String> seen = new HashSet<>();
+        Map<String, Double> scores = new HashMap<>();
+        int changed = 0;
+        for (DangerZone zone : zones.values()) {
+            try (Stream<Route> routes = routeRepository.streamActiveAffectedBy(footprint(zone), zone.getId())) {
+                for (Route route : (Iterable<Route>) routes::iterator) {
+                    if (!seen.add(route.getId())) {
+                        continue;
+                    }
+                    double score = routingService.scoreRoute(route);
+                    if (Math.abs(score - route.getSafetyScore()) < SCORE_EPSILON) {
+                        routesUnchanged.increment();
+                        continue;
+                    }
+                    scores.put(route.getId(), score);
+                    if (scores.size() >= batchSize) {
+                        changed += flush(scores);
+                    }
+                }
+            }
+        }
+        changed += flush(scores);
+        log.debug("Re-scored {} routes for {} changed danger zones, {} scores changed", seen.size(), zones.size(), changed);
+    }
+
+    private int flush(Map<String, Double> scores) {
+        int count = scores.size();
+        if (count == 0) {
+            return 0;
+        }
+        routeRepository.updateSafetyScores(scores);
+        routesChanged.increment(count);
+        scores.clear();
+        return count;
+    }
+
+    // Zones stored before footprints existed get theirs at startup; until then derive it
+    private static GeoJsonPolygon footprint(DangerZone zone) {
+        if (zone.getFootprint() != null || zone.getLocation() == null) {
+            return zone.getFootprint();
+        }
+        return DangerZoneFootprints.footprint(zone);
+    }
+
+    private static Counter routesCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("gethome_route_rescoring_routes_total")
+                .description("Active routes re-scored after danger zone changes, by whether their score changed")
+                .tag("service", "routing")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
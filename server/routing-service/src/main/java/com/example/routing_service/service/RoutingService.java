@@ -3,16 +3,27 @@ package com.example.routing_service.service;
 import com.example.routing_service.client.OpenRouteServiceClient;
 import com.example.routing_service.client.OpenRouteServiceClient.Options;
 import com.example.routing_service.client.OpenRouteServiceClient.AvoidPolygons;
+import com.example.routing_service.client.OpenRouteServiceClient.AlternativeRoutes;
+import com.example.routing_service.client.OpenRouteServiceGateway;
+import com.example.routing_service.client.OpenRouteServiceGateway.OpenRouteResult;
 import com.example.routing_service.client.UserManagementClient;
+import com.example.routing_service.dto.RouteAlternativesResponse;
+import com.example.routing_service.dto.RouteGeometryResponse;
 import com.example.routing_service.dto.RouteRequest;
 import com.example.routing_service.dto.RouteResponse;
+import com.example.routing_service.dto.RouteSummaryResponse;
 import com.example.routing_service.model.DangerZone;
 import com.example.routing_service.model.Route;
 import com.example.routing_service.repository.DangerZoneRepository;
 import com.example.routing_service.repository.RouteRepository;
+import com.example.routing_service.util.DangerZoneFootprints;
+import com.example.routing_service.util.PolylineCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
 import org.springframework.stereotype.Service;
 
 // Custom metrics imports
@@ -22,29 +33,59 @@ import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.DistributionSummary;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RoutingService {
 
+    private static final int MAX_ROUTES_PAGE_SIZE = 100;
+    static final double NEARBY_ZONE_RADIUS_METERS = 2000;
+
     private final RouteRepository routeRepository;
     private final DangerZoneRepository dangerZoneRepository;
-    private final OpenRouteServiceClient openRouteServiceClient;
+    private final OpenRouteServiceGateway openRouteServiceGateway;
     private final UserManagementClient userManagementClient;
     private final SafetyAnalysisService safetyAnalysisService;
     private final MeterRegistry meterRegistry;
+    private final DebugCaptureService debugCaptureService;
+    private final LocalRoutingEngine localRoutingEngine;
+    private final AvoidPolygonService avoidPolygonService;
+    private final RiskRasterService riskRasterService;
+    private final RequestCoalescer requestCoalescer;
+    private final RouteGeometryService routeGeometryService;
     
     @Value("${routing.api.key}")
     private String openRouteApiKey;
 
+    @Value("${routing.engine.default:ors}")
+    private String defaultRoutingEngine;
+
+    @Value("${routing.alternatives.max-concurrency:6}")
+    private int alternativesMaxConcurrency;
+
+    @Value("${routing.alternatives.deadline-ms:5000}")
+    private long alternativesDeadlineMs;
+
+    // Bounded pool for alternative-route fan-out; rejected work is skipped, never run on the caller
+    private ThreadPoolExecutor alternativesExecutor;
+
     // Custom business metrics
     private Counter routeRequestsTotal;
     private Counter safeRoutesGenerated;
@@ -52,6 +93,8 @@ public class RoutingService {
     private Counter emergencyRoutesRequested;
     private Timer routeCalculationTime;
     private Timer openRouteServiceResponseTime;
+    private Timer localRouteTime;
+    private Counter localRouteFallbacks;
     private DistributionSummary routeDistanceDistribution;
     private DistributionSummary safetScoreDistribution;
     private Gauge activeDangerZones;
@@ -60,6 +103,7 @@ public class RoutingService {
     private Counter routeOptimizationSuccess;
     private Counter routeOptimizationFailures;
     private Timer userSafetyAnalysisTime;
+    private Counter alternativesDeadlineExceeded;
     
     // Business KPI tracking
     private final AtomicInteger totalActiveRoutes = new AtomicInteger(0);
@@ -102,6 +146,17 @@ public class RoutingService {
                 .tag("external_api", "openroute")
                 .register(meterRegistry);
 
+        // Same shape as the ORS timer so the two engines can be compared directly
+        localRouteTime = Timer.builder("gethome_local_route_duration_seconds")
+                .description("Path search time of the in-process routing engine")
+                .tag("service", "routing")
+                .register(meterRegistry);
+
+        localRouteFallbacks = Counter.builder("gethome_local_route_fallbacks_total")
+                .description("Local routing requests that fell back to OpenRoute Service")
+                .tag("service", "routing")
+                .register(meterRegistry);
+
         userSafetyAnalysisTime = Timer.builder("gethome_safety_analysis_duration_seconds")
                 .description("Time taken to analyze route safety and danger zones")
                 .tag("service", "routing")
@@ -151,55 +206,65 @@ public class RoutingService {
                 .tag("optimization", "safety")
                 .register(meterRegistry);
 
+        alternativesDeadlineExceeded = Counter.builder("gethome_route_alternatives_deadline_exceeded_total")
+                .description("Alternative route plans answered with partial results because of the deadline")
+                .tag("service", "routing")
+                .register(meterRegistry);
+
         log.info("Custom GetHome routing metrics initialized successfully");
     }
 
+    @PostConstruct
+    public void initializeAlternativesExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        alternativesExecutor = new ThreadPoolExecutor(
+                alternativesMaxConcurrency, alternativesMaxConcurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(alternativesMaxConcurrency * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "route-alternatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        alternativesExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdownAlternativesExecutor() {
+        alternativesExecutor.shutdownNow();
+    }
+
     public RouteResponse planSafeRoute(RouteRequest request, String userId) throws Exception {
-        // Increment request counter
-        routeRequestsTotal.increment();
-        
-        // Track if this is an emergency route
-        boolean isEmergencyRoute = request.getSafetyPreference() != null && request.getSafetyPreference() > 0.9;
-        if (isEmergencyRoute) {
-            emergencyRoutesRequested.increment();
-        }
+        boolean isEmergencyRoute = countRouteRequest(request);
+
+        DebugCaptureService.Capture capture = debugCaptureService.begin("plan-safe-route");
+        capture.record("routeRequest", request);
 
         try {
             return routeCalculationTime.recordCallable(() -> {
                 log.info("Planning safe route for user: {} (Emergency: {})", userId, isEmergencyRoute);
                 
-                // Get nearby danger zones with safety analysis timing
-                List<DangerZone> nearbyDangerZones = userSafetyAnalysisTime.recordCallable(() -> {
-                    List<DangerZone> zones = getNearbyDangerZones(
-            request.getStartLocation().getLatitude(),
-            request.getStartLocation().getLongitude(),
-            request.getEndLocation().getLatitude(),
-            request.getEndLocation().getLongitude()
-        );
-                    
-                    // Update danger zones count
-                    totalDangerZonesInSystem.set(dangerZoneRepository.countActiveDangerZones(LocalDateTime.now()).intValue());
-                    
-                    // Track danger zones avoided
-                    if (!zones.isEmpty()) {
-                        dangerZonesAvoided.increment(zones.size());
-                    }
-                    
-                    return zones;
+                // Identical plans in flight share one zone lookup and routing call; each user still gets a route
+                PlannedPath path = requestCoalescer.execute("plan_route", planKey(request), () -> {
+                    // Get nearby danger zones with safety analysis timing
+                    List<DangerZone> zones = userSafetyAnalysisTime.record(() -> {
+                        List<DangerZone> nearby = getNearbyDangerZones(
+                            request.getStartLocation().getLatitude(),
+                            request.getStartLocation().getLongitude(),
+                            request.getEndLocation().getLatitude(),
+                            request.getEndLocation().getLongitude()
+                        );
+                        recordNearbyZones(nearby, dangerZoneRepository.countActiveDangerZones(LocalDateTime.now()));
+                        return nearby;
+                    });
+                    return new PlannedPath(zones, requestSafeRoute(request, zones, capture));
                 });
+                List<DangerZone> nearbyDangerZones = path.dangerZones();
         
-        // Calculate route avoiding danger zones
-        Route route = calculateSafeRoute(request, nearbyDangerZones, userId);
-                
-                // Track successful route generation
-                safeRoutesGenerated.increment();
-                routeOptimizationSuccess.increment();
-                
-                // Record business metrics
-                routeDistanceDistribution.record(route.getTotalDistance());
-                safetScoreDistribution.record(route.getSafetyScore());
-                totalDistancePlanned.addAndGet((long) route.getTotalDistance());
-                totalActiveRoutes.incrementAndGet();
+        // Score the shared path and turn it into this user's route
+        Route route = toSafeRoute(path.result(), request, zoneIds(nearbyDangerZones), userId);
+                recordPlannedRoute(route);
         
         // Save route
         route = routeRepository.save(route);
@@ -207,24 +272,271 @@ public class RoutingService {
                 log.info("Safe route generated successfully - Distance: {}m, Safety Score: {}, Danger Zones Avoided: {}", 
                         route.getTotalDistance(), route.getSafetyScore(), nearbyDangerZones.size());
                 
-        return convertToResponse(route);
+        RouteResponse response = convertToResponse(route);
+                capture.record("routeResponse", response);
+                return response;
             });
         } catch (Exception e) {
-            routeOptimizationFailures.increment();
+            recordPlanFailure(capture, e);
             log.error("Failed to generate safe route for user: {}", userId, e);
             throw e;
+        } finally {
+            capture.emit();
+        }
+    }
+
+    // Steps of planSafeRoute shared with ReactiveRoutingService, so both modes report the same metrics
+
+    /** Counts a route plan request; returns whether it is an emergency route. */
+    boolean countRouteRequest(RouteRequest request) {
+        routeRequestsTotal.increment();
+        boolean isEmergencyRoute = isEmergencyRoute(request);
+        if (isEmergencyRoute) {
+            emergencyRoutesRequested.increment();
+        }
+        return isEmergencyRoute;
+    }
+
+    /** Routes for someone who feels in danger; they get priority on the ORS quota. */
+    static boolean isEmergencyRoute(RouteRequest request) {
+        return request.getSafetyPreference() != null && request.getSafetyPreference() > 0.9;
+    }
+
+    void recordNearbyZones(List<DangerZone> zones, Long activeDangerZones) {
+        totalDangerZonesInSystem.set(activeDangerZones.intValue());
+        if (!zones.isEmpty()) {
+            dangerZonesAvoided.increment(zones.size());
+        }
+    }
+
+    void recordPlannedRoute(Route route) {
+        safeRoutesGenerated.increment();
+        routeOptimizationSuccess.increment();
+        routeDistanceDistribution.record(route.getTotalDistance());
+        safetScoreDistribution.record(route.getSafetyScore());
+        totalDistancePlanned.addAndGet((long) route.getTotalDistance());
+        totalActiveRoutes.incrementAndGet();
+    }
+
+    void recordPlanFailure(DebugCaptureService.Capture capture, Throwable error) {
+        routeOptimizationFailures.increment();
+        capture.record("error", error.toString());
+    }
+
+    void recordCalculationTime(long nanos) {
+        routeCalculationTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public RouteAlternativesResponse planRouteAlternatives(RouteRequest request, String userId) {
+        countRouteRequest(request);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(alternativesDeadlineMs);
+        
+        List<DangerZone> nearbyDangerZones = getNearbyDangerZones(
+            request.getStartLocation().getLatitude(),
+            request.getStartLocation().getLongitude(),
+            request.getEndLocation().getLatitude(),
+            request.getEndLocation().getLongitude()
+        );
+        
+        List<CompletableFuture<List<Route>>> candidates = new ArrayList<>();
+        for (RouteVariant variant : alternativeVariants(request, nearbyDangerZones)) {
+            candidates.add(evaluateVariantAsync(request, variant, nearbyDangerZones, userId));
+        }
+        
+        boolean complete = awaitCandidates(candidates, deadline);
+        List<Route> routes = new ArrayList<>();
+        for (CompletableFuture<List<Route>> candidate : candidates) {
+            if (candidate.isDone() && !candidate.isCompletedExceptionally()) {
+                routes.addAll(candidate.join());
+            }
+        }
+        
+        if (routes.isEmpty()) {
+            routeOptimizationFailures.increment();
+            throw new RuntimeException(complete
+                ? "No route found - the distance might be too far for walking or no walking route is available"
+                : "No route alternative could be calculated within the deadline");
+        }
+        
+        List<Route> front = paretoFront(distinctGeometries(routes));
+        front = routeRepository.saveAll(front);
+        Route recommended = recommend(front, request.getSafetyPreference() != null ? request.getSafetyPreference() : 0.8);
+        
+        safeRoutesGenerated.increment();
+        routeOptimizationSuccess.increment();
+        routeDistanceDistribution.record(recommended.getTotalDistance());
+        safetScoreDistribution.record(recommended.getSafetyScore());
+        totalDistancePlanned.addAndGet((long) recommended.getTotalDistance());
+        totalActiveRoutes.addAndGet(front.size());
+        
+        log.info("Planned {} route alternatives for user: {} from {} candidates (complete: {})", 
+                front.size(), userId, routes.size(), complete);
+        
+        return RouteAlternativesResponse.builder()
+            .routes(front.stream().map(this::convertToResponse).collect(Collectors.toList()))
+            .recommendedRouteId(recommended.getId())
+            .candidatesEvaluated(routes.size())
+            .complete(complete)
+            .build();
+    }
+
+    private record RouteVariant(String name, String preference, List<DangerZone> avoidZones,
+                                AlternativeRoutes alternativeRoutes) {}
+
+    private List<RouteVariant> alternativeVariants(RouteRequest request, List<DangerZone> nearbyDangerZones) {
+        // ORS only computes alternative_routes for plain start/end requests
+        boolean direct = request.getWaypoints() == null || request.getWaypoints().isEmpty();
+        List<RouteVariant> variants = new ArrayList<>();
+        variants.add(new RouteVariant("avoid-all", "recommended", nearbyDangerZones,
+            direct ? new AlternativeRoutes(2, 1.6, 0.6) : null));
+        
+        List<DangerZone> severeZones = safetyAnalysisService.getHighRiskZones(nearbyDangerZones);
+        if (severeZones.size() < nearbyDangerZones.size()) {
+            variants.add(new RouteVariant("avoid-severe", "recommended", severeZones, null));
+        }
+        if (!nearbyDangerZones.isEmpty()) {
+            variants.add(new RouteVariant("fastest", "fastest", List.of(), null));
+        }
+        return variants;
+    }
+
+    private CompletableFuture<List<Route>> evaluateVariantAsync(RouteRequest request, RouteVariant variant,
+                                                                List<DangerZone> nearbyDangerZones, String userId) {
+        // Run fetch and scoring as one task, so cancelling the candidate interrupts its thread and,
+        // through the gateway, the ORS call it is blocked on
+        CompletableFuture<List<Route>> candidate = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = alternativesExecutor.submit(() -> {
+                try {
+                    candidate.complete(scoreVariant(fetchVariant(request, variant, userId), variant));
+                } catch (Throwable e) {
+                    candidate.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Route alternative '{}' rejected, planning pool is saturated", variant.name());
+            return CompletableFuture.failedFuture(e);
+        }
+        candidate.whenComplete((routes, error) -> {
+            if (candidate.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return candidate;
+    }
+
+    private List<Route> scoreVariant(List<Route> routes, RouteVariant variant) {
+        List<String> avoidedZones = zoneIds(variant.avoidZones());
+        for (Route route : routes) {
+            // Scored against the zones along its own line, whichever of them the variant avoided
+            route.setSafetyScore(scoreRoute(route));
+            route.setAvoidedDangerZones(avoidedZones);
+        }
+        return routes;
+    }
+
+    private List<Route> fetchVariant(RouteRequest request, RouteVariant variant, String userId) {
+        try {
+            OpenRouteResult orsResult = requestWalkingRoute(buildOpenRouteRequest(
+                request, variant.avoidZones(), variant.preference(), variant.alternativeRoutes()),
+                isEmergencyRoute(request));
+            if (orsResult.response().routes() == null) {
+                return List.of();
+            }
+            List<Route> routes = new ArrayList<>();
+            for (OpenRouteServiceClient.OpenRouteRoute orsRoute : orsResult.response().routes()) {
+                if (orsRoute.summary() != null) {
+                    Route route = convertOpenRouteRoute(orsRoute, request, userId);
+                    if (orsResult.degraded()) {
+                        route.setWarnings(List.of(orsResult.warning()));
+                    }
+                    routes.add(route);
+                }
+            }
+            return routes;
+        } catch (Exception e) {
+            log.warn("Route alternative '{}' failed: {}", variant.name(), e.getMessage());
+            throw new CompletionException(e);
+        }
+    }
+
+    private boolean awaitCandidates(List<CompletableFuture<List<Route>>> candidates, long deadlineNanos) {
+        try {
+            CompletableFuture.allOf(candidates.toArray(new CompletableFuture[0]))
+                .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            return true; // All finished; failed candidates are skipped by the caller
+        } catch (TimeoutException e) {
+            alternativesDeadlineExceeded.increment();
+            candidates.forEach(candidate -> candidate.cancel(true));
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
+    private static List<Route> distinctGeometries(List<Route> routes) {
+        Set<String> seen = new HashSet<>();
+        List<Route> distinct = new ArrayList<>();
+        for (Route route : routes) {
+            if (route.getEncodedGeometry() == null || seen.add(route.getEncodedGeometry())) {
+                distinct.add(route);
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Routes not dominated in (duration, safety): no other route is both at least as
+     * fast and strictly safer. Ordered from fastest to safest.
+     */
+    static List<Route> paretoFront(List<Route> routes) {
+        List<Route> sorted = new ArrayList<>(routes);
+        sorted.sort(Comparator.comparingInt(Route::getEstimatedDuration)
+            .thenComparing(Comparator.comparingDouble(Route::getSafetyScore).reversed()));
+        
+        List<Route> front = new ArrayList<>();
+        double bestSafety = Double.NEGATIVE_INFINITY;
+        for (Route route : sorted) {
+            if (route.getSafetyScore() > bestSafety) {
+                front.add(route);
+                bestSafety = route.getSafetyScore();
+            }
+        }
+        return front;
+    }
+
+    private static Route recommend(List<Route> front, double safetyPreference) {
+        int fastest = Math.max(1, front.get(0).getEstimatedDuration());
+        Route best = front.get(0);
+        double bestUtility = Double.NEGATIVE_INFINITY;
+        for (Route route : front) {
+            double speed = (double) fastest / Math.max(1, route.getEstimatedDuration());
+            double utility = safetyPreference * route.getSafetyScore() + (1 - safetyPreference) * speed;
+            if (utility > bestUtility) {
+                best = route;
+                bestUtility = utility;
+            }
+        }
+        return best;
+    }
+
     private List<DangerZone> getNearbyDangerZones(double startLat, double startLng, 
                                                   double endLat, double endLng) {
         // Get danger zones near start and end points (within 2km radius)
         List<DangerZone> startNearby = dangerZoneRepository.findNearbyActiveDangerZones(
-            startLng, startLat, 2000, LocalDateTime.now());
+            startLng, startLat, NEARBY_ZONE_RADIUS_METERS, LocalDateTime.now());
         
         List<DangerZone> endNearby = dangerZoneRepository.findNearbyActiveDangerZones(
-            endLng, endLat, 2000, LocalDateTime.now());
+            endLng, endLat, NEARBY_ZONE_RADIUS_METERS, LocalDateTime.now());
         
+        return combineNearbyZones(startNearby, endNearby);
+    }
+
+    static List<DangerZone> combineNearbyZones(List<DangerZone> startNearby, List<DangerZone> endNearby) {
         // Combine and remove duplicates
         Set<String> seenIds = new HashSet<>();
         List<DangerZone> allNearby = new ArrayList<>();
@@ -244,109 +556,44 @@ public class RoutingService {
         return allNearby;
     }
 
-    private Route calculateSafeRoute(RouteRequest request, List<DangerZone> dangerZones, String userId) {
-        try {
-            // Prepare coordinates for OpenRouteService
-            List<double[]> coordinates = new ArrayList<>();
-            coordinates.add(new double[]{request.getStartLocation().getLongitude(), 
-                                       request.getStartLocation().getLatitude()});
-            
-            if (request.getWaypoints() != null) {
-                for (RouteRequest.Location waypoint : request.getWaypoints()) {
-                    coordinates.add(new double[]{waypoint.getLongitude(), waypoint.getLatitude()});
-                }
-            }
-            
-            coordinates.add(new double[]{request.getEndLocation().getLongitude(), 
-                                       request.getEndLocation().getLatitude()});
-            
-            // Build avoid_polygons MultiPolygon for all danger zones (50m radius)
-            List<double[][]> polygons = new ArrayList<>();
-            for (DangerZone zone : dangerZones) {
-                double lon = zone.getLocation().getX();
-                double lat = zone.getLocation().getY();
-                polygons.add(createCirclePolygon(lon, lat, 50, 16));
-            }
-            
-            Options options = null;
-            if (!polygons.isEmpty()) {
-                // Always use MultiPolygon format for consistency, even for single danger zone
-                    double[][][][] multiPoly = new double[polygons.size()][][][];
-                    for (int i = 0; i < polygons.size(); i++) {
-                        // Wrap each polygon in an additional array level
-                        multiPoly[i] = new double[][][] { polygons.get(i) };
-                    }
-                AvoidPolygons avoidPolygons = new AvoidPolygons("MultiPolygon", multiPoly);
-                options = new Options(avoidPolygons);
-                log.info("Created MultiPolygon with {} danger zones", dangerZones.size());
-            } else {
-                log.info("No danger zones to avoid - proceeding without avoidance");
-            }
+    /** Nearby zones and routing result for one plan, shared by coalesced identical requests. */
+    private record PlannedPath(List<DangerZone> dangerZones, OpenRouteResult result) {
+    }
 
-            // Call OpenRouteService with timing
-            OpenRouteServiceClient.OpenRouteRequest orsRequest = 
-                new OpenRouteServiceClient.OpenRouteRequest(
-                    coordinates.toArray(new double[0][]),
-                    "recommended", // preference
-                    "m", // units (meters)
-                    "en",
-                    "true",
-                    false,
-                    options
-                );
-            
-            log.info("Sending request to OpenRouteService with coordinates: {} and avoid_polygons: {}", 
-                    Arrays.deepToString(coordinates.toArray(new double[0][])), polygons.size());
-            
-            if (options != null && options.avoid_polygons() != null) {
-                log.info("Avoid polygons structure: type={}, coordinates_count={}", 
-                        options.avoid_polygons().type(), polygons.size());
-            }
-            
-            // Log the full JSON request body for debugging
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                String jsonRequest = mapper.writeValueAsString(orsRequest);
-                log.info("ORS REQUEST JSON: {}", jsonRequest);
-            } catch (Exception ex) {
-                log.error("Failed to serialize ORS request", ex);
-            }
-            
-            // Time the external API call
-            OpenRouteServiceClient.OpenRouteResponse orsResponse = openRouteServiceResponseTime.recordCallable(() -> 
-                openRouteServiceClient.getWalkingRoute(orsRequest)
-            );
-            
-            log.info("OpenRouteService response received: {}", orsResponse);
-            
-            // Debug: Print the raw response structure
-            if (orsResponse.routes() != null && orsResponse.routes().length > 0) {
-                OpenRouteServiceClient.OpenRouteRoute route = orsResponse.routes()[0];
-                log.info("Route structure - summary: {}, segments: {}", 
-                        route.summary(), 
-                        route.segments() != null ? route.segments().length : "null");
-                
-                if (route.segments() != null) {
-                    for (int i = 0; i < route.segments().length; i++) {
-                        log.info("Segment {}: {}", i, route.segments()[i]);
-                    }
-                }
-            }
-            
-            // Convert response to our Route model
-            Route route = convertOpenRouteResponse(orsResponse, request, userId);
-            
-            // Calculate safety score based on danger zones
-            double safetyScore = safetyAnalysisService.calculateSafetyScore(route, dangerZones);
-            route.setSafetyScore(safetyScore);
+    /**
+     * Requests with the same engine, quota priority and the same waypoints to within the coalescing
+     * precision; those get the same zones and the same routing request.
+     */
+    private List<Object> planKey(RouteRequest request) {
+        List<Object> key = new ArrayList<>();
+        key.add(useLocalEngine(request));
+        key.add(isEmergencyRoute(request));
+        addCells(key, request.getStartLocation());
+        if (request.getWaypoints() != null) {
+            request.getWaypoints().forEach(waypoint -> addCells(key, waypoint));
+        }
+        addCells(key, request.getEndLocation());
+        return key;
+    }
+
+    private void addCells(List<Object> key, RouteRequest.Location location) {
+        key.add(requestCoalescer.cell(location.getLatitude()));
+        key.add(requestCoalescer.cell(location.getLongitude()));
+    }
+
+    private OpenRouteResult requestSafeRoute(RouteRequest request, List<DangerZone> dangerZones,
+                                             DebugCaptureService.Capture capture) {
+        try {
+            OpenRouteServiceClient.OpenRouteRequest orsRequest =
+                buildOpenRouteRequest(request, dangerZones, "recommended", null);
+            capture.record("orsRequest", orsRequest);
             
-            // Add avoided danger zones
-            List<String> avoidedZones = dangerZones.stream()
-                .map(DangerZone::getId)
-                .collect(Collectors.toList());
-            route.setAvoidedDangerZones(avoidedZones);
+            OpenRouteResult orsResult = useLocalEngine(request)
+                ? routeLocally(orsRequest, dangerZones, isEmergencyRoute(request))
+                : requestWalkingRoute(orsRequest, isEmergencyRoute(request));
             
-            return route;
+            capture.record("orsResponse", orsResult.response());
+            return orsResult;
             
         } catch (Exception e) {
             log.error("Error calculating route: {}", e.getMessage(), e);
@@ -354,26 +601,120 @@ public class RoutingService {
         }
     }
 
+    /** Converts the routing response and scores it against the danger zones along it. */
+    Route toSafeRoute(OpenRouteResult orsResult, RouteRequest request, List<String> avoidedZoneIds, String userId) {
+        // Convert response to our Route model
+        Route route = convertOpenRouteResponse(orsResult.response(), request, userId);
+        if (orsResult.degraded()) {
+            route.setWarnings(List.of(orsResult.warning()));
+        }
+        
+        // Calculate safety score based on danger zones
+        double safetyScore = scoreRoute(route);
+        route.setSafetyScore(safetyScore);
+        route.setAvoidedDangerZones(avoidedZoneIds);
+        
+        return route;
+    }
+
+    static List<String> zoneIds(List<DangerZone> zones) {
+        return zones.stream()
+            .map(DangerZone::getId)
+            .collect(Collectors.toList());
+    }
+
+    // Raster lookups once it is built; until then only the zones whose footprint the route crosses are scored
+    double scoreRoute(Route route) {
+        OptionalDouble rasterScore = riskRasterService.safetyScore(route);
+        return rasterScore.isPresent()
+            ? rasterScore.getAsDouble()
+            : safetyAnalysisService.calculateSafetyScore(route, zonesAlong(route));
+    }
+
+    private List<DangerZone> zonesAlong(Route route) {
+        GeoJsonLineString line = DangerZoneFootprints.lineString(route);
+        return line == null ? List.of() : dangerZoneRepository.findActiveIntersecting(line, LocalDateTime.now());
+    }
+
+    OpenRouteServiceClient.OpenRouteRequest buildOpenRouteRequest(RouteRequest request,
+                                                                        List<DangerZone> avoidZones,
+                                                                        String preference,
+                                                                        AlternativeRoutes alternativeRoutes) {
+        // Prepare coordinates for OpenRouteService
+        List<double[]> coordinates = new ArrayList<>();
+        coordinates.add(new double[]{request.getStartLocation().getLongitude(), 
+                                   request.getStartLocation().getLatitude()});
+        
+        if (request.getWaypoints() != null) {
+            for (RouteRequest.Location waypoint : request.getWaypoints()) {
+                coordinates.add(new double[]{waypoint.getLongitude(), waypoint.getLatitude()});
+            }
+        }
+        
+        coordinates.add(new double[]{request.getEndLocation().getLongitude(), 
+                                   request.getEndLocation().getLatitude()});
+        
+        // Unioned, simplified avoid_polygons for the zones that can affect this route
+        AvoidPolygons avoidPolygons = avoidPolygonService.build(coordinates.toArray(new double[0][]), avoidZones);
+        Options options = avoidPolygons != null ? new Options(avoidPolygons) : null;
+        
+        log.debug("Requesting {} walking route with {} coordinates and {} avoid zones", 
+                preference, coordinates.size(), avoidZones.size());
+        
+        return new OpenRouteServiceClient.OpenRouteRequest(
+            coordinates.toArray(new double[0][]),
+            preference,
+            "m", // units (meters)
+            "en",
+            "true",
+            false,
+            options,
+            alternativeRoutes
+        );
+    }
+
+    private OpenRouteResult requestWalkingRoute(OpenRouteServiceClient.OpenRouteRequest orsRequest,
+                                                boolean emergency) throws Exception {
+        // Time the external API call, including quota wait, hedging and fallback
+        return openRouteServiceResponseTime.recordCallable(() -> 
+            openRouteServiceGateway.getWalkingRoute(orsRequest, emergency)
+        );
+    }
+
+    boolean useLocalEngine(RouteRequest request) {
+        String engine = request.getEngine() != null ? request.getEngine() : defaultRoutingEngine;
+        return "local".equalsIgnoreCase(engine) && localRoutingEngine.isAvailable();
+    }
+
+    OpenRouteResult routeLocally(OpenRouteServiceClient.OpenRouteRequest orsRequest,
+                                         List<DangerZone> dangerZones, boolean emergency) throws Exception {
+        try {
+            return localRouteTime.recordCallable(() ->
+                new OpenRouteResult(localRoutingEngine.route(orsRequest.coordinates(), dangerZones), null)
+            );
+        } catch (IllegalStateException e) {
+            log.warn("Local routing failed, falling back to OpenRouteService: {}", e.getMessage());
+            localRouteFallbacks.increment();
+            return requestWalkingRoute(orsRequest, emergency);
+        }
+    }
+
     private Route convertOpenRouteResponse(OpenRouteServiceClient.OpenRouteResponse orsResponse, 
                                          RouteRequest request, String userId) {
-        log.info("Converting OpenRouteService response: routes={}, metadata={}", 
-                orsResponse.routes() != null ? orsResponse.routes().length : "null",
-                orsResponse.metadata());
-        
         if (orsResponse.routes() == null || orsResponse.routes().length == 0) {
-            log.error("No route found in OpenRouteService response. Full response: {}", orsResponse);
+            log.error("No route found in OpenRouteService response (metadata: {})", orsResponse.metadata());
             throw new RuntimeException("No route found - the distance might be too far for walking or no walking route is available");
         }
         
-        OpenRouteServiceClient.OpenRouteRoute route = orsResponse.routes()[0];
+        return convertOpenRouteRoute(orsResponse.routes()[0], request, userId);
+    }
+
+    private Route convertOpenRouteRoute(OpenRouteServiceClient.OpenRouteRoute route,
+                                        RouteRequest request, String userId) {
         OpenRouteServiceClient.OpenRouteSummary summary = route.summary();
         
-        log.info("Processing route with summary: distance={}, duration={}", 
-                summary != null ? summary.distance() : "null", 
-                summary != null ? summary.duration() : "null");
-        
         if (summary == null) {
-            log.error("Route summary is null in OpenRouteService response. Route: {}", route);
+            log.error("Route summary is null in OpenRouteService response");
             throw new RuntimeException("Invalid route response - missing summary information");
         }
         
@@ -386,27 +727,20 @@ public class RoutingService {
             .endLocation(convertLocation(request.getEndLocation()))
             .totalDistance(summary.distance())
             .estimatedDuration((int) summary.duration())
+            .encodedGeometry(route.geometry())
             .status(Route.RouteStatus.ACTIVE)
             .build();
         
-        log.info("Created route model with distance={}, duration={}", 
-                routeModel.getTotalDistance(), routeModel.getEstimatedDuration());
-        
         // Convert segments
         List<Route.RouteSegment> segments = new ArrayList<>();
         if (route.segments() != null) {
-            log.info("Processing {} segments", route.segments().length);
-            
             // Decode the geometry to get actual coordinates
-            List<double[]> routeCoordinates = decodeGeometry(route.geometry());
-            log.info("Decoded {} route coordinates", routeCoordinates.size());
+            List<double[]> routeCoordinates = PolylineCodec.decode(route.geometry());
             
             if (route.segments().length > 0) {
                 OpenRouteServiceClient.OpenRouteSegment orsSegment = route.segments()[0];
                 
                 if (orsSegment.steps() != null && orsSegment.steps().length > 0) {
-                    log.info("Processing {} steps with turn-by-turn instructions", orsSegment.steps().length);
-                    
                     // Create segments for each step with proper instructions
                     for (int i = 0; i < orsSegment.steps().length; i++) {
                         OpenRouteServiceClient.OpenRouteStep orsStep = orsSegment.steps()[i];
@@ -457,9 +791,6 @@ public class RoutingService {
                             .coordinates(stepCoordinates)
                             .build();
                         segments.add(segment);
-                        
-                        log.info("Added step {}: {} ({} coordinates)", 
-                                i, orsStep.instruction(), stepCoordinates.size());
                     }
                 } else {
                     // Fallback: create one segment with all coordinates
@@ -483,16 +814,15 @@ public class RoutingService {
                         .coordinates(allCoordinates)
                         .build();
                     segments.add(segment);
-                    
-                    log.info("Created fallback route with {} coordinates", allCoordinates.size());
                 }
             }
         } else {
             log.warn("Route has null segments");
         }
         routeModel.setSegments(segments);
+        routeModel.setBounds(DangerZoneFootprints.bounds(routeModel));
         
-        log.info("Final route model created with {} segments", segments.size());
+        log.debug("Converted route with {} segments", segments.size());
         return routeModel;
     }
 
@@ -504,7 +834,7 @@ public class RoutingService {
             .build();
     }
 
-    private RouteResponse convertToResponse(Route route) {
+    RouteResponse convertToResponse(Route route) {
         return RouteResponse.builder()
             .routeId(route.getId())
             .routeName(route.getRouteName())
@@ -517,6 +847,7 @@ public class RoutingService {
             .safetyScore(route.getSafetyScore())
             .segments(convertToResponseSegments(route.getSegments()))
             .avoidedDangerZones(route.getAvoidedDangerZones())
+            .warnings(route.getWarnings())
             .status(route.getStatus().name())
             .build();
     }
@@ -530,6 +861,9 @@ public class RoutingService {
     }
 
     private List<RouteResponse.RouteSegment> convertToResponseSegments(List<Route.RouteSegment> segments) {
+        if (segments == null) {
+            return null; // Listing projections leave segments out
+        }
         return segments.stream()
             .map(segment -> RouteResponse.RouteSegment.builder()
                 .distance(segment.getDistance())
@@ -546,13 +880,91 @@ public class RoutingService {
             .collect(Collectors.toList());
     }
 
-    public List<RouteResponse> getUserRoutes(String userId) {
-        List<Route> routes = routeRepository.findByUserIdAndStatus(userId, Route.RouteStatus.ACTIVE);
+    public List<RouteResponse> getUserRoutes(String userId, int page, int size) {
+        List<Route> routes = routeRepository.findWithoutSegmentsByUserIdAndStatus(
+            userId, Route.RouteStatus.ACTIVE, newestFirst(page, size));
         return routes.stream()
             .map(this::convertToResponse)
             .collect(Collectors.toList());
     }
 
+    public List<RouteSummaryResponse> getUserRouteSummaries(String userId, int page, int size) {
+        List<Route> routes = routeRepository.findSummariesByUserIdAndStatus(
+            userId, Route.RouteStatus.ACTIVE, newestFirst(page, size));
+        return routes.stream()
+            .map(route -> RouteSummaryResponse.builder()
+                .routeId(route.getId())
+                .routeName(route.getRouteName())
+                .createdAt(route.getCreatedAt())
+                .totalDistance(route.getTotalDistance())
+                .estimatedDuration(route.getEstimatedDuration())
+                .safetyScore(route.getSafetyScore())
+                .status(route.getStatus() != null ? route.getStatus().name() : null)
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The route's polyline, simplified for drawing when a tolerance in meters or a map
+     * zoom level is given (tolerance wins if both are), otherwise at full resolution.
+     */
+    public RouteGeometryResponse getRouteGeometry(String routeId, String userId, Double toleranceMeters, Integer zoom) {
+        Route route = routeRepository.findGeometryById(routeId)
+            .orElseThrow(() -> new RuntimeException("Route not found"));
+        
+        if (!route.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+        
+        String encoded = route.getEncodedGeometry();
+        if (encoded == null) {
+            // Routes stored before the polyline was persisted: rebuild it from the segments
+            encoded = encodeSegments(routeRepository.findById(routeId)
+                .map(Route::getSegments)
+                .orElse(List.of()));
+        }
+        
+        int originalPointCount = PolylineCodec.countPoints(encoded);
+        RouteGeometryService.Simplified simplified = toleranceMeters != null
+            ? routeGeometryService.forTolerance(routeId, encoded, toleranceMeters)
+            : zoom != null
+                ? routeGeometryService.forZoom(routeId, encoded, zoom)
+                : new RouteGeometryService.Simplified(encoded, originalPointCount, 0);
+        
+        return RouteGeometryResponse.builder()
+            .routeId(routeId)
+            .encodedPolyline(simplified.encodedPolyline())
+            .precision(5)
+            .pointCount(simplified.pointCount())
+            .originalPointCount(originalPointCount)
+            .toleranceMeters(simplified.toleranceMeters())
+            .build();
+    }
+
+    private String encodeSegments(List<Route.RouteSegment> segments) {
+        List<double[]> points = new ArrayList<>();
+        for (Route.RouteSegment segment : segments) {
+            if (segment.getCoordinates() == null) {
+                continue;
+            }
+            for (Route.Location location : segment.getCoordinates()) {
+                double[] last = points.isEmpty() ? null : points.get(points.size() - 1);
+                // Consecutive steps share their boundary vertex
+                if (last == null || last[0] != location.getLatitude() || last[1] != location.getLongitude()) {
+                    points.add(new double[]{location.getLatitude(), location.getLongitude()});
+                }
+            }
+        }
+        return PolylineCodec.encode(points);
+    }
+
+    private PageRequest newestFirst(int page, int size) {
+        return PageRequest.of(
+            Math.max(page, 0),
+            Math.min(Math.max(size, 1), MAX_ROUTES_PAGE_SIZE),
+            Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
     public RouteResponse getRoute(String routeId, String userId) {
         Route route = routeRepository.findById(routeId)
             .orElseThrow(() -> new RuntimeException("Route not found"));
@@ -576,59 +988,13 @@ public class RoutingService {
         routeRepository.save(route);
     }
 
-    private List<double[]> decodeGeometry(String encoded) {
-        List<double[]> poly = new ArrayList<>();
-        int index = 0, len = encoded.length();
-        int lat = 0, lng = 0;
-
-        while (index < len) {
-            int b, shift = 0, result = 0;
-            do {
-                b = encoded.charAt(index++) - 63;
-                result |= (b & 0x1f) << shift;
-                shift += 5;
-            } while (b >= 0x20);
-            int dlat = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
-            lat += dlat;
-
-            shift = 0;
-            result = 0;
-            do {
-                b = encoded.charAt(index++) - 63;
-                result |= (b & 0x1f) << shift;
-                shift += 5;
-            } while (b >= 0x20);
-            int dlng = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
-            lng += dlng;
-
-            double latitude = lat / 1E5;
-            double longitude = lng / 1E5;
-            poly.add(new double[]{latitude, longitude});
-        }
-        return poly;
-    }
-
-    // Helper to create a circle polygon (GeoJSON ring) around a point
-    private double[][] createCirclePolygon(double lon, double lat, double radiusMeters, int numPoints) {
-        double[][] coords = new double[numPoints + 1][2];
-        double earthRadius = 6371000.0;
-        double d = radiusMeters / earthRadius;
-        double latRad = Math.toRadians(lat);
-        double lonRad = Math.toRadians(lon);
-        
-        for (int i = 0; i <= numPoints; i++) {
-            double angle = 2 * Math.PI * i / numPoints;
-            double lat2 = Math.asin(Math.sin(latRad) * Math.cos(d) + Math.cos(latRad) * Math.sin(d) * Math.cos(angle));
-            double lon2 = lonRad + Math.atan2(Math.sin(angle) * Math.sin(d) * Math.cos(latRad), Math.cos(d) - Math.sin(latRad) * Math.sin(lat2));
-            coords[i][0] = Math.toDegrees(lon2); // longitude
-            coords[i][1] = Math.toDegrees(lat2); // latitude
-        }
-        
-        // Ensure the polygon is closed (first and last point are identical)
-        coords[numPoints][0] = coords[0][0];
-        coords[numPoints][1] = coords[0][1];
-        
-        return coords;
+    public long expireStaleRoutes() {
+        long expired = routeRepository.expireActiveRoutes(LocalDateTime.now());
+        if (expired > 0) {
+            totalActiveRoutes.set(Math.max(0, totalActiveRoutes.get() - (int) expired));
+            log.info("Marked {} routes as expired", expired);
+        }
+        return expired;
     }
 
     // Business intelligence calculation methods
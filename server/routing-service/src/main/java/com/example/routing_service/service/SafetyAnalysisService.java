@@ -2,6 +2,7 @@ package com.example.routing_service.service;
 
 import com.example.routing_service.model.DangerZone;
 import com.example.routing_service.model.Route;
+import com.example.routing_service.util.DangerZoneFootprints;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -12,7 +13,6 @@ import java.util.List;
 public class SafetyAnalysisService {
 
     private static final double EARTH_RADIUS = 6371000; // Earth's radius in meters
-    private static final double DANGER_ZONE_RADIUS = 100; // Consider danger zones within 100m of route
 
     public double calculateSafetyScore(Route route, List<DangerZone> nearbyDangerZones) {
         if (nearbyDangerZones.isEmpty()) {
@@ -33,7 +33,7 @@ public class SafetyAnalysisService {
         double averageRisk = dangerZoneCount > 0 ? totalRisk / dangerZoneCount : 0.0;
         double safetyScore = Math.max(0.0, 1.0 - averageRisk);
 
-        log.info("Calculated safety score: {} for route with {} danger zones", safetyScore, nearbyDangerZones.size());
+        log.debug("Calculated safety score: {} for route with {} danger zones", safetyScore, nearbyDangerZones.size());
         return safetyScore;
     }
 
@@ -43,7 +43,7 @@ public class SafetyAnalysisService {
         for (DangerZone dangerZone : dangerZones) {
             double distance = calculateDistanceToSegment(segment, dangerZone);
             
-            if (distance <= DANGER_ZONE_RADIUS) {
+            if (distance <= influenceRadius(dangerZone)) {
                 double riskFactor = calculateRiskFactor(dangerZone, distance);
                 segmentRisk += riskFactor;
             }
@@ -70,7 +70,12 @@ public class SafetyAnalysisService {
         return minDistance;
     }
 
-    private double calculateRiskFactor(DangerZone dangerZone, double distance) {
+    /** Distance in meters beyond which a zone no longer adds risk. */
+    public double influenceRadius(DangerZone dangerZone) {
+        return DangerZoneFootprints.influenceRadius(dangerZone);
+    }
+
+    public double calculateRiskFactor(DangerZone dangerZone, double distance) {
         // Base risk based on danger level
         double baseRisk = switch (dangerZone.getDangerLevel()) {
             case LOW -> 0.1;
@@ -80,7 +85,7 @@ public class SafetyAnalysisService {
         };
 
         // Distance factor (closer = higher risk)
-        double distanceFactor = 1.0 - (distance / DANGER_ZONE_RADIUS);
+        double distanceFactor = 1.0 - (distance / influenceRadius(dangerZone));
         distanceFactor = Math.max(0.0, distanceFactor);
 
         // Report count factor (more reports = higher risk)
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 public class ScheduledTasksService {
 
     private final DangerZoneService dangerZoneService;
+    private final RoutingService routingService;
 
     @Scheduled(cron = "0 0 2 * * ?") // Run at 2 AM every day
     public void cleanupExpiredDangerZones() {
@@ -22,4 +23,13 @@ public class ScheduledTasksService {
             log.error("Error during scheduled cleanup: {}", e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+
+    @Scheduled(fixedDelayString = "${routing.routes.expiry-sweep-interval-ms:300000}")
+    public void expireStaleRoutes() {
+        try {
+            routingService.expireStaleRoutes();
+        } catch (Exception e) {
+            log.error("Error during route expiry sweep: {}", e.getMessage(), e);
+        }
+    }
+}
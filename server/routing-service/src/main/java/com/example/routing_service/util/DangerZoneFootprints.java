@@ -0,0 +1,205 @@
+package com.example.routing_service.util;
+
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.util.AffineTransformation;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shape of a danger zone: a circle of {@link DangerZone#getRadiusMeters()} around its
+ * location, or the reported {@link DangerZone#getArea()} outline. The footprint is that
+ * shape grown by the distance at which a zone still adds risk to a passing route; it is
+ * stored with the zone so MongoDB can find the zones a route crosses.
+ */
+public final class DangerZoneFootprints {
+
+    public static final double DEFAULT_RADIUS_METERS = 50;
+    public static final double MIN_RADIUS_METERS = 5;
+    public static final double MAX_RADIUS_METERS = 1000;
+    // Zones add risk to routes passing within this distance of their edge
+    public static final double INFLUENCE_MARGIN_METERS = 50;
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+    private static final int FOOTPRINT_SEGMENTS = 32;
+    // Also covers the box edges bowing as geodesics between their corners
+    private static final double BOUNDS_PADDING_METERS = 10;
+
+    private DangerZoneFootprints() {
+    }
+
+    /** A reported outline: its centroid, and the radius of the circle about it that covers the outline. */
+    public record Outline(GeoJsonPolygon area, double latitude, double longitude, double radiusMeters) {
+    }
+
+    public static double radiusMeters(DangerZone zone) {
+        return zone.getRadiusMeters() != null ? zone.getRadiusMeters() : DEFAULT_RADIUS_METERS;
+    }
+
+    /** Distance from the zone's location beyond which it no longer adds risk. */
+    public static double influenceRadius(DangerZone zone) {
+        return radiusMeters(zone) + INFLUENCE_MARGIN_METERS;
+    }
+
+    public static double clampRadius(double radiusMeters) {
+        return Math.max(MIN_RADIUS_METERS, Math.min(MAX_RADIUS_METERS, radiusMeters));
+    }
+
+    /**
+     * Checks a reported outline of [lng, lat] points, closed or not.
+     *
+     * @throws IllegalArgumentException if it is not a simple polygon or exceeds the maximum radius
+     */
+    public static Outline outline(List<double[]> lngLat) {
+        List<Coordinate> ring = new ArrayList<>(lngLat.size() + 1);
+        for (double[] point : lngLat) {
+            ring.add(new Coordinate(point[0], point[1]));
+        }
+        if (ring.size() > 1 && ring.get(0).equals2D(ring.get(ring.size() - 1))) {
+            ring.remove(ring.size() - 1);
+        }
+        if (ring.size() < 3) {
+            throw new IllegalArgumentException("Area needs at least 3 distinct points");
+        }
+        ring.add(ring.get(0).copy());
+        Polygon polygon = GEOMETRY.createPolygon(ring.toArray(new Coordinate[0]));
+        if (!polygon.isValid() || polygon.getArea() == 0) {
+            throw new IllegalArgumentException("Area must be a simple polygon that does not cross itself");
+        }
+
+        Coordinate centroid = polygon.getCentroid().getCoordinate();
+        double radius = 0;
+        for (Coordinate vertex : polygon.getCoordinates()) {
+            radius = Math.max(radius, GeoMath.distanceMeters(centroid.y, centroid.x, vertex.y, vertex.x));
+        }
+        if (radius > MAX_RADIUS_METERS) {
+            throw new IllegalArgumentException("Area must fit within " + (int) MAX_RADIUS_METERS + "m of its centre");
+        }
+        return new Outline(toGeoJson(polygon), centroid.y, centroid.x, Math.max(MIN_RADIUS_METERS, radius));
+    }
+
+    /** Where the zone adds risk: its outline or circle, grown by the influence margin. */
+    public static GeoJsonPolygon footprint(DangerZone zone) {
+        if (zone.getArea() != null) {
+            return toGeoJson(grow(toJts(zone.getArea()), INFLUENCE_MARGIN_METERS));
+        }
+        return toGeoJson(circle(zone.getLocation().getX(), zone.getLocation().getY(),
+            influenceRadius(zone), FOOTPRINT_SEGMENTS));
+    }
+
+    /** What a route should avoid: the outline, or the circle of the zone's radius. */
+    public static Polygon shape(DangerZone zone, int circleSegments) {
+        if (zone.getArea() != null) {
+            return toJts(zone.getArea());
+        }
+        return circle(zone.getLocation().getX(), zone.getLocation().getY(), radiusMeters(zone), circleSegments);
+    }
+
+    public static Polygon circle(double lon, double lat, double radiusMeters, int segments) {
+        Coordinate[] ring = new Coordinate[segments + 1];
+        double d = radiusMeters / GeoMath.EARTH_RADIUS;
+        double latRad = Math.toRadians(lat);
+        double lonRad = Math.toRadians(lon);
+        for (int i = 0; i < segments; i++) {
+            double angle = 2 * Math.PI * i / segments;
+            double lat2 = Math.asin(Math.sin(latRad) * Math.cos(d) + Math.cos(latRad) * Math.sin(d) * Math.cos(angle));
+            double lon2 = lonRad + Math.atan2(Math.sin(angle) * Math.sin(d) * Math.cos(latRad), Math.cos(d) - Math.sin(latRad) * Math.sin(lat2));
+            ring[i] = new Coordinate(Math.toDegrees(lon2), Math.toDegrees(lat2));
+        }
+        ring[segments] = ring[0].copy();
+        return GEOMETRY.createPolygon(ring);
+    }
+
+    /** The route as one line, or null if it has fewer than two distinct points. */
+    public static GeoJsonLineString lineString(Route route) {
+        List<Point> points = new ArrayList<>();
+        if (route.getSegments() != null) {
+            for (Route.RouteSegment segment : route.getSegments()) {
+                if (segment.getCoordinates() == null) {
+                    continue;
+                }
+                for (Route.Location location : segment.getCoordinates()) {
+                    Point point = new Point(location.getLongitude(), location.getLatitude());
+                    // Segments share their end points; MongoDB rejects repeated vertices
+                    if (points.isEmpty() || !points.get(points.size() - 1).equals(point)) {
+                        points.add(point);
+                    }
+                }
+            }
+        }
+        return points.size() < 2 ? null : new GeoJsonLineString(points);
+    }
+
+    /**
+     * Bounding box of the route, padded slightly so straight north-south or east-west
+     * routes still have an area. Null if the route has no coordinates.
+     */
+    public static GeoJsonPolygon bounds(Route route) {
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        if (route.getSegments() != null) {
+            for (Route.RouteSegment segment : route.getSegments()) {
+                if (segment.getCoordinates() == null) {
+                    continue;
+                }
+                for (Route.Location location : segment.getCoordinates()) {
+                    minLat = Math.min(minLat, location.getLatitude());
+                    maxLat = Math.max(maxLat, location.getLatitude());
+                    minLng = Math.min(minLng, location.getLongitude());
+                    maxLng = Math.max(maxLng, location.getLongitude());
+                }
+            }
+        }
+        if (minLat > maxLat) {
+            return null;
+        }
+        double padLat = BOUNDS_PADDING_METERS / GeoMath.METERS_PER_DEGREE_LAT;
+        double padLng = padLat / Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        minLat -= padLat;
+        maxLat += padLat;
+        minLng -= padLng;
+        maxLng += padLng;
+        return new GeoJsonPolygon(List.of(new Point(minLng, minLat), new Point(maxLng, minLat),
+            new Point(maxLng, maxLat), new Point(minLng, maxLat), new Point(minLng, minLat)));
+    }
+
+    /**
+     * Buffers in a local equirectangular projection, so the margin is in meters in
+     * every direction rather than in degrees.
+     */
+    private static Polygon grow(Polygon polygon, double meters) {
+        Coordinate centre = polygon.getCentroid().getCoordinate();
+        double lonScale = Math.cos(Math.toRadians(centre.y));
+        AffineTransformation toLocal = AffineTransformation.scaleInstance(lonScale, 1.0);
+        Geometry local = toLocal.transform(polygon);
+        Geometry grown = local.buffer(meters / GeoMath.METERS_PER_DEGREE_LAT, 8);
+        Geometry back = AffineTransformation.scaleInstance(1.0 / lonScale, 1.0).transform(grown);
+        return GEOMETRY.createPolygon(((Polygon) back).getExteriorRing().getCoordinates());
+    }
+
+    private static Polygon toJts(GeoJsonPolygon polygon) {
+        List<Point> points = polygon.getCoordinates().get(0).getCoordinates();
+        Coordinate[] ring = new Coordinate[points.size()];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Coordinate(points.get(i).getX(), points.get(i).getY());
+        }
+        return GEOMETRY.createPolygon(ring);
+    }
+
+    private static GeoJsonPolygon toGeoJson(Polygon polygon) {
+        Coordinate[] ring = polygon.getExteriorRing().getCoordinates();
+        List<Point> points = new ArrayList<>(ring.length);
+        for (Coordinate coordinate : ring) {
+            points.add(new Point(coordinate.x, coordinate.y));
+        }
+        return new GeoJsonPolygon(points);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.routing_service.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Merge keys for crowd-sourced danger zone reports: a ~50m grid cell plus the
+ * normalized zone name. Reports landing in the same or an adjacent cell with the
+ * same name are merged into one zone.
+ */
+public final class DangerZoneMergeKeys {
+
+    static final double CELL_DEGREES = 0.0005;
+
+    private DangerZoneMergeKeys() {
+    }
+
+    public static String of(double latitude, double longitude, String name) {
+        return key(row(latitude), col(longitude), normalizeName(name));
+    }
+
+    /** Key of the report's own cell first, followed by its eight neighbours. */
+    public static List<String> neighbourhood(double latitude, double longitude, String name) {
+        String normalized = normalizeName(name);
+        int row = row(latitude);
+        int col = col(longitude);
+        List<String> keys = new ArrayList<>(9);
+        keys.add(key(row, col, normalized));
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (r != row || c != col) {
+                    keys.add(key(r, c, normalized));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /** Lower case, accents stripped, punctuation and runs of whitespace collapsed. */
+    static String normalizeName(String name) {
+        String decomposed = Normalizer.normalize(name == null ? "" : name, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("[^\\p{L}\\p{N}]+", " ")
+            .trim();
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int col(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static String key(int row, int col, String normalizedName) {
+        return row + ":" + col + ":" + normalizedName;
+    }
+}
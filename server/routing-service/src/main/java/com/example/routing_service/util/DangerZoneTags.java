@@ -0,0 +1,65 @@
+package com.example.routing_service.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Canonical danger zone tags: lower case ASCII letters, digits and underscores,
+ * e.g. "Poor Lighting" and "poor-lighting" both become "poor_lighting". Tags are
+ * stored this way so lookups are exact or prefix matches on the tags index.
+ */
+public final class DangerZoneTags {
+
+    private DangerZoneTags() {
+    }
+
+    /** Canonical form of one tag; empty if nothing usable is left. */
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(tag, Normalizer.Form.NFKD);
+        String canonical = decomposed.replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9]+", "_");
+        int start = 0;
+        int end = canonical.length();
+        while (start < end && canonical.charAt(start) == '_') {
+            start++;
+        }
+        while (end > start && canonical.charAt(end - 1) == '_') {
+            end--;
+        }
+        return canonical.substring(start, end);
+    }
+
+    /** Canonical, de-duplicated tags in their original order. */
+    public static List<String> normalize(List<String> tags) {
+        if (tags == null) {
+            return new ArrayList<>();
+        }
+        Set<String> canonical = new LinkedHashSet<>();
+        for (String tag : tags) {
+            String normalized = normalize(tag);
+            if (!normalized.isEmpty()) {
+                canonical.add(normalized);
+            }
+        }
+        return new ArrayList<>(canonical);
+    }
+
+    /** True if the list is already in canonical form. */
+    public static boolean isNormalized(List<String> tags) {
+        return tags == null || normalize(tags).equals(tags);
+    }
+
+    /** Smallest string greater than every string starting with {@code prefix}. */
+    public static String prefixUpperBound(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.routing_service.util;
+
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS = 6371000; // Earth's radius in meters
+    public static final double METERS_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS / 180;
+
+    private GeoMath() {
+    }
+
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lngDistance = Math.toRadians(lng2 - lng1);
+        
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lngDistance / 2) * Math.sin(lngDistance / 2);
+        
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        
+        return EARTH_RADIUS * c;
+    }
+
+    /**
+     * Equirectangular approximation, accurate to well under 1% at city scale and
+     * much cheaper than haversine for hot loops.
+     */
+    public static double fastDistanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double x = Math.toRadians(lng2 - lng1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS * Math.sqrt(x * x + y * y);
+    }
+}
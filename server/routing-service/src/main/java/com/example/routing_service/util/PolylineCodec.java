@@ -0,0 +1,128 @@
+package com.example.routing_service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoded polyline format (precision 5) as used by OpenRouteService and Google Maps.
+ * Coordinates are handled as {latitude, longitude} pairs.
+ */
+public final class PolylineCodec {
+
+    private static final double PRECISION = 1E5;
+
+    private PolylineCodec() {
+    }
+
+    public static List<double[]> decode(String encoded) {
+        List<double[]> poly = new ArrayList<>();
+        int index = 0, len = encoded.length();
+        int lat = 0, lng = 0;
+
+        while (index < len) {
+            int b, shift = 0, result = 0;
+            do {
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            int dlat = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+            lat += dlat;
+
+            shift = 0;
+            result = 0;
+            do {
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            int dlng = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+            lng += dlng;
+
+            poly.add(new double[]{lat / PRECISION, lng / PRECISION});
+        }
+        return poly;
+    }
+
+    /**
+     * Decodes into parallel arrays of at least {@link #countPoints} entries, without
+     * allocating per point. Returns the number of points decoded.
+     */
+    public static int decode(String encoded, double[] lats, double[] lngs) {
+        int index = 0, len = encoded.length();
+        int lat = 0, lng = 0;
+        int count = 0;
+
+        while (index < len) {
+            int b, shift = 0, result = 0;
+            do {
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lat += ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+
+            shift = 0;
+            result = 0;
+            do {
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lng += ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
+
+            lats[count] = lat / PRECISION;
+            lngs[count] = lng / PRECISION;
+            count++;
+        }
+        return count;
+    }
+
+    public static String encode(List<double[]> latLngs) {
+        StringBuilder encoded = new StringBuilder(latLngs.size() * 8);
+        long prevLat = 0, prevLng = 0;
+        for (double[] point : latLngs) {
+            long lat = Math.round(point[0] * PRECISION);
+            long lng = Math.round(point[1] * PRECISION);
+            encodeValue(lat - prevLat, encoded);
+            encodeValue(lng - prevLng, encoded);
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    public static String encode(double[] lats, double[] lngs, int count) {
+        StringBuilder encoded = new StringBuilder(count * 8);
+        long prevLat = 0, prevLng = 0;
+        for (int i = 0; i < count; i++) {
+            long lat = Math.round(lats[i] * PRECISION);
+            long lng = Math.round(lngs[i] * PRECISION);
+            encodeValue(lat - prevLat, encoded);
+            encodeValue(lng - prevLng, encoded);
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    public static int countPoints(String encoded) {
+        int values = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            // Chunks without the continuation bit end a value; every point has two values
+            if (encoded.charAt(i) - 63 < 0x20) {
+                values++;
+            }
+        }
+        return values / 2;
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long v = value < 0 ? ~(value << 1) : (value << 1);
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.routing_service.util;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification over parallel latitude/longitude arrays, with an
+ * explicit stack instead of recursion and no per-point objects. Distances are measured
+ * in a local equirectangular projection, which is accurate enough over the few
+ * kilometres of a walking route.
+ */
+public final class PolylineSimplifier {
+
+    // Ground size of one pixel of a 256px Web Mercator tile at zoom 0, at the equator
+    private static final double METERS_PER_PIXEL_AT_ZOOM_0 = 2 * Math.PI * GeoMath.EARTH_RADIUS / 256;
+
+    private PolylineSimplifier() {
+    }
+
+    public static double metersPerPixel(int zoom, double latitude) {
+        return METERS_PER_PIXEL_AT_ZOOM_0 * Math.cos(Math.toRadians(latitude)) / Math.pow(2, zoom);
+    }
+
+    /**
+     * Drops the points whose removal moves the line by at most {@code toleranceMeters},
+     * compacting the arrays in place. Returns the number of points kept; the first and
+     * last point are always kept.
+     */
+    public static int simplify(double[] lats, double[] lngs, int count, double toleranceMeters) {
+        if (count < 3 || toleranceMeters <= 0) {
+            return count;
+        }
+        double latScale = GeoMath.METERS_PER_DEGREE_LAT;
+        double lngScale = GeoMath.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(lats[0]));
+        double toleranceSquared = toleranceMeters * toleranceMeters;
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double ax = lngs[first] * lngScale;
+            double ay = lats[first] * latScale;
+            double dx = lngs[last] * lngScale - ax;
+            double dy = lats[last] * latScale - ay;
+            double lengthSquared = dx * dx + dy * dy;
+
+            int farthest = -1;
+            double farthestSquared = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double px = lngs[i] * lngScale - ax;
+                double py = lats[i] * latScale - ay;
+                // Distance to the segment, not the infinite line, so loops and backtracks are kept
+                double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+                double ex = px - t * dx;
+                double ey = py - t * dy;
+                double distanceSquared = ex * ex + ey * ey;
+                if (distanceSquared > farthestSquared) {
+                    farthestSquared = distanceSquared;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0) {
+                continue;
+            }
+            keep[farthest] = true;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (farthest - first > 1) {
+                stack[top++] = first;
+                stack[top++] = farthest;
+            }
+            if (last - farthest > 1) {
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                lats[kept] = lats[i];
+                lngs[kept] = lngs[i];
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.routing_service.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Sparse grid of combined danger zone risk, in ~10m cells grouped into 64x64
+ * tiles of {@code float[]}. Only tiles within reach of a zone are allocated;
+ * everything else reads as zero risk.
+ *
+ * Writers must be serialized by the caller. Readers need no locking: a lookup
+ * during an update sees either the old or the new value of a cell.
+ */
+public final class RiskRaster {
+
+    static final double CELL_DEGREES = 0.0001;
+    private static final int TILE_BITS = 6;
+    private static final int TILE_MASK = (1 << TILE_BITS) - 1;
+    private static final int TILE_CELLS = 1 << (2 * TILE_BITS);
+    // Adding and later subtracting the same zone can leave float noise behind
+    private static final float ZERO_EPSILON = 1e-5f;
+
+    private final Map<Long, float[]> tiles = new ConcurrentHashMap<>();
+
+    public float riskAt(double latitude, double longitude) {
+        int row = cell(latitude);
+        int col = cell(longitude);
+        float[] tile = tiles.get(tileKey(row, col));
+        return tile == null ? 0f : tile[offset(row, col)];
+    }
+
+    /**
+     * Adds ({@code sign} 1) or removes ({@code sign} -1) the risk of a zone to every
+     * cell that comes within {@code radiusMeters} of it. A cell gets the risk at its
+     * point closest to the zone, so lookups never understate a zone's risk.
+     */
+    public void apply(double latitude, double longitude, double radiusMeters,
+                      DoubleUnaryOperator riskAtDistance, int sign) {
+        double latSpan = radiusMeters / GeoMath.METERS_PER_DEGREE_LAT;
+        double lonSpan = latSpan / Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        for (int row = cell(latitude - latSpan); row <= cell(latitude + latSpan); row++) {
+            double nearestLat = clamp(latitude, row * CELL_DEGREES, (row + 1) * CELL_DEGREES);
+            for (int col = cell(longitude - lonSpan); col <= cell(longitude + lonSpan); col++) {
+                double nearestLon = clamp(longitude, col * CELL_DEGREES, (col + 1) * CELL_DEGREES);
+                double distance = GeoMath.fastDistanceMeters(latitude, longitude, nearestLat, nearestLon);
+                if (distance >= radiusMeters) {
+                    continue;
+                }
+                float risk = (float) riskAtDistance.applyAsDouble(distance);
+                if (risk <= 0) {
+                    continue;
+                }
+                float[] tile = tiles.computeIfAbsent(tileKey(row, col), key -> new float[TILE_CELLS]);
+                int offset = offset(row, col);
+                float value = tile[offset] + sign * risk;
+                tile[offset] = value < ZERO_EPSILON ? 0f : value;
+            }
+        }
+    }
+
+    public int tileCount() {
+        return tiles.size();
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long tileKey(int row, int col) {
+        return ((long) (row >> TILE_BITS) << 32) | ((col >> TILE_BITS) & 0xFFFFFFFFL);
+    }
+
+    private static int offset(int row, int col) {
+        return ((row & TILE_MASK) << TILE_BITS) | (col & TILE_MASK);
+    }
+}
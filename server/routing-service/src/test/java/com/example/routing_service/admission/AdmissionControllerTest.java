@@ -0,0 +1,102 @@
+package com.example.routing_service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionController admission;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admission = new AdmissionController(List.of(
+            new AdmissionController.Lane("emergency", 1, 5, 2_000),
+            new AdmissionController.Lane("planning", 2, 1, 50)), "routing", meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shedsLowPriorityLaneOnceItsPermitsAndQueueAreUsed() throws Exception {
+        AdmissionController.Permit first = admission.admit("planning");
+        AdmissionController.Permit second = admission.admit("planning");
+        assertNotNull(first);
+        assertNotNull(second);
+
+        long start = System.nanoTime();
+        assertNull(admission.admit("planning"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000, "shed quickly, not after a long wait");
+        assertEquals(1.0, shed("planning", "timeout"));
+
+        first.close();
+        first.close();
+        assertNotNull(admission.admit("planning"), "a released permit is reused, and only released once");
+        assertNull(admission.admit("planning"));
+    }
+
+    @Test
+    void emergencyBorrowsIdlePermitsOfLowerLanes() throws Exception {
+        AdmissionController.Permit own = admission.admit("emergency");
+        AdmissionController.Permit borrowed = admission.admit("emergency");
+        assertNotNull(own);
+        assertNotNull(borrowed);
+        assertEquals(2, admission.inFlight("emergency"));
+
+        assertNotNull(admission.admit("planning"));
+        assertNull(admission.admit("planning"), "one planning permit is lent to an emergency");
+
+        borrowed.close();
+        assertNotNull(admission.admit("planning"));
+    }
+
+    @Test
+    void lowerLanesAreShedWhileAnEmergencyWaits() throws Exception {
+        AdmissionController.Permit own = admission.admit("emergency");
+        AdmissionController.Permit planning1 = admission.admit("planning");
+        AdmissionController.Permit planning2 = admission.admit("planning");
+
+        CompletableFuture<AdmissionController.Permit> waitingEmergency = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admission.admit("emergency");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        while (admission.waiting("emergency") == 0) {
+            Thread.onSpinWait();
+        }
+
+        planning1.close();
+        assertNull(admission.admit("planning"), "the freed permit is left for the waiting emergency");
+        assertEquals(1.0, shed("planning", "priority"));
+
+        assertNotNull(waitingEmergency.get(1, TimeUnit.SECONDS));
+        own.close();
+        planning2.close();
+    }
+
+    private double shed(String lane, String reason) {
+        return meterRegistry.get("gethome_admission_shed_total")
+            .tag("traffic_class", lane)
+            .tag("reason", reason)
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.routing_service.client;
+
+import com.example.routing_service.config.ReactiveOpenRouteServiceConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenRouteServiceGatewayTest {
+
+    private StubOpenRouteServer stub;
+    private HttpStubClient client;
+    private OpenRouteServiceGateway gateway;
+
+    private final OpenRouteServiceClient.OpenRouteRequest request = new OpenRouteServiceClient.OpenRouteRequest(
+        new double[][]{{11.5755, 48.1374}, {11.5820, 48.1420}},
+        "recommended", "m", "en", "true", false, null, null);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubOpenRouteServer(0);
+        client = new HttpStubClient(stub.baseUrl());
+        // Warm up the HTTP stack so first-call latency does not trigger a hedge
+        client.getWalkingRoute(request);
+        stub.resetRequestCount();
+        gateway = gateway(client, new OrsQuotaGovernor(null, new SimpleMeterRegistry(), Clock.systemUTC(), false,
+            0, 0, 1, 0, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 0));
+    }
+
+    private OpenRouteServiceGateway gateway(OpenRouteServiceClient client, OrsQuotaGovernor quotaGovernor) {
+        return new OpenRouteServiceGateway(
+            client,
+            ReactiveOpenRouteServiceConfig.create(WebClient.create(stub.baseUrl())),
+            quotaGovernor,
+            new SimpleMeterRegistry(),
+            2000, // call timeout
+            1000, // connect timeout
+            4,    // concurrent calls
+            2,    // concurrent emergency calls
+            true,
+            100,  // minimum hedge delay
+            2,    // hedges in flight
+            50,
+            60000,
+            10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.shutdown();
+        stub.close();
+    }
+
+    @Test
+    void getWalkingRoute_HealthyService_ReturnsLiveRoute() {
+        OpenRouteServiceGateway.OpenRouteResult result = gateway.getWalkingRoute(request);
+
+        assertFalse(result.degraded());
+        assertEquals(1, result.response().routes().length);
+        assertEquals(1, stub.requestCount());
+    }
+
+    @Test
+    void getWalkingRoute_SlowPrimary_HedgedRequestWins() {
+        stub.slowRequests(1, 1500);
+
+        long start = System.nanoTime();
+        OpenRouteServiceGateway.OpenRouteResult result = gateway.getWalkingRoute(request);
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertFalse(result.degraded());
+        assertTrue(elapsedMs < 1000, "hedged request should answer before the slow primary, took " + elapsedMs + "ms");
+        assertEquals(2, stub.requestCount());
+    }
+
+    @Test
+    void getWalkingRoute_SlowPrimary_LosingCallIsInterrupted() throws Exception {
+        stub.slowRequests(1, 1500);
+
+        long start = System.nanoTime();
+        gateway.getWalkingRoute(request);
+        while (client.interruptedCalls() == 0 && System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1200)) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, client.interruptedCalls(), "the slow primary should be interrupted once the hedge wins");
+    }
+
+    @Test
+    void getWalkingRoute_CallTimeoutsEndAtTheDeadline() {
+        gateway.getWalkingRoute(request);
+
+        Request.Options options = client.lastOptions();
+        assertNotNull(options);
+        assertTrue(options.readTimeoutMillis() > 0 && options.readTimeoutMillis() <= 2000,
+            "read timeout should be what is left of the call timeout, was " + options.readTimeoutMillis());
+        assertTrue(options.connectTimeoutMillis() <= 1000);
+    }
+
+    @Test
+    void getWalkingRoute_StandardCallsFillTheBulkhead_EmergencyStillCallsService() throws Exception {
+        gateway.shutdown();
+        gateway = new OpenRouteServiceGateway(
+            client,
+            ReactiveOpenRouteServiceConfig.create(WebClient.create(stub.baseUrl())),
+            new OrsQuotaGovernor(null, new SimpleMeterRegistry(), Clock.systemUTC(), false,
+                0, 0, 1, 0, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 0),
+            new SimpleMeterRegistry(),
+            2000, 1000,
+            1,     // concurrent calls
+            1,     // concurrent emergency calls
+            false, // no hedging, the slow call keeps its permit
+            100, 2, 50, 60000, 10);
+        stub.slowRequests(1, 1000);
+
+        CompletableFuture<OpenRouteServiceGateway.OpenRouteResult> standard =
+            CompletableFuture.supplyAsync(() -> gateway.getWalkingRoute(request));
+        while (stub.requestCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(gateway.getWalkingRoute(request).degraded(), "the standard bulkhead should be full");
+        assertFalse(gateway.getWalkingRoute(request, true).degraded());
+        assertFalse(standard.get(5, TimeUnit.SECONDS).degraded());
+    }
+
+    @Test
+    void getWalkingRoute_ServerError_FallsBackToStraightLine() {
+        stub.status(503);
+
+        OpenRouteServiceGateway.OpenRouteResult result = gateway.getWalkingRoute(request);
+
+        assertTrue(result.degraded());
+        assertEquals(OpenRouteServiceGateway.STRAIGHT_LINE_WARNING, result.warning());
+        assertTrue(result.response().routes()[0].summary().distance() > 0);
+    }
+
+    @Test
+    void getWalkingRoute_ServerError_PrefersLastKnownRoute() {
+        gateway.getWalkingRoute(request);
+        stub.status(503);
+
+        OpenRouteServiceGateway.OpenRouteResult result = gateway.getWalkingRoute(request);
+
+        assertTrue(result.degraded());
+        assertEquals(OpenRouteServiceGateway.CACHED_ROUTE_WARNING, result.warning());
+    }
+
+    @Test
+    void getWalkingRoute_Timeout_FallsBack() {
+        stub.latencyMs(3000);
+
+        OpenRouteServiceGateway.OpenRouteResult result = gateway.getWalkingRoute(request);
+
+        assertTrue(result.degraded());
+    }
+
+    @Test
+    void getWalkingRoute_RepeatedFailures_OpenCircuitStopsCallingService() {
+        stub.status(503);
+        for (int i = 0; i < 10; i++) {
+            gateway.getWalkingRoute(request);
+        }
+        int callsBeforeOpen = stub.requestCount();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(gateway.getWalkingRoute(request).degraded());
+        }
+
+        assertEquals(callsBeforeOpen, stub.requestCount());
+    }
+
+    @Test
+    void getWalkingRoute_OpenCircuit_ConsumesNoQuota() {
+        SimpleMeterRegistry quotaMetrics = new SimpleMeterRegistry();
+        gateway.shutdown();
+        gateway = gateway(new HttpStubClient(stub.baseUrl()), new OrsQuotaGovernor(
+            new OrsQuotaGovernorTest.InMemoryQuota().repository, quotaMetrics,
+            new OrsQuotaGovernorTest.MutableClock(Instant.parse("2026-03-14T21:30:05Z")), true,
+            100, 1000, 1, 0.2, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 5000));
+        stub.status(503);
+        for (int i = 0; i < 10; i++) {
+            gateway.getWalkingRoute(request);
+        }
+        double consumedBeforeOpen = consumedTokens(quotaMetrics);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(gateway.getWalkingRoute(request, true).degraded());
+            StepVerifier.create(gateway.getWalkingRouteReactive(request, true))
+                .assertNext(result -> assertTrue(result.degraded()))
+                .verifyComplete();
+        }
+
+        assertEquals(10.0, consumedBeforeOpen);
+        assertEquals(consumedBeforeOpen, consumedTokens(quotaMetrics));
+    }
+
+    private static double consumedTokens(SimpleMeterRegistry quotaMetrics) {
+        return quotaMetrics.get("gethome_ors_quota_consumed_total").counters().stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    @Test
+    void getWalkingRoute_QuotaExhausted_ServesFallbackWithoutCallingService() {
+        gateway.shutdown();
+        gateway = gateway(new HttpStubClient(stub.baseUrl()), new OrsQuotaGovernor(
+            new OrsQuotaGovernorTest.InMemoryQuota().repository, new SimpleMeterRegistry(),
+            new OrsQuotaGovernorTest.MutableClock(Instant.parse("2026-03-14T21:30:05Z")), true,
+            1, 100, 1, 0, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 0));
+
+        assertFalse(gateway.getWalkingRoute(request).degraded());
+        OpenRouteServiceGateway.OpenRouteResult result = gateway.getWalkingRoute(request);
+
+        assertTrue(result.degraded());
+        assertEquals(OpenRouteServiceGateway.CACHED_ROUTE_WARNING, result.warning());
+        assertEquals(1, stub.requestCount());
+    }
+
+    @Test
+    void getWalkingRoute_ClientError_IsNotMaskedByFallback() {
+        stub.status(400);
+
+        assertThrows(FeignException.BadRequest.class, () -> gateway.getWalkingRoute(request));
+    }
+
+    @Test
+    void getWalkingRouteReactive_HealthyService_ReturnsLiveRoute() {
+        StepVerifier.create(gateway.getWalkingRouteReactive(request))
+            .assertNext(result -> {
+                assertFalse(result.degraded());
+                assertEquals(1, result.response().routes().length);
+            })
+            .verifyComplete();
+        assertEquals(1, stub.requestCount());
+    }
+
+    @Test
+    void getWalkingRouteReactive_ServerError_PrefersLastKnownRoute() {
+        gateway.getWalkingRouteReactive(request).block();
+        stub.status(503);
+
+        StepVerifier.create(gateway.getWalkingRouteReactive(request))
+            .assertNext(result -> assertEquals(OpenRouteServiceGateway.CACHED_ROUTE_WARNING, result.warning()))
+            .verifyComplete();
+    }
+
+    @Test
+    void getWalkingRouteReactive_ClientError_IsNotMaskedByFallback() {
+        stub.status(400);
+
+        StepVerifier.create(gateway.getWalkingRouteReactive(request))
+            .expectError(WebClientResponseException.BadRequest.class)
+            .verify();
+    }
+
+    /** Minimal HTTP binding of the Feign interface against the stub server. */
+    private static class HttpStubClient implements OpenRouteServiceClient {
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+        private final String baseUrl;
+        private final AtomicInteger interruptedCalls = new AtomicInteger();
+        private volatile Request.Options lastOptions;
+
+        HttpStubClient(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        int interruptedCalls() {
+            return interruptedCalls.get();
+        }
+
+        Request.Options lastOptions() {
+            return lastOptions;
+        }
+
+        @Override
+        public OpenRouteResponse getWalkingRoute(OpenRouteRequest request, Request.Options options) {
+            lastOptions = options;
+            return getWalkingRoute(request);
+        }
+
+        @Override
+        public OpenRouteResponse getWalkingRoute(OpenRouteRequest request) {
+            try {
+                HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/directions/foot-walking"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                    .build();
+                HttpResponse<byte[]> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() >= 400) {
+                    Request feignRequest = Request.create(Request.HttpMethod.POST, baseUrl, Map.of(), null,
+                        StandardCharsets.UTF_8, null);
+                    throw FeignException.errorStatus("getWalkingRoute", Response.builder()
+                        .status(response.statusCode())
+                        .reason("stub")
+                        .request(feignRequest)
+                        .headers(Map.of())
+                        .body(response.body())
+                        .build());
+                }
+                return objectMapper.readValue(response.body(), OpenRouteResponse.class);
+            } catch (InterruptedException e) {
+                interruptedCalls.incrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (java.io.IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
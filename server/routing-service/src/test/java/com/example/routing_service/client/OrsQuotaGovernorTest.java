@@ -0,0 +1,244 @@
+package com.example.routing_service.client;
+
+import com.example.routing_service.repository.OrsQuotaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrsQuotaGovernorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-14T21:30:05Z"));
+    private final InMemoryQuota quota = new InMemoryQuota();
+
+    @Test
+    void leasesTokensInBatchesInsteadOfPerCall() {
+        OrsQuotaGovernor governor = governor(quota.repository, 40, 0.2, 5);
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(governor.tryAcquire(false));
+        }
+
+        // Two leases of five, each one reserve on the minute and one on the day window
+        verify(quota.repository, times(2)).reserve(startsWith("minute:"), eq(5), eq(32L), any());
+        verify(quota.repository, times(2)).reserve(startsWith("day:"), eq(5), eq(1600L), any());
+        assertEquals(10L, quota.used("minute:"));
+        assertEquals(7.0, counter("gethome_ors_quota_consumed_total", "standard"));
+        assertEquals(10.0, meterRegistry.get("gethome_ors_quota_window_used").tag("window", "minute").gauge().value());
+    }
+
+    @Test
+    void reserveIsLeftForEmergenciesUntilTheNextMinute() {
+        OrsQuotaGovernor governor = governor(quota.repository, 10, 0.2, 5);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(governor.tryAcquire(false), "standard call " + i);
+        }
+        assertFalse(governor.tryAcquire(false));
+        assertTrue(governor.tryAcquire(true));
+        assertTrue(governor.tryAcquire(true));
+        assertFalse(governor.tryAcquire(true));
+        assertEquals(10L, quota.used("minute:"));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertTrue(governor.tryAcquire(false));
+    }
+
+    @Test
+    void replicasShareTheWindow() {
+        OrsQuotaGovernor first = governor(quota.repository, 10, 0, 5);
+        OrsQuotaGovernor second = governor(quota.repository, 10, 0, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(first.tryAcquire(false));
+            assertTrue(second.tryAcquire(false));
+        }
+
+        assertFalse(first.tryAcquire(false));
+        assertFalse(second.tryAcquire(false));
+    }
+
+    @Test
+    void dayWindowLimitsTooAndReturnsTheMinuteTokens() {
+        OrsQuotaGovernor governor = new OrsQuotaGovernor(quota.repository, meterRegistry, clock, true,
+            40, 3, 5, 0, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(governor.tryAcquire(false));
+        }
+        assertFalse(governor.tryAcquire(false));
+
+        assertEquals(3L, quota.used("minute:"), "tokens refused by the day window are given back");
+    }
+
+    @Test
+    void unusedLeasedTokensGoBackToTheDayWindow() {
+        OrsQuotaGovernor governor = governor(quota.repository, 40, 0.2, 5);
+
+        // One call a minute leases a batch of five each time
+        for (int minute = 0; minute < 10; minute++) {
+            assertTrue(governor.tryAcquire(false));
+            clock.advance(Duration.ofMinutes(1));
+        }
+        assertEquals(14L, quota.used("day:"), "nine finished minutes returned four tokens each");
+
+        assertTrue(governor.tryAcquire(false));
+        assertEquals(15L, quota.used("day:"));
+        assertEquals(40.0, meterRegistry.get("gethome_ors_quota_returned_tokens_total").counter().count());
+    }
+
+    @Test
+    void tokensDroppedAfterRateLimitAreReturnedButLocalGrantsAreNot() {
+        OrsQuotaGovernor governor = governor(quota.repository, 40, 0.2, 5);
+        assertTrue(governor.tryAcquire(false));
+        governor.onRateLimited();
+        clock.advance(Duration.ofMinutes(1));
+
+        assertTrue(governor.tryAcquire(false));
+        assertEquals(6L, quota.used("day:"), "one used, four returned, five leased in the new minute");
+
+        when(quota.repository.reserve(anyString(), anyInt(), anyLong(), any()))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        for (int i = 0; i < 6; i++) {
+            assertTrue(governor.tryAcquire(false));
+        }
+        clock.advance(Duration.ofMinutes(1));
+        governor.tryAcquire(false);
+
+        // The five charged this minute were all used; the local grants were never charged
+        assertEquals(6L, quota.used("day:"));
+    }
+
+    @Test
+    void degradePolicyGivesUpWithoutWaiting() throws InterruptedException {
+        OrsQuotaGovernor governor = new OrsQuotaGovernor(quota.repository, meterRegistry, clock, true,
+            1, 100, 1, 0, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 60_000, 0);
+        assertTrue(governor.acquire(false));
+
+        long start = System.nanoTime();
+        assertFalse(governor.acquire(false));
+        assertFalse(governor.acquire(true), "next minute is past the emergency wait limit");
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_000);
+        assertEquals(1.0, counter("gethome_ors_quota_exhausted_total", "standard"));
+        assertEquals(1.0, counter("gethome_ors_quota_exhausted_total", "emergency"));
+    }
+
+    @Test
+    void rateLimitStopsStandardCallsButNotEmergencies() {
+        OrsQuotaGovernor governor = governor(quota.repository, 40, 0.2, 5);
+        assertTrue(governor.tryAcquire(false));
+
+        governor.onRateLimited();
+
+        assertFalse(governor.tryAcquire(false));
+        assertTrue(governor.tryAcquire(true));
+    }
+
+    @Test
+    void failsOpenWhenMongoIsUnavailable() {
+        OrsQuotaRepository broken = mock(OrsQuotaRepository.class);
+        when(broken.reserve(anyString(), anyInt(), anyLong(), any()))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        OrsQuotaGovernor governor = governor(broken, 40, 0.2, 5);
+
+        assertTrue(governor.tryAcquire(false));
+        assertEquals(1.0, meterRegistry.get("gethome_ors_quota_lease_errors_total").counter().count());
+    }
+
+    @Test
+    void disabledGovernorAlwaysGrants() {
+        OrsQuotaGovernor governor = new OrsQuotaGovernor(null, meterRegistry, clock, false,
+            0, 0, 1, 0, OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 0);
+
+        assertTrue(governor.tryAcquire(false));
+        assertTrue(governor.tryAcquire(true));
+    }
+
+    private OrsQuotaGovernor governor(OrsQuotaRepository repository, long perMinute, double reserve, int leaseSize) {
+        return new OrsQuotaGovernor(repository, meterRegistry, clock, true, perMinute, 2000, leaseSize, reserve,
+            OrsQuotaGovernor.ExhaustedPolicy.DEGRADE, 0, 0);
+    }
+
+    private double counter(String name, String priority) {
+        return meterRegistry.get(name).tag("priority", priority).counter().count();
+    }
+
+    /** Quota windows kept in a map, with the same all-or-nothing reserve as MongoDB. */
+    static final class InMemoryQuota {
+
+        final Map<String, Long> windows = new ConcurrentHashMap<>();
+        final OrsQuotaRepository repository = mock(OrsQuotaRepository.class);
+
+        InMemoryQuota() {
+            when(repository.reserve(anyString(), anyInt(), anyLong(), any())).thenAnswer(invocation -> {
+                String id = invocation.getArgument(0);
+                int tokens = invocation.getArgument(1);
+                long ceiling = invocation.getArgument(2);
+                synchronized (windows) {
+                    long used = windows.getOrDefault(id, 0L) + tokens;
+                    if (used > ceiling) {
+                        return OptionalLong.empty();
+                    }
+                    windows.put(id, used);
+                    return OptionalLong.of(used);
+                }
+            });
+            doAnswer(invocation -> {
+                synchronized (windows) {
+                    windows.merge(invocation.getArgument(0), -(long) (int) invocation.getArgument(1), Long::sum);
+                }
+                return null;
+            }).when(repository).release(anyString(), anyInt());
+        }
+
+        /** Total over the windows of one kind, e.g. {@code "minute:"}. */
+        long used(String prefix) {
+            return windows.entrySet().stream()
+                .filter(window -> window.getKey().startsWith(prefix))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        }
+    }
+
+    static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.routing_service.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the OpenRouteService directions API with configurable latency and
+ * status codes. Answers every request with a straight-line route between the requested
+ * coordinates.
+ *
+ * Can also be run on its own to exercise a locally running routing-service:
+ * {@code OPENROUTE_API_URL=http://localhost:8090} with arguments {@code <port> <latencyMs> <status>}.
+ */
+public class StubOpenRouteServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile long latencyMs;
+    private volatile int status = 200;
+    private volatile int slowRequestsRemaining;
+    private volatile long slowLatencyMs;
+
+    public StubOpenRouteServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/directions/foot-walking", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public void resetRequestCount() {
+        requestCount.set(0);
+    }
+
+    public StubOpenRouteServer latencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    public StubOpenRouteServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    /** The next {@code count} requests take {@code latencyMs}, later ones use the base latency. */
+    public synchronized StubOpenRouteServer slowRequests(int count, long latencyMs) {
+        this.slowRequestsRemaining = count;
+        this.slowLatencyMs = latencyMs;
+        return this;
+    }
+
+    private synchronized long nextLatencyMs() {
+        if (slowRequestsRemaining > 0) {
+            slowRequestsRemaining--;
+            return slowLatencyMs;
+        }
+        return latencyMs;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            OpenRouteServiceClient.OpenRouteRequest request = objectMapper.readValue(
+                exchange.getRequestBody(), OpenRouteServiceClient.OpenRouteRequest.class);
+
+            long delay = nextLatencyMs();
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            int responseStatus = status;
+            byte[] body = responseStatus == 200
+                ? objectMapper.writeValueAsBytes(OpenRouteServiceGateway.straightLineRoute(request.coordinates()))
+                : ("{\"error\":{\"code\":" + responseStatus + ",\"message\":\"stub failure\"}}").getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        StubOpenRouteServer stub = new StubOpenRouteServer(port)
+            .latencyMs(args.length > 1 ? Long.parseLong(args[1]) : 0)
+            .status(args.length > 2 ? Integer.parseInt(args[2]) : 200);
+        System.out.println("Stub OpenRouteService listening on " + stub.baseUrl());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.routing_service.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalAStarTest {
+
+    private static final int SIDE = 30;
+
+    private final PedestrianGraph graph = TestGraphs.grid(SIDE, new Random(7));
+    private final BidirectionalAStar search = new BidirectionalAStar(graph, 2, 1000);
+
+    @Test
+    void route_MatchesDijkstraCost() {
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+
+            GraphPath path = search.route(source, target, EdgePenalties.NONE);
+
+            assertNotNull(path);
+            assertEquals(TestGraphs.dijkstra(graph, source, target, EdgePenalties.NONE), path.cost(), 0.5);
+            assertEquals(source, path.nodes()[0]);
+            assertEquals(target, path.nodes()[path.nodes().length - 1]);
+        }
+    }
+
+    @Test
+    void route_PenalizedEdges_DetoursAroundDanger() {
+        int source = TestGraphs.node(SIDE, SIDE / 2, 0);
+        int target = TestGraphs.node(SIDE, SIDE / 2, SIDE - 1);
+        GraphPath direct = search.route(source, target, EdgePenalties.NONE);
+
+        // Make the middle of the grid ten times as expensive
+        EdgePenalties penalties = TestGraphs.penalizeBlock(graph, SIDE, SIDE / 2, SIDE / 2, 4, 10f);
+        GraphPath detour = search.route(source, target, penalties);
+
+        assertEquals(TestGraphs.dijkstra(graph, source, target, penalties), detour.cost(), 0.5);
+        assertTrue(detour.lengthMeters() > direct.lengthMeters());
+        assertTrue(Arrays.stream(detour.nodes()).noneMatch(n -> n == TestGraphs.node(SIDE, SIDE / 2, SIDE / 2)));
+    }
+
+    @Test
+    void route_DisconnectedNodes_ReturnsNull() {
+        float[] lats = {48.0f, 48.0005f, 48.1f};
+        float[] lngs = {11.0f, 11.0f, 11.1f};
+        PedestrianGraph islands = PedestrianGraph.fromUndirectedEdges(lats, lngs, new int[]{0}, new int[]{1}, 1);
+
+        assertNull(new BidirectionalAStar(islands, 1, 1000).route(0, 2, EdgePenalties.NONE));
+    }
+
+    @Test
+    void nearestNode_SnapsWithinDistance() {
+        int n = TestGraphs.node(SIDE, 3, 4);
+        double lat = graph.latitude(n) + 0.00005;
+        double lng = graph.longitude(n) - 0.00005;
+
+        assertEquals(n, graph.nearestNode(lat, lng, 50));
+        assertEquals(-1, graph.nearestNode(lat + 1, lng, 50));
+    }
+}
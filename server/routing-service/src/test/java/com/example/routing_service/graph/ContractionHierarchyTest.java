@@ -0,0 +1,91 @@
+package com.example.routing_service.graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    private static final int SIDE = 25;
+
+    private final PedestrianGraph graph = TestGraphs.grid(SIDE, new Random(11));
+    private final ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph);
+    private final ChQuery query = new ChQuery(hierarchy, 2, 1000);
+
+    @Test
+    void route_BaseMetric_MatchesDijkstra() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+
+            GraphPath path = query.route(source, target, MetricOverlay.EMPTY);
+
+            assertEquals(TestGraphs.dijkstra(graph, source, target, EdgePenalties.NONE), path.cost(), 0.5);
+            assertEquals(path.cost(), path.lengthMeters(), 0.5);
+            assertEquals(source, path.nodes()[0]);
+            assertEquals(target, path.nodes()[path.nodes().length - 1]);
+            assertTrue(TestGraphs.isConnected(graph, path.nodes()));
+        }
+    }
+
+    @Test
+    void route_PenaltyOverlay_MatchesPenalizedDijkstra() {
+        EdgePenalties penalties = TestGraphs.penalizeBlock(graph, SIDE, SIDE / 2, SIDE / 2, 3, 8f);
+        MetricOverlay overlay = hierarchy.customize(penalties);
+
+        assertTrue(overlay.size() > 0);
+        assertTrue(overlay.size() < hierarchy.arcCount());
+
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+
+            GraphPath path = query.route(source, target, overlay);
+
+            assertEquals(TestGraphs.dijkstra(graph, source, target, penalties), path.cost(), 0.5);
+            assertTrue(TestGraphs.isConnected(graph, path.nodes()));
+        }
+    }
+
+    @Test
+    void graphFile_RoundTripsAndAnswersQueries(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("city.ghch");
+        RoutingGraphFile.write(hierarchy, file);
+
+        assertTrue(RoutingGraphFile.isGraphFile(file));
+        ContractionHierarchy mapped = RoutingGraphFile.read(file);
+        ChQuery mappedQuery = new ChQuery(mapped, 1, 1000);
+
+        int source = TestGraphs.node(SIDE, 0, 0);
+        int target = TestGraphs.node(SIDE, SIDE - 1, SIDE - 1);
+        EdgePenalties penalties = TestGraphs.penalizeBlock(graph, SIDE, 5, 5, 2, 4f);
+        assertArrayEquals(query.route(source, target, MetricOverlay.EMPTY).nodes(),
+            mappedQuery.route(source, target, MetricOverlay.EMPTY).nodes());
+        assertEquals(query.route(source, target, hierarchy.customize(penalties)).cost(),
+            mappedQuery.route(source, target, mapped.customize(penalties)).cost(), 1e-3);
+        assertEquals(graph.nearestNode(48.11, 11.51, 200), mapped.graph().nearestNode(48.11, 11.51, 200));
+    }
+
+    @Test
+    void graphFile_OtherVersion_IsRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("old.ghch");
+        RoutingGraphFile.write(hierarchy, file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, RoutingGraphFile.VERSION + 1), 4);
+        }
+
+        IOException error = assertThrows(IOException.class, () -> RoutingGraphFile.read(file));
+        assertTrue(error.getMessage().contains("format version"));
+    }
+}
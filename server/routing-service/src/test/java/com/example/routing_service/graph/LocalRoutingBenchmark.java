@@ -0,0 +1,75 @@
+package com.example.routing_service.graph;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Latency benchmark for the local engine on a real extract. Not a unit test:
+ *
+ *   ./gradlew benchmarkLocalRouting -Ppbf=city.osm.pbf -Pqueries=2000
+ *
+ * Given a graph file built by buildRoutingGraph, the same queries run through
+ * both the contraction hierarchy and A*.
+ *
+ * The numbers are comparable with gethome_openroute_response_duration_seconds, which
+ * measures the same step against ORS in production.
+ */
+public final class LocalRoutingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Path file = Path.of(args[0]);
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        double maxTripMeters = args.length > 2 ? Double.parseDouble(args[2]) : 5000;
+
+        ContractionHierarchy hierarchy = RoutingGraphFile.isGraphFile(file) ? RoutingGraphFile.read(file) : null;
+        PedestrianGraph graph = hierarchy != null ? hierarchy.graph() : OsmGraphLoader.load(new File(args[0]));
+
+        Random random = new Random(1);
+        int[][] pairs = new int[queries][];
+        for (int q = 0; q < queries; q++) {
+            int source = random.nextInt(graph.nodeCount());
+            pairs[q] = new int[]{source, pickTarget(graph, source, maxTripMeters, random)};
+        }
+
+        BidirectionalAStar aStar = new BidirectionalAStar(graph, 1, 1000);
+        run("astar", pairs, (s, t) -> aStar.route(s, t, EdgePenalties.NONE));
+        if (hierarchy != null) {
+            ChQuery chQuery = new ChQuery(hierarchy, 1, 1000);
+            run("ch", pairs, (s, t) -> chQuery.route(s, t, MetricOverlay.EMPTY));
+        }
+    }
+
+    private static void run(String engine, int[][] pairs, BiFunction<Integer, Integer, GraphPath> search) {
+        long[] nanos = new long[pairs.length];
+        long settled = 0;
+        int found = 0;
+        for (int q = 0; q < pairs.length; q++) {
+            long start = System.nanoTime();
+            GraphPath path = search.apply(pairs[q][0], pairs[q][1]);
+            nanos[q] = System.nanoTime() - start;
+            if (path != null) {
+                found++;
+                settled += path.settledNodes();
+            }
+        }
+
+        Arrays.sort(nanos);
+        int queries = pairs.length;
+        System.out.printf("engine=%s queries=%d found=%d avgSettled=%d p50=%.2fms p95=%.2fms p99=%.2fms%n",
+            engine, queries, found, found > 0 ? settled / found : 0,
+            nanos[queries / 2] / 1e6, nanos[(int) (queries * 0.95)] / 1e6, nanos[(int) (queries * 0.99)] / 1e6);
+    }
+
+    private static int pickTarget(PedestrianGraph graph, int source, double maxTripMeters, Random random) {
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        double meters = random.nextDouble() * maxTripMeters;
+        double lat = graph.latitude(source) + Math.cos(bearing) * meters / 111_195;
+        double lng = graph.longitude(source)
+            + Math.sin(bearing) * meters / (111_195 * Math.cos(Math.toRadians(graph.latitude(source))));
+        int target = graph.nearestNode(lat, lng, 500);
+        return target >= 0 ? target : source;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.routing_service.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/** Synthetic street networks and a reference Dijkstra for routing tests. */
+final class TestGraphs {
+
+    static final double SPACING = 0.0005; // ~55m
+
+    private TestGraphs() {
+    }
+
+    static int node(int side, int row, int col) {
+        return row * side + col;
+    }
+
+    /** Grid street network with slightly jittered intersections. */
+    static PedestrianGraph grid(int side, Random random) {
+        float[] lats = new float[side * side];
+        float[] lngs = new float[side * side];
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                lats[node(side, row, col)] = (float) (48.1 + row * SPACING + random.nextGaussian() * SPACING * 0.05);
+                lngs[node(side, row, col)] = (float) (11.5 + col * SPACING * 1.5 + random.nextGaussian() * SPACING * 0.05);
+            }
+        }
+        int[] from = new int[2 * side * side];
+        int[] to = new int[2 * side * side];
+        int pieces = 0;
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                if (col + 1 < side) {
+                    from[pieces] = node(side, row, col);
+                    to[pieces++] = node(side, row, col + 1);
+                }
+                if (row + 1 < side) {
+                    from[pieces] = node(side, row, col);
+                    to[pieces++] = node(side, row + 1, col);
+                }
+            }
+        }
+        return PedestrianGraph.fromUndirectedEdges(lats, lngs, from, to, pieces);
+    }
+
+    /** Multiplies every edge touching the square block around (row, col) in both directions. */
+    static EdgePenalties penalizeBlock(PedestrianGraph graph, int side, int row, int col, int radius, float multiplier) {
+        Map<Integer, Float> multipliers = new HashMap<>();
+        for (int r = row - radius; r <= row + radius; r++) {
+            for (int c = col - radius; c <= col + radius; c++) {
+                int n = node(side, r, c);
+                for (int e = graph.firstEdge(n); e < graph.endEdge(n); e++) {
+                    multipliers.put(e, multiplier);
+                    multipliers.put(graph.findEdge(graph.edgeTarget(e), n), multiplier);
+                }
+            }
+        }
+        return EdgePenalties.of(multipliers);
+    }
+
+    static double dijkstra(PedestrianGraph graph, int source, int target, EdgePenalties penalties) {
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+        while (!queue.isEmpty()) {
+            double[] top = queue.poll();
+            int u = (int) top[1];
+            if (top[0] > dist[u]) {
+                continue;
+            }
+            if (u == target) {
+                return dist[u];
+            }
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                double candidate = dist[u] + graph.edgeLength(e) * penalties.multiplier(e);
+                int v = graph.edgeTarget(e);
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    queue.add(new double[]{candidate, v});
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /** Consecutive path nodes must be joined by a street. */
+    static boolean isConnected(PedestrianGraph graph, int[] nodes) {
+        for (int i = 1; i < nodes.length; i++) {
+            if (graph.findEdge(nodes[i - 1], nodes[i]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.routing_service.repository;
+
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.util.DangerZoneMergeKeys;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DangerZoneRepositoryImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 14, 21, 30);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final DangerZone report = DangerZone.builder()
+        .name("Dark Alley")
+        .dangerLevel(DangerZone.DangerLevel.MEDIUM)
+        .location(new GeoJsonPoint(-74.0050, 40.7130))
+        .reportedAt(NOW)
+        .expiresAt(NOW.plusDays(30))
+        .reportCount(1)
+        .reportedByUsers(List.of("user-1"))
+        .mergeKey(DangerZoneMergeKeys.of(40.7130, -74.0050, "Dark Alley"))
+        .build();
+    private final List<String> candidates = DangerZoneMergeKeys.neighbourhood(40.7130, -74.0050, "Dark Alley");
+
+    @Test
+    void mergeReport_ExpiredNeighbour_RanksBehindActiveZonesAndRestartsUnderTheReportKey() {
+        DangerZone merged = DangerZone.builder().id("zone-1").build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(AggregationUpdate.class),
+            any(FindAndModifyOptions.class), eq(DangerZone.class))).thenReturn(merged);
+
+        assertSame(merged, new DangerZoneRepositoryImpl(mongoTemplate).mergeReport(report, candidates, NOW));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+            eq(DangerZone.class));
+        // A more reported but expired neighbour sorts behind any zone that is still active
+        assertEquals(new Document("expiresAt", -1).append("reportCount", -1), query.getValue().getSortObject());
+        Document merge = update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(1).get("$set", Document.class);
+        assertEquals(new Document("$cond", List.of("$_fresh", report.getMergeKey(), "$mergeKey")), merge.get("mergeKey"));
+    }
+
+    @Test
+    void mergeReport_RestartedKeyTaken_RestartsTheZoneHoldingIt() {
+        DangerZone restarted = DangerZone.builder().id("zone-2").build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(AggregationUpdate.class),
+            any(FindAndModifyOptions.class), eq(DangerZone.class)))
+            .thenThrow(new DuplicateKeyException("mergeKey"))
+            .thenReturn(restarted);
+
+        assertSame(restarted, new DangerZoneRepositoryImpl(mongoTemplate).mergeReport(report, candidates, NOW));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).findAndModify(query.capture(), any(AggregationUpdate.class),
+            any(FindAndModifyOptions.class), eq(DangerZone.class));
+        assertEquals(new Document("mergeKey", report.getMergeKey()), query.getAllValues().get(1).getQueryObject());
+    }
+
+    @Test
+    void bulkMergeReports_UpsertsIntoTheZoneMergeReportWouldPick() {
+        DangerZone lonely = DangerZone.builder()
+            .name("Underpass")
+            .dangerLevel(DangerZone.DangerLevel.HIGH)
+            .location(new GeoJsonPoint(-73.9000, 40.8000))
+            .reportedAt(NOW)
+            .expiresAt(NOW.plusDays(30))
+            .reportCount(1)
+            .reportedByUsers(List.of("user-2"))
+            .mergeKey(DangerZoneMergeKeys.of(40.8000, -73.9000, "Underpass"))
+            .build();
+        when(mongoTemplate.find(any(Query.class), eq(DangerZone.class))).thenReturn(List.of(
+            zone("expired", candidates.get(0), NOW.minusDays(1), 40),
+            zone("smaller", candidates.get(1), NOW.plusDays(3), 2),
+            zone("active", candidates.get(2), NOW.plusDays(10), 5)));
+        BulkOperations operations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DangerZone.class)).thenReturn(operations);
+
+        new DangerZoneRepositoryImpl(mongoTemplate).bulkMergeReports(List.of(report, lonely), NOW);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(operations, times(2)).upsert(queries.capture(), any(AggregationUpdate.class));
+        assertEquals(new Document("_id", "active"), queries.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("mergeKey", lonely.getMergeKey()), queries.getAllValues().get(1).getQueryObject());
+        verify(operations).execute();
+    }
+
+    private static DangerZone zone(String id, String mergeKey, LocalDateTime expiresAt, int reportCount) {
+        return DangerZone.builder().id(id).mergeKey(mergeKey).expiresAt(expiresAt).reportCount(reportCount).build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.DangerZoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveDangerZoneLoaderTest {
+
+    @Mock
+    private DangerZoneRepository dangerZoneRepository;
+
+    @Mock
+    private ActiveDangerZoneIndex raster;
+
+    @Mock
+    private ActiveDangerZoneIndex clusters;
+
+    private ActiveDangerZoneLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new ActiveDangerZoneLoader(dangerZoneRepository, List.of(raster, clusters), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reload_ReadsOnceAndRebuildsEveryIndex() {
+        List<DangerZone> zones = List.of(DangerZone.builder().id("a").build());
+        when(dangerZoneRepository.findAllActiveZoneShapes(any())).thenReturn(zones);
+
+        loader.reload();
+
+        InOrder order = inOrder(raster, clusters, dangerZoneRepository);
+        order.verify(raster).beginRebuild();
+        order.verify(clusters).beginRebuild();
+        order.verify(dangerZoneRepository).findAllActiveZoneShapes(any());
+        order.verify(raster).completeRebuild(zones);
+        order.verify(clusters).completeRebuild(zones);
+        verify(dangerZoneRepository, never()).findAllActiveDangerZones(any());
+    }
+
+    @Test
+    void reload_AbandonsTheRebuildWhenTheReadFails() {
+        when(dangerZoneRepository.findAllActiveZoneShapes(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class, loader::reload);
+
+        verify(raster).abandonRebuild();
+        verify(clusters).abandonRebuild();
+        verify(raster, never()).completeRebuild(any());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.client.OpenRouteServiceClient.AvoidPolygons;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.util.GeoMath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvoidPolygonServiceTest {
+
+    private static final double[][] TRIP = {{-74.0100, 40.7100}, {-74.0000, 40.7200}};
+
+    private AvoidPolygonService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AvoidPolygonService(new SimpleMeterRegistry(), 16, 400, 1.6, 300, 100);
+    }
+
+    @Test
+    void singleZone_IsAClosedCircle() {
+        AvoidPolygons polygons = service.build(TRIP, List.of(zone(-74.0050, 40.7150)));
+
+        double[][][][] coordinates = (double[][][][]) polygons.coordinates();
+        assertEquals("MultiPolygon", polygons.type());
+        assertEquals(1, coordinates.length);
+        double[][] ring = coordinates[0][0];
+        assertEquals(17, ring.length);
+        assertArrayEquals(ring[0], ring[16]);
+        assertEquals(50, GeoMath.distanceMeters(40.7150, -74.0050, ring[4][1], ring[4][0]), 0.5);
+    }
+
+    @Test
+    void clusteredZones_AreUnionedWithinBudgetAndStillCovered() {
+        List<DangerZone> zones = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            for (int j = 0; j < 15; j++) {
+                zones.add(zone(-74.0080 + i * 0.0004, 40.7120 + j * 0.0004));
+            }
+        }
+
+        double[][][][] coordinates = (double[][][][]) service.build(TRIP, zones).coordinates();
+
+        int vertices = 0;
+        for (double[][][] polygon : coordinates) {
+            vertices += polygon[0].length;
+        }
+        assertTrue(vertices <= 400, "vertices: " + vertices);
+        for (DangerZone zone : zones) {
+            assertTrue(covers(coordinates, zone.getLocation().getX(), zone.getLocation().getY()));
+        }
+    }
+
+    @Test
+    void zonesOffTheCorridor_AreDropped() {
+        DangerZone farAway = zone(-73.9500, 40.7600);
+
+        assertNull(service.build(TRIP, List.of(farAway)));
+        assertEquals(1, ((double[][][][]) service.build(TRIP, List.of(farAway, zone(-74.0050, 40.7150)))
+            .coordinates()).length);
+    }
+
+    @Test
+    void zoneAroundTheStart_IsDropped() {
+        assertNull(service.build(TRIP, List.of(zone(TRIP[0][0], TRIP[0][1]))));
+    }
+
+    @Test
+    void pocketAroundTheEnd_IsKeptAsAHole() {
+        List<DangerZone> ring = ringAround(TRIP[1]);
+
+        double[][][][] coordinates = (double[][][][]) service.build(TRIP, ring).coordinates();
+
+        assertEquals(1, coordinates.length);
+        assertEquals(2, coordinates[0].length, "the pocket around the end should stay a hole");
+        assertFalse(covers(coordinates, TRIP[1][0], TRIP[1][1]));
+        for (DangerZone zone : ring) {
+            assertTrue(covers(coordinates, zone.getLocation().getX(), zone.getLocation().getY()));
+        }
+    }
+
+    @Test
+    void simplification_NeverSwallowsARequestCoordinate() {
+        AvoidPolygonService tightBudget = new AvoidPolygonService(new SimpleMeterRegistry(), 16, 20, 1.6, 300, 100);
+        List<DangerZone> zones = new ArrayList<>(ringAround(TRIP[1]));
+        double[][] trip = {TRIP[0], {-74.0050, 40.7150}, TRIP[1]};
+        // Two zones either side of the waypoint, close enough that growing them closes the gap
+        zones.add(zone(-74.0050 - 0.0008, 40.7150));
+        zones.add(zone(-74.0050 + 0.0008, 40.7150));
+
+        double[][][][] coordinates = (double[][][][]) tightBudget.build(trip, zones).coordinates();
+
+        for (double[] coordinate : trip) {
+            assertFalse(covers(coordinates, coordinate[0], coordinate[1]));
+        }
+        for (DangerZone zone : zones) {
+            assertTrue(covers(coordinates, zone.getLocation().getX(), zone.getLocation().getY()));
+        }
+    }
+
+    // Twelve overlapping zones 80 m around the point, leaving a pocket in the middle
+    private static List<DangerZone> ringAround(double[] lngLat) {
+        List<DangerZone> zones = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            double angle = 2 * Math.PI * i / 12;
+            zones.add(zone(lngLat[0] + 80 * Math.cos(angle) / (GeoMath.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(lngLat[1]))),
+                lngLat[1] + 80 * Math.sin(angle) / GeoMath.METERS_PER_DEGREE_LAT));
+        }
+        return zones;
+    }
+
+    // Inside the outer ring and outside every hole
+    private static boolean covers(double[][][][] multiPolygon, double x, double y) {
+        for (double[][][] polygon : multiPolygon) {
+            boolean inside = inside(polygon[0], x, y);
+            for (int h = 1; inside && h < polygon.length; h++) {
+                inside = !inside(polygon[h], x, y);
+            }
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean inside(double[][] ring, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = ring.length - 1; i < ring.length; j = i++) {
+            if ((ring[i][1] > y) != (ring[j][1] > y)
+                && x < (ring[j][0] - ring[i][0]) * (y - ring[i][1]) / (ring[j][1] - ring[i][1]) + ring[i][0]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static DangerZone zone(double lon, double lat) {
+        return DangerZone.builder()
+            .name("Zone")
+            .dangerLevel(DangerZone.DangerLevel.MEDIUM)
+            .location(new GeoJsonPoint(lon, lat))
+            .build();
+    }
+}
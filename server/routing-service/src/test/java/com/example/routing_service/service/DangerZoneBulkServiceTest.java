@@ -0,0 +1,173 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.dto.DangerZoneImportResponse;
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.DangerZoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.Validation;
+import org.bson.BsonObjectId;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DangerZoneBulkServiceTest {
+
+    @Mock
+    private DangerZoneRepository dangerZoneRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private DangerZoneBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bulkService = new DangerZoneBulkService(dangerZoneRepository, eventPublisher, objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator(), 2);
+    }
+
+    @Test
+    void importZones_FoldsDuplicatesWritesChunksAndReportsBadLines() throws Exception {
+        List<List<DangerZone>> chunks = new ArrayList<>();
+        when(dangerZoneRepository.bulkMergeReports(anyList(), any())).thenAnswer(invocation -> {
+            List<DangerZone> chunk = new ArrayList<>(invocation.getArgument(0));
+            chunks.add(chunk);
+            return createdResult(chunk.size());
+        });
+        String ndjson = String.join("\n",
+            line("Dark Alley", "LOW", 40.71280, -74.00600),
+            line("dark alley", "HIGH", 40.71282, -74.00601),
+            "{not json",
+            "",
+            "{\"name\":\"No location\",\"dangerLevel\":\"LOW\"}",
+            line("Park", "MEDIUM", 40.72000, -74.01000),
+            line("Underpass", "CRITICAL", 40.73000, -74.02000));
+
+        DangerZoneImportResponse response = bulkService.importZones(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "importer");
+
+        assertEquals(7, response.getLinesRead());
+        assertEquals(1, response.getDuplicatesInBatch());
+        assertEquals(3, response.getZonesCreated());
+        assertEquals(2, response.getFailed());
+        assertEquals(List.of(3L, 5L), response.getErrors().stream().map(DangerZoneImportResponse.LineError::getLine).toList());
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+
+        DangerZone folded = chunks.get(0).get(0);
+        assertEquals(2, folded.getReportCount());
+        assertEquals(DangerZone.DangerLevel.HIGH, folded.getDangerLevel());
+    }
+
+    @Test
+    void exportZones_WritesLinesThatImportAgain() throws Exception {
+        List<DangerZone> zones = IntStream.range(0, 3).mapToObj(i -> DangerZone.builder()
+            .name("Zone " + i)
+            .dangerLevel(DangerZone.DangerLevel.MEDIUM)
+            .location(new GeoJsonPoint(-74.0 + i * 0.01, 40.7))
+            .reportCount(4)
+            .reportedAt(LocalDateTime.now())
+            .expiresAt(LocalDateTime.now().plusDays(5))
+            .tags(List.of("alley"))
+            .build()).toList();
+        when(dangerZoneRepository.streamAllActiveDangerZones(any())).thenReturn(zones.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, bulkService.exportZones(out, false));
+
+        when(dangerZoneRepository.bulkMergeReports(anyList(), any())).thenAnswer(invocation ->
+            createdResult(invocation.<List<DangerZone>>getArgument(0).size()));
+        DangerZoneImportResponse reimported = bulkService.importZones(new ByteArrayInputStream(out.toByteArray()), "importer");
+        assertEquals(3, reimported.getZonesCreated());
+        assertEquals(0, reimported.getFailed());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DangerZone>> written = ArgumentCaptor.forClass(List.class);
+        verify(dangerZoneRepository, times(2)).bulkMergeReports(written.capture(), any());
+        // Re-importing is one report by the importer, not a copy of the exported counts
+        assertEquals(1, written.getAllValues().get(0).get(0).getReportCount());
+        verify(dangerZoneRepository, never()).streamAllDangerZones();
+    }
+
+    @Test
+    void importZones_TreatsEachLineAsOneFreshReportWithBoundedExpiry() throws Exception {
+        when(dangerZoneRepository.bulkMergeReports(anyList(), any())).thenAnswer(invocation ->
+            createdResult(invocation.<List<DangerZone>>getArgument(0).size()));
+        String ndjson = "{\"name\":\"Bridge\",\"dangerLevel\":\"HIGH\",\"location\":{\"latitude\":40.7,\"longitude\":-74.0},"
+            + "\"reportCount\":500,\"reportedAt\":\"2020-01-01T00:00:00\",\"expiresAt\":\"2999-01-01T00:00:00\"}";
+        LocalDateTime before = LocalDateTime.now();
+
+        bulkService.importZones(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "importer");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DangerZone>> written = ArgumentCaptor.forClass(List.class);
+        verify(dangerZoneRepository).bulkMergeReports(written.capture(), any());
+        DangerZone report = written.getValue().get(0);
+        assertEquals(1, report.getReportCount());
+        assertEquals(List.of("importer"), report.getReportedByUsers());
+        assertFalse(report.getReportedAt().isBefore(before));
+        assertFalse(report.getExpiresAt().isAfter(LocalDateTime.now().plusDays(30)));
+    }
+
+    @Test
+    void importZones_PublishesCreatedAndMergedZonesSoListenersSeeThem() throws Exception {
+        ObjectId createdId = new ObjectId();
+        DangerZone created = DangerZone.builder().id(createdId.toHexString()).name("Park").build();
+        DangerZone merged = DangerZone.builder().id("merged").name("Dark Alley").reportCount(3).build();
+        // The first report created a zone, the second matched an existing one
+        when(dangerZoneRepository.bulkMergeReports(anyList(), any())).thenReturn(BulkWriteResult.acknowledged(
+            1, 0, 0, 0, List.of(new BulkWriteUpsert(0, new BsonObjectId(createdId))), List.of()));
+        when(dangerZoneRepository.findAllById(List.of(createdId.toHexString()))).thenReturn(List.of(created));
+        when(dangerZoneRepository.findByMergeKeyIn(anyCollection())).thenReturn(List.of(merged));
+        String ndjson = String.join("\n",
+            line("Park", "MEDIUM", 40.72000, -74.01000),
+            line("Dark Alley", "LOW", 40.71280, -74.00600));
+
+        bulkService.importZones(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "importer");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> mergeKeys = ArgumentCaptor.forClass(Collection.class);
+        verify(dangerZoneRepository).findByMergeKeyIn(mergeKeys.capture());
+        assertEquals(9, mergeKeys.getValue().size(), "Only the merged report's neighbourhood is read back");
+        verify(eventPublisher).publishEvent(DangerZoneChangedEvent.updated(created));
+        verify(eventPublisher).publishEvent(DangerZoneChangedEvent.updated(merged));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    private static String line(String name, String level, double lat, double lng) {
+        return String.format("{\"name\":\"%s\",\"dangerLevel\":\"%s\",\"location\":{\"latitude\":%s,\"longitude\":%s}}",
+            name, level, lat, lng);
+    }
+
+    private static BulkWriteResult createdResult(int count) {
+        List<BulkWriteUpsert> upserts = IntStream.range(0, count)
+            .mapToObj(i -> new BulkWriteUpsert(i, new BsonObjectId()))
+            .toList();
+        return BulkWriteResult.acknowledged(0, 0, 0, 0, upserts, List.of());
+    }
+}
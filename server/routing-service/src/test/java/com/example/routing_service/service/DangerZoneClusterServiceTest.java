@@ -0,0 +1,138 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.dto.DangerZoneViewportResponse;
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.repository.DangerZoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DangerZoneClusterServiceTest {
+
+    @Mock
+    private DangerZoneRepository dangerZoneRepository;
+
+    private DangerZoneClusterService clusterService;
+
+    @BeforeEach
+    void setUp() {
+        clusterService = new DangerZoneClusterService(dangerZoneRepository, 15, 2);
+    }
+
+    @Test
+    void lowZoom_ReturnsClustersWithCountAndMaxLevel() {
+        DangerZone critical = zone("c", 40.7130, -74.0060, DangerZone.DangerLevel.CRITICAL);
+        rebuild(List.of(
+            zone("a", 40.7128, -74.0060, DangerZone.DangerLevel.LOW),
+            zone("b", 40.7129, -74.0061, DangerZone.DangerLevel.MEDIUM),
+            critical,
+            zone("far", 34.0522, -118.2437, DangerZone.DangerLevel.HIGH)));
+
+        DangerZoneViewportResponse viewport = clusterService.viewport(40.6, -74.1, 40.8, -73.9, 10);
+
+        assertTrue(viewport.isClustered());
+        assertEquals(1, viewport.getClusters().size());
+        DangerZoneViewportResponse.Cluster cluster = viewport.getClusters().get(0);
+        assertEquals(3, cluster.getCount());
+        assertEquals(DangerZone.DangerLevel.CRITICAL, cluster.getMaxLevel());
+        assertEquals(40.7129, cluster.getLatitude(), 1e-6);
+
+        clusterService.onDangerZoneChanged(DangerZoneChangedEvent.removed(critical));
+        cluster = clusterService.viewport(40.6, -74.1, 40.8, -73.9, 10).getClusters().get(0);
+        assertEquals(2, cluster.getCount());
+        assertEquals(DangerZone.DangerLevel.MEDIUM, cluster.getMaxLevel());
+        verify(dangerZoneRepository, never()).findSummariesWithinBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(), any());
+    }
+
+    @Test
+    void highZoom_ReturnsLimitedSlimZones() {
+        when(dangerZoneRepository.findSummariesWithinBox(eq(-74.01), eq(40.71), eq(-74.0), eq(40.72), any(), any()))
+            .thenReturn(List.of(
+                zone("a", 40.7128, -74.0060, DangerZone.DangerLevel.LOW),
+                zone("b", 40.7129, -74.0061, DangerZone.DangerLevel.MEDIUM),
+                zone("c", 40.7130, -74.0062, DangerZone.DangerLevel.HIGH)));
+
+        DangerZoneViewportResponse viewport = clusterService.viewport(40.71, -74.01, 40.72, -74.0, 17);
+
+        assertFalse(viewport.isClustered());
+        assertTrue(viewport.isTruncated());
+        assertEquals(List.of("a", "b"), viewport.getZones().stream().map(zone -> zone.getId()).toList());
+        assertEquals(-74.0060, viewport.getZones().get(0).getLongitude());
+    }
+
+    @Test
+    void lowZoom_ViewportAcrossTheAntimeridianReturnsBothSides() {
+        rebuild(List.of(
+            zone("fiji", -17.7, 178.5, DangerZone.DangerLevel.LOW),
+            zone("samoa", -13.8, -172.1, DangerZone.DangerLevel.HIGH),
+            zone("sydney", -33.9, 151.2, DangerZone.DangerLevel.MEDIUM)));
+
+        List<Double> crossing = clusterService.viewport(-40, 170, 0, -170, 3).getClusters().stream()
+            .map(DangerZoneViewportResponse.Cluster::getLongitude).sorted().toList();
+        List<Double> unwrapped = clusterService.viewport(-40, 170, 0, 190, 3).getClusters().stream()
+            .map(DangerZoneViewportResponse.Cluster::getLongitude).sorted().toList();
+
+        assertEquals(List.of(-172.1, 178.5), crossing);
+        assertEquals(crossing, unwrapped);
+        assertEquals(3, clusterService.viewport(-60, -400, 60, 400, 0).getClusters().stream()
+            .mapToInt(DangerZoneViewportResponse.Cluster::getCount).sum());
+    }
+
+    @Test
+    void highZoom_SplitsBoxesAtTheAntimeridianAndIntoQueryableWidths() {
+        when(dangerZoneRepository.findSummariesWithinBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(), any()))
+            .thenReturn(List.of());
+
+        clusterService.viewport(-17.8, 179.99, -17.7, -179.99, 17);
+        verify(dangerZoneRepository).findSummariesWithinBox(eq(179.99), eq(-17.8), eq(180.0), eq(-17.7), any(), any());
+        verify(dangerZoneRepository).findSummariesWithinBox(eq(-180.0), eq(-17.8), eq(-179.99), eq(-17.7), any(), any());
+
+        clearInvocations(dangerZoneRepository);
+        clusterService.viewport(-10, -500, 10, 500, 17);
+        verify(dangerZoneRepository, times(4)).findSummariesWithinBox(anyDouble(), eq(-10.0), anyDouble(), eq(10.0), any(), any());
+    }
+
+    @Test
+    void viewport_RejectsInvertedLatitudes() {
+        assertThrows(IllegalArgumentException.class, () -> clusterService.viewport(10, 0, -10, 1, 17));
+    }
+
+    @Test
+    void longitudeRanges_WrapAndSplit() {
+        assertArrayEquals(new double[] {-74.01, -74.0}, DangerZoneClusterService.longitudeRanges(-74.01, -74.0).get(0));
+        assertArrayEquals(new double[] {170, 180}, DangerZoneClusterService.longitudeRanges(170, 180).get(0));
+        assertEquals(1, DangerZoneClusterService.longitudeRanges(170, 180).size());
+        List<double[]> split = DangerZoneClusterService.longitudeRanges(160, 200);
+        assertArrayEquals(new double[] {160, 180}, split.get(0));
+        assertArrayEquals(new double[] {-180, -160}, split.get(1), 1e-9);
+        assertArrayEquals(new double[] {-180, 180}, DangerZoneClusterService.longitudeRanges(-200, 170).get(0));
+    }
+
+    private void rebuild(List<DangerZone> zones) {
+        clusterService.beginRebuild();
+        clusterService.completeRebuild(zones);
+    }
+
+    private static DangerZone zone(String id, double lat, double lng, DangerZone.DangerLevel level) {
+        return DangerZone.builder()
+            .id(id)
+            .name("Zone " + id)
+            .dangerLevel(level)
+            .location(new GeoJsonPoint(lng, lat))
+            .reportCount(1)
+            .expiresAt(LocalDateTime.now().plusDays(1))
+            .build();
+    }
+}
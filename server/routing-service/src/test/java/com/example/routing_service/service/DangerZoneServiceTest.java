@@ -3,11 +3,14 @@ package com.example.routing_service.service;
 import com.example.routing_service.dto.DangerZoneRequest;
 import com.example.routing_service.model.DangerZone;
 import com.example.routing_service.repository.DangerZoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -18,6 +21,8 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +31,12 @@ class DangerZoneServiceTest {
     @Mock
     private DangerZoneRepository dangerZoneRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry(), true, 4);
+
     @InjectMocks
     private DangerZoneService dangerZoneService;
 
@@ -64,9 +75,7 @@ class DangerZoneServiceTest {
     void reportDangerZone_NewZone_Success() {
         // Given
         String userId = "test-user";
-        when(dangerZoneRepository.findNearbyActiveDangerZones(anyDouble(), anyDouble(), anyDouble(), any()))
-            .thenReturn(Arrays.asList());
-        when(dangerZoneRepository.save(any(DangerZone.class)))
+        when(dangerZoneRepository.mergeReport(any(DangerZone.class), anyList(), any()))
             .thenReturn(mockDangerZone);
 
         // When
@@ -77,7 +86,30 @@ class DangerZoneServiceTest {
         assertEquals("zone-1", result.getId());
         assertEquals("Dark Alley", result.getName());
         assertEquals(1, result.getReportCount());
-        verify(dangerZoneRepository).save(any(DangerZone.class));
+
+        ArgumentCaptor<DangerZone> report = ArgumentCaptor.forClass(DangerZone.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> candidates = ArgumentCaptor.forClass(List.class);
+        verify(dangerZoneRepository).mergeReport(report.capture(), candidates.capture(), any());
+        assertEquals(List.of(userId), report.getValue().getReportedByUsers());
+        assertEquals(9, candidates.getValue().size());
+        assertEquals(report.getValue().getMergeKey(), candidates.getValue().get(0));
+        verify(dangerZoneRepository, never()).save(any(DangerZone.class));
+    }
+
+    @Test
+    void reportDangerZone_RetriesOnceWhenConcurrentInsertWins() {
+        // Given
+        when(dangerZoneRepository.mergeReport(any(DangerZone.class), anyList(), any()))
+            .thenThrow(new DuplicateKeyException("E11000 duplicate key error"))
+            .thenReturn(mockDangerZone);
+
+        // When
+        DangerZone result = dangerZoneService.reportDangerZone(request, "other-user");
+
+        // Then
+        assertEquals("zone-1", result.getId());
+        verify(dangerZoneRepository, times(2)).mergeReport(any(DangerZone.class), anyList(), any());
     }
 
     @Test
@@ -0,0 +1,49 @@
+package com.example.routing_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebugCaptureServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void begin_ZeroSampleRate_ReturnsNoOpCapture() {
+        DebugCaptureService service = new DebugCaptureService(new ObjectMapper(), meterRegistry, 0.0, 100);
+
+        DebugCaptureService.Capture capture = service.begin("plan-safe-route");
+        capture.record("payload", Map.of("key", "value"));
+        capture.emit();
+
+        assertFalse(capture.isSampled());
+        assertEquals(0.0, meterRegistry.counter("gethome_debug_captures_total", "service", "routing").count());
+    }
+
+    @Test
+    void begin_FullSampleRate_EmitsCapture() {
+        DebugCaptureService service = new DebugCaptureService(new ObjectMapper(), meterRegistry, 1.0, 16);
+
+        DebugCaptureService.Capture capture = service.begin("plan-safe-route");
+        capture.record("payload", Map.of("key", "a value that is longer than the payload limit"));
+        capture.emit();
+
+        assertTrue(capture.isSampled());
+        assertEquals(1.0, meterRegistry.counter("gethome_debug_captures_total", "service", "routing").count());
+    }
+
+    @Test
+    void serialize_OversizedPayload_IsTruncatedAtTheLimit() {
+        DebugCaptureService service = new DebugCaptureService(new ObjectMapper(), meterRegistry, 1.0, 16);
+        String json = "{\"key\":\"a value that is longer than the payload limit\"}";
+
+        String captured = service.serialize(Map.of("key", "a value that is longer than the payload limit"));
+
+        assertEquals(json.substring(0, 16) + "...(truncated " + (json.length() - 16) + " chars)", captured);
+        assertEquals("{\"key\":\"short\"}", service.serialize(Map.of("key", "short")));
+    }
+}
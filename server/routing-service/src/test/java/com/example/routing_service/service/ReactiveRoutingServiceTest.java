@@ -0,0 +1,105 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.client.OpenRouteServiceClient;
+import com.example.routing_service.client.OpenRouteServiceGateway;
+import com.example.routing_service.dto.RouteRequest;
+import com.example.routing_service.dto.RouteResponse;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import com.example.routing_service.repository.ReactiveDangerZoneRepository;
+import com.example.routing_service.repository.ReactiveRouteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReactiveRoutingServiceTest {
+
+    @Mock
+    private RoutingService routingService;
+    @Mock
+    private ReactiveDangerZoneRepository dangerZoneRepository;
+    @Mock
+    private ReactiveRouteRepository routeRepository;
+    @Mock
+    private OpenRouteServiceGateway gateway;
+
+    private final DebugCaptureService debugCaptureService =
+        new DebugCaptureService(new ObjectMapper(), new SimpleMeterRegistry(), 0.0, 1024);
+
+    private final RouteRequest request = RouteRequest.builder()
+        .startLocation(RouteRequest.Location.builder().latitude(40.7128).longitude(-74.0060).build())
+        .endLocation(RouteRequest.Location.builder().latitude(40.7200).longitude(-74.0000).build())
+        .build();
+    private final Route route = Route.builder().id("route-1").totalDistance(900).safetyScore(0.9).build();
+    private final OpenRouteServiceGateway.OpenRouteResult orsResult = new OpenRouteServiceGateway.OpenRouteResult(
+        new OpenRouteServiceClient.OpenRouteResponse(new OpenRouteServiceClient.OpenRouteRoute[0], null), null);
+
+    @BeforeEach
+    void setUp() {
+        when(routingService.buildOpenRouteRequest(any(), anyList(), anyString(), isNull()))
+            .thenReturn(mock(OpenRouteServiceClient.OpenRouteRequest.class));
+        when(routingService.toSafeRoute(any(), any(), anyList(), anyString())).thenReturn(route);
+        when(routingService.convertToResponse(route)).thenReturn(RouteResponse.builder().routeId("route-1").build());
+        when(routeRepository.save(route)).thenReturn(Mono.just(route));
+    }
+
+    @Test
+    void planSafeRoute_RunsZoneQueriesConcurrently() {
+        DangerZone zone = DangerZone.builder().id("zone-1").location(new GeoJsonPoint(-74.0050, 40.7130)).build();
+        when(dangerZoneRepository.findNearbyActiveDangerZones(anyDouble(), anyDouble(), anyDouble(), any()))
+            .thenReturn(Flux.just(zone).delayElements(Duration.ofMillis(300)));
+        when(dangerZoneRepository.countActiveDangerZones(any()))
+            .thenReturn(Mono.just(1L).delayElement(Duration.ofMillis(300)));
+        when(gateway.getWalkingRouteReactive(any(), anyBoolean())).thenReturn(Mono.just(orsResult));
+
+        long start = System.nanoTime();
+        StepVerifier.create(service(10).planSafeRoute(request, "user-1"))
+            .assertNext(response -> assertEquals("route-1", response.getRouteId()))
+            .verifyComplete();
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMs < 800, "queries should overlap, took " + elapsedMs + "ms");
+        verify(routingService).recordNearbyZones(List.of(zone), 1L);
+        verify(routingService).recordPlannedRoute(route);
+    }
+
+    @Test
+    void planSafeRoute_RejectsPlansBeyondTheInFlightLimit() {
+        when(dangerZoneRepository.findNearbyActiveDangerZones(anyDouble(), anyDouble(), anyDouble(), any()))
+            .thenReturn(Flux.empty());
+        when(dangerZoneRepository.countActiveDangerZones(any())).thenReturn(Mono.just(0L));
+        when(gateway.getWalkingRouteReactive(any(), anyBoolean())).thenReturn(Mono.never());
+        ReactiveRoutingService service = service(1);
+
+        service.planSafeRoute(request, "user-1").subscribe();
+
+        StepVerifier.create(service.planSafeRoute(request, "user-2"))
+            .expectError(BulkheadFullException.class)
+            .verify(Duration.ofSeconds(5));
+    }
+
+    private ReactiveRoutingService service(int maxInFlight) {
+        return new ReactiveRoutingService(routingService, dangerZoneRepository, routeRepository, gateway,
+            debugCaptureService, new SimpleMeterRegistry(), maxInFlight);
+    }
+}
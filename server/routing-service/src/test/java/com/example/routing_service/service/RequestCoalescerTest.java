@@ -0,0 +1,136 @@
+package com.example.routing_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(meterRegistry, true, 4);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneComputation() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        List<Object> key = List.of(coalescer.cell(48.137154), coalescer.cell(11.576124));
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+            coalescer.execute("nearby_zones", key, () -> {
+                computations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "zones";
+            }), executor);
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // Slightly different coordinates in the same cell join the running computation
+        List<CompletableFuture<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            List<Object> sameCell = List.of(coalescer.cell(48.13716), coalescer.cell(11.57612));
+            followers.add(CompletableFuture.supplyAsync(() ->
+                coalescer.execute("nearby_zones", sameCell, () -> {
+                    computations.incrementAndGet();
+                    return "own zones";
+                }), executor));
+        }
+        waitForFollowers(3);
+        release.countDown();
+
+        assertEquals("zones", leader.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<String> follower : followers) {
+            assertEquals("zones", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1.0, coalesced("leader"));
+        assertEquals(3.0, coalesced("follower"));
+
+        // Finished work is not cached
+        assertEquals("fresh", coalescer.execute("nearby_zones", key, () -> "fresh"));
+    }
+
+    @Test
+    void followersGetTheLeadersFailure() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() ->
+            coalescer.execute("plan_route", "key", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("ORS unavailable");
+            }), executor);
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() ->
+            coalescer.execute("plan_route", "key", () -> "not run"), executor);
+        waitForFollowers(1);
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+        assertSame(leaderError.getCause(), followerError.getCause());
+
+        assertEquals("retried", coalescer.execute("plan_route", "key", () -> "retried"));
+    }
+
+    @Test
+    void disabledCoalescerRunsEveryRequest() {
+        RequestCoalescer disabled = new RequestCoalescer(meterRegistry, false, 4);
+        AtomicInteger computations = new AtomicInteger();
+
+        disabled.execute("plan_route", "key", computations::incrementAndGet);
+        disabled.execute("plan_route", "key", computations::incrementAndGet);
+
+        assertEquals(2, computations.get());
+        assertEquals(0.0, coalesced("leader"));
+    }
+
+    private void waitForFollowers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced("follower") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, coalesced("follower"), 0.0);
+    }
+
+    private double coalesced(String role) {
+        var counter = meterRegistry.find("gethome_coalesced_requests_total").tag("role", role).counter();
+        return counter != null ? counter.count() : 0.0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
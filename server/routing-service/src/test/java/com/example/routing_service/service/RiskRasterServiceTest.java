@@ -0,0 +1,120 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskRasterServiceTest {
+
+    private final SafetyAnalysisService safetyAnalysisService = new SafetyAnalysisService();
+    private RiskRasterService riskRasterService;
+
+    @BeforeEach
+    void setUp() {
+        riskRasterService = new RiskRasterService(safetyAnalysisService,
+            new SimpleMeterRegistry(), true);
+    }
+
+    @Test
+    void safetyScore_EmptyUntilFirstRebuild() {
+        assertTrue(riskRasterService.safetyScore(straightRoute()).isEmpty());
+
+        rebuild(List.of());
+
+        assertEquals(1.0, riskRasterService.safetyScore(straightRoute()).getAsDouble());
+    }
+
+    @Test
+    void safetyScore_MatchesPerZoneScoring() {
+        List<DangerZone> zones = List.of(
+            zone("a", 40.71300, -74.00400, DangerZone.DangerLevel.HIGH),
+            zone("b", 40.71330, -74.00100, DangerZone.DangerLevel.MEDIUM));
+        rebuild(zones);
+
+        Route route = straightRoute();
+        double exact = safetyAnalysisService.calculateSafetyScore(route, zones);
+        double raster = riskRasterService.safetyScore(route).getAsDouble();
+
+        assertTrue(exact < 1.0);
+        assertEquals(exact, raster, 0.03);
+    }
+
+    @Test
+    void safetyScore_TakesThePeakAlongASegmentRatherThanSummingDistantZones() {
+        // One zone at each end of the first segment, 250m apart; "b" also touches the second
+        List<DangerZone> zones = List.of(
+            zone("a", 40.71300, -74.00600, DangerZone.DangerLevel.HIGH),
+            zone("b", 40.71300, -74.00300, DangerZone.DangerLevel.HIGH));
+        rebuild(zones);
+
+        Route route = straightRoute();
+        double summed = safetyAnalysisService.calculateSafetyScore(route, zones);
+        double onlyA = safetyAnalysisService.calculateSafetyScore(route, zones.subList(0, 1));
+        double onlyB = safetyAnalysisService.calculateSafetyScore(route, zones.subList(1, 2));
+        double raster = riskRasterService.safetyScore(route).getAsDouble();
+
+        // The per-zone sum counts both ends of the first segment; the raster counts its worse end
+        assertTrue(raster > summed + 0.1);
+        assertEquals(Math.min(onlyA, onlyB), raster, 0.03);
+    }
+
+    @Test
+    void zoneChanges_AreAppliedIncrementally() {
+        rebuild(List.of());
+        DangerZone zone = zone("a", 40.71300, -74.00400, DangerZone.DangerLevel.LOW);
+
+        riskRasterService.onDangerZoneChanged(DangerZoneChangedEvent.updated(zone));
+        double low = riskRasterService.safetyScore(straightRoute()).getAsDouble();
+
+        zone.setDangerLevel(DangerZone.DangerLevel.CRITICAL);
+        riskRasterService.onDangerZoneChanged(DangerZoneChangedEvent.updated(zone));
+        double critical = riskRasterService.safetyScore(straightRoute()).getAsDouble();
+
+        riskRasterService.onDangerZoneChanged(DangerZoneChangedEvent.removed(zone));
+        double removed = riskRasterService.safetyScore(straightRoute()).getAsDouble();
+
+        assertTrue(critical < low && low < 1.0);
+        assertEquals(1.0, removed);
+    }
+
+    private void rebuild(List<DangerZone> zones) {
+        riskRasterService.beginRebuild();
+        riskRasterService.completeRebuild(zones);
+    }
+
+    // East-west walk along 40.7130 split into two steps
+    private static Route straightRoute() {
+        List<Route.RouteSegment> segments = new ArrayList<>();
+        for (int step = 0; step < 2; step++) {
+            List<Route.Location> coordinates = new ArrayList<>();
+            for (int i = 0; i <= 10; i++) {
+                coordinates.add(Route.Location.builder()
+                    .latitude(40.7130)
+                    .longitude(-74.0060 + step * 0.003 + i * 0.0003)
+                    .build());
+            }
+            segments.add(Route.RouteSegment.builder().coordinates(coordinates).build());
+        }
+        return Route.builder().segments(segments).build();
+    }
+
+    private static DangerZone zone(String id, double lat, double lng, DangerZone.DangerLevel level) {
+        return DangerZone.builder()
+            .id(id)
+            .dangerLevel(level)
+            .location(new GeoJsonPoint(lng, lat))
+            .reportCount(3)
+            .expiresAt(LocalDateTime.now().plusDays(1))
+            .build();
+    }
+}
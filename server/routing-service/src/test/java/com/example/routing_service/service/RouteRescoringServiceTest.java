@@ -0,0 +1,118 @@
+package com.example.routing_service.service;
+
+import com.example.routing_service.event.DangerZoneChangedEvent;
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import com.example.routing_service.repository.RouteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteRescoringServiceTest {
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private RoutingService routingService;
+
+    private RouteRescoringService rescoringService;
+    private final List<Map<String, Double>> writes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        rescoringService = new RouteRescoringService(routeRepository, routingService, new SimpleMeterRegistry(), true, 500);
+    }
+
+    @Test
+    void eachChangedZoneIsSearchedOnceAndEachRouteScoredOnce() {
+        DangerZone alley = zone("zone-1", DangerZone.DangerLevel.MEDIUM);
+        DangerZone park = zone("zone-2", DangerZone.DangerLevel.CRITICAL);
+        Route unchanged = route("route-1", 0.9);
+        Route shared = route("route-2", 0.9);
+        Route nearPark = route("route-3", 0.8);
+        when(routeRepository.streamActiveAffectedBy(any(), eq("zone-1")))
+            .thenAnswer(invocation -> Stream.of(unchanged, shared));
+        when(routeRepository.streamActiveAffectedBy(any(), eq("zone-2")))
+            .thenAnswer(invocation -> Stream.of(shared, nearPark));
+        when(routingService.scoreRoute(unchanged)).thenReturn(0.9);
+        when(routingService.scoreRoute(shared)).thenReturn(0.4);
+        when(routingService.scoreRoute(nearPark)).thenReturn(0.5);
+        recordWrites();
+
+        rescoringService.onDangerZoneChanged(DangerZoneChangedEvent.updated(alley));
+        rescoringService.onDangerZoneChanged(DangerZoneChangedEvent.updated(alley));
+        rescoringService.onDangerZoneChanged(DangerZoneChangedEvent.removed(park));
+        rescoringService.rescorePending();
+
+        verify(routeRepository, times(1)).streamActiveAffectedBy(notNull(), eq("zone-1"));
+        verify(routeRepository, times(1)).streamActiveAffectedBy(notNull(), eq("zone-2"));
+        verify(routingService, times(1)).scoreRoute(shared);
+        assertEquals(List.of(Map.of("route-2", 0.4, "route-3", 0.5)), writes);
+
+        // Nothing pending, nothing to do
+        rescoringService.rescorePending();
+        verifyNoMoreInteractions(routeRepository);
+    }
+
+    @Test
+    void zonesAreRetriedWhenMongoFails() {
+        DangerZone alley = zone("zone-1", DangerZone.DangerLevel.HIGH);
+        Route route = route("route-1", 0.9);
+        when(routeRepository.streamActiveAffectedBy(any(), eq("zone-1")))
+            .thenThrow(new DataAccessResourceFailureException("MongoDB unavailable"))
+            .thenAnswer(invocation -> Stream.of(route));
+        when(routingService.scoreRoute(route)).thenReturn(0.6);
+        recordWrites();
+
+        rescoringService.onDangerZoneChanged(DangerZoneChangedEvent.updated(alley));
+        rescoringService.rescorePending();
+        assertTrue(writes.isEmpty());
+
+        rescoringService.rescorePending();
+        assertEquals(List.of(Map.of("route-1", 0.6)), writes);
+    }
+
+    // The service reuses its map after a flush, so keep a copy of each write
+    private void recordWrites() {
+        when(routeRepository.updateSafetyScores(anyMap())).thenAnswer(invocation -> {
+            Map<String, Double> scores = invocation.getArgument(0);
+            if (!scores.isEmpty()) {
+                writes.add(new HashMap<>(scores));
+            }
+            return scores.size();
+        });
+    }
+
+    private static DangerZone zone(String id, DangerZone.DangerLevel level) {
+        return DangerZone.builder()
+            .id(id)
+            .dangerLevel(level)
+            .location(new GeoJsonPoint(-74.0060, 40.7128))
+            .build();
+    }
+
+    private static Route route(String id, double safetyScore) {
+        return Route.builder()
+            .id(id)
+            .safetyScore(safetyScore)
+            .status(Route.RouteStatus.ACTIVE)
+            .build();
+    }
+}
@@ -1,20 +1,28 @@
 package com.example.routing_service.service;
 
+import com.example.routing_service.client.OpenRouteServiceGateway;
+import com.example.routing_service.client.UserManagementClient;
+import com.example.routing_service.dto.RouteRequest;
 import com.example.routing_service.model.DangerZone;
 import com.example.routing_service.model.Route;
 import com.example.routing_service.repository.DangerZoneRepository;
 import com.example.routing_service.repository.RouteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -140,4 +148,60 @@ class RoutingServiceTest {
         assertEquals("route-1", savedRoute.getId());
         assertEquals("zone-1", savedZone.getId());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testParetoFrontDropsDominatedRoutes() {
+        Route fastUnsafe = Route.builder().id("fast").estimatedDuration(600).safetyScore(0.4).build();
+        Route balanced = Route.builder().id("balanced").estimatedDuration(720).safetyScore(0.7).build();
+        Route slowerAndLessSafe = Route.builder().id("dominated").estimatedDuration(800).safetyScore(0.6).build();
+        Route safest = Route.builder().id("safe").estimatedDuration(900).safetyScore(0.95).build();
+
+        List<Route> front = RoutingService.paretoFront(Arrays.asList(safest, slowerAndLessSafe, fastUnsafe, balanced));
+
+        assertEquals(List.of("fast", "balanced", "safe"), front.stream().map(Route::getId).toList());
+    }
+
+    @Test
+    void planRouteAlternatives_CountsEmergenciesAndInterruptsCandidatesPastTheDeadline() throws Exception {
+        OpenRouteServiceGateway gateway = mock(OpenRouteServiceGateway.class);
+        SafetyAnalysisService safetyAnalysisService = mock(SafetyAnalysisService.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RoutingService service = new RoutingService(routeRepository, dangerZoneRepository, gateway,
+            mock(UserManagementClient.class), safetyAnalysisService, meterRegistry,
+            new DebugCaptureService(new ObjectMapper(), meterRegistry, 0.0, 1024), mock(LocalRoutingEngine.class),
+            mock(AvoidPolygonService.class), mock(RiskRasterService.class), mock(RequestCoalescer.class),
+            mock(RouteGeometryService.class));
+        ReflectionTestUtils.setField(service, "alternativesMaxConcurrency", 2);
+        ReflectionTestUtils.setField(service, "alternativesDeadlineMs", 200L);
+        service.initializeMetrics();
+        service.initializeAlternativesExecutor();
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(dangerZoneRepository.findNearbyActiveDangerZones(anyDouble(), anyDouble(), anyDouble(), any()))
+            .thenReturn(List.of());
+        when(gateway.getWalkingRoute(any(), eq(true))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        RouteRequest request = RouteRequest.builder()
+            .startLocation(RouteRequest.Location.builder().latitude(40.7128).longitude(-74.0060).build())
+            .endLocation(RouteRequest.Location.builder().latitude(40.7200).longitude(-74.0000).build())
+            .safetyPreference(0.95)
+            .build();
+
+        try {
+            RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.planRouteAlternatives(request, "user-1"));
+
+            assertTrue(error.getMessage().contains("deadline"));
+            assertEquals(1.0, meterRegistry.get("gethome_emergency_routes_total").counter().count());
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS), "the abandoned candidate should be interrupted");
+        } finally {
+            service.shutdownAlternativesExecutor();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.routing_service.util;
+
+import com.example.routing_service.model.DangerZone;
+import com.example.routing_service.model.Route;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DangerZoneFootprintsTest {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+
+    // About 90m by 110m around (40.7128, -74.0060)
+    private static final List<double[]> BLOCK = List.of(
+        new double[]{-74.0065, 40.7123},
+        new double[]{-74.0055, 40.7123},
+        new double[]{-74.0055, 40.7133},
+        new double[]{-74.0065, 40.7133});
+
+    @Test
+    void outlineIsCentredAndCoveredByItsRadius() {
+        DangerZoneFootprints.Outline outline = DangerZoneFootprints.outline(BLOCK);
+
+        assertEquals(40.7128, outline.latitude(), 1e-9);
+        assertEquals(-74.0060, outline.longitude(), 1e-9);
+        double corner = GeoMath.distanceMeters(40.7128, -74.0060, 40.7123, -74.0065);
+        assertEquals(corner, outline.radiusMeters(), 0.01);
+        assertEquals(5, outline.area().getCoordinates().get(0).getCoordinates().size());
+    }
+
+    @Test
+    void selfIntersectingOrDegenerateOutlinesAreRejected() {
+        List<double[]> bowTie = List.of(BLOCK.get(0), BLOCK.get(2), BLOCK.get(1), BLOCK.get(3));
+        List<double[]> line = List.of(BLOCK.get(0), BLOCK.get(1), BLOCK.get(0));
+        List<double[]> huge = List.of(new double[]{-74.03, 40.70}, new double[]{-73.98, 40.70}, new double[]{-74.0, 40.73});
+
+        assertThrows(IllegalArgumentException.class, () -> DangerZoneFootprints.outline(bowTie));
+        assertThrows(IllegalArgumentException.class, () -> DangerZoneFootprints.outline(line));
+        assertThrows(IllegalArgumentException.class, () -> DangerZoneFootprints.outline(huge));
+    }
+
+    @Test
+    void circleFootprintReachesTheInfluenceRadius() {
+        DangerZone zone = DangerZone.builder()
+            .location(new GeoJsonPoint(-74.0060, 40.7128))
+            .radiusMeters(30.0)
+            .build();
+
+        Polygon footprint = toJts(DangerZoneFootprints.footprint(zone));
+
+        assertEquals(80, DangerZoneFootprints.influenceRadius(zone), 1e-9);
+        assertTrue(footprint.contains(point(40.7128 + metersNorth(75), -74.0060)));
+        assertFalse(footprint.contains(point(40.7128 + metersNorth(85), -74.0060)));
+    }
+
+    @Test
+    void outlineFootprintIsGrownByTheMargin() {
+        DangerZone zone = DangerZone.builder()
+            .location(new GeoJsonPoint(-74.0060, 40.7128))
+            .area(DangerZoneFootprints.outline(BLOCK).area())
+            .build();
+
+        Polygon footprint = toJts(DangerZoneFootprints.footprint(zone));
+
+        // The northern edge is at 40.7133
+        assertTrue(footprint.contains(point(40.7133 + metersNorth(45), -74.0060)));
+        assertFalse(footprint.contains(point(40.7133 + metersNorth(55), -74.0060)));
+        assertTrue(footprint.contains(point(40.7128, -74.0055 + metersEast(45, 40.7128))));
+        assertFalse(footprint.contains(point(40.7128, -74.0055 + metersEast(55, 40.7128))));
+    }
+
+    @Test
+    void lineStringDropsSharedSegmentEnds() {
+        Route route = Route.builder()
+            .segments(List.of(segment(new double[]{40.0, -74.0}, new double[]{40.001, -74.0}),
+                segment(new double[]{40.001, -74.0}, new double[]{40.001, -74.001})))
+            .build();
+
+        GeoJsonLineString line = DangerZoneFootprints.lineString(route);
+
+        assertEquals(List.of(new Point(-74.0, 40.0), new Point(-74.0, 40.001), new Point(-74.001, 40.001)),
+            line.getCoordinates());
+        assertNull(DangerZoneFootprints.lineString(Route.builder()
+            .segments(List.of(segment(new double[]{40.0, -74.0}, new double[]{40.0, -74.0})))
+            .build()));
+    }
+
+    private static Route.RouteSegment segment(double[]... latLng) {
+        return Route.RouteSegment.builder()
+            .coordinates(Arrays.stream(latLng)
+                .map(point -> Route.Location.builder().latitude(point[0]).longitude(point[1]).build())
+                .toList())
+            .build();
+    }
+
+    private static double metersNorth(double meters) {
+        return meters / GeoMath.METERS_PER_DEGREE_LAT;
+    }
+
+    private static double metersEast(double meters, double latitude) {
+        return meters / (GeoMath.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(latitude)));
+    }
+
+    private static org.locationtech.jts.geom.Point point(double lat, double lon) {
+        return GEOMETRY.createPoint(new Coordinate(lon, lat));
+    }
+
+    private static Polygon toJts(GeoJsonPolygon polygon) {
+        return GEOMETRY.createPolygon(polygon.getCoordinates().get(0).getCoordinates().stream()
+            .map(p -> new Coordinate(p.getX(), p.getY()))
+            .toArray(Coordinate[]::new));
+    }
+}
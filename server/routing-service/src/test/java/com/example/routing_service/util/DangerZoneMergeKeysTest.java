@@ -0,0 +1,31 @@
+package com.example.routing_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DangerZoneMergeKeysTest {
+
+    @Test
+    void namesDifferingOnlyInCaseAccentsAndPunctuationShareAKey() {
+        String key = DangerZoneMergeKeys.of(40.7128, -74.0060, "Dark Alley");
+
+        assertEquals(key, DangerZoneMergeKeys.of(40.7128, -74.0060, "  dark-ALLEY! "));
+        assertEquals(key.replace("dark alley", "cafe"), DangerZoneMergeKeys.of(40.7128, -74.0060, "Café"));
+        assertNotEquals(key, DangerZoneMergeKeys.of(40.7128, -74.0060, "Dark Alleyway"));
+    }
+
+    @Test
+    void neighbourhoodCoversReportsAcrossACellBoundary() {
+        // ~10m apart but on different sides of a cell edge
+        double boundary = 40.7130;
+        String north = DangerZoneMergeKeys.of(boundary + 0.00005, -74.0060, "Dark Alley");
+        List<String> southNeighbourhood = DangerZoneMergeKeys.neighbourhood(boundary - 0.00005, -74.0060, "Dark Alley");
+
+        assertNotEquals(north, southNeighbourhood.get(0));
+        assertTrue(southNeighbourhood.contains(north));
+        assertEquals(9, southNeighbourhood.stream().distinct().count());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.routing_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DangerZoneTagsTest {
+
+    @Test
+    void spellingsOfTheSameTagShareOneCanonicalForm() {
+        assertEquals("poor_lighting", DangerZoneTags.normalize("Poor Lighting"));
+        assertEquals("poor_lighting", DangerZoneTags.normalize("  poor-lighting! "));
+        assertEquals("cafe", DangerZoneTags.normalize("Café"));
+        assertEquals("", DangerZoneTags.normalize("--"));
+        assertEquals("", DangerZoneTags.normalize((String) null));
+    }
+
+    @Test
+    void listsAreDeduplicatedInOrderWithoutBlanks() {
+        List<String> tags = DangerZoneTags.normalize(Arrays.asList("Park", "Poor Lighting", "park", " ", null, "poor_lighting"));
+
+        assertEquals(List.of("park", "poor_lighting"), tags);
+        assertTrue(DangerZoneTags.isNormalized(tags));
+        assertFalse(DangerZoneTags.isNormalized(List.of("Park")));
+    }
+
+    @Test
+    void prefixUpperBoundCoversEveryTagWithThePrefix() {
+        String upper = DangerZoneTags.prefixUpperBound("poor");
+
+        assertTrue("poor".compareTo(upper) < 0);
+        assertTrue("poor_lighting".compareTo(upper) < 0);
+        assertTrue("poorz".compareTo(upper) < 0);
+        assertTrue("pop".compareTo(upper) >= 0);
+    }
+}
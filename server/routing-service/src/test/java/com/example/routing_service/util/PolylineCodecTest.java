@@ -0,0 +1,56 @@
+package com.example.routing_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolylineCodecTest {
+
+    // Reference example from the encoded polyline algorithm documentation
+    private static final String REFERENCE = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    @Test
+    void decode_ReferencePolyline() {
+        List<double[]> points = PolylineCodec.decode(REFERENCE);
+
+        assertEquals(3, points.size());
+        assertArrayEquals(new double[]{38.5, -120.2}, points.get(0), 1e-9);
+        assertArrayEquals(new double[]{40.7, -120.95}, points.get(1), 1e-9);
+        assertArrayEquals(new double[]{43.252, -126.453}, points.get(2), 1e-9);
+    }
+
+    @Test
+    void encode_ReferencePolyline() {
+        List<double[]> points = List.of(
+            new double[]{38.5, -120.2},
+            new double[]{40.7, -120.95},
+            new double[]{43.252, -126.453});
+
+        assertEquals(REFERENCE, PolylineCodec.encode(points));
+    }
+
+    @Test
+    void encode_PrimitiveArraysMatchListVariant() {
+        double[] lats = {48.13743, 48.13801, 48.13922};
+        double[] lngs = {11.57549, 11.57612, 11.57488};
+        List<double[]> points = List.of(
+            new double[]{lats[0], lngs[0]},
+            new double[]{lats[1], lngs[1]},
+            new double[]{lats[2], lngs[2]});
+
+        assertEquals(PolylineCodec.encode(points), PolylineCodec.encode(lats, lngs, lats.length));
+    }
+
+    @Test
+    void countPoints_MatchesDecodedSize() {
+        assertEquals(3, PolylineCodec.countPoints(REFERENCE));
+    }
+
+    @Test
+    void encode_EmptyGeometry() {
+        assertEquals("", PolylineCodec.encode(List.of()));
+        assertTrue(PolylineCodec.decode("").isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.routing_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolylineSimplifierTest {
+
+    private static final double LAT = 40.7128;
+    private static final double LNG = -74.0060;
+
+    @Test
+    void pointsWithinToleranceOfTheLineAreDropped() {
+        // 1km east with 2m wobble, then a 200m leg north
+        int count = 102;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i <= 100; i++) {
+            lats[i] = LAT + metersNorth(i % 2 == 0 ? 0 : 2);
+            lngs[i] = LNG + metersEast(i * 10);
+        }
+        lats[101] = LAT + metersNorth(200);
+        lngs[101] = lngs[100];
+
+        int kept = PolylineSimplifier.simplify(lats, lngs, count, 5);
+
+        assertEquals(3, kept);
+        assertEquals(LNG, lngs[0], 1e-12);
+        assertEquals(LNG + metersEast(1000), lngs[1], 1e-12);
+        assertEquals(LAT + metersNorth(200), lats[2], 1e-12);
+    }
+
+    @Test
+    void deviationsBeyondToleranceAreKept() {
+        double[] lats = {LAT, LAT + metersNorth(8), LAT};
+        double[] lngs = {LNG, LNG + metersEast(50), LNG + metersEast(100)};
+
+        assertEquals(3, PolylineSimplifier.simplify(lats.clone(), lngs.clone(), 3, 5));
+        assertEquals(2, PolylineSimplifier.simplify(lats.clone(), lngs.clone(), 3, 10));
+        assertEquals(3, PolylineSimplifier.simplify(lats.clone(), lngs.clone(), 3, 0));
+    }
+
+    @Test
+    void backtrackPastTheEndPointIsKept() {
+        // Out 100m, back 60m: every point is on the line through the ends, but not on the segment
+        double[] lats = {LAT, LAT, LAT};
+        double[] lngs = {LNG, LNG + metersEast(100), LNG + metersEast(40)};
+
+        assertEquals(3, PolylineSimplifier.simplify(lats, lngs, 3, 5));
+    }
+
+    @Test
+    void zoomToleranceHalvesWithEachLevel() {
+        assertEquals(156_000, PolylineSimplifier.metersPerPixel(0, 0), 500);
+        assertEquals(PolylineSimplifier.metersPerPixel(15, LAT) / 2, PolylineSimplifier.metersPerPixel(16, LAT), 1e-9);
+    }
+
+    private static double metersNorth(double meters) {
+        return meters / GeoMath.METERS_PER_DEGREE_LAT;
+    }
+
+    private static double metersEast(double meters) {
+        return meters / (GeoMath.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(LAT)));
+    }
+}